@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.benchmark;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
+import com.tom_roush.pdfbox.io.IOUtils;
+
+/**
+ * Access to the test files of the library, which are packaged as assets of the benchmarks.
+ */
+final class BenchmarkAssets
+{
+    /**
+     * A multi page document with text in several fonts.
+     */
+    static final String TEXT_DOCUMENT = "pdfbox/input/cweb.pdf";
+
+    /**
+     * A document with embedded CFF fonts.
+     */
+    static final String CFF_DOCUMENT = "pdfbox/input/PDFBOX-3044-010197-p5-ligatures.pdf";
+
+    /**
+     * A TrueType font.
+     */
+    static final String TRUETYPE_FONT = "fontbox/ttf/LiberationSans-Regular.ttf";
+
+    private BenchmarkAssets()
+    {
+    }
+
+    /**
+     * Initializes PDFBox and reads the given asset completely, so that reading it isn't measured.
+     *
+     * @param path the path of the asset.
+     * @return the content of the asset.
+     * @throws IOException if the asset can't be read.
+     */
+    static byte[] read(String path) throws IOException
+    {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        PDFBoxResourceLoader.init(context);
+        InputStream input = context.getAssets().open(path);
+        try
+        {
+            return IOUtils.toByteArray(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+}
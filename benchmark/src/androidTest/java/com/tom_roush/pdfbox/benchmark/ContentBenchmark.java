@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.benchmark;
+
+import android.graphics.Bitmap;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdfparser.PDFStreamParser;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.rendering.PDFRenderer;
+import com.tom_roush.pdfbox.text.PDFTextStripper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Benchmarks of processing the content streams of a document: tokenizing, text extraction and
+ * rendering. Besides the time, the benchmark library reports the number of allocations per
+ * iteration.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContentBenchmark
+{
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private PDDocument document;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        document = PDDocument.load(BenchmarkAssets.read(BenchmarkAssets.TEXT_DOCUMENT));
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        document.close();
+    }
+
+    /**
+     * Split the decoded content streams of all pages into tokens with PDFStreamParser.
+     */
+    @Test
+    public void tokenize() throws IOException
+    {
+        ByteArrayOutputStream contents = new ByteArrayOutputStream();
+        for (PDPage page : document.getPages())
+        {
+            InputStream input = page.getContents();
+            try
+            {
+                IOUtils.copy(input, contents);
+            }
+            finally
+            {
+                input.close();
+            }
+        }
+        byte[] bytes = contents.toByteArray();
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning())
+        {
+            PDFStreamParser parser = new PDFStreamParser(bytes);
+            while (parser.parseNextToken() != null)
+            {
+                // only the tokenizing is measured
+            }
+        }
+    }
+
+    /**
+     * Extract the text of all pages with PDFTextStripper.
+     */
+    @Test
+    public void getText() throws IOException
+    {
+        PDFTextStripper stripper = new PDFTextStripper();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning())
+        {
+            stripper.getText(document);
+        }
+    }
+
+    /**
+     * Render the first page at 72 DPI with PDFRenderer.
+     */
+    @Test
+    public void render() throws IOException
+    {
+        PDFRenderer renderer = new PDFRenderer(document);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning())
+        {
+            Bitmap image = renderer.renderImage(0);
+            image.recycle();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.tom_roush.pdfbox.multipdf.PDFMergerUtility;
+import com.tom_roush.pdfbox.pdfwriter.CompressParameters;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Benchmarks of loading, saving and merging documents. Besides the time, the benchmark library
+ * reports the number of allocations per iteration.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DocumentBenchmark
+{
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private byte[] bytes;
+    private PDDocument document;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        bytes = BenchmarkAssets.read(BenchmarkAssets.TEXT_DOCUMENT);
+        document = PDDocument.load(bytes);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        document.close();
+    }
+
+    /**
+     * Parse a document with COSParser, without accessing any page.
+     */
+    @Test
+    public void load() throws IOException
+    {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning())
+        {
+            PDDocument doc = PDDocument.load(bytes);
+            doc.close();
+        }
+    }
+
+    /**
+     * Write a document with COSWriter using a cross reference table.
+     */
+    @Test
+    public void save() throws IOException
+    {
+        BenchmarkState state = benchmarkRule.getState();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 2);
+        while (state.keepRunning())
+        {
+            output.reset();
+            document.save(output, CompressParameters.NO_COMPRESSION);
+        }
+    }
+
+    /**
+     * Write a document with COSWriter using object streams.
+     */
+    @Test
+    public void saveCompressed() throws IOException
+    {
+        BenchmarkState state = benchmarkRule.getState();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 2);
+        while (state.keepRunning())
+        {
+            output.reset();
+            document.save(output, CompressParameters.DEFAULT_COMPRESSION);
+        }
+    }
+
+    /**
+     * Append all pages of a document to an empty document with PDFMergerUtility.
+     */
+    @Test
+    public void merge() throws IOException
+    {
+        BenchmarkState state = benchmarkRule.getState();
+        PDFMergerUtility merger = new PDFMergerUtility();
+        while (state.keepRunning())
+        {
+            PDDocument destination = new PDDocument();
+            merger.appendDocument(destination, document);
+            destination.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.filter.Filter;
+import com.tom_roush.pdfbox.filter.FilterFactory;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Benchmarks of the stream filters. Besides the time, the benchmark library reports the number of
+ * allocations per iteration.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FilterBenchmark
+{
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private byte[] decoded;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        // the content streams of a document are typical Flate encoded data
+        PDDocument document = PDDocument.load(BenchmarkAssets.read(BenchmarkAssets.TEXT_DOCUMENT));
+        try
+        {
+            ByteArrayOutputStream contents = new ByteArrayOutputStream();
+            for (PDPage page : document.getPages())
+            {
+                InputStream input = page.getContents();
+                try
+                {
+                    IOUtils.copy(input, contents);
+                }
+                finally
+                {
+                    input.close();
+                }
+            }
+            decoded = contents.toByteArray();
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+
+    /**
+     * Decode Flate encoded data with FlateFilter.
+     */
+    @Test
+    public void flateDecode() throws IOException
+    {
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        COSDictionary parameters = new COSDictionary();
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        filter.encode(new ByteArrayInputStream(decoded), encoded, parameters, 0);
+        byte[] bytes = encoded.toByteArray();
+
+        BenchmarkState state = benchmarkRule.getState();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(decoded.length);
+        while (state.keepRunning())
+        {
+            output.reset();
+            filter.decode(new ByteArrayInputStream(bytes), output, parameters, 0);
+        }
+    }
+}
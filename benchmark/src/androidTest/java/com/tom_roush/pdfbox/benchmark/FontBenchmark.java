@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import com.tom_roush.fontbox.cff.CFFParser;
+import com.tom_roush.fontbox.ttf.TTFParser;
+import com.tom_roush.fontbox.ttf.TrueTypeFont;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.PDResources;
+import com.tom_roush.pdfbox.pdmodel.common.PDStream;
+import com.tom_roush.pdfbox.pdmodel.font.PDFont;
+import com.tom_roush.pdfbox.pdmodel.font.PDFontDescriptor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Benchmarks of parsing font programs. Besides the time, the benchmark library reports the number
+ * of allocations per iteration.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FontBenchmark
+{
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    /**
+     * Parse all tables of a TrueType font with TTFParser.
+     */
+    @Test
+    public void parseTrueType() throws IOException
+    {
+        byte[] bytes = BenchmarkAssets.read(BenchmarkAssets.TRUETYPE_FONT);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning())
+        {
+            TrueTypeFont font = new TTFParser().parse(new ByteArrayInputStream(bytes));
+            font.close();
+        }
+    }
+
+    /**
+     * Parse a CFF font embedded in a document with CFFParser.
+     */
+    @Test
+    public void parseCFF() throws IOException
+    {
+        byte[] bytes = findCFFFont();
+        assertNotNull("no CFF font found", bytes);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning())
+        {
+            new CFFParser().parse(bytes);
+        }
+    }
+
+    private static byte[] findCFFFont() throws IOException
+    {
+        PDDocument document = PDDocument.load(BenchmarkAssets.read(BenchmarkAssets.CFF_DOCUMENT));
+        try
+        {
+            for (PDPage page : document.getPages())
+            {
+                PDResources resources = page.getResources();
+                for (COSName name : resources.getFontNames())
+                {
+                    PDFont font = resources.getFont(name);
+                    PDFontDescriptor descriptor = font == null ? null : font.getFontDescriptor();
+                    PDStream fontFile3 = descriptor == null ? null : descriptor.getFontFile3();
+                    if (fontFile3 != null && !COSName.OPEN_TYPE.equals(
+                        fontFile3.getCOSObject().getCOSName(COSName.SUBTYPE)))
+                    {
+                        return fontFile3.toByteArray();
+                    }
+                }
+            }
+            return null;
+        }
+        finally
+        {
+            document.close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdmodel.graphics.image;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import com.tom_roush.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import com.tom_roush.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test that regions of an image are decoded with the same pixels as the whole image, and that
+ * decoded regions are cached.
+ */
+public class SampledImageReaderTest
+{
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 29;
+
+    private PDDocument document;
+
+    @Before
+    public void setUp()
+    {
+        document = new PDDocument();
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        document.close();
+    }
+
+    /**
+     * Regions of a 1 bit image, starting within a byte.
+     */
+    @Test
+    public void testRegion1Bit() throws IOException
+    {
+        int stride = (WIDTH + 7) / 8;
+        byte[] data = createData(stride * HEIGHT);
+        checkRegions(createImage(data, 1, PDDeviceGray.INSTANCE, null));
+        checkRegions(createImage(deflate(data), 1, PDDeviceGray.INSTANCE, COSName.FLATE_DECODE));
+    }
+
+    /**
+     * Regions of an 8 bit gray image.
+     */
+    @Test
+    public void testRegion8BitGray() throws IOException
+    {
+        byte[] data = createData(WIDTH * HEIGHT);
+        checkRegions(createImage(data, 8, PDDeviceGray.INSTANCE, null));
+        checkRegions(createImage(deflate(data), 8, PDDeviceGray.INSTANCE, COSName.FLATE_DECODE));
+    }
+
+    /**
+     * Regions of an 8 bit RGB image, which has several bands per pixel.
+     */
+    @Test
+    public void testRegion8BitRGB() throws IOException
+    {
+        byte[] data = createData(WIDTH * HEIGHT * 3);
+        checkRegions(createImage(data, 8, PDDeviceRGB.INSTANCE, null));
+        checkRegions(createImage(deflate(data), 8, PDDeviceRGB.INSTANCE, COSName.FLATE_DECODE));
+    }
+
+    /**
+     * A region is decoded once, until another region or subsampling is requested.
+     */
+    @Test
+    public void testRegionCache() throws IOException
+    {
+        PDImageXObject image = createImage(createData(WIDTH * HEIGHT * 3), 8,
+            PDDeviceRGB.INSTANCE, null);
+        Bitmap tile = image.getImage(new Rect(3, 5, 20, 16), 1);
+
+        // the same region, in another Rect
+        assertSame(tile, image.getImage(new Rect(3, 5, 20, 16), 1));
+
+        // other regions and subsamplings
+        assertNotSame(tile, image.getImage(new Rect(3, 5, 20, 17), 1));
+        assertNotSame(tile, image.getImage(new Rect(4, 5, 20, 16), 1));
+        Bitmap subsampled = image.getImage(new Rect(3, 5, 20, 16), 2);
+        assertNotSame(tile, subsampled);
+        assertNotSame(tile, image.getImage());
+
+        // the previous tiles are still cached
+        assertSame(tile, image.getImage(new Rect(3, 5, 20, 16), 1));
+        assertSame(subsampled, image.getImage(new Rect(3, 5, 20, 16), 2));
+    }
+
+    private void checkRegions(PDImageXObject image) throws IOException
+    {
+        Bitmap full = SampledImageReader.getRGBImage(image, null);
+        assertEquals(WIDTH, full.getWidth());
+        assertEquals(HEIGHT, full.getHeight());
+
+        checkRegion(image, full, new Rect(0, 0, WIDTH, HEIGHT), 1);
+        checkRegion(image, full, new Rect(1, 1, 2, 2), 1);
+        checkRegion(image, full, new Rect(3, 5, 20, 16), 1);
+        checkRegion(image, full, new Rect(7, 0, 9, HEIGHT), 1);
+        checkRegion(image, full, new Rect(0, 13, WIDTH, 14), 1);
+        checkRegion(image, full, new Rect(11, 17, WIDTH, HEIGHT), 1);
+        // regions beyond the image are clipped
+        checkRegion(image, full, new Rect(-5, -3, 9, 7), 1);
+        checkRegion(image, full, new Rect(29, 21, WIDTH + 10, HEIGHT + 10), 1);
+
+        // subsampled regions, aligned to the subsampling
+        checkRegion(image, full, new Rect(4, 6, 24, 20), 2);
+        checkRegion(image, full, new Rect(6, 3, 33, 27), 3);
+    }
+
+    private void checkRegion(PDImageXObject image, Bitmap full, Rect region, int subsampling)
+        throws IOException
+    {
+        Rect clipped = new Rect(region);
+        clipped.intersect(0, 0, WIDTH, HEIGHT);
+        Bitmap actual = SampledImageReader.getRGBImage(image, region, subsampling, null);
+        Bitmap expected;
+        if (subsampling == 1)
+        {
+            expected = Bitmap.createBitmap(full, clipped.left, clipped.top, clipped.width(),
+                clipped.height());
+        }
+        else
+        {
+            int width = clipped.width() / subsampling;
+            int height = clipped.height() / subsampling;
+            expected = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            for (int y = 0; y < height; y++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    expected.setPixel(x, y, full.getPixel(clipped.left + x * subsampling,
+                        clipped.top + y * subsampling));
+                }
+            }
+        }
+        ValidateXImage.checkIdent(expected, actual);
+    }
+
+    private PDImageXObject createImage(byte[] data, int bitsPerComponent,
+        PDColorSpace colorSpace, COSName filter) throws IOException
+    {
+        return new PDImageXObject(document, new ByteArrayInputStream(data), filter, WIDTH,
+            HEIGHT, bitsPerComponent, colorSpace);
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        new Random(4711).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DeflaterOutputStream out = new DeflaterOutputStream(baos);
+        out.write(data);
+        out.close();
+        return baos.toByteArray();
+    }
+}
@@ -27,6 +27,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
@@ -34,6 +36,9 @@ import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  * Functional test for PDF rendering. This test simply tries to render
  * a series of PDFs using PDFBox to make sure that no exceptions are thrown.
@@ -112,6 +117,49 @@ public class TestRendering
         }
     }
 
+    /**
+     * Render all pages of each document in parallel and compare the result with the pages rendered
+     * one after another.
+     */
+    @Test
+    public void testParallelRendering() throws IOException
+    {
+        ArrayList<String> testFiles = new ArrayList<>();
+        findAssetPDFs(INPUT_DIR, testFiles);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (String testFile : testFiles)
+            {
+                PDDocument document = PDDocument.load(testContext.getAssets().open(testFile));
+                try
+                {
+                    PDFRenderer renderer = new PDFRenderer(document);
+                    int[] pages = new int[document.getNumberOfPages()];
+                    for (int i = 0; i < pages.length; i++)
+                    {
+                        pages[i] = i;
+                    }
+                    Bitmap[] images = renderer.renderPages(pages, 72, executor);
+                    assertEquals(pages.length, images.length);
+                    for (int i = 0; i < pages.length; i++)
+                    {
+                        assertTrue(testFile + " page " + (i + 1),
+                            renderer.renderImage(i).sameAs(images[i]));
+                    }
+                }
+                finally
+                {
+                    document.close();
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     public void render(String fileName) throws IOException
     {
         PDDocument document = PDDocument.load(testContext.getAssets().open(fileName));
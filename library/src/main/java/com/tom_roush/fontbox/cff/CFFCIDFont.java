@@ -229,11 +229,7 @@ public class CFFCIDFont extends CFFFont
         {
             int gid = charset.getGIDForCID(cid);
 
-            byte[] bytes = charStrings[gid];
-            if (bytes == null)
-            {
-                bytes = charStrings[0]; // .notdef
-            }
+            byte[] bytes = getCharString(gid);
             Type2CharStringParser parser = new Type2CharStringParser(fontName, cid);
             List<Object> type2seq = parser.parse(bytes, globalSubrIndex, getLocalSubrIndex(gid));
             type2 = new CIDKeyedType2CharString(reader, fontName, cid, gid, type2seq,
@@ -18,6 +18,7 @@ package com.tom_roush.fontbox.cff;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,7 +37,7 @@ public abstract class CFFFont implements FontBoxFont
     protected String fontName;
     protected final Map<String, Object> topDict = new LinkedHashMap<String, Object>();
     protected CFFCharset charset;
-    protected byte[][] charStrings;
+    CharStringIndex charStrings;
     protected byte[][] globalSubrIndex;
     private CFFParser.ByteSource source;
 
@@ -128,7 +129,19 @@ public abstract class CFFFont implements FontBoxFont
      */
     public final List<byte[]> getCharStringBytes()
     {
-        return Arrays.asList(charStrings);
+        return Collections.unmodifiableList(charStrings);
+    }
+
+    /**
+     * Returns the charstring with the given GID, or the one of .notdef if the GID is out of
+     * range.
+     *
+     * @param gid GID
+     * @return the bytes of the charstring
+     */
+    final byte[] getCharString(int gid)
+    {
+        return charStrings.get(gid >= 0 && gid < charStrings.size() ? gid : 0);
     }
 
     /**
@@ -152,7 +165,7 @@ public abstract class CFFFont implements FontBoxFont
      */
     public int getNumCharStrings()
     {
-        return charStrings.length;
+        return charStrings.size();
     }
 
     /**
@@ -187,7 +200,7 @@ public abstract class CFFFont implements FontBoxFont
     public String toString()
     {
         return getClass().getSimpleName() + "[name=" + fontName + ", topDict=" + topDict
-            + ", charset=" + charset + ", charStrings=" + Arrays.deepToString(charStrings)
+            + ", charset=" + charset + ", charStrings=" + Arrays.deepToString(charStrings.toArray())
             + "]";
     }
 }
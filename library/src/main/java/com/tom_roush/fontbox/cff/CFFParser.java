@@ -486,7 +486,7 @@ public class CFFParser
         }
         int charStringsOffset = charStringsEntry.getNumber(0).intValue();
         input.setPosition(charStringsOffset);
-        byte[][] charStringsIndex = readIndexData(input);
+        CharStringIndex charStringsIndex = CharStringIndex.read(input);
         if (charStringsIndex == null)
         {
             throw new IOException("CharStringsIndex is missing");
@@ -513,7 +513,7 @@ public class CFFParser
             else
             {
                 input.setPosition(charsetId);
-                charset = readCharset(input, charStringsIndex.length, isCIDFont);
+                charset = readCharset(input, charStringsIndex.size(), isCIDFont);
             }
         }
         else
@@ -521,7 +521,7 @@ public class CFFParser
             if (isCIDFont)
             {
                 // a CID font with no charset does not default to any predefined charset
-                charset = new EmptyCharset(charStringsIndex.length);
+                charset = new EmptyCharset(charStringsIndex.size());
             }
             else
             {
@@ -536,7 +536,7 @@ public class CFFParser
         // format-specific dictionaries
         if (isCIDFont)
         {
-            parseCIDFontDicts(input, topDict, (CFFCIDFont) font, charStringsIndex.length);
+            parseCIDFontDicts(input, topDict, (CFFCIDFont) font, charStringsIndex.size());
 
             List<Number> privMatrix = null;
             List<Map<String, Object>> fontDicts = ((CFFCIDFont) font).getFontDicts();
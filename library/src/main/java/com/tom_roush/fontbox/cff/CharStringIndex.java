@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.fontbox.cff;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * The CharStrings INDEX of a CFF font. Only the offset array is read when the font is parsed, a
+ * charstring is copied from the font data when it is requested. Fonts with many glyphs, e.g.
+ * CJK fonts, don't need an array for every glyph this way, most of which are never rendered.
+ */
+final class CharStringIndex extends AbstractList<byte[]>
+{
+    private final byte[] data;
+    // start of each charstring in the data, followed by the end of the last one
+    private final int[] starts;
+
+    /**
+     * Reads the offset array of the INDEX at the current position of the input. The input is
+     * positioned after the INDEX afterwards.
+     *
+     * @param input the CFF data
+     * @return the index, or null if the INDEX is empty
+     * @throws IOException if the offsets are invalid
+     */
+    static CharStringIndex read(CFFDataInput input) throws IOException
+    {
+        int count = input.readCard16();
+        if (count == 0)
+        {
+            return null;
+        }
+        int offSize = input.readOffSize();
+        int[] starts = new int[count + 1];
+        for (int i = 0; i <= count; i++)
+        {
+            starts[i] = input.readOffset(offSize);
+            if (i > 0 && starts[i] < starts[i - 1])
+            {
+                throw new IOException("Negative charstring length at " + (i - 1));
+            }
+        }
+        // the offsets are relative to the byte in front of the data, the data of the first
+        // charstring starts directly after the offset array
+        int dataStart = input.getPosition() - starts[0];
+        for (int i = 0; i <= count; i++)
+        {
+            starts[i] += dataStart;
+        }
+        byte[] data = input.getBuffer();
+        if (starts[count] > data.length)
+        {
+            throw new EOFException();
+        }
+        input.setPosition(starts[count]);
+        return new CharStringIndex(data, starts);
+    }
+
+    private CharStringIndex(byte[] data, int[] starts)
+    {
+        this.data = data;
+        this.starts = starts;
+    }
+
+    /**
+     * Returns a copy of the charstring with the given GID.
+     *
+     * @param gid the GID
+     * @return the bytes of the charstring
+     */
+    @Override
+    public byte[] get(int gid)
+    {
+        if (gid < 0 || gid >= starts.length - 1)
+        {
+            throw new IndexOutOfBoundsException("GID " + gid + " of " + (starts.length - 1));
+        }
+        return Arrays.copyOfRange(data, starts[gid], starts[gid + 1]);
+    }
+
+    /**
+     * Returns the number of charstrings.
+     */
+    @Override
+    public int size()
+    {
+        return starts.length - 1;
+    }
+}
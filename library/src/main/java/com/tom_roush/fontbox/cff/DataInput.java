@@ -68,6 +68,15 @@ public class DataInput
         bufferPosition = position;
     }
 
+    /**
+     * Returns the buffer which is read. It is shared, not copied, and must not be modified.
+     * @return the buffer
+     */
+    byte[] getBuffer()
+    {
+        return inputBuffer;
+    }
+
     /**
      * Returns the buffer as an ISO-8859-1 string.
      * @return the buffer as string
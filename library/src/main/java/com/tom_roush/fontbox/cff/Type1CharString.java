@@ -89,7 +89,7 @@ public class Type1CharString
      * Returns the bounds of the renderer path.
      * @return the bounds as RectF
      */
-    public RectF getBounds()
+    public synchronized RectF getBounds()
     {
         if (path == null)
         {
@@ -104,7 +104,7 @@ public class Type1CharString
      * Returns the advance width of the glyph.
      * @return the width
      */
-    public int getWidth()
+    public synchronized int getWidth()
     {
         if (path == null)
         {
@@ -117,7 +117,7 @@ public class Type1CharString
      * Returns the path of the character.
      * @return the path
      */
-    public Path getPath()
+    public synchronized Path getPath()
     {
         if (path == null)
         {
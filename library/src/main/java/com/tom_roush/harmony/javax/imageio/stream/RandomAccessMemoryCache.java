@@ -181,18 +181,19 @@ public final class RandomAccessMemoryCache {
         while (count > 0) {
             byte[] block = blocks.get(blockIdx);
             int toCopy = Math.min(BLOCK_SIZE - offset, count);
-            count -= toCopy;
-            bytesAppended += toCopy;
 
             while (toCopy > 0) {
                 int bytesRead = is.read(block, offset, toCopy);
 
                 if (bytesRead < 0) {
-                    length -= (count - bytesAppended);
+                    // only count the bytes which could be read
+                    length = startPos + bytesAppended;
                     return bytesAppended;
                 }
 
                 toCopy -= bytesRead;
+                count -= bytesRead;
+                bytesAppended += bytesRead;
                 offset += bytesRead;
             }
 
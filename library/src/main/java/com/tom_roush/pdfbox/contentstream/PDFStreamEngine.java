@@ -25,13 +25,13 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
+import com.tom_roush.pdfbox.contentstream.operator.OperandList;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.contentstream.operator.state.EmptyGraphicsStackException;
@@ -531,21 +531,15 @@ public abstract class PDFStreamEngine
      */
     private void processStreamOperators(PDContentStream contentStream) throws IOException
     {
-        List<COSBase> arguments = new ArrayList<COSBase>();
+        // the numeric operands are kept as primitive values, see OperatorProcessor.getFloat()
+        OperandList arguments = new OperandList();
         PDFStreamParser parser = new PDFStreamParser(contentStream);
-        Object token = parser.parseNextToken();
-        while (token != null)
+        Operator operator = parser.parseNextOperator(arguments);
+        while (operator != null)
         {
-            if (token instanceof Operator)
-            {
-                processOperator((Operator) token, arguments);
-                arguments.clear();
-            }
-            else
-            {
-                arguments.add((COSBase) token);
-            }
-            token = parser.parseNextToken();
+            processOperator(operator, arguments);
+            arguments.clear();
+            operator = parser.parseNextOperator(arguments);
         }
     }
 
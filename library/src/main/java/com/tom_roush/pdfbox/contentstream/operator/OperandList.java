@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.contentstream.operator;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSFloat;
+import com.tom_roush.pdfbox.cos.COSInteger;
+import com.tom_roush.pdfbox.cos.COSNumber;
+
+/**
+ * The operands of an operator in a content stream. Numbers are kept as primitive values and are
+ * only wrapped into a {@link COSNumber} if they are accessed by {@link #get(int)}, operator
+ * processors should use {@link #isNumber(int)} and {@link #getFloat(int)} instead. The list is
+ * reused for all operators of a content stream.
+ *
+ * @see com.tom_roush.pdfbox.pdfparser.PDFStreamParser#parseNextOperator(OperandList)
+ */
+public final class OperandList extends AbstractList<COSBase> implements RandomAccess
+{
+    private static final byte OBJECT = 0;
+    private static final byte INTEGER = 1;
+    private static final byte FLOAT = 2;
+
+    private byte[] types = new byte[8];
+    private long[] integers = new long[8];
+    private float[] floats = new float[8];
+    // the operands which aren't numbers and the numbers which were already wrapped
+    private COSBase[] objects = new COSBase[8];
+    private int size;
+
+    /**
+     * Appends an integer operand.
+     *
+     * @param value the value of the operand.
+     */
+    public void addInteger(long value)
+    {
+        int index = append();
+        types[index] = INTEGER;
+        integers[index] = value;
+    }
+
+    /**
+     * Appends a real operand.
+     *
+     * @param value the value of the operand.
+     */
+    public void addFloat(float value)
+    {
+        int index = append();
+        types[index] = FLOAT;
+        floats[index] = value;
+    }
+
+    /**
+     * Indicates whether the operand at the given index is a number.
+     *
+     * @param index the index of the operand.
+     * @return true if the operand is a number.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public boolean isNumber(int index)
+    {
+        checkIndex(index);
+        return types[index] != OBJECT || objects[index] instanceof COSNumber;
+    }
+
+    /**
+     * Returns the float value of the number operand at the given index.
+     *
+     * @param index the index of the operand.
+     * @return the value of the operand.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     * @throws ClassCastException if the operand isn't a number.
+     */
+    public float getFloat(int index)
+    {
+        checkIndex(index);
+        switch (types[index])
+        {
+            case INTEGER:
+                return integers[index];
+            case FLOAT:
+                return floats[index];
+            default:
+                return ((COSNumber) objects[index]).floatValue();
+        }
+    }
+
+    /**
+     * Returns the int value of the number operand at the given index.
+     *
+     * @param index the index of the operand.
+     * @return the value of the operand, truncated if it isn't an integer.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     * @throws ClassCastException if the operand isn't a number.
+     */
+    public int getInt(int index)
+    {
+        checkIndex(index);
+        switch (types[index])
+        {
+            case INTEGER:
+                return (int) integers[index];
+            case FLOAT:
+                return (int) floats[index];
+            default:
+                return ((COSNumber) objects[index]).intValue();
+        }
+    }
+
+    @Override
+    public COSBase get(int index)
+    {
+        checkIndex(index);
+        COSBase object = objects[index];
+        if (object == null)
+        {
+            if (types[index] == INTEGER)
+            {
+                object = COSInteger.get(integers[index]);
+            }
+            else
+            {
+                object = new COSFloat(floats[index]);
+            }
+            objects[index] = object;
+        }
+        return object;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public COSBase set(int index, COSBase element)
+    {
+        COSBase previous = get(index);
+        types[index] = OBJECT;
+        objects[index] = element;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, COSBase element)
+    {
+        if (index < 0 || index > size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        append();
+        int moved = size - 1 - index;
+        System.arraycopy(types, index, types, index + 1, moved);
+        System.arraycopy(integers, index, integers, index + 1, moved);
+        System.arraycopy(floats, index, floats, index + 1, moved);
+        System.arraycopy(objects, index, objects, index + 1, moved);
+        types[index] = OBJECT;
+        objects[index] = element;
+    }
+
+    @Override
+    public COSBase remove(int index)
+    {
+        COSBase previous = get(index);
+        int moved = size - 1 - index;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(integers, index + 1, integers, index, moved);
+        System.arraycopy(floats, index + 1, floats, index, moved);
+        System.arraycopy(objects, index + 1, objects, index, moved);
+        size--;
+        objects[size] = null;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            objects[i] = null;
+        }
+        size = 0;
+        modCount++;
+    }
+
+    // adds an empty slot at the end and returns its index
+    private int append()
+    {
+        if (size == types.length)
+        {
+            int capacity = size * 2;
+            byte[] newTypes = new byte[capacity];
+            long[] newIntegers = new long[capacity];
+            float[] newFloats = new float[capacity];
+            COSBase[] newObjects = new COSBase[capacity];
+            System.arraycopy(types, 0, newTypes, 0, size);
+            System.arraycopy(integers, 0, newIntegers, 0, size);
+            System.arraycopy(floats, 0, newFloats, 0, size);
+            System.arraycopy(objects, 0, newObjects, 0, size);
+            types = newTypes;
+            integers = newIntegers;
+            floats = newFloats;
+            objects = newObjects;
+        }
+        objects[size] = null;
+        modCount++;
+        return size++;
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -18,8 +18,10 @@ package com.tom_roush.pdfbox.contentstream.operator;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.util.Charsets;
 
 /**
  * An Operator in a PDF content stream.
@@ -35,6 +37,15 @@ public final class Operator
     /** map for singleton operator objects; use {@link ConcurrentHashMap} for better scalability with multiple threads */
     private static final ConcurrentMap<String,Operator> operators = new ConcurrentHashMap<String, Operator>();
 
+    // open addressing table of the operators with up to 4 characters, keyed by their packed bytes,
+    // so that these can be looked up without creating a string, see getOperator(byte[], int)
+    private static final int CODE_TABLE_SIZE = 512;
+    private static final int MAX_CODE_LENGTH = 4;
+    private static final int[] codes = new int[CODE_TABLE_SIZE];
+    private static final AtomicReferenceArray<Operator> codeOperators =
+        new AtomicReferenceArray<Operator>(CODE_TABLE_SIZE);
+    private static int codeCount;
+
     /**
      * Constructor.
      *
@@ -84,6 +95,72 @@ public final class Operator
         return operation;
     }
 
+    /**
+     * This is used to create/cache operators in the system, like {@link #getOperator(String)}. Short
+     * operators which were looked up before are returned without creating a string.
+     *
+     * @param bytes the buffer holding the operator keyword, starting at index 0.
+     * @param length the length of the operator keyword.
+     *
+     * @return The operator that matches the operator keyword.
+     */
+    public static Operator getOperator(byte[] bytes, int length)
+    {
+        if (length == 0 || length > MAX_CODE_LENGTH)
+        {
+            return getOperator(new String(bytes, 0, length, Charsets.ISO_8859_1));
+        }
+        int code = 0;
+        for (int i = 0; i < length; i++)
+        {
+            code = code << 8 | bytes[i] & 0xff;
+        }
+        int start = (code * 0x9E3779B9 >>> 16) & (CODE_TABLE_SIZE - 1);
+        int index = start;
+        Operator operation;
+        // the code is written before the operator is published
+        while ((operation = codeOperators.get(index)) != null)
+        {
+            if (codes[index] == code)
+            {
+                return operation;
+            }
+            index = (index + 1) & (CODE_TABLE_SIZE - 1);
+        }
+        operation = getOperator(new String(bytes, 0, length, Charsets.ISO_8859_1));
+        // like above, the ID operators aren't cached
+        if (!OperatorName.BEGIN_INLINE_IMAGE.equals(operation.getName())
+            && !OperatorName.BEGIN_INLINE_IMAGE_DATA.equals(operation.getName()))
+        {
+            addCode(start, code, operation);
+        }
+        return operation;
+    }
+
+    private static void addCode(int start, int code, Operator operation)
+    {
+        synchronized (codes)
+        {
+            // keep the table sparse, junk operators are looked up by name
+            if (codeCount >= CODE_TABLE_SIZE / 2)
+            {
+                return;
+            }
+            int index = start;
+            while (codeOperators.get(index) != null)
+            {
+                if (codes[index] == code)
+                {
+                    return;
+                }
+                index = (index + 1) & (CODE_TABLE_SIZE - 1);
+            }
+            codes[index] = code;
+            codeOperators.set(index, operation);
+            codeCount++;
+        }
+    }
+
     /**
      * This will get the name of the operator.
      *
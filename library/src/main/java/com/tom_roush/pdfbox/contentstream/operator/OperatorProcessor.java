@@ -21,6 +21,7 @@ import java.util.List;
 
 import com.tom_roush.pdfbox.contentstream.PDFStreamEngine;
 import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSNumber;
 
 /**
  * Processes a PDF operator.
@@ -79,6 +80,18 @@ public abstract class OperatorProcessor
      */
     public boolean checkArrayTypesClass(List<COSBase> operands, Class<?> clazz)
     {
+        if (clazz == COSNumber.class && operands instanceof OperandList)
+        {
+            // don't create the numbers
+            for (int i = 0; i < operands.size(); i++)
+            {
+                if (!((OperandList) operands).isNumber(i))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
         for (COSBase base : operands)
         {
             if (!clazz.isInstance(base))
@@ -88,4 +101,39 @@ public abstract class OperatorProcessor
         }
         return true;
     }
+
+    /**
+     * Check whether the operand at the given index is a number. The operands parsed by
+     * {@link PDFStreamEngine} are checked without creating a {@link COSNumber}.
+     *
+     * @param operands The operands list.
+     * @param index The index of the operand.
+     * @return true if the operand is a number.
+     */
+    protected static boolean isNumber(List<COSBase> operands, int index)
+    {
+        if (operands instanceof OperandList)
+        {
+            return ((OperandList) operands).isNumber(index);
+        }
+        return operands.get(index) instanceof COSNumber;
+    }
+
+    /**
+     * Returns the float value of the number operand at the given index. The operands parsed by
+     * {@link PDFStreamEngine} are read without creating a {@link COSNumber}.
+     *
+     * @param operands The operands list.
+     * @param index The index of the operand.
+     * @return the value of the operand.
+     * @throws ClassCastException if the operand isn't a number.
+     */
+    protected static float getFloat(List<COSBase> operands, int index)
+    {
+        if (operands instanceof OperandList)
+        {
+            return ((OperandList) operands).getFloat(index);
+        }
+        return ((COSNumber) operands.get(index)).floatValue();
+    }
 }
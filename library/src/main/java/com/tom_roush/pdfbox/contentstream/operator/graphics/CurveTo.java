@@ -46,16 +46,16 @@ public class CurveTo extends GraphicsOperatorProcessor
         {
             return;
         }
-        COSNumber x1 = (COSNumber)operands.get(0);
-        COSNumber y1 = (COSNumber)operands.get(1);
-        COSNumber x2 = (COSNumber)operands.get(2);
-        COSNumber y2 = (COSNumber)operands.get(3);
-        COSNumber x3 = (COSNumber)operands.get(4);
-        COSNumber y3 = (COSNumber)operands.get(5);
+        float x1 = getFloat(operands, 0);
+        float y1 = getFloat(operands, 1);
+        float x2 = getFloat(operands, 2);
+        float y2 = getFloat(operands, 3);
+        float x3 = getFloat(operands, 4);
+        float y3 = getFloat(operands, 5);
 
-        PointF point1 = context.transformedPoint(x1.floatValue(), y1.floatValue());
-        PointF point2 = context.transformedPoint(x2.floatValue(), y2.floatValue());
-        PointF point3 = context.transformedPoint(x3.floatValue(), y3.floatValue());
+        PointF point1 = context.transformedPoint(x1, y1);
+        PointF point2 = context.transformedPoint(x2, y2);
+        PointF point3 = context.transformedPoint(x3, y3);
 
         if (context.getCurrentPoint() == null)
         {
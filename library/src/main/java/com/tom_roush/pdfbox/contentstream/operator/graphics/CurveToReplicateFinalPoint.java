@@ -45,13 +45,13 @@ public final class CurveToReplicateFinalPoint extends GraphicsOperatorProcessor
         {
             return;
         }
-        COSNumber x1 = (COSNumber)operands.get(0);
-        COSNumber y1 = (COSNumber)operands.get(1);
-        COSNumber x3 = (COSNumber)operands.get(2);
-        COSNumber y3 = (COSNumber)operands.get(3);
+        float x1 = getFloat(operands, 0);
+        float y1 = getFloat(operands, 1);
+        float x3 = getFloat(operands, 2);
+        float y3 = getFloat(operands, 3);
 
-        PointF point1 = context.transformedPoint(x1.floatValue(), y1.floatValue());
-        PointF point3 = context.transformedPoint(x3.floatValue(), y3.floatValue());
+        PointF point1 = context.transformedPoint(x1, y1);
+        PointF point3 = context.transformedPoint(x3, y3);
 
         context.curveTo(point1.x, point1.y,
             point3.x, point3.y,
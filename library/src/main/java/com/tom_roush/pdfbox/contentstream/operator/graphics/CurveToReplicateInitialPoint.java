@@ -46,15 +46,15 @@ public class CurveToReplicateInitialPoint extends GraphicsOperatorProcessor
         {
             return;
         }
-        COSNumber x2 = (COSNumber)operands.get(0);
-        COSNumber y2 = (COSNumber)operands.get(1);
-        COSNumber x3 = (COSNumber)operands.get(2);
-        COSNumber y3 = (COSNumber)operands.get(3);
+        float x2 = getFloat(operands, 0);
+        float y2 = getFloat(operands, 1);
+        float x3 = getFloat(operands, 2);
+        float y3 = getFloat(operands, 3);
 
         PointF currentPoint = context.getCurrentPoint();
 
-        PointF point2 = context.transformedPoint(x2.floatValue(), y2.floatValue());
-        PointF point3 = context.transformedPoint(x3.floatValue(), y3.floatValue());
+        PointF point2 = context.transformedPoint(x2, y2);
+        PointF point3 = context.transformedPoint(x3, y3);
 
         if (currentPoint == null)
         {
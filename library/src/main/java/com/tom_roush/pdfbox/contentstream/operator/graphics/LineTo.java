@@ -26,7 +26,6 @@ import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 /**
  * l Append straight line segment to path.
@@ -42,21 +41,15 @@ public class LineTo extends GraphicsOperatorProcessor
         {
             throw new MissingOperandException(operator, operands);
         }
-        COSBase base0 = operands.get(0);
-        if (!(base0 instanceof COSNumber))
-        {
-            return;
-        }
-        COSBase base1 = operands.get(1);
-        if (!(base1 instanceof COSNumber))
+        if (!isNumber(operands, 0) || !isNumber(operands, 1))
         {
             return;
         }
         // append straight line segment from the current point to the point
-        COSNumber x = (COSNumber) base0;
-        COSNumber y = (COSNumber) base1;
+        float x = getFloat(operands, 0);
+        float y = getFloat(operands, 1);
 
-        PointF pos = context.transformedPoint(x.floatValue(), y.floatValue());
+        PointF pos = context.transformedPoint(x, y);
 
         if (context.getCurrentPoint() == null)
         {
@@ -25,7 +25,6 @@ import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 /**
  * m Begins a new subpath.
@@ -41,19 +40,13 @@ public final class MoveTo extends GraphicsOperatorProcessor
         {
             throw new MissingOperandException(operator, operands);
         }
-        COSBase base0 = operands.get(0);
-        if (!(base0 instanceof COSNumber))
+        if (!isNumber(operands, 0) || !isNumber(operands, 1))
         {
             return;
         }
-        COSBase base1 = operands.get(1);
-        if (!(base1 instanceof COSNumber))
-        {
-            return;
-        }
-        COSNumber x = (COSNumber) base0;
-        COSNumber y = (COSNumber) base1;
-        PointF pos = context.transformedPoint(x.floatValue(), y.floatValue());
+        float x = getFloat(operands, 0);
+        float y = getFloat(operands, 1);
+        PointF pos = context.transformedPoint(x, y);
         context.moveTo(pos.x, pos.y);
     }
 
@@ -24,7 +24,6 @@ import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 /**
  * w: Set line width.
@@ -40,8 +39,7 @@ public class SetLineWidth extends OperatorProcessor
         {
             throw new MissingOperandException(operator, arguments);
         }
-        COSNumber width = (COSNumber) arguments.get(0);
-        context.getGraphicsState().setLineWidth(width.floatValue());
+        context.getGraphicsState().setLineWidth(getFloat(arguments, 0));
     }
 
     @Override
@@ -45,15 +45,14 @@ public class SetMatrix extends OperatorProcessor
             return;
         }
 
-        COSNumber a = (COSNumber)arguments.get( 0 );
-        COSNumber b = (COSNumber)arguments.get( 1 );
-        COSNumber c = (COSNumber)arguments.get( 2 );
-        COSNumber d = (COSNumber)arguments.get( 3 );
-        COSNumber e = (COSNumber)arguments.get( 4 );
-        COSNumber f = (COSNumber)arguments.get( 5 );
+        float a = getFloat(arguments, 0);
+        float b = getFloat(arguments, 1);
+        float c = getFloat(arguments, 2);
+        float d = getFloat(arguments, 3);
+        float e = getFloat(arguments, 4);
+        float f = getFloat(arguments, 5);
 
-        Matrix matrix = new Matrix(a.floatValue(), b.floatValue(), c.floatValue(),
-            d.floatValue(), e.floatValue(), f.floatValue());
+        Matrix matrix = new Matrix(a, b, c, d, e, f);
 
         context.setTextMatrix(matrix);
         context.setTextLineMatrix(matrix.clone());
@@ -25,7 +25,6 @@ import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.util.Matrix;
 
 /**
@@ -49,20 +48,14 @@ public class MoveText extends OperatorProcessor
             return;
         }
 
-        COSBase base0 = arguments.get(0);
-        COSBase base1 = arguments.get(1);
-        if (!(base0 instanceof COSNumber))
+        if (!isNumber(arguments, 0) || !isNumber(arguments, 1))
         {
             return;
         }
-        if (!(base1 instanceof COSNumber))
-        {
-            return;
-        }
-        COSNumber x = (COSNumber) base0;
-        COSNumber y = (COSNumber) base1;
+        float x = getFloat(arguments, 0);
+        float y = getFloat(arguments, 1);
 
-        Matrix matrix = new Matrix(1, 0, 0, 1, x.floatValue(), y.floatValue());
+        Matrix matrix = new Matrix(1, 0, 0, 1, x, y);
         textLineMatrix.concatenate(matrix);
         context.setTextMatrix(textLineMatrix.clone());
     }
@@ -21,7 +21,6 @@ import java.util.List;
 
 import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
@@ -44,11 +43,10 @@ public class SetCharSpacing extends OperatorProcessor
         // there are some documents which are incorrectly structured, and have
         // a wrong number of arguments to this, so we will assume the last argument
         // in the list
-        Object charSpacing = arguments.get(arguments.size()-1);
-        if (charSpacing instanceof COSNumber)
+        int last = arguments.size() - 1;
+        if (isNumber(arguments, last))
         {
-            COSNumber characterSpacing = (COSNumber)charSpacing;
-            context.getGraphicsState().getTextState().setCharacterSpacing(characterSpacing.floatValue());
+            context.getGraphicsState().getTextState().setCharacterSpacing(getFloat(arguments, last));
         }
     }
 
@@ -28,7 +28,6 @@ import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.cos.COSBase;
 import com.tom_roush.pdfbox.cos.COSName;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.pdmodel.font.PDFont;
 
 /**
@@ -47,17 +46,16 @@ public class SetFontAndSize extends OperatorProcessor
         }
 
         COSBase base0 = arguments.get(0);
-        COSBase base1 = arguments.get(1);
         if (!(base0 instanceof COSName))
         {
             return;
         }
-        if (!(base1 instanceof COSNumber))
+        if (!isNumber(arguments, 1))
         {
             return;
         }
         COSName fontName = (COSName) base0;
-        float fontSize = ((COSNumber) base1).floatValue();
+        float fontSize = getFloat(arguments, 1);
         context.getGraphicsState().getTextState().setFontSize(fontSize);
         PDFont font = context.getResources().getFont(fontName);
         if (font == null)
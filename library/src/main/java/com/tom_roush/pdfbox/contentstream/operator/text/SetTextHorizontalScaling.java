@@ -24,7 +24,6 @@ import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 /**
  * Tz: Set horizontal text scaling.
@@ -41,13 +40,12 @@ public class SetTextHorizontalScaling extends OperatorProcessor
             throw new MissingOperandException(operator, arguments);
         }
 
-        COSBase base = arguments.get(0);
-        if (!(base instanceof COSNumber))
+        if (!isNumber(arguments, 0))
         {
             return;
         }
-        COSNumber scaling = (COSNumber) base;
-        context.getGraphicsState().getTextState().setHorizontalScaling(scaling.floatValue());
+        float scaling = getFloat(arguments, 0);
+        context.getGraphicsState().getTextState().setHorizontalScaling(scaling);
     }
 
     @Override
@@ -21,7 +21,6 @@ import java.util.List;
 
 import com.tom_roush.pdfbox.contentstream.operator.MissingOperandException;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
@@ -40,13 +39,12 @@ public class SetTextLeading extends OperatorProcessor
         {
             throw new MissingOperandException(operator, arguments);
         }
-        COSBase base = arguments.get(0);
-        if (!(base instanceof COSNumber))
+        if (!isNumber(arguments, 0))
         {
             return;
         }
-        COSNumber leading = (COSNumber) base;
-        context.getGraphicsState().getTextState().setLeading( leading.floatValue() );
+        float leading = getFloat(arguments, 0);
+        context.getGraphicsState().getTextState().setLeading( leading );
     }
 
     @Override
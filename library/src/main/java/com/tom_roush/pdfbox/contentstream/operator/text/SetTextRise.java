@@ -23,7 +23,6 @@ import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 
 /**
  * Ts: Set text rise.
@@ -39,13 +38,12 @@ public class SetTextRise extends OperatorProcessor
         {
             return;
         }
-        COSBase base = arguments.get(0);
-        if (!(base instanceof COSNumber))
+        if (!isNumber(arguments, 0))
         {
             return;
         }
-        COSNumber rise = (COSNumber) base;
-        context.getGraphicsState().getTextState().setRise( rise.floatValue() );
+        float rise = getFloat(arguments, 0);
+        context.getGraphicsState().getTextState().setRise( rise );
     }
 
     @Override
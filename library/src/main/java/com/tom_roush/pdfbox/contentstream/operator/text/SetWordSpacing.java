@@ -19,7 +19,6 @@ package com.tom_roush.pdfbox.contentstream.operator.text;
 import java.util.List;
 
 import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorProcessor;
@@ -38,13 +37,12 @@ public class SetWordSpacing extends OperatorProcessor
         {
             return;
         }
-        COSBase base = arguments.get(0);
-        if (!(base instanceof COSNumber))
+        if (!isNumber(arguments, 0))
         {
             return;
         }
-        COSNumber wordSpacing = (COSNumber) base;
-        context.getGraphicsState().getTextState().setWordSpacing( wordSpacing.floatValue() );
+        float wordSpacing = getFloat(arguments, 0);
+        context.getGraphicsState().getTextState().setWordSpacing( wordSpacing );
     }
 
     @Override
@@ -21,11 +21,13 @@ import android.util.Log;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.io.RandomAccessRead;
 import com.tom_roush.pdfbox.io.ScratchFile;
 import com.tom_roush.pdfbox.multipdf.Splitter;
 import com.tom_roush.pdfbox.pdfparser.PDFObjectStreamParser;
@@ -47,14 +49,12 @@ public class COSDocument extends COSBase implements Closeable
      * Maps ObjectKeys to a COSObject. Note that references to these objects
      * are also stored in COSDictionary objects that map a name to a specific object.
      */
-    private final Map<COSObjectKey, COSObject> objectPool =
-        new HashMap<COSObjectKey, COSObject>();
+    private final Map<COSObjectKey, COSObject> objectPool = new COSObjectPool();
 
     /**
      * Maps object and generation id to object byte offsets.
      */
-    private final Map<COSObjectKey, Long> xrefTable =
-        new HashMap<COSObjectKey, Long>();
+    private final Map<COSObjectKey, Long> xrefTable = new COSXrefTable();
 
     /**
      * List containing all streams which are created when creating a new pdf. 
@@ -81,6 +81,11 @@ public class COSDocument extends COSBase implements Closeable
 
     private ScratchFile scratchFile;
 
+    /**
+     * Parser used to load objects on demand, null if all objects are parsed up front.
+     */
+    private ICOSParser parser;
+
     /**
      * Used for incremental saving, to avoid XRef object numbers from being reused.
      */
@@ -138,6 +143,24 @@ public class COSDocument extends COSBase implements Closeable
         return stream;
     }
 
+    /**
+     * Creates a new COSStream reading its encoded data from the given source.
+     * Not for public use. Only COSParser should call this method.
+     *
+     * @param dictionary the corresponding dictionary
+     * @param rawData the encoded stream data, usually a view of the parsed file
+     * @return the new COSStream
+     */
+    public COSStream createCOSStream(COSDictionary dictionary, RandomAccessRead rawData)
+    {
+        COSStream stream = new COSStream(scratchFile, rawData);
+        for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet())
+        {
+            stream.setItem(entry.getKey(), entry.getValue());
+        }
+        return stream;
+    }
+
     /**
      * This will get the first dictionary object by type.
      *
@@ -470,6 +493,11 @@ public class COSDocument extends COSBase implements Closeable
         // close all open I/O streams
         for (COSObject object : getObjects())
         {
+            if (object.isObjectNull())
+            {
+                // not loaded, nothing to close
+                continue;
+            }
             COSBase cosObject = object.getObject();
             if (cosObject instanceof COSStream)
             {
@@ -534,6 +562,39 @@ public class COSDocument extends COSBase implements Closeable
         this.warnMissingClose = warn;
     }
 
+    /**
+     * Schedules the decoding of the object streams listed in the cross reference table, so that
+     * they are decoded in the background before they are needed, e.g. when the document is saved
+     * or merged into another one. Object streams refused by the prefetcher are decoded on demand
+     * as usual.
+     *
+     * @param prefetcher the prefetcher decoding the streams.
+     * @return the number of object streams which are going to be decoded by the prefetcher.
+     * @throws IOException if the object streams could not be loaded.
+     */
+    public int prefetchObjectStreams(StreamPrefetcher prefetcher) throws IOException
+    {
+        // xrefTable stores negated objNr of objStream for objects in objStreams
+        Set<Long> objStreamNumbers = new TreeSet<Long>();
+        for (Long offset : xrefTable.values())
+        {
+            if (offset != null && offset < 0)
+            {
+                objStreamNumbers.add(-offset);
+            }
+        }
+        int count = 0;
+        for (Long objStreamNumber : objStreamNumbers)
+        {
+            COSBase base = getObjectFromPool(new COSObjectKey(objStreamNumber, 0)).getObject();
+            if (base instanceof COSStream && prefetcher.prefetch((COSStream) base))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * This method will search the list of objects for types of ObjStm.  If it finds
      * them then it will parse out all of the objects from the stream that is contains.
@@ -550,7 +611,7 @@ public class COSDocument extends COSBase implements Closeable
             for (COSObject next : parser.getObjects())
             {
                 COSObjectKey key = new COSObjectKey(next);
-                if (objectPool.get(key) == null || objectPool.get(key).getObject() == null
+                if (objectPool.get(key) == null || objectPool.get(key).isObjectNull()
                     // xrefTable stores negated objNr of objStream for objects in objStreams
                     || (xrefTable.containsKey(key)
                     && xrefTable.get(key) == -objStream.getObjectNumber()))
@@ -571,7 +632,7 @@ public class COSDocument extends COSBase implements Closeable
      *
      * @throws IOException If there is an error getting the proxy object.
      */
-    public COSObject getObjectFromPool(COSObjectKey key) throws IOException
+    public synchronized COSObject getObjectFromPool(COSObjectKey key) throws IOException
     {
         COSObject obj = null;
         if( key != null )
@@ -581,23 +642,43 @@ public class COSDocument extends COSBase implements Closeable
         if (obj == null)
         {
             // this was a forward reference, make "proxy" object
-            obj = new COSObject(null);
-            if( key != null )
+            if (key != null && parser != null)
             {
-                obj.setObjectNumber(key.getNumber());
-                obj.setGenerationNumber(key.getGeneration());
+                obj = new COSObject(key, parser);
                 objectPool.put(key, obj);
             }
+            else
+            {
+                obj = new COSObject(null);
+                if( key != null )
+                {
+                    obj.setObjectNumber(key.getNumber());
+                    obj.setGenerationNumber(key.getGeneration());
+                    objectPool.put(key, obj);
+                }
+            }
         }
         return obj;
     }
 
+    /**
+     * Sets the parser used to load objects of the pool on demand. Objects added to the pool from
+     * now on are parsed on first access.
+     * Not for public use. Only COSParser should call this method.
+     *
+     * @param parser the parser to be used to dereference objects
+     */
+    public void setParser(ICOSParser parser)
+    {
+        this.parser = parser;
+    }
+
     /**
      * Removes an object from the object pool.
      * @param key the object key
      * @return the object that was removed or null if the object was not found
      */
-    public COSObject removeObject(COSObjectKey key)
+    public synchronized COSObject removeObject(COSObjectKey key)
     {
         return objectPool.remove(key);
     }
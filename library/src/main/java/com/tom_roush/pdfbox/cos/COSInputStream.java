@@ -61,12 +61,42 @@ public final class COSInputStream extends FilterInputStream
 
     static COSInputStream create(List<Filter> filters, COSDictionary parameters, InputStream in,
         ScratchFile scratchFile, DecodeOptions options) throws IOException
+    {
+        return create(filters, parameters, in, scratchFile, options, true);
+    }
+
+    /**
+     * Creates a new COSInputStream from an encoded input stream.
+     *
+     * @param filters Filters to be applied.
+     * @param parameters Filter parameters.
+     * @param in Encoded input stream.
+     * @param scratchFile Scratch file to use, or null.
+     * @param options Decode options.
+     * @param decodeWhileReading true if a single filter may decode the data while it is read,
+     * false to decode the whole stream right away.
+     * @return Decoded stream.
+     * @throws IOException If the stream could not be read.
+     */
+    static COSInputStream create(List<Filter> filters, COSDictionary parameters, InputStream in,
+        ScratchFile scratchFile, DecodeOptions options, boolean decodeWhileReading)
+        throws IOException
     {
         InputStream input = in;
         if (filters.isEmpty())
         {
             return new COSInputStream(in, Collections.<DecodeResult>emptyList());
         }
+        if (decodeWhileReading && filters.size() == 1)
+        {
+            // no need to buffer the decoded data
+            InputStream decoding = filters.get(0).createDecodingStream(in, parameters, 0);
+            if (decoding != null)
+            {
+                return new COSInputStream(decoding,
+                    Collections.singletonList(new DecodeResult(parameters)));
+            }
+        }
 
         List<DecodeResult> results = new ArrayList<DecodeResult>(filters.size());
         if (filters.size() > 1)
@@ -18,9 +18,15 @@ package com.tom_roush.pdfbox.cos;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.tom_roush.pdfbox.util.Charsets;
 import com.tom_roush.pdfbox.util.Hex;
@@ -33,8 +39,10 @@ import com.tom_roush.pdfbox.util.Hex;
 public final class COSName extends COSBase implements Comparable<COSName>
 {
     // using ConcurrentHashMap because this can be accessed by multiple threads
-    private static final Map<String, COSName> nameMap = new ConcurrentHashMap<String, COSName>(
-        8192);
+    // the names are only weakly referenced, so that the map doesn't grow with every document
+    private static final ConcurrentMap<String, NameReference> nameMap =
+        new ConcurrentHashMap<String, NameReference>(1024);
+    private static final ReferenceQueue<COSName> staleNames = new ReferenceQueue<COSName>();
 
     // all common COSName values are stored in this HashMap
     // they are already defined as static constants and don't need to be synchronized
@@ -619,6 +627,28 @@ public final class COSName extends COSBase implements Comparable<COSName>
     // Z
     public static final COSName ZA_DB = new COSName("ZaDb");
 
+    // the common names in an open addressing table, indexed by the hash of their bytes;
+    // they are all ASCII, and the hash is the same as the one of the name string
+    private static final COSName[] commonNameTable;
+    private static final byte[][] commonNameBytes;
+
+    static
+    {
+        int size = Integer.highestOneBit(commonNameMap.size() * 4);
+        commonNameTable = new COSName[size];
+        commonNameBytes = new byte[size][];
+        for (COSName commonName : commonNameMap.values())
+        {
+            int index = commonName.hashCode & (size - 1);
+            while (commonNameTable[index] != null)
+            {
+                index = (index + 1) & (size - 1);
+            }
+            commonNameTable[index] = commonName;
+            commonNameBytes[index] = commonName.name.getBytes(Charsets.US_ASCII);
+        }
+    }
+
     // fields
     private final String name;
     private final int hashCode;
@@ -640,23 +670,137 @@ public final class COSName extends COSBase implements Comparable<COSName>
             if (name == null)
             {
                 // It seems to be a document specific COSName
-                name = nameMap.get(aName);
-                if (name == null)
-                {
-                    // name is added to the synchronized map in the constructor
-                    name = new COSName(aName, false);
-                }
+                name = getUncommonName(aName);
             }
         }
         return name;
     }
 
+    /**
+     * This will get a COSName object with the name given by bytes, as read by a parser. The
+     * common names are found without creating a string. A name which isn't valid UTF-8 is
+     * decoded as Windows-1252, as seen in some malformed PDFs, see PDFBOX-3347.
+     *
+     * @param bytes the bytes of the name, without the escapes of a PDF name
+     * @param offset the offset of the name
+     * @param length the length of the name
+     * @return A COSName with the specified name.
+     */
+    public static COSName getPDFName(byte[] bytes, int offset, int length)
+    {
+        int hash = 0;
+        boolean ascii = true;
+        for (int i = offset; i < offset + length; i++)
+        {
+            hash = 31 * hash + (bytes[i] & 0xff);
+            ascii &= bytes[i] >= 0;
+        }
+        if (!ascii)
+        {
+            String string;
+            try
+            {
+                string = Charsets.UTF_8.newDecoder()
+                    .decode(ByteBuffer.wrap(bytes, offset, length)).toString();
+            }
+            catch (CharacterCodingException e)
+            {
+                string = new String(bytes, offset, length, Charsets.WINDOWS_1252);
+            }
+            return getPDFName(string);
+        }
+        int mask = commonNameTable.length - 1;
+        for (int index = hash & mask; commonNameTable[index] != null; index = (index + 1) & mask)
+        {
+            if (equals(commonNameBytes[index], bytes, offset, length))
+            {
+                return commonNameTable[index];
+            }
+        }
+        return getUncommonName(new String(bytes, offset, length, Charsets.US_ASCII));
+    }
+
+    private static boolean equals(byte[] name, byte[] bytes, int offset, int length)
+    {
+        if (name.length != length)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (name[i] != bytes[offset + i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the COSName of a name which isn't a common one. The same instance is returned
+     * as long as the name is in use.
+     */
+    private static COSName getUncommonName(String aName)
+    {
+        NameReference reference = nameMap.get(aName);
+        COSName name = reference != null ? reference.get() : null;
+        if (name != null)
+        {
+            return name;
+        }
+        removeStaleNames();
+        name = new COSName(aName, false);
+        NameReference newReference = new NameReference(name, staleNames);
+        // another thread may have added the same name in the meantime
+        while (true)
+        {
+            reference = nameMap.putIfAbsent(aName, newReference);
+            if (reference == null)
+            {
+                return name;
+            }
+            COSName existingName = reference.get();
+            if (existingName != null)
+            {
+                return existingName;
+            }
+            if (nameMap.replace(aName, reference, newReference))
+            {
+                return name;
+            }
+        }
+    }
+
+    private static void removeStaleNames()
+    {
+        Reference<? extends COSName> reference;
+        while ((reference = staleNames.poll()) != null)
+        {
+            NameReference nameReference = (NameReference) reference;
+            nameMap.remove(nameReference.key, nameReference);
+        }
+    }
+
+    /**
+     * A weak reference to an uncommon name, which knows its key in the name map.
+     */
+    private static final class NameReference extends WeakReference<COSName>
+    {
+        private final String key;
+
+        private NameReference(COSName name, ReferenceQueue<COSName> queue)
+        {
+            super(name, queue);
+            this.key = name.name;
+        }
+    }
+
     /**
      * Private constructor. This will limit the number of COSName objects. that are created.
      *
      * @param aName The name of the COSName object.
      * @param staticValue Indicates if the COSName object is static so that it can be stored in the HashMap without
-     * synchronizing.
+     * synchronizing, otherwise it is added to the map of uncommon names by the caller.
      */
     private COSName(String aName, boolean staticValue)
     {
@@ -666,10 +810,6 @@ public final class COSName extends COSBase implements Comparable<COSName>
         {
             commonNameMap.put(aName, this);
         }
-        else
-        {
-            nameMap.put(aName, this);
-        }
     }
 
     /**
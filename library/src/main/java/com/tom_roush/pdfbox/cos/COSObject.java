@@ -16,6 +16,8 @@
  */
 package com.tom_roush.pdfbox.cos;
 
+import android.util.Log;
+
 import java.io.IOException;
 
 /**
@@ -26,11 +28,14 @@ import java.io.IOException;
  */
 public class COSObject extends COSBase implements COSUpdateInfo
 {
-    private COSBase baseObject;
+    // volatile as objects loaded on demand may be dereferenced by several threads
+    private volatile COSBase baseObject;
     private long objectNumber;
     private int generationNumber;
     private boolean needToBeUpdated;
     private boolean dereferencingInProgress = false;
+    private ICOSParser parser;
+    private boolean isDereferenced;
 
     /**
      * Constructor.
@@ -44,6 +49,19 @@ public class COSObject extends COSBase implements COSUpdateInfo
         setObject( object );
     }
 
+    /**
+     * Constructor for an indirect object which is parsed by the given parser on first access.
+     *
+     * @param key the object key of the represented indirect object.
+     * @param parser the parser used to dereference the object.
+     */
+    public COSObject(COSObjectKey key, ICOSParser parser)
+    {
+        objectNumber = key.getNumber();
+        generationNumber = key.getGeneration();
+        this.parser = parser;
+    }
+
     /**
      * This will get the dictionary object in this object that has the name key and
      * if it is a pdfobjref then it will dereference that and return it.
@@ -80,13 +98,77 @@ public class COSObject extends COSBase implements COSUpdateInfo
     }
 
     /**
-     * This will get the object that this object encapsulates.
+     * This will get the object that this object encapsulates. If the object wasn't loaded yet and
+     * a parser was provided it is parsed now. Several threads may dereference the same object,
+     * the parser is locked while parsing.
      *
      * @return The encapsulated object.
      */
     public COSBase getObject()
     {
-        return baseObject;
+        COSBase object = baseObject;
+        if (object == null && parser != null)
+        {
+            synchronized (parser)
+            {
+                if (!isDereferenced)
+                {
+                    // set the flag first to avoid loops, the parser itself checks the current value
+                    isDereferenced = true;
+                    try
+                    {
+                        parser.dereferenceCOSObject(this);
+                    }
+                    catch (IOException e)
+                    {
+                        Log.e("PdfBox-Android", "Can't dereference " + this, e);
+                    }
+                }
+                object = baseObject;
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Indicates if the encapsulated object is null, without loading it.
+     *
+     * @return true if the encapsulated object is null or wasn't loaded yet.
+     */
+    public boolean isObjectNull()
+    {
+        return baseObject == null;
+    }
+
+    /**
+     * Drops the encapsulated object so that it is parsed again by the parser on next access. This
+     * only works for objects loaded on demand which aren't marked to be updated, see
+     * {@link #isNeedToBeUpdated()}. Any changes to the dropped object are lost. Streams whose data
+     * was copied into the scratch file, e.g. because their length was wrong, aren't dropped. The
+     * data of the other streams is read from the source of the document, they hold no buffers.
+     *
+     * @return true if the object was dropped.
+     */
+    public boolean unloadObject()
+    {
+        if (parser == null)
+        {
+            return false;
+        }
+        synchronized (parser)
+        {
+            if (needToBeUpdated || dereferencingInProgress)
+            {
+                return false;
+            }
+            if (baseObject instanceof COSStream && !((COSStream) baseObject).prepareUnload())
+            {
+                return false;
+            }
+            baseObject = null;
+            isDereferenced = false;
+            return true;
+        }
     }
 
     /**
@@ -99,6 +181,7 @@ public class COSObject extends COSBase implements COSUpdateInfo
     public final void setObject( COSBase object ) throws IOException
     {
         baseObject = object;
+        isDereferenced = true;
     }
 
     /**
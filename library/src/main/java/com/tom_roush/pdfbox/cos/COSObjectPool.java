@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.cos;
+
+import java.util.Arrays;
+
+/**
+ * The objects of a document, held in an array indexed by the object number.
+ */
+final class COSObjectPool extends ObjectNumberMap<COSObject>
+{
+    private COSObject[] objects = new COSObject[0];
+
+    @Override
+    protected COSObject getSlot(int number)
+    {
+        return objects[number];
+    }
+
+    @Override
+    protected void setSlot(int number, COSObject value)
+    {
+        objects[number] = value;
+    }
+
+    @Override
+    protected void clearSlot(int number)
+    {
+        objects[number] = null;
+    }
+
+    @Override
+    protected void resizeSlots(int capacity)
+    {
+        objects = Arrays.copyOf(objects, capacity);
+    }
+}
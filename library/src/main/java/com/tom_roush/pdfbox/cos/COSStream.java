@@ -34,6 +34,8 @@ import com.tom_roush.pdfbox.io.IOUtils;
 import com.tom_roush.pdfbox.io.RandomAccess;
 import com.tom_roush.pdfbox.io.RandomAccessInputStream;
 import com.tom_roush.pdfbox.io.RandomAccessOutputStream;
+import com.tom_roush.pdfbox.io.RandomAccessRead;
+import com.tom_roush.pdfbox.io.RandomAccessReadView;
 import com.tom_roush.pdfbox.io.ScratchFile;
 
 /**
@@ -44,8 +46,10 @@ import com.tom_roush.pdfbox.io.ScratchFile;
 public class COSStream extends COSDictionary implements Closeable
 {
     private RandomAccess randomAccess;      // backing store, in-memory or on-disk
+    private RandomAccessRead rawData;       // read only view of the source, used instead of randomAccess
     private final ScratchFile scratchFile;  // used as a temp buffer during decoding
     private boolean isWriting;              // true if there's an open OutputStream
+    private volatile StreamPrefetcher prefetcher; // decodes the stream in the background, if any
 
     /**
      * Creates a new stream with an empty dictionary.
@@ -71,13 +75,28 @@ public class COSStream extends COSDictionary implements Closeable
         this.scratchFile = scratchFile != null ? scratchFile : ScratchFile.getMainMemoryOnlyInstance();
     }
 
+    /**
+     * Creates a new stream with an empty dictionary. The encoded stream data is read from the given
+     * source, which is typically a view of the parsed PDF, so that it doesn't have to be copied.
+     * Data written to the stream later on is stored in the given scratch file.
+     *
+     * @param scratchFile Scratch file for writing stream data.
+     * @param rawData the encoded stream data.
+     */
+    public COSStream(ScratchFile scratchFile, RandomAccessRead rawData)
+    {
+        this(scratchFile);
+        this.rawData = rawData;
+    }
+
     /**
      * Throws if the random access backing store has been closed. Helpful for catching cases where
      * a user tries to use a COSStream which has outlived its COSDocument.
      */
     private void checkClosed() throws IOException
     {
-        if (randomAccess != null && randomAccess.isClosed())
+        if ((randomAccess != null && randomAccess.isClosed()) ||
+            (rawData != null && rawData.isClosed()))
         {
             throw new IOException("COSStream has been closed and cannot be read. " +
                 "Perhaps its enclosing PDDocument has been closed?");
@@ -134,10 +153,26 @@ public class COSStream extends COSDictionary implements Closeable
         {
             throw new IllegalStateException("Cannot read while there is an open stream writer");
         }
+        if (rawData != null)
+        {
+            return createRawDataInputStream();
+        }
         ensureRandomAccessExists(true);
         return new RandomAccessInputStream(randomAccess);
     }
 
+    private InputStream createRawDataInputStream() throws IOException
+    {
+        if (rawData instanceof RandomAccessReadView)
+        {
+            // a view shared by several readers could be locked by one of them while it waits for
+            // the source, e.g. held by the parser reading the same stream, so each one gets its own
+            return new RandomAccessInputStream(
+                ((RandomAccessReadView) rawData).createView(0, rawData.length()));
+        }
+        return new RandomAccessInputStream(rawData);
+    }
+
     /**
      * This will get the logical content stream with none of the filters.
      *
@@ -163,15 +198,47 @@ public class COSStream extends COSDictionary implements Closeable
     }
 
     public COSInputStream createInputStream(DecodeOptions options) throws IOException
+    {
+        StreamPrefetcher streamPrefetcher = prefetcher;
+        if (streamPrefetcher != null && options == DecodeOptions.DEFAULT)
+        {
+            COSInputStream input = streamPrefetcher.take(this);
+            if (input != null)
+            {
+                return input;
+            }
+        }
+        return createDecodedInputStream(options, true);
+    }
+
+    /**
+     * Decodes the whole stream into the scratch file, for {@link StreamPrefetcher}.
+     */
+    COSInputStream createDecodedInputStream() throws IOException
+    {
+        return createDecodedInputStream(DecodeOptions.DEFAULT, false);
+    }
+
+    private COSInputStream createDecodedInputStream(DecodeOptions options,
+        boolean decodeWhileReading) throws IOException
     {
         checkClosed();
         if (isWriting)
         {
             throw new IllegalStateException("Cannot read while there is an open stream writer");
         }
-        ensureRandomAccessExists(true);
-        InputStream input = new RandomAccessInputStream(randomAccess);
-        return COSInputStream.create(getFilterList(), this, input, scratchFile, options);
+        InputStream input;
+        if (rawData != null)
+        {
+            input = createRawDataInputStream();
+        }
+        else
+        {
+            ensureRandomAccessExists(true);
+            input = new RandomAccessInputStream(randomAccess);
+        }
+        return COSInputStream.create(getFilterList(), this, input, scratchFile, options,
+            decodeWhileReading);
     }
 
     /**
@@ -217,7 +284,10 @@ public class COSStream extends COSDictionary implements Closeable
         {
             setItem(COSName.FILTER, filters);
         }
+        discardPrefetched();
         IOUtils.closeQuietly(randomAccess);
+        IOUtils.closeQuietly(rawData);
+        rawData = null;
         randomAccess = scratchFile.createBuffer();
         OutputStream randomOut = new RandomAccessOutputStream(randomAccess);
         OutputStream cosOut = new COSOutputStream(getFilterList(), this, randomOut, scratchFile);
@@ -268,7 +338,10 @@ public class COSStream extends COSDictionary implements Closeable
         {
             throw new IllegalStateException("Cannot have more than one open stream writer.");
         }
+        discardPrefetched();
         IOUtils.closeQuietly(randomAccess);
+        IOUtils.closeQuietly(rawData);
+        rawData = null;
         randomAccess = scratchFile.createBuffer();
         OutputStream out = new RandomAccessOutputStream(randomAccess);
         isWriting = true;
@@ -290,6 +363,50 @@ public class COSStream extends COSDictionary implements Closeable
         };
     }
 
+    /**
+     * Sets the prefetcher which decodes this stream in the background.
+     *
+     * @param streamPrefetcher the prefetcher, or null to remove the current one.
+     * @return false if the stream is already prefetched by another prefetcher.
+     */
+    synchronized boolean setPrefetcher(StreamPrefetcher streamPrefetcher)
+    {
+        if (streamPrefetcher != null && prefetcher != null && prefetcher != streamPrefetcher)
+        {
+            return false;
+        }
+        prefetcher = streamPrefetcher;
+        return true;
+    }
+
+    /**
+     * Prepares this stream to be dropped by its {@link COSObject}, see
+     * {@link COSObject#unloadObject()}. A stream holding its data in buffers of the scratch file
+     * can't be dropped, as the buffers are only freed by closing the stream, which would break
+     * readers still using it.
+     *
+     * @return true if the stream may be dropped
+     */
+    boolean prepareUnload()
+    {
+        if (randomAccess != null && !randomAccess.isClosed())
+        {
+            return false;
+        }
+        // the stream is parsed again on next access, its decoded data wouldn't be used
+        discardPrefetched();
+        return true;
+    }
+
+    private void discardPrefetched()
+    {
+        StreamPrefetcher streamPrefetcher = prefetcher;
+        if (streamPrefetcher != null)
+        {
+            streamPrefetcher.discard(this);
+        }
+    }
+
     /**
      * Returns the list of filters.
      */
@@ -426,10 +543,15 @@ public class COSStream extends COSDictionary implements Closeable
     @Override
     public void close() throws IOException
     {
+        discardPrefetched();
         // marks the scratch file pages as free
         if (randomAccess != null)
         {
             randomAccess.close();
         }
+        if (rawData != null)
+        {
+            rawData.close();
+        }
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.cos;
+
+import java.util.Arrays;
+
+/**
+ * Maps object keys to the byte offsets of the objects, as read from the cross reference table.
+ * Objects within an object stream are mapped to the negated number of the object stream.
+ * <p>
+ * The offsets are held in a <code>long[]</code> indexed by the object number, so that an entry
+ * only takes 12 bytes instead of a key, a boxed offset and a hash map entry. Other entries,
+ * e.g. a second generation of an object number, are held in a hash map.
+ */
+public class COSXrefTable extends ObjectNumberMap<Long>
+{
+    private long[] offsets = new long[0];
+
+    @Override
+    protected Long getSlot(int number)
+    {
+        return offsets[number];
+    }
+
+    @Override
+    protected void setSlot(int number, Long value)
+    {
+        offsets[number] = value;
+    }
+
+    @Override
+    protected void clearSlot(int number)
+    {
+        offsets[number] = 0;
+    }
+
+    @Override
+    protected void resizeSlots(int capacity)
+    {
+        offsets = Arrays.copyOf(offsets, capacity);
+    }
+}
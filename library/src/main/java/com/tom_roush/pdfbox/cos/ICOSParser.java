@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.cos;
+
+import java.io.IOException;
+
+/**
+ * An interface for parsers which are able to load indirect objects on demand.
+ */
+public interface ICOSParser
+{
+    /**
+     * Parses the indirect object represented by the given COSObject from the source. The parser
+     * stores the result in the given object. {@link COSObject} holds the lock of the parser
+     * instance while calling this method.
+     *
+     * @param obj the indirect object to be dereferenced.
+     * @return the parsed object, COSNull if the object is undefined.
+     * @throws IOException If there is an error while parsing the object.
+     */
+    COSBase dereferenceCOSObject(COSObject obj) throws IOException;
+}
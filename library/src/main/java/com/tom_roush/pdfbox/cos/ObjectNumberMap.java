@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.cos;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map of object keys which stores the entries in arrays indexed by the object number. Each
+ * object number has one slot holding the generation and the value, the storage of the values is
+ * left to the subclasses. Keys which don't fit, i.e. a second generation of an object number,
+ * negative numbers or numbers far beyond the other ones, are kept in a hash map.
+ *
+ * The map isn't synchronized. An iteration may run while other threads add slots, as the value
+ * storage is enlarged before the enlarged generations are published. Any other concurrent
+ * modification needs external locking.
+ *
+ * @param <V> the type of the values.
+ */
+abstract class ObjectNumberMap<V> extends AbstractMap<COSObjectKey, V>
+{
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Object numbers below this value are always kept in the arrays, higher ones only if at
+     * least a quarter of the slots below them are used.
+     */
+    private static final int DENSE_NUMBER_LIMIT = 1024;
+
+    // generation + 1 for each object number, 0 for an empty slot, replaced after resizeSlots()
+    private volatile int[] generations = new int[0];
+    private int slotCount;
+    private final Map<COSObjectKey, V> overflow = new HashMap<COSObjectKey, V>();
+    private Set<Entry<COSObjectKey, V>> entrySet;
+
+    /**
+     * Returns the value of the given slot.
+     */
+    protected abstract V getSlot(int number);
+
+    /**
+     * Sets the value of the given slot.
+     */
+    protected abstract void setSlot(int number, V value);
+
+    /**
+     * Releases the value of the given slot.
+     */
+    protected abstract void clearSlot(int number);
+
+    /**
+     * Enlarges the value storage to the given capacity.
+     */
+    protected abstract void resizeSlots(int capacity);
+
+    /**
+     * Tells whether the value can be kept in a slot.
+     */
+    protected boolean isSlotValue(V value)
+    {
+        return value != null;
+    }
+
+    @Override
+    public int size()
+    {
+        return slotCount + overflow.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return findSlot(key) >= 0 || !overflow.isEmpty() && overflow.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        int number = findSlot(key);
+        if (number >= 0)
+        {
+            return getSlot(number);
+        }
+        return overflow.isEmpty() ? null : overflow.get(key);
+    }
+
+    @Override
+    public V put(COSObjectKey key, V value)
+    {
+        int number = findSlot(key);
+        if (number >= 0)
+        {
+            V old = getSlot(number);
+            if (isSlotValue(value))
+            {
+                setSlot(number, value);
+            }
+            else
+            {
+                removeSlot(number);
+                overflow.put(key, value);
+            }
+            return old;
+        }
+        if (isSlotValue(value) && claimSlot(key))
+        {
+            setSlot((int) key.getNumber(), value);
+            return overflow.isEmpty() ? null : overflow.remove(key);
+        }
+        return overflow.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        int number = findSlot(key);
+        if (number >= 0)
+        {
+            V old = getSlot(number);
+            removeSlot(number);
+            return old;
+        }
+        return overflow.isEmpty() ? null : overflow.remove(key);
+    }
+
+    @Override
+    public void clear()
+    {
+        generations = new int[0];
+        resizeSlots(0);
+        slotCount = 0;
+        overflow.clear();
+    }
+
+    @Override
+    public Set<Entry<COSObjectKey, V>> entrySet()
+    {
+        if (entrySet == null)
+        {
+            entrySet = new AbstractSet<Entry<COSObjectKey, V>>()
+            {
+                @Override
+                public Iterator<Entry<COSObjectKey, V>> iterator()
+                {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size()
+                {
+                    return ObjectNumberMap.this.size();
+                }
+
+                @Override
+                public void clear()
+                {
+                    ObjectNumberMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Returns the object number of the slot holding the given key, or -1 if the key isn't held
+     * by a slot.
+     */
+    private int findSlot(Object key)
+    {
+        if (!(key instanceof COSObjectKey))
+        {
+            return -1;
+        }
+        COSObjectKey objectKey = (COSObjectKey) key;
+        long number = objectKey.getNumber();
+        int[] numbers = generations;
+        if (number >= 0 && number < numbers.length
+            && numbers[(int) number] == objectKey.getGeneration() + 1)
+        {
+            return (int) number;
+        }
+        return -1;
+    }
+
+    /**
+     * Reserves the slot of the object number of the given key, the arrays are enlarged if the
+     * number is in range.
+     *
+     * @return false if the slot is in use or the number is out of range.
+     */
+    private boolean claimSlot(COSObjectKey key)
+    {
+        long number = key.getNumber();
+        int generation = key.getGeneration();
+        if (number < 0 || generation < 0 || generation == Integer.MAX_VALUE
+            || number >= generations.length
+            && number >= Math.max(DENSE_NUMBER_LIMIT, 4L * (slotCount + 1)))
+        {
+            return false;
+        }
+        if (number >= generations.length)
+        {
+            int capacity = (int) Math.max(number + 1,
+                Math.max(MIN_CAPACITY, Math.min(Integer.MAX_VALUE - 8, generations.length * 2L)));
+            int[] newGenerations = new int[capacity];
+            System.arraycopy(generations, 0, newGenerations, 0, generations.length);
+            resizeSlots(capacity);
+            generations = newGenerations;
+        }
+        else if (generations[(int) number] != 0)
+        {
+            return false;
+        }
+        generations[(int) number] = generation + 1;
+        slotCount++;
+        return true;
+    }
+
+    private void removeSlot(int number)
+    {
+        generations[number] = 0;
+        clearSlot(number);
+        slotCount--;
+    }
+
+    /**
+     * Iterates over the slots in the order of the object numbers, followed by the other entries.
+     */
+    private final class EntryIterator implements Iterator<Entry<COSObjectKey, V>>
+    {
+        private int nextNumber = -1;
+        private Iterator<Entry<COSObjectKey, V>> overflowIterator;
+        private COSObjectKey lastKey;
+        private boolean lastInSlot;
+
+        private EntryIterator()
+        {
+            advance();
+        }
+
+        private void advance()
+        {
+            int[] numbers = generations;
+            nextNumber++;
+            while (nextNumber < numbers.length && numbers[nextNumber] == 0)
+            {
+                nextNumber++;
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (nextNumber < generations.length)
+            {
+                return true;
+            }
+            if (overflowIterator == null)
+            {
+                overflowIterator = overflow.entrySet().iterator();
+            }
+            return overflowIterator.hasNext();
+        }
+
+        @Override
+        public Entry<COSObjectKey, V> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            if (overflowIterator == null)
+            {
+                final int number = nextNumber;
+                int generation = generations[number] - 1;
+                advance();
+                lastKey = new COSObjectKey(number, generation);
+                lastInSlot = true;
+                return new SimpleEntry<COSObjectKey, V>(lastKey, getSlot(number))
+                {
+                    @Override
+                    public V setValue(V value)
+                    {
+                        super.setValue(value);
+                        return put(getKey(), value);
+                    }
+                };
+            }
+            Entry<COSObjectKey, V> entry = overflowIterator.next();
+            lastKey = entry.getKey();
+            lastInSlot = false;
+            return entry;
+        }
+
+        @Override
+        public void remove()
+        {
+            if (lastKey == null)
+            {
+                throw new IllegalStateException();
+            }
+            if (lastInSlot)
+            {
+                ObjectNumberMap.this.remove(lastKey);
+            }
+            else
+            {
+                overflowIterator.remove();
+            }
+            lastKey = null;
+        }
+    }
+}
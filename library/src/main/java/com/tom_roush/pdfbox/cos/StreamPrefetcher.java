@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.cos;
+
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import com.tom_roush.pdfbox.io.IOUtils;
+
+/**
+ * Decodes FlateDecode streams in the background, ahead of the code which is going to read them.
+ * Streams passed to {@link #prefetch(COSStream)} are decoded by up to the given number of tasks
+ * of an executor into the scratch file of the stream. A later call of
+ * {@link COSStream#createInputStream()} returns the decoded data, or waits for it if the stream
+ * is still being decoded. Streams which haven't been started yet are decoded by the caller as
+ * usual.
+ * <p>
+ * The decoded data waiting to be read is limited to the given number of bytes. Streams are
+ * accounted with their encoded length until they are decoded, and no new stream is accepted or
+ * started while the limit is reached.
+ * <p>
+ * Typical uses are the sequential text extraction (see
+ * {@link com.tom_roush.pdfbox.text.PDFTextStripper#setStreamPrefetcher(StreamPrefetcher)}),
+ * merging (see
+ * {@link com.tom_roush.pdfbox.multipdf.PDFMergerUtility#setStreamPrefetcher(StreamPrefetcher)})
+ * and saving a document with object streams, after calling
+ * {@link COSDocument#prefetchObjectStreams(StreamPrefetcher)}. The prefetched streams must not
+ * be modified by other threads while they are decoded.
+ */
+public final class StreamPrefetcher implements Closeable
+{
+    private enum State
+    {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private static final class Entry
+    {
+        private final COSStream stream;
+        private State state = State.PENDING;
+        private long size;
+        private boolean discarded;
+        private COSInputStream input;
+
+        private Entry(COSStream stream, long size)
+        {
+            this.stream = stream;
+            this.size = size;
+        }
+    }
+
+    private final Executor executor;
+    private final int maxTasks;
+    private final long maxBytes;
+
+    private final Map<COSStream, Entry> entries = new IdentityHashMap<COSStream, Entry>();
+    private final Queue<Entry> pending = new ArrayDeque<Entry>();
+    private long bytesInFlight;
+    private int activeTasks;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param executor the executor which runs the decoding tasks.
+     * @param maxTasks the maximum number of streams decoded at the same time.
+     * @param maxBytes the maximum number of bytes held for streams which haven't been read yet.
+     */
+    public StreamPrefetcher(Executor executor, int maxTasks, long maxBytes)
+    {
+        if (maxTasks < 1)
+        {
+            throw new IllegalArgumentException("maxTasks must be at least 1");
+        }
+        if (maxBytes < 1)
+        {
+            throw new IllegalArgumentException("maxBytes must be at least 1");
+        }
+        this.executor = executor;
+        this.maxTasks = maxTasks;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Schedules the decoding of the given stream. Only streams whose filters are all FlateDecode
+     * are prefetched.
+     *
+     * @param stream the stream to be decoded.
+     * @return true if the stream is going to be decoded or has been already, false if it was
+     * refused, e.g. because the byte limit has been reached.
+     */
+    public boolean prefetch(COSStream stream)
+    {
+        if (stream == null || !isFlateEncoded(stream))
+        {
+            return false;
+        }
+        long size = stream.getLength();
+        // load indirect parameters here, the decoding tasks must not wait for the parser
+        // as its lock may be held by the thread reading the stream
+        resolve(stream.getDictionaryObject(COSName.DP, COSName.DECODE_PARMS));
+        synchronized (this)
+        {
+            if (closed)
+            {
+                return false;
+            }
+            if (entries.containsKey(stream))
+            {
+                return true;
+            }
+            if (bytesInFlight + size > maxBytes || !stream.setPrefetcher(this))
+            {
+                return false;
+            }
+            Entry entry = new Entry(stream, size);
+            entries.put(stream, entry);
+            pending.add(entry);
+            bytesInFlight += size;
+            startTasks();
+        }
+        return true;
+    }
+
+    /**
+     * Indicates whether more streams can be accepted, i.e. the byte limit hasn't been reached.
+     *
+     * @return true if the prefetcher has room for more streams.
+     */
+    public synchronized boolean hasCapacity()
+    {
+        return !closed && bytesInFlight < maxBytes;
+    }
+
+    /**
+     * Returns the number of bytes currently held or reserved for prefetched streams.
+     *
+     * @return the number of bytes in flight.
+     */
+    public synchronized long getBytesInFlight()
+    {
+        return bytesInFlight;
+    }
+
+    /**
+     * Stops prefetching and releases the data of all streams which haven't been read. Streams
+     * being decoded at the moment are released as soon as they are done.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (this)
+        {
+            closed = true;
+            for (Entry entry : new ArrayList<Entry>(entries.values()))
+            {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Returns the prefetched data of the given stream, waits for it if the stream is being
+     * decoded. The stream is removed from the prefetcher.
+     *
+     * @param stream the stream.
+     * @return the decoded data, or null if the stream has to be decoded by the caller.
+     */
+    COSInputStream take(COSStream stream)
+    {
+        boolean interrupted = false;
+        try
+        {
+            synchronized (this)
+            {
+                Entry entry = entries.get(stream);
+                if (entry == null)
+                {
+                    return null;
+                }
+                while (entry.state == State.RUNNING)
+                {
+                    try
+                    {
+                        wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        interrupted = true;
+                        break;
+                    }
+                }
+                COSInputStream input = entry.state == State.DONE ? entry.input : null;
+                entry.input = null;
+                release(entry);
+                return input;
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Releases the prefetched data of the given stream, e.g. because it is going to be modified.
+     *
+     * @param stream the stream.
+     */
+    synchronized void discard(COSStream stream)
+    {
+        Entry entry = entries.get(stream);
+        if (entry != null)
+        {
+            release(entry);
+        }
+    }
+
+    // must be called while holding the lock
+    private void release(Entry entry)
+    {
+        entries.remove(entry.stream);
+        entry.stream.setPrefetcher(null);
+        if (entry.state == State.RUNNING)
+        {
+            // the task releases it when it's done
+            entry.discarded = true;
+            return;
+        }
+        pending.remove(entry);
+        IOUtils.closeQuietly(entry.input);
+        entry.input = null;
+        bytesInFlight -= entry.size;
+        startTasks();
+    }
+
+    // must be called while holding the lock
+    private void startTasks()
+    {
+        while (!closed && activeTasks < maxTasks && activeTasks < pending.size()
+            && bytesInFlight <= maxBytes)
+        {
+            activeTasks++;
+            try
+            {
+                executor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        decodePending();
+                    }
+                });
+            }
+            catch (RuntimeException e)
+            {
+                // e.g. RejectedExecutionException, the streams are decoded by the callers
+                activeTasks--;
+                Log.w("PdfBox-Android", "Could not start stream prefetching", e);
+                return;
+            }
+        }
+    }
+
+    private void decodePending()
+    {
+        while (true)
+        {
+            Entry entry;
+            synchronized (this)
+            {
+                entry = closed || bytesInFlight > maxBytes ? null : pending.poll();
+                if (entry == null)
+                {
+                    activeTasks--;
+                    return;
+                }
+                entry.state = State.RUNNING;
+            }
+            COSInputStream input = null;
+            long size = 0;
+            try
+            {
+                input = entry.stream.createDecodedInputStream();
+                size = input.available();
+            }
+            catch (IOException e)
+            {
+                // reported by the caller who decodes it again
+                IOUtils.closeQuietly(input);
+                input = null;
+            }
+            catch (RuntimeException e)
+            {
+                IOUtils.closeQuietly(input);
+                input = null;
+            }
+            synchronized (this)
+            {
+                entry.state = input != null ? State.DONE : State.FAILED;
+                entry.input = input;
+                bytesInFlight += size - entry.size;
+                entry.size = size;
+                if (entry.discarded)
+                {
+                    IOUtils.closeQuietly(entry.input);
+                    entry.input = null;
+                    bytesInFlight -= entry.size;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private static void resolve(COSBase params)
+    {
+        if (params instanceof COSDictionary)
+        {
+            COSDictionary dictionary = (COSDictionary) params;
+            for (COSName key : dictionary.keySet())
+            {
+                dictionary.getDictionaryObject(key);
+            }
+        }
+        else if (params instanceof COSArray)
+        {
+            COSArray array = (COSArray) params;
+            for (int i = 0; i < array.size(); i++)
+            {
+                resolve(array.getObject(i));
+            }
+        }
+    }
+
+    private static boolean isFlateEncoded(COSStream stream)
+    {
+        COSBase filters = stream.getFilters();
+        if (filters instanceof COSName)
+        {
+            return isFlate((COSName) filters);
+        }
+        if (filters instanceof COSArray && ((COSArray) filters).size() > 0)
+        {
+            COSArray array = (COSArray) filters;
+            for (int i = 0; i < array.size(); i++)
+            {
+                COSBase filter = array.getObject(i);
+                if (!(filter instanceof COSName) || !isFlate((COSName) filter))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isFlate(COSName filter)
+    {
+        return COSName.FLATE_DECODE.equals(filter) || COSName.FLATE_DECODE_ABBREVIATION.equals(filter);
+    }
+}
@@ -33,7 +33,11 @@ public final class DecodeResult
     private final COSDictionary parameters;
     private PDJPXColorSpace colorSpace;
 
-    DecodeResult(COSDictionary parameters)
+    /**
+     * Creates a decode result with the given stream parameters.
+     * @param parameters the stream parameters
+     */
+    public DecodeResult(COSDictionary parameters)
     {
         this.parameters = parameters;
     }
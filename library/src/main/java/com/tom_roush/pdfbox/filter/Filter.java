@@ -81,6 +81,24 @@ public abstract class Filter
         return decode(encoded, decoded, parameters, index);
     }
 
+    /**
+     * Creates a stream which decodes the data while it is read, so that the decoded data
+     * doesn't have to be buffered before it is used. The default implementation returns null,
+     * for filters which decode using
+     * {@link #decode(InputStream, OutputStream, COSDictionary, int)} only.
+     *
+     * @param encoded the encoded byte stream, closed with the returned stream
+     * @param parameters the parameters used for decoding
+     * @param index the index to the filter being decoded
+     * @return the decoded byte stream, or null if the filter can't decode while reading
+     * @throws IOException if the stream cannot be decoded
+     */
+    public InputStream createDecodingStream(InputStream encoded, COSDictionary parameters,
+        int index) throws IOException
+    {
+        return null;
+    }
+
     /**
      * Encodes data.
      * @param input the byte stream to encode
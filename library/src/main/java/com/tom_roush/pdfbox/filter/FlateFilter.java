@@ -21,6 +21,8 @@ import android.util.Log;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
@@ -38,6 +40,13 @@ import com.tom_roush.pdfbox.io.IOUtils;
  */
 final class FlateFilter extends Filter
 {
+    private static final int MIN_BUFFER_SIZE = 2048;
+    private static final int MAX_BUFFER_SIZE = 65536;
+
+    // inflaters are reset and reused, as creating one allocates native memory
+    private static final Queue<Inflater> INFLATERS = new ArrayBlockingQueue<Inflater>(
+        Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+
     @Override
     public DecodeResult decode(InputStream encoded, OutputStream decoded,
         COSDictionary parameters, int index) throws IOException
@@ -59,21 +68,33 @@ final class FlateFilter extends Filter
         return new DecodeResult(parameters);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Rows of streams with a predictor are decoded when they are read.
+     */
+    @Override
+    public InputStream createDecodingStream(InputStream encoded, COSDictionary parameters,
+        int index)
+    {
+        return Predictor.wrapPredictor(new FlateInputStream(encoded),
+            getDecodeParams(parameters, index));
+    }
+
     // Use Inflater instead of InflateInputStream to avoid an EOFException due to a probably
     // missing Z_STREAM_END, see PDFBOX-1232 for details
     private void decompress(InputStream in, OutputStream out) throws IOException, DataFormatException
     {
-        byte[] buf = new byte[2048];
+        byte[] buf = new byte[getBufferSize(in)];
         // skip zlib header
         in.read();
         in.read();
         int read = in.read(buf);
         if (read > 0)
         {
-            // use nowrap mode to bypass zlib-header and checksum to avoid a DataFormatException
-            Inflater inflater = new Inflater(true);
+            Inflater inflater = acquireInflater();
             inflater.setInput(buf,0,read);
-            byte[] res = new byte[1024];
+            byte[] res = new byte[Math.min(buf.length * 4, MAX_BUFFER_SIZE)];
             boolean dataWritten = false;
             try
             {
@@ -109,17 +130,226 @@ final class FlateFilter extends Filter
                         break;
                     }
                     read = in.read(buf);
+                    if (read <= 0)
+                    {
+                        break;
+                    }
                     inflater.setInput(buf,0,read);
                 }
             }
             finally
             {
-                inflater.end();
+                releaseInflater(inflater);
             }
         }
         out.flush();
     }
 
+    /**
+     * Returns the size of the input buffer, depending on the encoded data which is available.
+     */
+    private static int getBufferSize(InputStream in) throws IOException
+    {
+        return Math.max(MIN_BUFFER_SIZE, Math.min(in.available(), MAX_BUFFER_SIZE));
+    }
+
+    private static Inflater acquireInflater()
+    {
+        Inflater inflater = INFLATERS.poll();
+        // use nowrap mode to bypass zlib-header and checksum to avoid a DataFormatException
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    private static void releaseInflater(Inflater inflater)
+    {
+        inflater.reset();
+        if (!INFLATERS.offer(inflater))
+        {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Inflates the data while it is read. Large reads are inflated directly into the buffer of the
+     * caller, small ones are served from a block of inflated data. Handles corrupt streams the same
+     * way as {@link FlateFilter#decode(InputStream, OutputStream, COSDictionary, int)}.
+     */
+    private static final class FlateInputStream extends InputStream
+    {
+        private final InputStream in;
+        private Inflater inflater;
+        private byte[] buf;
+        // inflated data which hasn't been read yet
+        private byte[] outBuffer;
+        private int outPosition;
+        private int outLimit;
+        private boolean dataRead;
+        private boolean eof;
+
+        private FlateInputStream(InputStream in)
+        {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (outPosition == outLimit && !fill())
+            {
+                return -1;
+            }
+            return outBuffer[outPosition++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            int buffered = outLimit - outPosition;
+            if (buffered > 0)
+            {
+                int n = Math.min(buffered, len);
+                System.arraycopy(outBuffer, outPosition, b, off, n);
+                outPosition += n;
+                return n;
+            }
+            if (len < MIN_BUFFER_SIZE)
+            {
+                if (!fill())
+                {
+                    return -1;
+                }
+                return read(b, off, len);
+            }
+            return inflate(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            // the skipped data has to be inflated too
+            long skipped = 0;
+            while (skipped < n)
+            {
+                if (outPosition == outLimit && !fill())
+                {
+                    break;
+                }
+                int count = (int) Math.min(n - skipped, outLimit - outPosition);
+                outPosition += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            if (outPosition == outLimit && !fill())
+            {
+                return 0;
+            }
+            return outLimit - outPosition;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            finish();
+            in.close();
+        }
+
+        // inflates the next block into the output buffer, returns false at the end of the data
+        private boolean fill() throws IOException
+        {
+            if (outBuffer == null)
+            {
+                outBuffer = new byte[MIN_BUFFER_SIZE];
+            }
+            int n = inflate(outBuffer, 0, outBuffer.length);
+            outPosition = 0;
+            outLimit = Math.max(n, 0);
+            return n > 0;
+        }
+
+        // inflates data into the given buffer, returns -1 at the end of the data
+        private int inflate(byte[] b, int off, int len) throws IOException
+        {
+            if (eof || (inflater == null && !start()))
+            {
+                return -1;
+            }
+            while (true)
+            {
+                int n;
+                try
+                {
+                    n = inflater.inflate(b, off, len);
+                }
+                catch (DataFormatException exception)
+                {
+                    finish();
+                    if (dataRead)
+                    {
+                        // some data could be read -> don't throw an exception
+                        Log.w("PdfBox-Android", "FlateFilter: premature end of stream due to a DataFormatException");
+                        return -1;
+                    }
+                    Log.e("PdfBox-Android", "FlateFilter: stop reading corrupt stream due to a DataFormatException");
+                    throw new IOException(exception);
+                }
+                if (n != 0)
+                {
+                    dataRead = true;
+                    return n;
+                }
+                if (inflater.finished() || inflater.needsDictionary() || in.available() == 0)
+                {
+                    finish();
+                    return -1;
+                }
+                int read = in.read(buf);
+                if (read <= 0)
+                {
+                    finish();
+                    return -1;
+                }
+                inflater.setInput(buf, 0, read);
+            }
+        }
+
+        // reads the first chunk of the encoded data, returns false if there is none
+        private boolean start() throws IOException
+        {
+            buf = new byte[getBufferSize(in)];
+            // skip zlib header
+            in.read();
+            in.read();
+            int read = in.read(buf);
+            if (read <= 0)
+            {
+                eof = true;
+                return false;
+            }
+            inflater = acquireInflater();
+            inflater.setInput(buf, 0, read);
+            return true;
+        }
+
+        private void finish()
+        {
+            eof = true;
+            if (inflater != null)
+            {
+                releaseInflater(inflater);
+                inflater = null;
+            }
+        }
+    }
+
     @Override
     protected void encode(InputStream input, OutputStream encoded, COSDictionary parameters)
         throws IOException
@@ -21,14 +21,13 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import com.tom_roush.harmony.javax.imageio.stream.MemoryCacheImageInputStream;
 import com.tom_roush.harmony.javax.imageio.stream.MemoryCacheImageOutputStream;
 import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.io.IOUtils;
 
 /**
  *
@@ -49,7 +48,17 @@ public class LZWFilter extends Filter
      */
     public static final long EOD = 257;
 
-    //BEWARE: codeTable must be local to each method, because there is only
+    /**
+     * The maximum size of the LZW code table, codes have at most 12 bits.
+     */
+    private static final int MAX_TABLE_SIZE = 4096;
+
+    /**
+     * Size of the hash table of the encoder, a power of 2 well above {@link #MAX_TABLE_SIZE}.
+     */
+    private static final int HASH_SIZE = 8192;
+
+    //BEWARE: code tables must be local to each method, because there is only
     // one instance of each filter
 
     /**
@@ -60,74 +69,211 @@ public class LZWFilter extends Filter
         COSDictionary parameters, int index) throws IOException
     {
         COSDictionary decodeParams = getDecodeParams(parameters, index);
+        OutputStream output = Predictor.wrapPredictor(decoded, decodeParams);
+        IOUtils.copy(new LZWInputStream(encoded, getEarlyChange(decodeParams)), output);
+        output.flush();
+        return new DecodeResult(parameters);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The codes are decoded when the stream is read, rows of streams with a predictor are decoded
+     * as soon as they are complete.
+     */
+    @Override
+    public InputStream createDecodingStream(InputStream encoded, COSDictionary parameters,
+        int index) throws IOException
+    {
+        COSDictionary decodeParams = getDecodeParams(parameters, index);
+        return Predictor.wrapPredictor(new LZWInputStream(encoded, getEarlyChange(decodeParams)),
+            decodeParams);
+    }
+
+    private static int getEarlyChange(COSDictionary decodeParams)
+    {
         int earlyChange = decodeParams.getInt(COSName.EARLY_CHANGE, 1);
+        return earlyChange != 0 && earlyChange != 1 ? 1 : earlyChange;
+    }
 
-        if (earlyChange != 0 && earlyChange != 1)
+    /**
+     * Decodes the LZW codes of the encoded stream when it is read. The bytes of one code are
+     * held until they have been read.
+     */
+    private static final class LZWInputStream extends InputStream
+    {
+        // each code is stored as the code of its prefix and its last byte, the table is
+        // empty until the first CLEAR_TABLE
+        private final int[] prefixes = new int[MAX_TABLE_SIZE];
+        private final byte[] suffixes = new byte[MAX_TABLE_SIZE];
+        private final int[] lengths = new int[MAX_TABLE_SIZE];
+        private final byte[] buffer = new byte[MAX_TABLE_SIZE];
+        private final MemoryCacheImageInputStream in;
+        private final int earlyChange;
+        private int tableSize = 0;
+        private int chunk = 9;
+        private long prevCommand = -1;
+        private int position;
+        private int length;
+        private boolean eod;
+
+        private LZWInputStream(InputStream encoded, int earlyChange)
         {
-            earlyChange = 1;
+            this.in = new MemoryCacheImageInputStream(encoded);
+            this.earlyChange = earlyChange;
         }
 
-        doLZWDecode(encoded, Predictor.wrapPredictor(decoded, decodeParams), earlyChange);
-        return new DecodeResult(parameters);
-    }
+        @Override
+        public int read() throws IOException
+        {
+            if (position == length && !decodeNext())
+            {
+                return -1;
+            }
+            return buffer[position++] & 0xff;
+        }
 
-    private void doLZWDecode(InputStream encoded, OutputStream decoded, int earlyChange) throws IOException
-    {
-        List<byte[]> codeTable = new ArrayList<byte[]>();
-        int chunk = 9;
-        final MemoryCacheImageInputStream in = new MemoryCacheImageInputStream(encoded);
-        long nextCommand;
-        long prevCommand = -1;
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            int count = 0;
+            while (count < len && (position < length || decodeNext()))
+            {
+                int n = Math.min(len - count, length - position);
+                System.arraycopy(buffer, position, b, off + count, n);
+                position += n;
+                count += n;
+            }
+            return count == 0 ? -1 : count;
+        }
 
-        try
+        @Override
+        public long skip(long n) throws IOException
         {
-            while ((nextCommand = in.readBits(chunk)) != EOD)
+            long skipped = 0;
+            while (skipped < n && (position < length || decodeNext()))
             {
-                if (nextCommand == CLEAR_TABLE)
-                {
-                    chunk = 9;
-                    codeTable = createCodeTable();
-                    prevCommand = -1;
-                }
-                else
+                int count = (int) Math.min(n - skipped, length - position);
+                position += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            return position < length ? length - position : eod ? 0 : 1;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+
+        /**
+         * Decodes codes until one yields some bytes.
+         *
+         * @return false if the end of data has been reached.
+         */
+        private boolean decodeNext() throws IOException
+        {
+            position = 0;
+            length = 0;
+            try
+            {
+                while (!eod)
                 {
-                    if (nextCommand < codeTable.size())
+                    long nextCommand = in.readBits(chunk);
+                    if (nextCommand == EOD)
                     {
-                        byte[] data = codeTable.get((int) nextCommand);
-                        byte firstByte = data[0];
-                        decoded.write(data);
-                        if (prevCommand != -1)
-                        {
-                            checkIndexBounds(codeTable, prevCommand, in);
-                            data = codeTable.get((int) prevCommand);
-                            byte[] newData = Arrays.copyOf(data, data.length + 1);
-                            newData[data.length] = firstByte;
-                            codeTable.add(newData);
-                        }
+                        eod = true;
                     }
-                    else
+                    else if (nextCommand == CLEAR_TABLE)
                     {
-                        checkIndexBounds(codeTable, prevCommand, in);
-                        byte[] data = codeTable.get((int) prevCommand);
-                        byte[] newData = Arrays.copyOf(data, data.length + 1);
-                        newData[data.length] = data[0];
-                        decoded.write(newData);
-                        codeTable.add(newData);
+                        chunk = 9;
+                        tableSize = initCodeTable(prefixes, suffixes, lengths);
+                        prevCommand = -1;
                     }
+                    else
+                    {
+                        if (nextCommand < tableSize)
+                        {
+                            length = readCode(prefixes, suffixes, lengths, (int) nextCommand,
+                                buffer);
+                            if (prevCommand != -1)
+                            {
+                                checkIndexBounds(tableSize, prevCommand, in);
+                                tableSize = addCode(prefixes, suffixes, lengths, tableSize,
+                                    (int) prevCommand, buffer[0]);
+                            }
+                        }
+                        else
+                        {
+                            checkIndexBounds(tableSize, prevCommand, in);
+                            length = readCode(prefixes, suffixes, lengths, (int) prevCommand,
+                                buffer);
+                            buffer[length] = buffer[0];
+                            length++;
+                            tableSize = addCode(prefixes, suffixes, lengths, tableSize,
+                                (int) prevCommand, buffer[0]);
+                        }
 
-                    chunk = calculateChunk(codeTable.size(), earlyChange);
-                    prevCommand = nextCommand;
+                        chunk = calculateChunk(tableSize, earlyChange);
+                        prevCommand = nextCommand;
+                        return true;
+                    }
                 }
             }
+            catch (EOFException ex)
+            {
+                Log.w("PdfBox-Android", "Premature EOF in LZW stream, EOD code missing");
+                eod = true;
+            }
+            return false;
         }
-        catch (EOFException ex)
+    }
+
+    /**
+     * Writes the bytes of the given code into the buffer, by following the prefix codes.
+     *
+     * @return the number of bytes of the code.
+     */
+    private static int readCode(int[] prefixes, byte[] suffixes, int[] lengths, int code,
+        byte[] buffer)
+    {
+        int length = lengths[code];
+        for (int i = length - 1; i >= 0; i--)
         {
-            Log.w("PdfBox-Android", "Premature EOF in LZW stream, EOD code missing");
+            buffer[i] = suffixes[code];
+            code = prefixes[code];
         }
-        decoded.flush();
+        return length;
     }
 
-    private void checkIndexBounds(List<byte[]> codeTable, long index, MemoryCacheImageInputStream in)
+    /**
+     * Adds the code made of the prefix code and one more byte. Codes beyond the 12 bit range
+     * can't be referenced, so they are only counted.
+     *
+     * @return the new size of the code table.
+     */
+    private static int addCode(int[] prefixes, byte[] suffixes, int[] lengths, int tableSize,
+        int prefix, byte suffix)
+    {
+        if (tableSize < MAX_TABLE_SIZE)
+        {
+            prefixes[tableSize] = prefix;
+            suffixes[tableSize] = suffix;
+            lengths[tableSize] = lengths[prefix] + 1;
+        }
+        return tableSize + 1;
+    }
+
+    private static void checkIndexBounds(int tableSize, long index, MemoryCacheImageInputStream in)
         throws IOException
     {
         if (index < 0)
@@ -135,10 +281,10 @@ public class LZWFilter extends Filter
             throw new IOException("negative array index: " + index + " near offset "
                 + in.getStreamPosition());
         }
-        if (index >= codeTable.size())
+        if (index >= tableSize)
         {
             throw new IOException("array index overflow: " + index +
-                " >= " + codeTable.size() + " near offset "
+                " >= " + tableSize + " near offset "
                 + in.getStreamPosition());
         }
     }
@@ -150,54 +296,63 @@ public class LZWFilter extends Filter
     protected void encode(InputStream rawData, OutputStream encoded, COSDictionary parameters)
         throws IOException
     {
-        List<byte[]> codeTable = createCodeTable();
+        // the codes above EOD are found by hashing their prefix code and last byte
+        int[] hashKeys = new int[HASH_SIZE];
+        short[] hashCodes = new short[HASH_SIZE];
+        int tableSize = (int) EOD + 1;
         int chunk = 9;
 
-        byte[] inputPattern = null;
         final MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(encoded);
         out.writeBits(CLEAR_TABLE, chunk);
         int foundCode = -1;
-        int r;
-        while ((r = rawData.read()) != -1)
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = rawData.read(buffer)) != -1)
         {
-            byte by = (byte) r;
-            if (inputPattern == null)
+            for (int i = 0; i < n; i++)
             {
-                inputPattern = new byte[] { by };
-                foundCode = by & 0xff;
-            }
-            else
-            {
-                inputPattern = Arrays.copyOf(inputPattern, inputPattern.length + 1);
-                inputPattern[inputPattern.length - 1] = by;
-                int newFoundCode = findPatternCode(codeTable, inputPattern);
-                if (newFoundCode == -1)
+                int by = buffer[i] & 0xff;
+                if (foundCode == -1)
+                {
+                    foundCode = by;
+                    continue;
+                }
+                // 0 marks an empty slot
+                int key = ((foundCode << 8) | by) + 1;
+                int slot = hash(key);
+                while (hashKeys[slot] != 0 && hashKeys[slot] != key)
+                {
+                    slot = (slot + 1) & (HASH_SIZE - 1);
+                }
+                if (hashKeys[slot] == 0)
                 {
                     // use previous
-                    chunk = calculateChunk(codeTable.size() - 1, 1);
+                    chunk = calculateChunk(tableSize - 1, 1);
                     out.writeBits(foundCode, chunk);
                     // create new table entry
-                    codeTable.add(inputPattern);
+                    hashKeys[slot] = key;
+                    hashCodes[slot] = (short) tableSize;
+                    tableSize++;
 
-                    if (codeTable.size() == 4096)
+                    if (tableSize == MAX_TABLE_SIZE)
                     {
                         // code table is full
                         out.writeBits(CLEAR_TABLE, chunk);
-                        codeTable = createCodeTable();
+                        Arrays.fill(hashKeys, 0);
+                        tableSize = (int) EOD + 1;
                     }
 
-                    inputPattern = new byte[] { by };
-                    foundCode = by & 0xff;
+                    foundCode = by;
                 }
                 else
                 {
-                    foundCode = newFoundCode;
+                    foundCode = hashCodes[slot];
                 }
             }
         }
         if (foundCode != -1)
         {
-            chunk = calculateChunk(codeTable.size() - 1, 1);
+            chunk = calculateChunk(tableSize - 1, 1);
             out.writeBits(foundCode, chunk);
         }
 
@@ -206,7 +361,7 @@ public class LZWFilter extends Filter
         // possibly adjusted the chunk. Therefore, the encoder must behave as 
         // if the code table had just grown and thus it must be checked it is
         // needed to adjust the chunk, based on an increased table size parameter
-        chunk = calculateChunk(codeTable.size(), 1);
+        chunk = calculateChunk(tableSize, 1);
 
         out.writeBits(EOD, chunk);
 
@@ -218,58 +373,26 @@ public class LZWFilter extends Filter
         out.close();
     }
 
-    /**
-     * Find the longest matching pattern in the code table.
-     *
-     * @param codeTable The LZW code table.
-     * @param pattern The pattern to be searched for.
-     * @return The index of the longest matching pattern or -1 if nothing is
-     * found.
-     */
-    private int findPatternCode(List<byte[]> codeTable, byte[] pattern)
+    private static int hash(int key)
     {
-        int foundCode = -1;
-        int foundLen = 0;
-        for (int i = codeTable.size() - 1; i >= 0; --i)
-        {
-            if (i <= EOD)
-            {
-                // we're in the single byte area
-                if (foundCode != -1)
-                {
-                    // we already found pattern with size > 1
-                    return foundCode;
-                }
-                else if (pattern.length > 1)
-                {
-                    // we won't find anything here anyway
-                    return -1;
-                }
-            }
-            byte[] tryPattern = codeTable.get(i);
-            if ((foundCode != -1 || tryPattern.length > foundLen) && Arrays.equals(tryPattern, pattern))
-            {
-                foundCode = i;
-                foundLen = tryPattern.length;
-            }
-        }
-        return foundCode;
+        return (key * 0x9E3779B1 >>> 19) & (HASH_SIZE - 1);
     }
 
     /**
-     * Init the code table with 1 byte entries and the EOD and CLEAR_TABLE
-     * markers.
+     * Init the code table with 1 byte entries, followed by the unused CLEAR_TABLE and EOD
+     * codes.
+     *
+     * @return the size of the code table.
      */
-    private List<byte[]> createCodeTable()
+    private static int initCodeTable(int[] prefixes, byte[] suffixes, int[] lengths)
     {
-        List<byte[]> codeTable = new ArrayList<byte[]>(4096);
         for (int i = 0; i < 256; ++i)
         {
-            codeTable.add(new byte[] { (byte) (i & 0xFF) });
+            prefixes[i] = -1;
+            suffixes[i] = (byte) i;
+            lengths[i] = 1;
         }
-        codeTable.add(null); // 256 EOD
-        codeTable.add(null); // 257 CLEAR_TABLE
-        return codeTable;
+        return (int) EOD + 1;
     }
 
     /**
@@ -280,7 +403,7 @@ public class LZWFilter extends Filter
      *
      * @return a value between 9 and 12
      */
-    private int calculateChunk(int tabSize, int earlyChange)
+    private static int calculateChunk(int tabSize, int earlyChange)
     {
         if (tabSize >= 2048 - earlyChange)
         {
@@ -15,8 +15,10 @@
  */
 package com.tom_roush.pdfbox.filter;
 
+import java.io.FilterInputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 
@@ -63,12 +65,7 @@ public final class Predictor
                 if (bitsPerComponent == 8)
                 {
                     // for 8 bits per component it is the same algorithm as PRED SUB of PNG format
-                    for (int p = bytesPerPixel; p < rowlength; p++)
-                    {
-                        int sub = actline[p] & 0xff;
-                        int left = actline[p - bytesPerPixel] & 0xff;
-                        actline[p] = (byte) (sub + left);
-                    }
+                    decodeSub(actline, bytesPerPixel);
                     break;
                 }
                 if (bitsPerComponent == 16)
@@ -143,64 +140,175 @@ public final class Predictor
                 break;
             case 11:
                 // PRED SUB
-                for (int p = bytesPerPixel; p < rowlength; p++)
-                {
-                    int sub = actline[p];
-                    int left = actline[p - bytesPerPixel];
-                    actline[p] = (byte) (sub + left);
-                }
+                decodeSub(actline, bytesPerPixel);
                 break;
             case 12:
                 // PRED UP
                 for (int p = 0; p < rowlength; p++)
                 {
-                    int up = actline[p] & 0xff;
-                    int prior = lastline[p] & 0xff;
-                    actline[p] = (byte) ((up + prior) & 0xff);
+                    actline[p] += lastline[p];
                 }
                 break;
             case 13:
                 // PRED AVG
-                for (int p = 0; p < rowlength; p++)
-                {
-                    int avg = actline[p] & 0xff;
-                    int left = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;
-                    int up = lastline[p] & 0xff;
-                    actline[p] = (byte) ((avg + (left + up) / 2) & 0xff);
-                }
+                decodeAverage(actline, lastline, bytesPerPixel);
                 break;
             case 14:
                 // PRED PAETH
-                for (int p = 0; p < rowlength; p++)
+                decodePaeth(actline, lastline, bytesPerPixel);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Decodes a row with the PNG Sub predictor. The pixel sizes of 8 bit gray, RGB and CMYK
+     * images keep the left pixel in local variables instead of reading it back from the row.
+     */
+    private static void decodeSub(byte[] actline, int bytesPerPixel)
+    {
+        final int rowlength = actline.length;
+        switch (bytesPerPixel)
+        {
+            case 1:
+            {
+                byte left = rowlength > 0 ? actline[0] : 0;
+                for (int p = 1; p < rowlength; p++)
                 {
-                    int paeth = actline[p] & 0xff;
-                    int a = p - bytesPerPixel >= 0 ? actline[p - bytesPerPixel] & 0xff : 0;// left
-                    int b = lastline[p] & 0xff;// upper
-                    int c = p - bytesPerPixel >= 0 ? lastline[p - bytesPerPixel] & 0xff : 0;// upperleft
-                    int value = a + b - c;
-                    int absa = Math.abs(value - a);
-                    int absb = Math.abs(value - b);
-                    int absc = Math.abs(value - c);
-
-                    if (absa <= absb && absa <= absc)
-                    {
-                        actline[p] = (byte) ((paeth + a) & 0xff);
-                    }
-                    else if (absb <= absc)
-                    {
-                        actline[p] = (byte) ((paeth + b) & 0xff);
-                    }
-                    else
-                    {
-                        actline[p] = (byte) ((paeth + c) & 0xff);
-                    }
+                    left += actline[p];
+                    actline[p] = left;
+                }
+                break;
+            }
+            case 3:
+            {
+                if (rowlength < 3)
+                {
+                    break;
+                }
+                byte left0 = actline[0];
+                byte left1 = actline[1];
+                byte left2 = actline[2];
+                int p = 3;
+                for (; p + 2 < rowlength; p += 3)
+                {
+                    left0 += actline[p];
+                    left1 += actline[p + 1];
+                    left2 += actline[p + 2];
+                    actline[p] = left0;
+                    actline[p + 1] = left1;
+                    actline[p + 2] = left2;
+                }
+                for (; p < rowlength; p++)
+                {
+                    actline[p] += actline[p - 3];
+                }
+                break;
+            }
+            case 4:
+            {
+                if (rowlength < 4)
+                {
+                    break;
+                }
+                byte left0 = actline[0];
+                byte left1 = actline[1];
+                byte left2 = actline[2];
+                byte left3 = actline[3];
+                int p = 4;
+                for (; p + 3 < rowlength; p += 4)
+                {
+                    left0 += actline[p];
+                    left1 += actline[p + 1];
+                    left2 += actline[p + 2];
+                    left3 += actline[p + 3];
+                    actline[p] = left0;
+                    actline[p + 1] = left1;
+                    actline[p + 2] = left2;
+                    actline[p + 3] = left3;
+                }
+                for (; p < rowlength; p++)
+                {
+                    actline[p] += actline[p - 4];
                 }
                 break;
+            }
             default:
+                for (int p = bytesPerPixel; p < rowlength; p++)
+                {
+                    actline[p] += actline[p - bytesPerPixel];
+                }
                 break;
         }
     }
 
+    /**
+     * Decodes a row with the PNG Average predictor. The first pixel has no left neighbour, so
+     * that the loop of the other pixels doesn't need to check for it.
+     */
+    private static void decodeAverage(byte[] actline, byte[] lastline, int bytesPerPixel)
+    {
+        final int rowlength = actline.length;
+        final int first = Math.min(bytesPerPixel, rowlength);
+        for (int p = 0; p < first; p++)
+        {
+            actline[p] += (lastline[p] & 0xff) >> 1;
+        }
+        for (int p = first; p < rowlength; p++)
+        {
+            actline[p] += ((actline[p - bytesPerPixel] & 0xff) + (lastline[p] & 0xff)) >> 1;
+        }
+    }
+
+    /**
+     * Decodes a row with the PNG Paeth predictor. The predictor of the first pixel is always the
+     * upper one, as the left and the upper left ones are zero. For single byte pixels the left
+     * and the upper left values are kept in local variables.
+     */
+    private static void decodePaeth(byte[] actline, byte[] lastline, int bytesPerPixel)
+    {
+        final int rowlength = actline.length;
+        final int first = Math.min(bytesPerPixel, rowlength);
+        for (int p = 0; p < first; p++)
+        {
+            actline[p] += lastline[p];
+        }
+        if (bytesPerPixel == 1)
+        {
+            int a = rowlength > 0 ? actline[0] & 0xff : 0;
+            int c = rowlength > 0 ? lastline[0] & 0xff : 0;
+            for (int p = 1; p < rowlength; p++)
+            {
+                int b = lastline[p] & 0xff;
+                a = (actline[p] + paeth(a, b, c)) & 0xff;
+                actline[p] = (byte) a;
+                c = b;
+            }
+            return;
+        }
+        for (int p = first; p < rowlength; p++)
+        {
+            actline[p] += paeth(actline[p - bytesPerPixel] & 0xff, lastline[p] & 0xff,
+                lastline[p - bytesPerPixel] & 0xff);
+        }
+    }
+
+    /**
+     * Returns the Paeth predictor of the left, upper and upper left values.
+     */
+    private static int paeth(int a, int b, int c)
+    {
+        int pa = Math.abs(b - c);
+        int pb = Math.abs(a - c);
+        int pc = Math.abs(a + b - 2 * c);
+        if (pa <= pb && pa <= pc)
+        {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
     static int calculateRowLength(int colors, int bitsPerComponent, int columns)
     {
         final int bitsPerPixel = colors * bitsPerComponent;
@@ -249,6 +357,173 @@ public final class Predictor
         }
     }
 
+    /**
+     * Wraps an <code>InputStream</code> in a predictor decoding stream as necessary.
+     * If no predictor is specified by the parameters, the original stream is returned as is.
+     *
+     * @param in The stream from which the data to be decoded is read
+     * @param decodeParams Decode parameters for the stream
+     * @return An <code>InputStream</code> is returned, which decodes the rows when they are read.
+     * If no predictor is specified, the original stream is returned.
+     */
+    static InputStream wrapPredictor(InputStream in, COSDictionary decodeParams)
+    {
+        int predictor = decodeParams.getInt(COSName.PREDICTOR);
+        if (predictor > 1)
+        {
+            int colors = Math.min(decodeParams.getInt(COSName.COLORS, 1), 32);
+            int bitsPerPixel = decodeParams.getInt(COSName.BITS_PER_COMPONENT, 8);
+            int columns = decodeParams.getInt(COSName.COLUMNS, 1);
+
+            return new PredictorInputStream(in, predictor, colors, bitsPerPixel, columns);
+        }
+        else
+        {
+            return in;
+        }
+    }
+
+    /**
+     * Input stream that implements predictor decoding. A row is read and decoded when the
+     * previous one has been consumed, the same way as by {@link PredictorOutputStream}.
+     */
+    private static final class PredictorInputStream extends FilterInputStream
+    {
+        // current predictor type
+        private int predictor;
+        // image decode parameters
+        private final int colors;
+        private final int bitsPerComponent;
+        private final int columns;
+        private final int rowLength;
+        // PNG predictor (predictor>=10) means every row has a (potentially different)
+        // predictor value
+        private final boolean predictorPerRow;
+
+        // data buffers
+        private byte[] currentRow;
+        private byte[] lastRow;
+        // position of the next byte to be returned from the current row
+        private int position;
+        private boolean eof = false;
+
+        PredictorInputStream(InputStream in, int predictor, int colors, int bitsPerComponent, int columns)
+        {
+            super(in);
+            this.predictor = predictor;
+            this.colors = colors;
+            this.bitsPerComponent = bitsPerComponent;
+            this.columns = columns;
+            this.rowLength = calculateRowLength(colors, bitsPerComponent, columns);
+            this.predictorPerRow = predictor >= 10;
+            currentRow = new byte[rowLength];
+            lastRow = new byte[rowLength];
+            position = rowLength;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (position == rowLength && !readRow())
+            {
+                return -1;
+            }
+            return currentRow[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (position == rowLength && !readRow())
+            {
+                return -1;
+            }
+            int n = Math.min(len, rowLength - position);
+            System.arraycopy(currentRow, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = 0;
+            while (skipped < n && (position < rowLength || readRow()))
+            {
+                int count = (int) Math.min(n - skipped, rowLength - position);
+                position += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            return position < rowLength ? rowLength - position : eof ? 0 : in.available();
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+
+        /**
+         * Reads and decodes the next row, returns false at the end of the data.
+         */
+        private boolean readRow() throws IOException
+        {
+            if (eof || rowLength == 0)
+            {
+                return false;
+            }
+            if (predictorPerRow)
+            {
+                // PNG predictor; each row starts with predictor type (0, 1, 2, 3, 4)
+                // read per line predictor, add 10 to tread value 0 as 10, 1 as 11, ...
+                int b = in.read();
+                if (b == -1)
+                {
+                    eof = true;
+                    return false;
+                }
+                predictor = (byte) b + 10;
+            }
+            // flip the row buffers, the current row becomes the last one
+            byte[] temp = lastRow;
+            lastRow = currentRow;
+            currentRow = temp;
+            int rowData = 0;
+            while (rowData < rowLength)
+            {
+                int n = in.read(currentRow, rowData, rowLength - rowData);
+                if (n == -1)
+                {
+                    eof = true;
+                    break;
+                }
+                rowData += n;
+            }
+            if (rowData == 0)
+            {
+                // restore the last row, there is no new row
+                currentRow = lastRow;
+                lastRow = temp;
+                return false;
+            }
+            // The last row is allowed to be incomplete, and should be completed with zeros.
+            Arrays.fill(currentRow, rowData, rowLength, (byte) 0);
+            decodePredictorRow(predictor, colors, bitsPerComponent, columns, currentRow, lastRow);
+            position = 0;
+            return true;
+        }
+    }
+
     /**
      * Output stream that implements predictor decoding. Data is buffered until a complete
      * row is available, which is then decoded and written to the underlying stream.
@@ -38,6 +38,22 @@ public final class MemoryUsageSetting
     /** directory to be used for scratch file */
     private File tempDir;
 
+    /** if <code>true</code> a file to be parsed is memory mapped instead of read page by page */
+    private boolean useMemoryMappedInput;
+
+    /** if <code>true</code> the scratch file is memory mapped instead of read and written page by page */
+    private boolean useMemoryMappedScratchFile;
+
+    /** if <code>true</code> indirect objects of a loaded PDF are parsed on first access */
+    private boolean useLazyObjectLoading;
+
+    /** maximum number of objects loaded on demand which are kept in memory;
+     *  <code>-1</code> means 'unrestricted' */
+    private int maxResidentObjects = -1;
+
+    /** directory where the rebuilt cross references of damaged PDFs are cached */
+    private File recoveryIndexDir;
+
     /**
      * Private constructor for setup buffering memory usage called by one of the setup methods.
      *
@@ -183,6 +199,11 @@ public final class MemoryUsageSetting
         MemoryUsageSetting copy = new MemoryUsageSetting( useMainMemory, useTempFile,
             newMaxMainMemoryBytes, newMaxStorageBytes );
         copy.tempDir = tempDir;
+        copy.useMemoryMappedInput = useMemoryMappedInput;
+        copy.useMemoryMappedScratchFile = useMemoryMappedScratchFile;
+        copy.useLazyObjectLoading = useLazyObjectLoading;
+        copy.maxResidentObjects = maxResidentObjects;
+        copy.recoveryIndexDir = recoveryIndexDir;
 
         return copy;
     }
@@ -200,6 +221,116 @@ public final class MemoryUsageSetting
         return this;
     }
 
+    /**
+     * Sets whether a PDF file to be loaded is accessed via a memory mapping of the whole file
+     * instead of being read page by page into a cache. This avoids copying the file content
+     * and lets stream data be read straight from the mapped file. It only applies to documents
+     * loaded from a {@link File}.
+     *
+     * @param useMemoryMappedInput <code>true</code> to memory map the input file
+     *
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseMemoryMappedInput(boolean useMemoryMappedInput)
+    {
+        this.useMemoryMappedInput = useMemoryMappedInput;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if a PDF file to be loaded is to be memory mapped.
+     */
+    public boolean useMemoryMappedInput()
+    {
+        return useMemoryMappedInput;
+    }
+
+    /**
+     * Sets whether the temporary file used for buffering is memory mapped in large regions instead
+     * of being read and written page by page. Pages of the file are then allocated and accessed
+     * without a global lock, which helps if many buffers are used by several threads, e.g. while
+     * merging documents. It only applies if a temporary file is used.
+     *
+     * @param useMemoryMappedScratchFile <code>true</code> to memory map the temporary file
+     *
+     * @return this instance
+     */
+    public MemoryUsageSetting setUseMemoryMappedScratchFile(boolean useMemoryMappedScratchFile)
+    {
+        this.useMemoryMappedScratchFile = useMemoryMappedScratchFile;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if the temporary file is to be memory mapped.
+     */
+    public boolean useMemoryMappedScratchFile()
+    {
+        return useMemoryMappedScratchFile;
+    }
+
+    /**
+     * Sets whether the indirect objects of a PDF to be loaded are parsed on first access instead
+     * of up front. Optionally the number of objects kept in memory can be restricted, the oldest
+     * objects are then dropped and parsed again when needed. Changes to dropped objects are lost,
+     * so a restriction should only be used for documents which aren't modified.
+     *
+     * @param useLazyObjectLoading <code>true</code> to parse objects on first access
+     * @param maxResidentObjects maximum number of objects loaded on demand which are kept in
+     *                           memory; <code>-1</code> for no restriction
+     *
+     * @return this instance
+     */
+    public MemoryUsageSetting setLazyObjectLoading(boolean useLazyObjectLoading,
+        int maxResidentObjects)
+    {
+        this.useLazyObjectLoading = useLazyObjectLoading;
+        this.maxResidentObjects = maxResidentObjects > 0 ? maxResidentObjects : -1;
+        return this;
+    }
+
+    /**
+     * Returns <code>true</code> if indirect objects are to be parsed on first access.
+     */
+    public boolean useLazyObjectLoading()
+    {
+        return useLazyObjectLoading;
+    }
+
+    /**
+     * Returns maximum number of objects loaded on demand which are kept in memory,
+     * <code>-1</code> if unrestricted.
+     */
+    public int getMaxResidentObjects()
+    {
+        return maxResidentObjects;
+    }
+
+    /**
+     * Sets a directory where the cross reference and the trailer of a damaged PDF are stored
+     * after they were rebuilt by searching the whole file. Loading the same PDF again uses the
+     * stored index after checking some of its offsets. The files are named after a hash of the
+     * PDF and are never removed, this is left to the application.
+     *
+     * @param recoveryIndexDir the cache directory, <code>null</code> to disable the cache
+     *
+     * @return this instance
+     */
+    public MemoryUsageSetting setRecoveryIndexDir(File recoveryIndexDir)
+    {
+        this.recoveryIndexDir = recoveryIndexDir;
+        return this;
+    }
+
+    /**
+     * Returns the directory of the cached cross references of damaged PDFs, <code>null</code> if
+     * they aren't cached.
+     */
+    public File getRecoveryIndexDir()
+    {
+        return recoveryIndexDir;
+    }
+
     /**
      * Returns <code>true</code> if main-memory is to be used.
      *
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A RandomAccessRead implementation which maps the whole file into memory using
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)}. Reads are served directly from the
+ * mapped pages without copying them into an intermediate page cache.
+ *
+ * A single mapped buffer is limited to 2 GB, so bigger files are mapped in several chunks.
+ *
+ * The file handle is released right after mapping. The mapping itself stays valid until all
+ * references to it (including views created by {@link #createView(long, long)}) are garbage
+ * collected.
+ */
+public class RandomAccessMemoryMappedFile implements RandomAccessRead
+{
+    // default chunk size is 1 GB
+    private static final int DEFAULT_CHUNK_SHIFT = 30;
+
+    private final int chunkShift;
+    private final long chunkMask;
+    // the file this instance or view belongs to, null if this is the file itself
+    private final RandomAccessMemoryMappedFile parent;
+    // mapped chunks, duplicated per instance so that each one has its own buffer positions
+    private ByteBuffer[] chunks;
+    // absolute offset of the first byte of this instance within the file
+    private final long startOffset;
+    // number of bytes available through this instance
+    private final long size;
+    // current position relative to startOffset
+    private long position;
+    private boolean isClosed;
+
+    /**
+     * Create a memory mapped random access read for the given file.
+     *
+     * @param file the file to be read.
+     * @throws IOException if something went wrong while mapping the given file.
+     */
+    public RandomAccessMemoryMappedFile(File file) throws IOException
+    {
+        this(file, DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Create a memory mapped random access read for the given file using chunks of the given size.
+     *
+     * @param file the file to be read.
+     * @param chunkShift the size of a chunk as power of 2, at most 30.
+     * @throws IOException if something went wrong while mapping the given file.
+     */
+    RandomAccessMemoryMappedFile(File file, int chunkShift) throws IOException
+    {
+        if (chunkShift < 1 || chunkShift > DEFAULT_CHUNK_SHIFT)
+        {
+            throw new IllegalArgumentException("Invalid chunk shift " + chunkShift);
+        }
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        parent = null;
+        startOffset = 0;
+        RandomAccessFile raFile = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raFile.getChannel();
+            size = channel.size();
+            int chunkCount = (int) ((size + chunkMask) >>> chunkShift);
+            chunks = new ByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++)
+            {
+                long chunkStart = (long) i << chunkShift;
+                long chunkLength = Math.min(1L << chunkShift, size - chunkStart);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkLength);
+            }
+        }
+        finally
+        {
+            // the mapping doesn't depend on the channel, see FileChannel.map()
+            raFile.close();
+        }
+    }
+
+    /**
+     * Create a view of the given file sharing its mapped chunks.
+     */
+    private RandomAccessMemoryMappedFile(RandomAccessMemoryMappedFile file, long startOffset,
+        long size)
+    {
+        chunkShift = file.chunkShift;
+        chunkMask = file.chunkMask;
+        parent = file;
+        this.startOffset = file.startOffset + startOffset;
+        this.size = size;
+        chunks = new ByteBuffer[file.chunks.length];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            chunks[i] = file.chunks[i].duplicate();
+        }
+    }
+
+    /**
+     * Creates a read only view of a part of this file. The view has its own position starting at
+     * zero and shares the mapped memory with this instance, no data is copied. The view is
+     * considered closed as soon as this instance is closed.
+     *
+     * @param startPosition the position within this instance where the view starts.
+     * @param streamLength the length of the view.
+     * @return the view of the given part of this file.
+     * @throws IOException if this instance is closed or the range is out of bounds.
+     */
+    public RandomAccessMemoryMappedFile createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        checkClosed();
+        if (startPosition < 0 || streamLength < 0 || startPosition + streamLength > size)
+        {
+            throw new IOException("Invalid view range " + startPosition + " - "
+                + (startPosition + streamLength) + ", length is " + size);
+        }
+        return new RandomAccessMemoryMappedFile(this, startPosition, streamLength);
+    }
+
+    /**
+     * Ensure that the RandomAccessMemoryMappedFile is not closed
+     *
+     * @throws IOException
+     */
+    private void checkClosed() throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException("RandomAccessMemoryMappedFile already closed");
+        }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (position >= size)
+        {
+            return -1;
+        }
+        long offset = startOffset + position++;
+        return chunks[(int) (offset >>> chunkShift)].get((int) (offset & chunkMask)) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int length) throws IOException
+    {
+        checkClosed();
+        if (position >= size)
+        {
+            return -1;
+        }
+        int bytesToRead = (int) Math.min(length, size - position);
+        int bytesRead = 0;
+        while (bytesRead < bytesToRead)
+        {
+            long fileOffset = startOffset + position;
+            ByteBuffer chunk = chunks[(int) (fileOffset >>> chunkShift)];
+            int chunkOffset = (int) (fileOffset & chunkMask);
+            int count = Math.min(bytesToRead - bytesRead, chunk.limit() - chunkOffset);
+            chunk.position(chunkOffset);
+            chunk.get(b, offset + bytesRead, count);
+            bytesRead += count;
+            position += count;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long position) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        this.position = position;
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return size;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed || (parent != null && parent.isClosed());
+    }
+
+    @Override
+    public int peek() throws IOException
+    {
+        int result = read();
+        if (result != -1)
+        {
+            rewind(1);
+        }
+        return result;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException
+    {
+        seek(getPosition() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException
+    {
+        checkClosed();
+        if (size - position < length)
+        {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[length];
+        if (length > 0)
+        {
+            read(bytes, 0, length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return position >= size;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return (int) Math.min(Math.max(size - position, 0), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        // the mapped memory is released by the garbage collector
+        chunks = null;
+        isClosed = true;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * A read only view of a range of another RandomAccessRead, which is shared with other readers,
+ * e.g. the parser of a PDF. Each access to the source is synchronized on the given lock and
+ * restores the position of the source afterwards. The view must not be used after the source has
+ * been closed.
+ *
+ * A view isn't meant to be shared by several threads, as {@link RandomAccessInputStream} would
+ * hold its monitor while waiting for the lock of the source. Use {@link #createView(long, long)}
+ * to get a view for each reader instead.
+ */
+public class RandomAccessReadView implements RandomAccessRead
+{
+    private static final int BUFFER_SIZE = 4096;
+
+    private final RandomAccessRead source;
+    private final Object lock;
+    // absolute offset of the first byte of this view within the source
+    private final long startPosition;
+    // number of bytes available through this view
+    private final long length;
+    // current position relative to startPosition
+    private long position;
+    // bytes of the source starting at bufferStart, relative to startPosition
+    private byte[] buffer;
+    private long bufferStart;
+    private int bufferLength;
+    private boolean isClosed;
+
+    /**
+     * Creates a view of the given range of the source.
+     *
+     * @param source the source of the data
+     * @param lock the lock guarding the position of the source
+     * @param startPosition the start of the range
+     * @param length the length of the range
+     * @throws IOException if the range exceeds the source
+     */
+    public RandomAccessReadView(RandomAccessRead source, Object lock, long startPosition,
+        long length) throws IOException
+    {
+        if (startPosition < 0 || length < 0 || startPosition + length > source.length())
+        {
+            throw new IOException("Invalid view range " + startPosition + " - "
+                + (startPosition + length) + ", length is " + source.length());
+        }
+        this.source = source;
+        this.lock = lock;
+        this.startPosition = startPosition;
+        this.length = length;
+    }
+
+    /**
+     * Creates a view of the given range of this view, which shares its source.
+     *
+     * @param startPosition the start of the range, relative to this view
+     * @param streamLength the length of the range
+     * @return the new view
+     * @throws IOException if the range exceeds this view
+     */
+    public RandomAccessReadView createView(long startPosition, long streamLength)
+        throws IOException
+    {
+        checkClosed();
+        if (startPosition < 0 || streamLength < 0 || startPosition + streamLength > length)
+        {
+            throw new IOException("Invalid view range " + startPosition + " - "
+                + (startPosition + streamLength) + ", length is " + length);
+        }
+        return new RandomAccessReadView(source, lock, this.startPosition + startPosition,
+            streamLength);
+    }
+
+    private void checkClosed() throws IOException
+    {
+        if (isClosed())
+        {
+            throw new IOException("RandomAccessReadView already closed");
+        }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        checkClosed();
+        if (position >= length)
+        {
+            return -1;
+        }
+        if (position < bufferStart || position >= bufferStart + bufferLength)
+        {
+            if (buffer == null)
+            {
+                buffer = new byte[BUFFER_SIZE];
+            }
+            bufferStart = position;
+            bufferLength = readSource(position, buffer, 0,
+                (int) Math.min(BUFFER_SIZE, length - position));
+            if (bufferLength <= 0)
+            {
+                bufferLength = 0;
+                return -1;
+            }
+        }
+        return buffer[(int) (position++ - bufferStart)] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException
+    {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int offset, int len) throws IOException
+    {
+        checkClosed();
+        if (position >= length)
+        {
+            return -1;
+        }
+        int bytesToRead = (int) Math.min(len, length - position);
+        int bytesRead = 0;
+        // serve what's buffered, the rest is read straight from the source
+        if (position >= bufferStart && position < bufferStart + bufferLength)
+        {
+            bytesRead = Math.min(bytesToRead, (int) (bufferStart + bufferLength - position));
+            System.arraycopy(buffer, (int) (position - bufferStart), b, offset, bytesRead);
+            position += bytesRead;
+        }
+        if (bytesRead < bytesToRead)
+        {
+            int count = readSource(position, b, offset + bytesRead, bytesToRead - bytesRead);
+            if (count > 0)
+            {
+                bytesRead += count;
+                position += count;
+            }
+        }
+        return bytesRead > 0 ? bytesRead : -1;
+    }
+
+    // reads from the source at the given position relative to this view
+    private int readSource(long pos, byte[] b, int offset, int len) throws IOException
+    {
+        synchronized (lock)
+        {
+            long sourcePosition = source.getPosition();
+            try
+            {
+                source.seek(startPosition + pos);
+                int total = 0;
+                while (total < len)
+                {
+                    int count = source.read(b, offset + total, len - total);
+                    if (count <= 0)
+                    {
+                        break;
+                    }
+                    total += count;
+                }
+                return total;
+            }
+            finally
+            {
+                source.seek(sourcePosition);
+            }
+        }
+    }
+
+    @Override
+    public long getPosition() throws IOException
+    {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long position) throws IOException
+    {
+        checkClosed();
+        if (position < 0)
+        {
+            throw new IOException("Invalid position " + position);
+        }
+        this.position = position;
+    }
+
+    @Override
+    public long length() throws IOException
+    {
+        checkClosed();
+        return length;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return isClosed || source.isClosed();
+    }
+
+    @Override
+    public int peek() throws IOException
+    {
+        int result = read();
+        if (result != -1)
+        {
+            rewind(1);
+        }
+        return result;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException
+    {
+        seek(getPosition() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int len) throws IOException
+    {
+        checkClosed();
+        if (length - position < len)
+        {
+            throw new EOFException();
+        }
+        byte[] bytes = new byte[len];
+        int bytesRead = 0;
+        while (bytesRead < len)
+        {
+            int count = read(bytes, bytesRead, len - bytesRead);
+            if (count <= 0)
+            {
+                throw new EOFException();
+            }
+            bytesRead += count;
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException
+    {
+        checkClosed();
+        return position >= length;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        checkClosed();
+        return (int) Math.min(Math.max(length - position, 0), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Closes this view, the source is left open.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        buffer = null;
+        isClosed = true;
+    }
+}
@@ -22,7 +22,11 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.tom_roush.pdfbox.android.PDFBoxConfig;
 
@@ -43,6 +47,11 @@ import com.tom_roush.pdfbox.android.PDFBoxConfig;
  * <p>If a temporary file was created (done with the first page to be stored
  * in temporary file) it is deleted when {@link ScratchFile#close()} is called.</p>
  *
+ * <p>If {@link MemoryUsageSetting#useMemoryMappedScratchFile()} is set, the temporary file
+ * is memory mapped in regions of {@link #MAPPED_REGION_PAGE_COUNT} pages. Free pages of
+ * the file are then tracked by a bitmap updated with compare-and-set and pages are copied
+ * from and to the mapped regions directly, so that neither needs a global lock.</p>
+ *
  * <p>Using this class for {@link RandomAccess} buffers allows for a direct control
  * on the maximum memory usage and allows processing large files for which we
  * otherwise would get an {@link OutOfMemoryError} in case of using {@link RandomAccessBuffer}.</p>
@@ -57,6 +66,8 @@ public class ScratchFile implements Closeable
      *  {@link #inMemoryPages} is setup for */
     private static final int INIT_UNRESTRICTED_MAINMEM_PAGECOUNT = 100000;
     private static final int PAGE_SIZE = 4096;
+    /** number of pages of a mapped region of the scratch file (16 MB), a multiple of 64 */
+    private static final int MAPPED_REGION_PAGE_COUNT = 4096;
 
     private final Object ioLock = new Object();
     private final File scratchFileDirectory;
@@ -74,6 +85,13 @@ public class ScratchFile implements Closeable
     private final int maxPageCount;
     private final boolean useScratchFile;
     private final boolean maxMainMemoryIsRestricted;
+    private final boolean useMappedScratchFile;
+    /** mapped regions of the scratch file; replaced by a larger copy under synchronization of
+     *  {@link #ioLock}, before the free pages of the new region are published */
+    private volatile ByteBuffer[] mappedRegions = new ByteBuffer[0];
+    /** one bitmap of free pages per mapped region, a set bit meaning the page is free;
+     *  the bits are only changed with compare-and-set */
+    private volatile AtomicLongArray[] mappedFreePages = new AtomicLongArray[0];
 
     private volatile boolean isClosed = false;
 
@@ -109,6 +127,7 @@ public class ScratchFile implements Closeable
         maxMainMemoryIsRestricted = (!memUsageSetting.useMainMemory()) || memUsageSetting.isMainMemoryRestricted();
         useScratchFile = maxMainMemoryIsRestricted && memUsageSetting.useTempFile();
         scratchFileDirectory = useScratchFile ? memUsageSetting.getTempDir() : null;
+        useMappedScratchFile = useScratchFile && memUsageSetting.useMemoryMappedScratchFile();
 
         if ((scratchFileDirectory != null) && (!scratchFileDirectory.isDirectory()))
         {
@@ -157,6 +176,28 @@ public class ScratchFile implements Closeable
      */
     int getNewPage() throws IOException
     {
+        if (useMappedScratchFile)
+        {
+            if (inMemoryMaxPageCount > 0)
+            {
+                // in mixed mode the in-memory pages are used first, as in the default mode
+                synchronized (freePages)
+                {
+                    int idx = freePages.nextSetBit(0);
+                    if (idx >= 0)
+                    {
+                        freePages.clear(idx);
+                        if (idx >= pageCount)
+                        {
+                            pageCount = idx + 1;
+                        }
+                        return idx;
+                    }
+                }
+            }
+            return getNewMappedPage();
+        }
+
         synchronized (freePages)
         {
             int idx = freePages.nextSetBit( 0 );
@@ -183,6 +224,148 @@ public class ScratchFile implements Closeable
         }
     }
 
+    /**
+     * Returns a free page of the mapped regions, a new region is mapped if there is none.
+     *
+     * @return index of new page
+     */
+    private int getNewMappedPage() throws IOException
+    {
+        while (true)
+        {
+            AtomicLongArray[] bitmaps = mappedFreePages;
+            for (int region = 0; region < bitmaps.length; region++)
+            {
+                int page = claimFreePage(bitmaps[region]);
+                if (page >= 0)
+                {
+                    return inMemoryMaxPageCount + region * MAPPED_REGION_PAGE_COUNT + page;
+                }
+            }
+            mapRegion(bitmaps.length);
+        }
+    }
+
+    /**
+     * Clears the lowest set bit of the bitmap.
+     *
+     * @return the index of the bit, or -1 if no bit is set
+     */
+    private static int claimFreePage(AtomicLongArray bitmap)
+    {
+        for (int i = 0; i < bitmap.length(); i++)
+        {
+            long bits;
+            while ((bits = bitmap.get(i)) != 0)
+            {
+                long bit = Long.lowestOneBit(bits);
+                if (bitmap.compareAndSet(i, bits, bits & ~bit))
+                {
+                    return i * 64 + Long.numberOfTrailingZeros(bit);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Maps the region with the given index, unless another thread did it already. The scratch
+     * file is created and enlarged as needed.
+     *
+     * @param regionIndex index of the region to be mapped
+     *
+     * @throws IOException if the maximum number of pages is reached or mapping failed
+     */
+    private void mapRegion(int regionIndex) throws IOException
+    {
+        synchronized (ioLock)
+        {
+            checkClosed();
+
+            if (mappedRegions.length > regionIndex)
+            {
+                return;
+            }
+
+            long firstPage = (long) inMemoryMaxPageCount + (long) regionIndex * MAPPED_REGION_PAGE_COUNT;
+            int regionPageCount = (int) Math.min(MAPPED_REGION_PAGE_COUNT, maxPageCount - firstPage);
+            if (regionPageCount <= 0)
+            {
+                throw new IOException("Maximum allowed scratch file memory exceeded.");
+            }
+
+            if (raf == null)
+            {
+                createScratchFile();
+            }
+
+            // mapping beyond the end of the file enlarges the file
+            ByteBuffer region = raf.getChannel().map(FileChannel.MapMode.READ_WRITE,
+                (long) regionIndex * MAPPED_REGION_PAGE_COUNT * PAGE_SIZE,
+                (long) regionPageCount * PAGE_SIZE);
+            AtomicLongArray bitmap = new AtomicLongArray(MAPPED_REGION_PAGE_COUNT / 64);
+            for (int i = 0; i < regionPageCount; i += 64)
+            {
+                int bits = regionPageCount - i;
+                bitmap.set(i / 64, bits >= 64 ? -1L : (1L << bits) - 1);
+            }
+
+            ByteBuffer[] regions = Arrays.copyOf(mappedRegions, regionIndex + 1);
+            regions[regionIndex] = region;
+            mappedRegions = regions;
+            AtomicLongArray[] bitmaps = Arrays.copyOf(mappedFreePages, regionIndex + 1);
+            bitmaps[regionIndex] = bitmap;
+            mappedFreePages = bitmaps;
+
+            synchronized (freePages)
+            {
+                pageCount = (int) (firstPage + regionPageCount);
+            }
+        }
+    }
+
+    /**
+     * Returns a buffer of the mapped page with the given index, which has its own position.
+     */
+    private ByteBuffer getMappedPage(int pageIdx) throws IOException
+    {
+        checkClosed();
+        int filePage = pageIdx - inMemoryMaxPageCount;
+        ByteBuffer[] regions = mappedRegions;
+        int regionIndex = filePage / MAPPED_REGION_PAGE_COUNT;
+        if (regionIndex >= regions.length)
+        {
+            throw new IOException("Missing scratch file region for page with index " + pageIdx);
+        }
+        ByteBuffer page = regions[regionIndex].duplicate();
+        int offset = (filePage % MAPPED_REGION_PAGE_COUNT) * PAGE_SIZE;
+        page.limit(offset + PAGE_SIZE);
+        page.position(offset);
+        return page;
+    }
+
+    /**
+     * Creates the scratch file.
+     *
+     * <p>Only to be called under synchronization on {@link #ioLock}.</p>
+     */
+    private void createScratchFile() throws IOException
+    {
+        file = File.createTempFile("PDFBox", ".tmp", scratchFileDirectory);
+        try
+        {
+            raf = new java.io.RandomAccessFile(file, "rw");
+        }
+        catch (IOException e)
+        {
+            if (!file.delete())
+            {
+                Log.w("PdfBox-Android", "Error deleting scratch file: " + file.getAbsolutePath());
+            }
+            throw e;
+        }
+    }
+
     /**
      * This will provide new free pages by either enlarging the scratch file 
      * by a number of pages defined by {@link #ENLARGE_PAGE_COUNT} - in case
@@ -213,19 +396,7 @@ public class ScratchFile implements Closeable
                 // create scratch file is needed
                 if ( raf == null )
                 {
-                    file = File.createTempFile("PDFBox", ".tmp", scratchFileDirectory);
-                    try
-                    {
-                        raf = new java.io.RandomAccessFile(file, "rw");
-                    }
-                    catch (IOException e)
-                    {
-                        if (!file.delete())
-                        {
-                            Log.w("PdfBox-Android", "Error deleting scratch file: " + file.getAbsolutePath());
-                        }
-                        throw e;
-                    }
+                    createScratchFile();
                 }
 
                 long fileLen = raf.length();
@@ -326,6 +497,13 @@ public class ScratchFile implements Closeable
             return page;
         }
 
+        if (useMappedScratchFile)
+        {
+            byte[] page = new byte[PAGE_SIZE];
+            getMappedPage(pageIdx).get(page);
+            return page;
+        }
+
         synchronized (ioLock)
         {
             if (raf == null)
@@ -386,6 +564,10 @@ public class ScratchFile implements Closeable
             // in case we were closed in between throw exception
             checkClosed();
         }
+        else if (useMappedScratchFile)
+        {
+            getMappedPage(pageIdx).put(page);
+        }
         else
         {
             synchronized (ioLock)
@@ -456,6 +638,12 @@ public class ScratchFile implements Closeable
      */
     void markPagesAsFree(int[] pageIndexes, int off, int count) {
 
+        if (useMappedScratchFile)
+        {
+            markMappedPagesAsFree(pageIndexes, off, count);
+            return;
+        }
+
         synchronized (freePages)
         {
             for (int aIdx = off; aIdx < count; aIdx++)
@@ -475,6 +663,49 @@ public class ScratchFile implements Closeable
         }
     }
 
+    /**
+     * Releases pages in mapped mode, only in-memory pages need synchronization.
+     */
+    private void markMappedPagesAsFree(int[] pageIndexes, int off, int count)
+    {
+        AtomicLongArray[] bitmaps = mappedFreePages;
+        for (int aIdx = off; aIdx < count; aIdx++)
+        {
+            int pageIdx = pageIndexes[aIdx];
+            if (pageIdx < 0)
+            {
+                continue;
+            }
+            if (pageIdx < inMemoryMaxPageCount)
+            {
+                synchronized (freePages)
+                {
+                    if (pageIdx < pageCount && !freePages.get(pageIdx))
+                    {
+                        freePages.set(pageIdx);
+                        inMemoryPages[pageIdx] = null;
+                    }
+                }
+                continue;
+            }
+            int filePage = pageIdx - inMemoryMaxPageCount;
+            int regionIndex = filePage / MAPPED_REGION_PAGE_COUNT;
+            if (regionIndex >= bitmaps.length)
+            {
+                continue;
+            }
+            AtomicLongArray bitmap = bitmaps[regionIndex];
+            int page = filePage % MAPPED_REGION_PAGE_COUNT;
+            long bit = 1L << page;
+            long bits;
+            while (((bits = bitmap.get(page / 64)) & bit) == 0
+                && !bitmap.compareAndSet(page / 64, bits, bits | bit))
+            {
+                // another page of the same word was claimed or released, try again
+            }
+        }
+    }
+
     /**
      * Closes and deletes the temporary file. No further interaction with
      * the scratch file or associated buffers can happen after this method is called.
@@ -496,6 +727,10 @@ public class ScratchFile implements Closeable
 
             isClosed = true;
 
+            // the mapped regions are only unmapped by the garbage collector
+            mappedRegions = new ByteBuffer[0];
+            mappedFreePages = new AtomicLongArray[0];
+
             if (raf != null)
             {
                 try
@@ -508,9 +743,18 @@ public class ScratchFile implements Closeable
                 }
             }
 
-            if (file != null && !file.delete() && file.exists() && ioexc == null)
+            if (file != null && !file.delete() && file.exists())
             {
-                ioexc = new IOException("Error deleting scratch file: " + file.getAbsolutePath());
+                if (useMappedScratchFile)
+                {
+                    // some systems don't delete files which are still mapped, deleteOnExit()
+                    // doesn't help on Android as the process is killed rather than shut down
+                    Log.w("PdfBox-Android", "Error deleting mapped scratch file: " + file.getAbsolutePath());
+                }
+                else if (ioexc == null)
+                {
+                    ioexc = new IOException("Error deleting scratch file: " + file.getAbsolutePath());
+                }
             }
         }
 
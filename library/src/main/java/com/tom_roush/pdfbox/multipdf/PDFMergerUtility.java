@@ -41,6 +41,7 @@ import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.cos.StreamPrefetcher;
 import com.tom_roush.pdfbox.io.IOUtils;
 import com.tom_roush.pdfbox.io.MemoryUsageSetting;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
@@ -90,6 +91,7 @@ public class PDFMergerUtility
     private boolean ignoreAcroFormErrors = false;
     private PDDocumentInformation destinationDocumentInformation = null;
     private PDMetadata destinationMetadata = null;
+    private StreamPrefetcher streamPrefetcher = null;
 
     private DocumentMergeMode documentMergeMode = DocumentMergeMode.PDFBOX_LEGACY_MODE;
     private AcroFormMergeMode acroFormMergeMode = AcroFormMergeMode.PDFBOX_LEGACY_MODE;
@@ -164,6 +166,27 @@ public class PDFMergerUtility
         this.acroFormMergeMode = theAcroFormMergeMode;
     }
 
+    /**
+     * Get the prefetcher used to decode the object streams of the source documents.
+     *
+     * @return the prefetcher, or null if the object streams are decoded when needed.
+     */
+    public StreamPrefetcher getStreamPrefetcher()
+    {
+        return streamPrefetcher;
+    }
+
+    /**
+     * Set a prefetcher which decodes the object streams of each source document in the
+     * background, while the objects are copied into the destination.
+     *
+     * @param prefetcher the prefetcher to be used, or null.
+     */
+    public void setStreamPrefetcher(StreamPrefetcher prefetcher)
+    {
+        this.streamPrefetcher = prefetcher;
+    }
+
     /**
      * Set the merge mode to be used for merging documents
      *
@@ -508,6 +531,10 @@ public class PDFMergerUtility
         {
             throw new IOException("Error: destination PDF is closed.");
         }
+        if (streamPrefetcher != null)
+        {
+            source.getDocument().prefetchObjectStreams(streamPrefetcher);
+        }
 
         PDDocumentCatalog srcCatalog = source.getDocumentCatalog();
         if (isDynamicXfa(srcCatalog.getAcroForm()))
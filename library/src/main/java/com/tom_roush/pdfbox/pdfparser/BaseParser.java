@@ -20,9 +20,7 @@ import android.util.Log;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.CharsetDecoder;
+import java.util.Arrays;
 
 import com.tom_roush.pdfbox.cos.COSArray;
 import com.tom_roush.pdfbox.cos.COSBase;
@@ -36,7 +34,6 @@ import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSObjectKey;
 import com.tom_roush.pdfbox.cos.COSString;
-import com.tom_roush.pdfbox.util.Charsets;
 
 import static com.tom_roush.pdfbox.util.Charsets.ISO_8859_1;
 
@@ -54,7 +51,9 @@ public abstract class BaseParser
 
     static final int MAX_LENGTH_LONG = Long.toString(Long.MAX_VALUE).length();
 
-    private final CharsetDecoder utf8Decoder = Charsets.UTF_8.newDecoder();
+    // the bytes of the name being parsed, reused for all names
+    private byte[] nameBuffer = new byte[32];
+    private int nameLength;
 
     protected static final int E = 'e';
     protected static final int N = 'n';
@@ -712,7 +711,7 @@ public abstract class BaseParser
     protected COSName parseCOSName() throws IOException
     {
         readExpectedChar('/');
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        nameLength = 0;
         int c = seqSource.read();
         while (c != -1)
         {
@@ -732,7 +731,7 @@ public abstract class BaseParser
                     String hex = Character.toString((char) ch1) + (char) ch2;
                     try
                     {
-                        buffer.write(Integer.parseInt(hex, 16));
+                        appendNameByte(Integer.parseInt(hex, 16));
                     }
                     catch (NumberFormatException e)
                     {
@@ -751,7 +750,7 @@ public abstract class BaseParser
                     }
                     seqSource.unread(ch2);
                     c = ch1;
-                    buffer.write(ch);
+                    appendNameByte(ch);
                 }
             }
             else if (isEndOfName(ch))
@@ -760,7 +759,7 @@ public abstract class BaseParser
             }
             else
             {
-                buffer.write(ch);
+                appendNameByte(ch);
                 c = seqSource.read();
             }
         }
@@ -769,34 +768,16 @@ public abstract class BaseParser
             seqSource.unread(c);
         }
 
-        byte[] bytes = buffer.toByteArray();
-        String string;
-        if (isValidUTF8(bytes))
-        {
-            string = new String(bytes, Charsets.UTF_8);
-        }
-        else
-        {
-            // some malformed PDFs don't use UTF-8 see PDFBOX-3347
-            string = new String(bytes, Charsets.WINDOWS_1252);
-        }
-        return COSName.getPDFName(string);
+        return COSName.getPDFName(nameBuffer, 0, nameLength);
     }
 
-    /**
-     * Returns true if a byte sequence is valid UTF-8.
-     */
-    private boolean isValidUTF8(byte[] input)
+    private void appendNameByte(int b)
     {
-        try
-        {
-            utf8Decoder.decode(ByteBuffer.wrap(input));
-            return true;
-        }
-        catch (CharacterCodingException e)
+        if (nameLength == nameBuffer.length)
         {
-            return false;
+            nameBuffer = Arrays.copyOf(nameBuffer, nameLength * 2);
         }
+        nameBuffer[nameLength++] = (byte) b;
     }
 
     /**
@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdfparser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.tom_roush.pdfbox.io.RandomAccessRead;
+
+/**
+ * Scans a damaged PDF for the markers needed to rebuild its cross reference, in one sequential
+ * pass over large blocks. The markers are matched together, by dispatching on their first byte:
+ * <ul>
+ * <li>"obj" after a whitespace, with the object and generation number in front of it</li>
+ * <li>"endobj", or "endo" at the end of a truncated file</li>
+ * <li>"xref" after a whitespace, i.e. not "startxref"</li>
+ * <li>"trailer" and "%%EOF"</li>
+ * <li>"/XRef" and "/ObjStm", which are mapped to the start of the object they belong to</li>
+ * </ul>
+ * The offsets are held in primitive arrays, in the order in which they appear in the file.
+ */
+final class BruteForceScanner
+{
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Bytes kept in front of the current block, for looking back at object numbers.
+     */
+    private static final int LOOKBEHIND = 1024;
+
+    /**
+     * The length of the longest marker, the bytes of the next block needed to match a marker.
+     */
+    private static final int LOOKAHEAD = 7;
+
+    /**
+     * Distance within which a dictionary is searched for its object, as the parser did before.
+     */
+    private static final int MAX_OBJECT_DISTANCE = 390;
+
+    private static final long OBJECT_NUMBER_THRESHOLD = 10000000000L;
+
+    // values per object: offset, object number * 10 + generation, offset of the following endobj
+    private static final int OBJECT_STRIDE = 3;
+
+    private final RandomAccessRead source;
+    private final long minimumOffset;
+    private final long length;
+
+    private final byte[] buffer = new byte[LOOKBEHIND + BLOCK_SIZE];
+    private long bufferStart;
+    private int bufferLength;
+
+    private long[] objects = new long[OBJECT_STRIDE * 64];
+    private int objectCount;
+    private final LongList eofMarkers = new LongList();
+    private final LongList xrefTables = new LongList();
+    private final LongList xrefStreams = new LongList();
+    private final LongList trailers = new LongList();
+    // object stream start, object number * 10 + generation
+    private final LongList objectStreams = new LongList();
+
+    // the last "digits SPACE digit SPACE obj" object, as searched for by dictionaries
+    private long lastSpaceObjMarker = -1;
+    private long lastSpaceObjStart = -1;
+    private long lastSpaceObjKey = -1;
+
+    /**
+     * Scans the given source, starting at the given offset. The position of the source is kept.
+     *
+     * @param source the source to be scanned
+     * @param minimumOffset the offset where to start, object numbers aren't searched before it
+     * @throws IOException if the source could not be read
+     */
+    BruteForceScanner(RandomAccessRead source, long minimumOffset) throws IOException
+    {
+        this.source = source;
+        this.minimumOffset = minimumOffset;
+        this.length = source.length();
+        long originOffset = source.getPosition();
+        try
+        {
+            scan();
+        }
+        finally
+        {
+            source.seek(originOffset);
+        }
+    }
+
+    private void scan() throws IOException
+    {
+        long position = minimumOffset;
+        bufferStart = minimumOffset;
+        bufferLength = 0;
+        source.seek(minimumOffset);
+        boolean eof = false;
+        while (!eof)
+        {
+            // keep the bytes in front of the current position, then fill the block
+            int keep = (int) Math.max(0, position - LOOKBEHIND - bufferStart);
+            System.arraycopy(buffer, keep, buffer, 0, bufferLength - keep);
+            bufferStart += keep;
+            bufferLength -= keep;
+            while (bufferLength < buffer.length)
+            {
+                int read = source.read(buffer, bufferLength, buffer.length - bufferLength);
+                if (read <= 0)
+                {
+                    eof = true;
+                    break;
+                }
+                bufferLength += read;
+            }
+            int end = eof ? bufferLength : bufferLength - LOOKAHEAD;
+            for (int i = (int) (position - bufferStart); i < end; i++)
+            {
+                match(i);
+            }
+            position = bufferStart + Math.max(end, (int) (position - bufferStart));
+        }
+    }
+
+    private void match(int i) throws IOException
+    {
+        switch (buffer[i])
+        {
+            case 'o':
+                if (matches(i, "obj") && isWhitespace(byteAt(bufferStart + i - 1)))
+                {
+                    foundObjMarker(bufferStart + i);
+                }
+                break;
+            case 'e':
+                if (matches(i, "endo") && (matches(i + 4, "bj") || bufferStart + i + 4 == length))
+                {
+                    if (objectCount > 0 && objects[objectCount * OBJECT_STRIDE - 1] < 0)
+                    {
+                        objects[objectCount * OBJECT_STRIDE - 1] = bufferStart + i;
+                    }
+                }
+                break;
+            case 'x':
+                if (matches(i, "xref") && isWhitespace(byteAt(bufferStart + i - 1)))
+                {
+                    xrefTables.add(bufferStart + i);
+                }
+                break;
+            case 't':
+                if (matches(i, "trailer"))
+                {
+                    trailers.add(bufferStart + i);
+                }
+                break;
+            case '%':
+                if (matches(i, "%%EOF"))
+                {
+                    eofMarkers.add(bufferStart + i);
+                }
+                break;
+            case '/':
+                if (matches(i, "/XRef"))
+                {
+                    if (isObjectNear(bufferStart + i))
+                    {
+                        xrefStreams.add(lastSpaceObjStart);
+                    }
+                }
+                else if (matches(i, "/ObjStm") && isObjectNear(bufferStart + i))
+                {
+                    objectStreams.add(lastSpaceObjStart);
+                    objectStreams.add(lastSpaceObjKey);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Looks back from an "obj" marker for the generation and the object number.
+     */
+    private void foundObjMarker(long marker) throws IOException
+    {
+        if (byteAt(marker - 1) == ' ')
+        {
+            // dictionaries only search for objects separated by single spaces
+            lastSpaceObjMarker = marker - 1;
+            lastSpaceObjStart = -1;
+            long offset = marker - 3;
+            if (isDigit(byteAt(marker - 2)) && byteAt(offset) == ' ')
+            {
+                long start = skipDigitsBackwards(offset - 1);
+                long number = parseNumber(start, offset);
+                if (start < offset && number >= 0)
+                {
+                    lastSpaceObjStart = start;
+                    lastSpaceObjKey = number * 10 + byteAt(marker - 2) - '0';
+                }
+            }
+        }
+
+        int generation = byteAt(marker - 2);
+        long offset = marker - 3;
+        if (!isDigit(generation) || !isWhitespace(byteAt(offset)))
+        {
+            return;
+        }
+        while (offset > minimumOffset && isWhitespace(byteAt(offset)))
+        {
+            offset--;
+        }
+        long start = skipDigitsBackwards(offset);
+        long number = parseNumber(start, offset + 1);
+        if (start <= offset && number >= 0)
+        {
+            if (objectCount * OBJECT_STRIDE == objects.length)
+            {
+                objects = Arrays.copyOf(objects, objects.length * 2);
+            }
+            objects[objectCount * OBJECT_STRIDE] = start;
+            objects[objectCount * OBJECT_STRIDE + 1] = number * 10 + generation - '0';
+            objects[objectCount * OBJECT_STRIDE + 2] = -1;
+            objectCount++;
+        }
+    }
+
+    /**
+     * Returns the offset of the first digit of the digits ending at the given offset.
+     */
+    private long skipDigitsBackwards(long offset) throws IOException
+    {
+        while (offset > minimumOffset && isDigit(byteAt(offset)))
+        {
+            offset--;
+        }
+        return offset + 1;
+    }
+
+    /**
+     * Parses the digits from start (inclusive) to end (exclusive).
+     *
+     * @return the number, or -1 if it isn't a valid object number.
+     */
+    private long parseNumber(long start, long end) throws IOException
+    {
+        if (end - start > 10)
+        {
+            return -1;
+        }
+        long number = 0;
+        for (long offset = start; offset < end; offset++)
+        {
+            number = number * 10 + byteAt(offset) - '0';
+        }
+        return number < OBJECT_NUMBER_THRESHOLD ? number : -1;
+    }
+
+    private boolean isObjectNear(long offset)
+    {
+        return lastSpaceObjMarker >= 0 && offset - lastSpaceObjMarker <= MAX_OBJECT_DISTANCE
+            && lastSpaceObjStart >= 0;
+    }
+
+    private boolean matches(int index, String marker)
+    {
+        if (index + marker.length() > bufferLength)
+        {
+            return false;
+        }
+        for (int i = 0; i < marker.length(); i++)
+        {
+            if (buffer[index + i] != marker.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the byte at the given offset, it is read from the source if it isn't buffered.
+     */
+    private int byteAt(long offset) throws IOException
+    {
+        if (offset >= bufferStart && offset < bufferStart + bufferLength)
+        {
+            return buffer[(int) (offset - bufferStart)] & 0xff;
+        }
+        if (offset < 0 || offset >= length)
+        {
+            return -1;
+        }
+        // long runs of whitespace or digits, read outside of the block
+        long position = source.getPosition();
+        source.seek(offset);
+        int b = source.read();
+        source.seek(position);
+        return b;
+    }
+
+    private static boolean isDigit(int c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(int c)
+    {
+        return c == 0 || c == 9 || c == 10 || c == 12 || c == 13 || c == 32;
+    }
+
+    /**
+     * Returns the number of objects found.
+     */
+    int getObjectCount()
+    {
+        return objectCount;
+    }
+
+    /**
+     * Returns the offset of the object with the given index.
+     */
+    long getObjectOffset(int index)
+    {
+        return objects[index * OBJECT_STRIDE];
+    }
+
+    /**
+     * Returns the object number of the object with the given index.
+     */
+    long getObjectNumber(int index)
+    {
+        return objects[index * OBJECT_STRIDE + 1] / 10;
+    }
+
+    /**
+     * Returns the generation number of the object with the given index.
+     */
+    int getObjectGeneration(int index)
+    {
+        return (int) (objects[index * OBJECT_STRIDE + 1] % 10);
+    }
+
+    /**
+     * Returns the offset of the first "endobj" after the object with the given index, before the
+     * next object, or -1 if there is none.
+     */
+    long getObjectEnd(int index)
+    {
+        return objects[index * OBJECT_STRIDE + 2];
+    }
+
+    /**
+     * Returns the offsets of the "%%EOF" markers.
+     */
+    long[] getEOFMarkers()
+    {
+        return eofMarkers.toArray();
+    }
+
+    /**
+     * Returns the offsets of the "xref" keywords.
+     */
+    long[] getXRefTables()
+    {
+        return xrefTables.toArray();
+    }
+
+    /**
+     * Returns the offsets of the objects containing "/XRef".
+     */
+    long[] getXRefStreams()
+    {
+        return xrefStreams.toArray();
+    }
+
+    /**
+     * Returns the offsets of the "trailer" keywords.
+     */
+    long[] getTrailers()
+    {
+        return trailers.toArray();
+    }
+
+    /**
+     * Returns the number of object streams found.
+     */
+    int getObjectStreamCount()
+    {
+        return objectStreams.size() / 2;
+    }
+
+    /**
+     * Returns the offset of the object stream with the given index.
+     */
+    long getObjectStreamOffset(int index)
+    {
+        return objectStreams.get(index * 2);
+    }
+
+    /**
+     * Returns the object number of the object stream with the given index.
+     */
+    long getObjectStreamNumber(int index)
+    {
+        return objectStreams.get(index * 2 + 1) / 10;
+    }
+
+    /**
+     * Returns the generation number of the object stream with the given index.
+     */
+    int getObjectStreamGeneration(int index)
+    {
+        return (int) (objectStreams.get(index * 2 + 1) % 10);
+    }
+
+    /**
+     * A growable array of longs.
+     */
+    private static final class LongList
+    {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int index)
+        {
+            return values[index];
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        long[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.tom_roush.pdfbox.pdfparser;
 
 import android.util.Log;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -28,6 +29,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -40,14 +43,18 @@ import com.tom_roush.pdfbox.cos.COSArray;
 import com.tom_roush.pdfbox.cos.COSBase;
 import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSDocument;
+import com.tom_roush.pdfbox.cos.ICOSParser;
 import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.cos.COSNull;
 import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.cos.COSObject;
 import com.tom_roush.pdfbox.cos.COSObjectKey;
+import com.tom_roush.pdfbox.cos.COSXrefTable;
 import com.tom_roush.pdfbox.cos.COSStream;
 import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.io.RandomAccessMemoryMappedFile;
 import com.tom_roush.pdfbox.io.RandomAccessRead;
+import com.tom_roush.pdfbox.io.RandomAccessReadView;
 import com.tom_roush.pdfbox.pdfparser.XrefTrailerResolver.XRefType;
 import com.tom_roush.pdfbox.pdmodel.encryption.AccessPermission;
 import com.tom_roush.pdfbox.pdmodel.encryption.DecryptionMaterial;
@@ -68,7 +75,7 @@ import static com.tom_roush.pdfbox.util.Charsets.ISO_8859_1;
  * This class is a much enhanced version of <code>QuickParser</code> presented in <a
  * href="https://issues.apache.org/jira/browse/PDFBOX-1104">PDFBOX-1104</a> by Jeremy Villalobos.
  */
-public class COSParser extends BaseParser
+public class COSParser extends BaseParser implements ICOSParser
 {
     private static final String PDF_HEADER = "%PDF-";
     private static final String FDF_HEADER = "%FDF-";
@@ -77,7 +84,6 @@ public class COSParser extends BaseParser
     private static final String FDF_DEFAULT_VERSION = "1.0";
 
     private static final char[] XREF_TABLE = new char[] { 'x', 'r', 'e', 'f' };
-    private static final char[] XREF_STREAM = new char[] { '/', 'X', 'R', 'e', 'f' };
     private static final char[] STARTXREF = new char[] { 's','t','a','r','t','x','r','e','f' };
 
     private static final byte[] ENDSTREAM = new byte[] { E, N, D, S, T, R, E, A, M };
@@ -86,6 +92,9 @@ public class COSParser extends BaseParser
 
     private static final long MINIMUM_SEARCH_OFFSET = 6;
 
+    // number of objects checked before using a recovery index
+    private static final int RECOVERY_INDEX_SAMPLES = 8;
+
     private static final int X = 'x';
 
     private static final int STRMBUFLEN = 2048;
@@ -130,11 +139,6 @@ public class COSParser extends BaseParser
      */
     private static final char[] TRAILER_MARKER = new char[] { 't', 'r', 'a', 'i', 'l', 'e', 'r' };
 
-    /**
-     * ObjStream-marker.
-     */
-    private static final char[] OBJ_STREAM = new char[] { '/', 'O', 'b', 'j', 'S', 't', 'm' };
-
     private long trailerOffset;
 
     /**
@@ -149,6 +153,27 @@ public class COSParser extends BaseParser
 
     protected boolean initialParseDone = false;
 
+    /**
+     * if true indirect objects are parsed on first access instead of up front
+     */
+    protected boolean lazyObjectLoading = false;
+
+    /**
+     * maximum number of objects loaded on demand which are kept in memory; -1 means 'unrestricted'
+     */
+    private int maxResidentObjects = -1;
+
+    /**
+     * Objects loaded on demand in the order of loading, used to unload the oldest ones if there
+     * are more than maxResidentObjects. Only used when lazy object loading is restricted.
+     */
+    private Map<COSObject, Boolean> residentObjects = null;
+
+    /**
+     * directory of the recovery indexes of damaged documents, null if they aren't cached
+     */
+    private File recoveryIndexDirectory = null;
+
     private boolean trailerWasRebuild = false;
     /**
      * Contains all found objects of a brute force search.
@@ -157,6 +182,7 @@ public class COSParser extends BaseParser
     private Long lastEOFMarker = null;
     private List<Long> bfSearchXRefTablesOffsets = null;
     private List<Long> bfSearchXRefStreamsOffsets = null;
+    private BruteForceScanner bruteForceScanner = null;
     private PDEncryption encryption = null;
 
     /**
@@ -276,7 +302,7 @@ public class COSParser extends BaseParser
         }
         if (rebuildTrailer)
         {
-            trailer = rebuildTrailer();
+            trailer = recoveryIndexDirectory != null ? rebuildTrailerWithIndex() : rebuildTrailer();
         }
         else
         {
@@ -557,17 +583,129 @@ public class COSParser extends BaseParser
      * This method can only be called before the parsing of the file.
      *
      * @param lenient try to handle malformed PDFs.
-     *
+     * @throws IllegalStateException if the file has already been parsed.
      */
     public void setLenient(boolean lenient)
     {
         if (initialParseDone)
         {
-            throw new IllegalArgumentException("Cannot change leniency after parsing");
+            throw new IllegalStateException("Cannot change leniency after parsing");
         }
         this.isLenient = lenient;
     }
 
+    /**
+     * Return true if indirect objects are parsed on first access instead of up front.
+     *
+     * @return true if lazy object loading is enabled
+     */
+    public boolean isLazyObjectLoading()
+    {
+        return lazyObjectLoading;
+    }
+
+    /**
+     * Enables parsing indirect objects on first access, this is supported by {@link PDFParser}.
+     * Only the trailer, the document catalog and the objects needed for decryption are parsed up
+     * front, so the time to open a document doesn't depend on its size. The data of streams is
+     * read from the source instead of being copied, so the source must not be closed as long as
+     * the document is in use.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param lazyObjectLoading true to parse indirect objects on first access
+     * @param maxResidentObjects maximum number of objects loaded on demand which are kept in
+     * memory, the oldest ones are dropped and parsed again if needed; -1 for no restriction.
+     * Objects marked to be updated are never dropped, other changes to dropped objects are lost.
+     * Thus a restriction should only be used if the document isn't modified.
+     * @throws IllegalStateException if the file has already been parsed.
+     */
+    public void setLazyObjectLoading(boolean lazyObjectLoading, int maxResidentObjects)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalStateException("Cannot change object loading after parsing");
+        }
+        this.lazyObjectLoading = lazyObjectLoading;
+        this.maxResidentObjects = maxResidentObjects > 0 ? maxResidentObjects : -1;
+    }
+
+    /**
+     * Sets a directory where the cross reference and the trailer of damaged documents are
+     * stored after rebuilding them. When such a document is loaded again, some of the stored
+     * offsets are checked and the index is used instead of a brute force search of the whole
+     * document.
+     *
+     * This method can only be called before the parsing of the file.
+     *
+     * @param recoveryIndexDirectory the cache directory, or null to disable caching
+     * @throws IllegalStateException if the file has already been parsed.
+     * @throws IllegalArgumentException if the given file exists, but isn't a directory.
+     */
+    public void setRecoveryIndexDirectory(File recoveryIndexDirectory)
+    {
+        if (initialParseDone)
+        {
+            throw new IllegalStateException("Cannot change the recovery index after parsing");
+        }
+        if (recoveryIndexDirectory != null && recoveryIndexDirectory.exists()
+            && !recoveryIndexDirectory.isDirectory())
+        {
+            throw new IllegalArgumentException(recoveryIndexDirectory + " isn't a directory");
+        }
+        this.recoveryIndexDirectory = recoveryIndexDirectory;
+    }
+
+    /**
+     * Prepares the document for lazy object loading if enabled.
+     */
+    protected void initLazyObjectLoading()
+    {
+        if (!lazyObjectLoading)
+        {
+            return;
+        }
+        document.setParser(this);
+        if (maxResidentObjects > 0)
+        {
+            residentObjects = new LinkedHashMap<COSObject, Boolean>(maxResidentObjects + 1);
+        }
+    }
+
+    /**
+     * Keeps track of an object loaded on demand to be able to unload it later. The least recently
+     * loaded objects are dropped if there are too many. Objects which can't be dropped, e.g.
+     * because they are marked to be updated, are kept and tried again later.
+     */
+    private void addResidentObject(COSObject object)
+    {
+        if (residentObjects == null || !initialParseDone)
+        {
+            return;
+        }
+        residentObjects.put(object, Boolean.TRUE);
+        Iterator<COSObject> iterator = residentObjects.keySet().iterator();
+        while (residentObjects.size() > maxResidentObjects && iterator.hasNext())
+        {
+            COSObject eldest = iterator.next();
+            // the new object is about to be used, objects in use by the parser are kept too
+            if (eldest != object && eldest.unloadObject())
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized COSBase dereferenceCOSObject(COSObject obj) throws IOException
+    {
+        // objects may be dereferenced while parsing another object
+        long currentPosition = source.getPosition();
+        COSBase parsedObj = parseObjectDynamically(obj, false);
+        source.seek(currentPosition);
+        return parsedObj;
+    }
+
     /**
      * Creates a unique object id using object number and object generation
      * number. (requires object number &lt; 2^31))
@@ -802,7 +940,8 @@ public class COSParser extends BaseParser
 
     /**
      * This will parse the next object from the stream and add it to the local state. 
-     * It's reduced to parsing an indirect object.
+     * It's reduced to parsing an indirect object. The parser is locked while parsing, as objects
+     * loaded on demand may be dereferenced by several threads, see {@link COSObject#getObject()}.
      *
      * @param objNr object number of object to be parsed
      * @param objGenNr object generation number of object to be parsed
@@ -814,14 +953,14 @@ public class COSParser extends BaseParser
      *
      * @throws IOException If an IO error occurs.
      */
-    protected COSBase parseObjectDynamically(long objNr, int objGenNr,
+    protected synchronized COSBase parseObjectDynamically(long objNr, int objGenNr,
         boolean requireExistingNotCompressedObj) throws IOException
     {
         // ---- create object key and get object (container) from pool
         final COSObjectKey objKey = new COSObjectKey(objNr, objGenNr);
         final COSObject pdfObject = document.getObjectFromPool(objKey);
 
-        if (pdfObject.getObject() == null)
+        if (pdfObject.isObjectNull())
         {
             // not previously parsed
             // ---- read offset or object stream object number from xref table
@@ -894,6 +1033,7 @@ public class COSParser extends BaseParser
             }
             // change status of COSObject
             pdfObject.dereferencingFinished();
+            addResidentObject(pdfObject);
         }
         return pdfObject.getObject();
     }
@@ -1029,7 +1169,12 @@ public class COSParser extends BaseParser
                 if (offset != null && offset == -objstmObjNr)
                 {
                     COSObject stmObj = document.getObjectFromPool(stmObjKey);
-                    stmObj.setObject(next.getObject());
+                    // don't replace objects already in use
+                    if (stmObj.isObjectNull())
+                    {
+                        stmObj.setObject(next.getObject());
+                        addResidentObject(stmObj);
+                    }
                 }
             }
         }
@@ -1109,7 +1254,7 @@ public class COSParser extends BaseParser
      */
     protected COSStream parseCOSStream(COSDictionary dic) throws IOException
     {
-        COSStream stream = document.createCOSStream(dic);
+        COSStream stream;
 
         // read 'stream'; this was already tested in parseObjectsDynamically()
         readString();
@@ -1136,20 +1281,47 @@ public class COSParser extends BaseParser
         // get output stream to copy data to
         if (streamLengthObj != null && validateStreamLength(streamLengthObj.longValue()))
         {
-            OutputStream out = stream.createRawOutputStream();
-            try
+            if (source instanceof RandomAccessMemoryMappedFile)
             {
-                readValidStream(out, streamLengthObj);
+                // no need to copy, the stream data is read straight from the mapped file
+                long streamStart = source.getPosition();
+                long streamLength = streamLengthObj.longValue();
+                stream = document.createCOSStream(dic,
+                    ((RandomAccessMemoryMappedFile) source).createView(streamStart, streamLength));
+                source.seek(streamStart + streamLength);
+                stream.setItem(COSName.LENGTH, streamLengthObj);
             }
-            finally
+            else if (lazyObjectLoading)
             {
-                out.close();
-                // restore original (possibly incorrect) length
+                // the source is kept open to load objects on demand, the stream data is read from
+                // it instead of being copied into the scratch file, so that the stream can be
+                // dropped again
+                long streamStart = source.getPosition();
+                long streamLength = streamLengthObj.longValue();
+                stream = document.createCOSStream(dic,
+                    new RandomAccessReadView(source, this, streamStart, streamLength));
+                source.seek(streamStart + streamLength);
                 stream.setItem(COSName.LENGTH, streamLengthObj);
             }
+            else
+            {
+                stream = document.createCOSStream(dic);
+                OutputStream out = stream.createRawOutputStream();
+                try
+                {
+                    readValidStream(out, streamLengthObj);
+                }
+                finally
+                {
+                    out.close();
+                    // restore original (possibly incorrect) length
+                    stream.setItem(COSName.LENGTH, streamLengthObj);
+                }
+            }
         }
         else
         {
+            stream = document.createCOSStream(dic);
             OutputStream out = stream.createRawOutputStream();
             try
             {
@@ -1165,6 +1337,18 @@ public class COSParser extends BaseParser
                 }
             }
         }
+        return checkEndStream(stream);
+    }
+
+    /**
+     * Reads the 'endstream' keyword following the data of the given stream.
+     *
+     * @param stream the stream which data was just read.
+     * @return the given stream.
+     * @throws IOException if the keyword is missing.
+     */
+    private COSStream checkEndStream(COSStream stream) throws IOException
+    {
         String endStream = readString();
         if (endStream.equals("endobj") && isLenient)
         {
@@ -1637,97 +1821,52 @@ public class COSParser extends BaseParser
         if (bfSearchCOSObjectKeyOffsets == null)
         {
             bfSearchForLastEOFMarker();
-            bfSearchCOSObjectKeyOffsets = new HashMap<COSObjectKey, Long>();
-            long originOffset = source.getPosition();
-            long currentOffset = MINIMUM_SEARCH_OFFSET;
-            long lastObjectId = Long.MIN_VALUE;
-            int lastGenID = Integer.MIN_VALUE;
-            long lastObjOffset = Long.MIN_VALUE;
-            char[] endobjString = "ndo".toCharArray();
-            char[] endobjRemainingString = "bj".toCharArray();
-            boolean endOfObjFound = false;
-            do
-            {
-                source.seek(currentOffset);
-                int nextChar = source.read();
-                currentOffset++;
-                if (isWhitespace(nextChar) && isString(OBJ_MARKER))
-                {
-                    long tempOffset = currentOffset - 2;
-                    source.seek(tempOffset);
-                    int genID = source.peek();
-                    // is the next char a digit?
-                    if (isDigit(genID))
-                    {
-                        genID -= 48;
-                        tempOffset--;
-                        source.seek(tempOffset);
-                        if (isWhitespace())
-                        {
-                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isWhitespace())
-                            {
-                                source.seek(--tempOffset);
-                            }
-                            boolean objectIDFound = false;
-                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                            {
-                                source.seek(--tempOffset);
-                                objectIDFound = true;
-                            }
-                            if (objectIDFound)
-                            {
-                                source.read();
-                                long objectId = readObjectNumber();
-                                if (lastObjOffset > 0)
-                                {
-                                    // add the former object ID only if there was a subsequent object ID
-                                    bfSearchCOSObjectKeyOffsets
-                                        .put(new COSObjectKey(lastObjectId, lastGenID),
-                                            lastObjOffset);
-                                }
-                                lastObjectId = objectId;
-                                lastGenID = genID;
-                                lastObjOffset = tempOffset + 1;
-                                currentOffset += OBJ_MARKER.length - 1;
-                                endOfObjFound = false;
-                            }
-                        }
-                    }
-                }
-                // check for "endo" as abbreviation for "endobj", as the pdf may be cut off
-                // in the middle of the keyword, see PDFBOX-3936.
-                // We could possibly implement a more intelligent algorithm if necessary
-                else if (nextChar == 'e' && isString(endobjString))
+            bfSearchCOSObjectKeyOffsets = new COSXrefTable();
+            BruteForceScanner scanner = getBruteForceScanner();
+            int lastObject = -1;
+            for (int i = 0; i < scanner.getObjectCount()
+                && scanner.getObjectOffset(i) < lastEOFMarker; i++)
+            {
+                if (lastObject >= 0)
                 {
-                    currentOffset += endobjString.length;
-                    source.seek(currentOffset);
-                    if (source.isEOF())
-                    {
-                        endOfObjFound = true;
-                        continue;
-                    }
-                    if (isString(endobjRemainingString))
-                    {
-                        currentOffset += endobjRemainingString.length;
-                        endOfObjFound = true;
-                        continue;
-                    }
+                    // add the former object ID only if there was a subsequent object ID
+                    bfSearchCOSObjectKeyOffsets.put(new COSObjectKey(
+                        scanner.getObjectNumber(lastObject),
+                        scanner.getObjectGeneration(lastObject)),
+                        scanner.getObjectOffset(lastObject));
                 }
+                lastObject = i;
             }
-            while (currentOffset < lastEOFMarker && !source.isEOF());
-            if ((lastEOFMarker < Long.MAX_VALUE || endOfObjFound) && lastObjOffset > 0)
+            // check for "endo" as abbreviation for "endobj", as the pdf may be cut off
+            // in the middle of the keyword, see PDFBOX-3936.
+            boolean endOfObjFound = lastObject >= 0 && scanner.getObjectEnd(lastObject) >= 0
+                && scanner.getObjectEnd(lastObject) < lastEOFMarker;
+            if ((lastEOFMarker < Long.MAX_VALUE || endOfObjFound) && lastObject >= 0)
             {
                 // if the pdf wasn't cut off in the middle or if the last object ends with a "endobj" marker
                 // the last object id has to be added here so that it can't get lost as there isn't any subsequent
                 // object id
-                bfSearchCOSObjectKeyOffsets.put(new COSObjectKey(lastObjectId, lastGenID),
-                    lastObjOffset);
+                bfSearchCOSObjectKeyOffsets.put(new COSObjectKey(
+                    scanner.getObjectNumber(lastObject), scanner.getObjectGeneration(lastObject)),
+                    scanner.getObjectOffset(lastObject));
             }
-            // reestablish origin position
-            source.seek(originOffset);
         }
     }
 
+    /**
+     * Returns the markers found by a brute force search, the search is done on first use.
+     *
+     * @throws IOException if something went wrong
+     */
+    private BruteForceScanner getBruteForceScanner() throws IOException
+    {
+        if (bruteForceScanner == null)
+        {
+            bruteForceScanner = new BruteForceScanner(source, MINIMUM_SEARCH_OFFSET);
+        }
+        return bruteForceScanner;
+    }
+
     /**
      * Search for the offset of the given xref table/stream among those found by a brute force search.
      *
@@ -1817,74 +1956,68 @@ public class COSParser extends BaseParser
     private boolean bfSearchForTrailer(COSDictionary trailer) throws IOException
     {
         long originOffset = source.getPosition();
-        source.seek(MINIMUM_SEARCH_OFFSET);
-        while (!source.isEOF())
+        for (long trailerOffset : getBruteForceScanner().getTrailers())
         {
-            // search for trailer marker
-            if (isString(TRAILER_MARKER))
+            source.seek(trailerOffset + TRAILER_MARKER.length);
+            try
             {
-                source.seek(source.getPosition() + TRAILER_MARKER.length);
-                try
+                boolean rootFound = false;
+                boolean infoFound = false;
+                skipSpaces();
+                COSDictionary trailerDict = parseCOSDictionary();
+                COSObject rootObj = trailerDict.getCOSObject(COSName.ROOT);
+                if (rootObj != null)
                 {
-                    boolean rootFound = false;
-                    boolean infoFound = false;
-                    skipSpaces();
-                    COSDictionary trailerDict = parseCOSDictionary();
-                    COSObject rootObj = trailerDict.getCOSObject(COSName.ROOT);
-                    if (rootObj != null)
+                    // check if the dictionary can be dereferenced and is the one we are looking for
+                    COSDictionary rootDict = retrieveCOSDictionary(rootObj);
+                    if (rootDict != null && isCatalog(rootDict))
                     {
-                        // check if the dictionary can be dereferenced and is the one we are looking for
-                        COSDictionary rootDict = retrieveCOSDictionary(rootObj);
-                        if (rootDict != null && isCatalog(rootDict))
-                        {
-                            rootFound = true;
-                        }
+                        rootFound = true;
                     }
-                    COSObject infoObj = trailerDict.getCOSObject(COSName.INFO);
-                    if (infoObj != null)
+                }
+                COSObject infoObj = trailerDict.getCOSObject(COSName.INFO);
+                if (infoObj != null)
+                {
+                    // check if the dictionary can be dereferenced and is the one we are looking for
+                    COSDictionary infoDict = retrieveCOSDictionary(infoObj);
+                    if (infoDict != null && isInfo(infoDict))
                     {
-                        // check if the dictionary can be dereferenced and is the one we are looking for
-                        COSDictionary infoDict = retrieveCOSDictionary(infoObj);
-                        if (infoDict != null && isInfo(infoDict))
-                        {
-                            infoFound = true;
-                        }
+                        infoFound = true;
                     }
-                    if (rootFound && infoFound)
+                }
+                if (rootFound && infoFound)
+                {
+                    trailer.setItem(COSName.ROOT, rootObj);
+                    trailer.setItem(COSName.INFO, infoObj);
+                    if (trailerDict.containsKey(COSName.ENCRYPT))
                     {
-                        trailer.setItem(COSName.ROOT, rootObj);
-                        trailer.setItem(COSName.INFO, infoObj);
-                        if (trailerDict.containsKey(COSName.ENCRYPT))
+                        COSObject encObj = trailerDict.getCOSObject(COSName.ENCRYPT);
+                        if (encObj != null)
                         {
-                            COSObject encObj = trailerDict.getCOSObject(COSName.ENCRYPT);
-                            if (encObj != null)
+                            // check if the dictionary can be dereferenced
+                            // TODO check if the dictionary is an encryption dictionary?
+                            COSDictionary encDict = retrieveCOSDictionary(encObj);
+                            if (encDict != null)
                             {
-                                // check if the dictionary can be dereferenced
-                                // TODO check if the dictionary is an encryption dictionary?
-                                COSDictionary encDict = retrieveCOSDictionary(encObj);
-                                if (encDict != null)
-                                {
-                                    trailer.setItem(COSName.ENCRYPT, encObj);
-                                }
+                                trailer.setItem(COSName.ENCRYPT, encObj);
                             }
                         }
-                        if (trailerDict.containsKey(COSName.ID))
+                    }
+                    if (trailerDict.containsKey(COSName.ID))
+                    {
+                        COSBase idObj = trailerDict.getItem(COSName.ID);
+                        if (idObj instanceof COSArray)
                         {
-                            COSBase idObj = trailerDict.getItem(COSName.ID);
-                            if (idObj instanceof COSArray)
-                            {
-                                trailer.setItem(COSName.ID, idObj);
-                            }
+                            trailer.setItem(COSName.ID, idObj);
                         }
-                        return true;
                     }
+                    return true;
                 }
-                catch (IOException exception)
-                {
-                    continue;
-                }
             }
-            source.read();
+            catch (IOException exception)
+            {
+                continue;
+            }
         }
         source.seek(originOffset);
         return false;
@@ -1900,33 +2033,26 @@ public class COSParser extends BaseParser
         if (lastEOFMarker == null)
         {
             long originOffset = source.getPosition();
-            source.seek(MINIMUM_SEARCH_OFFSET);
-            while (!source.isEOF())
+            for (long tempMarker : getBruteForceScanner().getEOFMarkers())
             {
-                // search for EOF marker
-                if (isString(EOF_MARKER))
+                source.seek(tempMarker + 5);
+                try
                 {
-                    long tempMarker = source.getPosition();
-                    source.seek(tempMarker + 5);
-                    try
-                    {
-                        // check if the following data is some valid pdf content
-                        // which most likely indicates that the pdf is linearized,
-                        // updated or just cut off somewhere in the middle
-                        skipSpaces();
-                        if (!isString(XREF_TABLE))
-                        {
-                            readObjectNumber();
-                            readGenerationNumber();
-                        }
-                    }
-                    catch (IOException exception)
+                    // check if the following data is some valid pdf content
+                    // which most likely indicates that the pdf is linearized,
+                    // updated or just cut off somewhere in the middle
+                    skipSpaces();
+                    if (!isString(XREF_TABLE))
                     {
-                        // save the EOF marker as the following data is most likely some garbage
-                        lastEOFMarker = tempMarker;
+                        readObjectNumber();
+                        readGenerationNumber();
                     }
                 }
-                source.read();
+                catch (IOException exception)
+                {
+                    // save the EOF marker as the following data is most likely some garbage
+                    lastEOFMarker = tempMarker;
+                }
             }
             source.seek(originOffset);
             // no EOF marker found
@@ -1946,72 +2072,11 @@ public class COSParser extends BaseParser
     {
         HashMap<Long, COSObjectKey> bfSearchObjStreamsOffsets = new HashMap<Long, COSObjectKey>();
         long originOffset = source.getPosition();
-        source.seek(MINIMUM_SEARCH_OFFSET);
-        char[] string = " obj".toCharArray();
-        while (!source.isEOF())
-        {
-            // search for EOF marker
-            if (isString(OBJ_STREAM))
-            {
-                long currentPosition = source.getPosition();
-                // search backwards for the beginning of the object
-                long newOffset = -1;
-                boolean objFound = false;
-                for (int i = 1; i < 40 && !objFound; i++)
-                {
-                    long currentOffset = currentPosition - (i * 10);
-                    if (currentOffset > 0)
-                    {
-                        source.seek(currentOffset);
-                        for (int j = 0; j < 10; j++)
-                        {
-                            if (isString(string))
-                            {
-                                long tempOffset = currentOffset - 1;
-                                source.seek(tempOffset);
-                                int genID = source.peek();
-                                // is the next char a digit?
-                                if (isDigit(genID))
-                                {
-                                    tempOffset--;
-                                    source.seek(tempOffset);
-                                    if (isSpace())
-                                    {
-                                        int length = 0;
-                                        source.seek(--tempOffset);
-                                        while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                                        {
-                                            source.seek(--tempOffset);
-                                            length++;
-                                        }
-                                        if (length > 0)
-                                        {
-                                            source.read();
-                                            newOffset = source.getPosition();
-                                            long objNumber = readObjectNumber();
-                                            int genNumber = readGenerationNumber();
-                                            COSObjectKey streamObjectKey = new COSObjectKey(objNumber,
-                                                genNumber);
-                                            bfSearchObjStreamsOffsets.put(newOffset,
-                                                streamObjectKey);
-                                        }
-                                    }
-                                }
-                                Log.d("PdfBox-Android", "Dictionary start for object stream -> " + newOffset);
-                                objFound = true;
-                                break;
-                            }
-                            else
-                            {
-                                currentOffset++;
-                                source.read();
-                            }
-                        }
-                    }
-                }
-                source.seek(currentPosition + OBJ_STREAM.length);
-            }
-            source.read();
+        BruteForceScanner scanner = getBruteForceScanner();
+        for (int i = 0; i < scanner.getObjectStreamCount(); i++)
+        {
+            bfSearchObjStreamsOffsets.put(scanner.getObjectStreamOffset(i), new COSObjectKey(
+                scanner.getObjectStreamNumber(i), scanner.getObjectStreamGeneration(i)));
         }
         // add all found compressed objects to the brute force search result
         for (Long offset : bfSearchObjStreamsOffsets.keySet())
@@ -2107,25 +2172,10 @@ public class COSParser extends BaseParser
         {
             // a pdf may contain more than one xref entry
             bfSearchXRefTablesOffsets = new ArrayList<Long>();
-            long originOffset = source.getPosition();
-            source.seek(MINIMUM_SEARCH_OFFSET);
-            // search for xref tables
-            while (!source.isEOF())
+            for (long newOffset : getBruteForceScanner().getXRefTables())
             {
-                if (isString(XREF_TABLE))
-                {
-                    long newOffset = source.getPosition();
-                    source.seek(newOffset - 1);
-                    // ensure that we don't read "startxref" instead of "xref"
-                    if (isWhitespace())
-                    {
-                        bfSearchXRefTablesOffsets.add(newOffset);
-                    }
-                    source.seek(newOffset + 4);
-                }
-                source.read();
+                bfSearchXRefTablesOffsets.add(newOffset);
             }
-            source.seek(originOffset);
         }
     }
 
@@ -2140,75 +2190,10 @@ public class COSParser extends BaseParser
         {
             // a pdf may contain more than one /XRef entry
             bfSearchXRefStreamsOffsets = new ArrayList<Long>();
-            long originOffset = source.getPosition();
-            source.seek(MINIMUM_SEARCH_OFFSET);
-            // search for XRef streams
-            String objString = " obj";
-            char[] string = objString.toCharArray();
-            while (!source.isEOF())
+            for (long newOffset : getBruteForceScanner().getXRefStreams())
             {
-                if (isString(XREF_STREAM))
-                {
-                    // search backwards for the beginning of the stream
-                    long newOffset = -1;
-                    long xrefOffset = source.getPosition();
-                    boolean objFound = false;
-                    for (int i = 1; i < 40 && !objFound; i++)
-                    {
-                        long currentOffset = xrefOffset - (i * 10);
-                        if (currentOffset > 0)
-                        {
-                            source.seek(currentOffset);
-                            for (int j = 0; j < 10; j++)
-                            {
-                                if (isString(string))
-                                {
-                                    long tempOffset = currentOffset - 1;
-                                    source.seek(tempOffset);
-                                    int genID = source.peek();
-                                    // is the next char a digit?
-                                    if (isDigit(genID))
-                                    {
-                                        tempOffset--;
-                                        source.seek(tempOffset);
-                                        if (isSpace())
-                                        {
-                                            int length = 0;
-                                            source.seek(--tempOffset);
-                                            while (tempOffset > MINIMUM_SEARCH_OFFSET && isDigit())
-                                            {
-                                                source.seek(--tempOffset);
-                                                length++;
-                                            }
-                                            if (length > 0)
-                                            {
-                                                source.read();
-                                                newOffset = source.getPosition();
-                                            }
-                                        }
-                                    }
-                                    Log.d("PdfBox-Android", "Fixed reference for xref stream " + xrefOffset
-                                        + " -> " + newOffset);
-                                    objFound = true;
-                                    break;
-                                }
-                                else
-                                {
-                                    currentOffset++;
-                                    source.read();
-                                }
-                            }
-                        }
-                    }
-                    if (newOffset > -1)
-                    {
-                        bfSearchXRefStreamsOffsets.add(newOffset);
-                    }
-                    source.seek(xrefOffset + 5);
-                }
-                source.read();
+                bfSearchXRefStreamsOffsets.add(newOffset);
             }
-            source.seek(originOffset);
         }
     }
 
@@ -2256,6 +2241,118 @@ public class COSParser extends BaseParser
         return trailer;
     }
 
+    /**
+     * Rebuilds the trailer dictionary using the recovery index of the document if there is a
+     * valid one, otherwise the results of the brute force search are stored in a new index.
+     *
+     * @return the rebuild trailer dictionary
+     *
+     * @throws IOException if something went wrong
+     */
+    private COSDictionary rebuildTrailerWithIndex() throws IOException
+    {
+        String key = null;
+        RecoveryIndex index = null;
+        try
+        {
+            key = RecoveryIndex.computeKey(source);
+            index = RecoveryIndex.load(recoveryIndexDirectory, key, source.length());
+        }
+        catch (IOException exception)
+        {
+            Log.w("PdfBox-Android", "Could not read the recovery index", exception);
+        }
+        if (index != null && validateRecoveryIndex(index))
+        {
+            bfSearchCOSObjectKeyOffsets = index.getXrefTable();
+            xrefTrailerResolver.reset();
+            xrefTrailerResolver.nextXrefObj(0, XRefType.TABLE);
+            for (Entry<COSObjectKey, Long> entry : bfSearchCOSObjectKeyOffsets.entrySet())
+            {
+                xrefTrailerResolver.setXRef(entry.getKey(), entry.getValue());
+            }
+            xrefTrailerResolver.setStartxref(0);
+            COSDictionary trailer = xrefTrailerResolver.getTrailer();
+            getDocument().setTrailer(trailer);
+            index.restoreTrailer(trailer, document);
+            prepareDecryption();
+            trailerWasRebuild = true;
+            return trailer;
+        }
+        COSDictionary trailer = rebuildTrailer();
+        if (key != null && trailer != null && bfSearchCOSObjectKeyOffsets != null)
+        {
+            index = RecoveryIndex.create(bfSearchCOSObjectKeyOffsets, trailer);
+            if (index != null)
+            {
+                try
+                {
+                    index.save(recoveryIndexDirectory, key, source.length());
+                }
+                catch (IOException exception)
+                {
+                    Log.w("PdfBox-Android", "Could not write the recovery index", exception);
+                }
+            }
+        }
+        return trailer;
+    }
+
+    /**
+     * Checks if the objects are at the stored offsets, for the root object and a few samples.
+     *
+     * @param index the recovery index of the document
+     * @return true if the checked objects were found
+     * @throws IOException if something went wrong
+     */
+    private boolean validateRecoveryIndex(RecoveryIndex index) throws IOException
+    {
+        Map<COSObjectKey, Long> xrefOffset = index.getXrefTable();
+        List<COSObjectKey> samples = new ArrayList<COSObjectKey>();
+        samples.add(index.getRootKey());
+        int step = Math.max(1, xrefOffset.size() / RECOVERY_INDEX_SAMPLES);
+        int i = 0;
+        for (COSObjectKey objectKey : xrefOffset.keySet())
+        {
+            if (i++ % step == 0)
+            {
+                samples.add(objectKey);
+            }
+        }
+        long originOffset = source.getPosition();
+        try
+        {
+            for (COSObjectKey objectKey : samples)
+            {
+                Long offset = xrefOffset.get(objectKey);
+                if (offset == null)
+                {
+                    return false;
+                }
+                // compressed objects are checked with their object stream
+                if (offset < 0)
+                {
+                    objectKey = new COSObjectKey(-offset, 0);
+                    offset = xrefOffset.get(objectKey);
+                    if (offset == null || offset < 0)
+                    {
+                        return false;
+                    }
+                }
+                if (!objectKey.equals(findObjectKey(objectKey, offset, xrefOffset)))
+                {
+                    Log.d("PdfBox-Android", "Recovery index doesn't match the object " + objectKey);
+                    return false;
+                }
+            }
+        }
+        finally
+        {
+            source.seek(originOffset);
+        }
+        return true;
+    }
+
     /**
      * Search for the different parts of the trailer dictionary.
      *
@@ -2349,7 +2446,7 @@ public class COSParser extends BaseParser
         if (offset < 0)
         {
             COSObject compressedObject = document.getObjectFromPool(key);
-            if (compressedObject.getObject() == null)
+            if (compressedObject.isObjectNull())
             {
                 parseObjectStream((int) -offset);
             }
@@ -3026,7 +3123,7 @@ public class COSParser extends BaseParser
             if (value instanceof COSObject)
             {
                 COSObject object = (COSObject) value;
-                if (object.getObject() == null)
+                if (object.isObjectNull())
                 {
                     parseDictionaryRecursive(object);
                 }
@@ -20,15 +20,21 @@ package com.tom_roush.pdfbox.pdfparser;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackInputStream;
 
 /**
- * A SequentialSource backed by an InputStream.
+ * A SequentialSource backed by an InputStream. The stream is read in blocks into a reusable
+ * buffer, so that single bytes are read and peeked without calling the stream each time.
  */
 final class InputStreamSource implements SequentialSource
 {
-    private final PushbackInputStream input;
-    private int position;
+    private static final int BUFFER_SIZE = 4096;
+
+    private final InputStream input;
+    // the bytes read from the stream, or unread, between bufferPosition and bufferLength
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition;
+    private int bufferLength;
+    private long position;
 
     /**
      * Constructor.
@@ -37,37 +43,69 @@ final class InputStreamSource implements SequentialSource
      */
     InputStreamSource(InputStream input)
     {
-        this.input = new PushbackInputStream(input, 32767); // maximum length of a PDF string
+        this.input = input;
         this.position = 0;
     }
 
+    // refills the buffer if it has been consumed, returns false at the end of the stream
+    private boolean fillBuffer() throws IOException
+    {
+        if (bufferPosition < bufferLength)
+        {
+            return true;
+        }
+        int n = input.read(buffer, 0, buffer.length);
+        bufferPosition = 0;
+        bufferLength = Math.max(n, 0);
+        return n > 0;
+    }
+
     @Override
     public int read() throws IOException
     {
-        int b = input.read();
         position++;
-        return b;
+        if (!fillBuffer())
+        {
+            return -1;
+        }
+        return buffer[bufferPosition++] & 0xff;
     }
 
     @Override
     public int read(byte[] b) throws IOException
     {
-        int n = input.read(b);
-        if (n > 0)
-        {
-            position += n;
-            return n;
-        }
-        else
-        {
-            return -1;
-        }
+        return read(b, 0, b.length);
     }
 
     @Override
     public int read(byte[] b, int offset, int length) throws IOException
     {
-        int n = input.read(b, offset, length);
+        if (length == 0)
+        {
+            return 0;
+        }
+        int n;
+        if (bufferPosition < bufferLength)
+        {
+            n = Math.min(length, bufferLength - bufferPosition);
+            System.arraycopy(buffer, bufferPosition, b, offset, n);
+            bufferPosition += n;
+        }
+        else if (length >= buffer.length)
+        {
+            // large reads bypass the buffer
+            n = input.read(b, offset, length);
+        }
+        else if (fillBuffer())
+        {
+            n = Math.min(length, bufferLength);
+            System.arraycopy(buffer, 0, b, offset, n);
+            bufferPosition = n;
+        }
+        else
+        {
+            n = -1;
+        }
         if (n > 0)
         {
             position += n;
@@ -88,35 +126,55 @@ final class InputStreamSource implements SequentialSource
     @Override
     public int peek() throws IOException
     {
-        int b = input.read();
-        if (b != -1)
+        if (!fillBuffer())
         {
-            input.unread(b);
+            return -1;
         }
-        return b;
+        return buffer[bufferPosition] & 0xff;
     }
 
     @Override
     public void unread(int b) throws IOException
     {
-        input.unread(b);
+        makeRoom(1);
+        buffer[--bufferPosition] = (byte) b;
         position--;
     }
 
     @Override
     public void unread(byte[] bytes) throws IOException
     {
-        input.unread(bytes);
-        position -= bytes.length;
+        unread(bytes, 0, bytes.length);
     }
 
     @Override
     public void unread(byte[] bytes, int start, int len) throws IOException
     {
-        input.unread(bytes, start, len);
+        makeRoom(len);
+        bufferPosition -= len;
+        System.arraycopy(bytes, start, buffer, bufferPosition, len);
         position -= len;
     }
 
+    // makes sure that the given number of bytes can be put back in front of bufferPosition
+    private void makeRoom(int len)
+    {
+        if (len <= bufferPosition)
+        {
+            return;
+        }
+        int remaining = bufferLength - bufferPosition;
+        byte[] target = buffer;
+        if (len + remaining > buffer.length)
+        {
+            target = new byte[Math.max(len + remaining, buffer.length * 2)];
+        }
+        System.arraycopy(buffer, bufferPosition, target, len, remaining);
+        buffer = target;
+        bufferPosition = len;
+        bufferLength = len + remaining;
+    }
+
     @Override
     public byte[] readFully(int length) throws IOException
     {
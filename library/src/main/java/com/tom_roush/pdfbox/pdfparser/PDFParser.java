@@ -159,13 +159,15 @@ public class PDFParser extends COSParser
     /**
      * The initial parse will first parse only the trailer, the xrefstart and all xref tables to have a pointer (offset)
      * to all the pdf's objects. It can handle linearized pdfs, which will have an xref at the end pointing to an xref
-     * at the beginning of the file. Last the root object is parsed.
+     * at the beginning of the file. Last the root object is parsed, including all objects reachable from it unless lazy
+     * object loading is enabled.
      *
      * @throws InvalidPasswordException If the password is incorrect.
      * @throws IOException If something went wrong.
      */
     protected void initialParse() throws IOException
     {
+        initLazyObjectLoading();
         COSDictionary trailer = retrieveTrailer();
 
         COSBase base = parseTrailerValuesDynamically(trailer);
@@ -179,13 +181,16 @@ public class PDFParser extends COSParser
         {
             root.setItem(COSName.TYPE, COSName.CATALOG);
         }
-        // parse all objects, starting at the root dictionary
-        parseDictObjects(root, (COSName[]) null);
-        // parse all objects of the info dictionary
-        COSBase infoBase = trailer.getDictionaryObject(COSName.INFO);
-        if (infoBase instanceof COSDictionary)
+        if (!lazyObjectLoading)
         {
-            parseDictObjects((COSDictionary) infoBase, (COSName[]) null);
+            // parse all objects, starting at the root dictionary
+            parseDictObjects(root, (COSName[]) null);
+            // parse all objects of the info dictionary
+            COSBase infoBase = trailer.getDictionaryObject(COSName.INFO);
+            if (infoBase instanceof COSDictionary)
+            {
+                parseDictObjects((COSDictionary) infoBase, (COSName[]) null);
+            }
         }
         // check pages dictionaries
         checkPages(root);
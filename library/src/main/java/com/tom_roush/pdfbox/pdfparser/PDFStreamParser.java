@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.tom_roush.pdfbox.contentstream.PDContentStream;
+import com.tom_roush.pdfbox.contentstream.operator.OperandList;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
 import com.tom_roush.pdfbox.cos.COSBase;
@@ -35,6 +36,7 @@ import com.tom_roush.pdfbox.cos.COSNumber;
 import com.tom_roush.pdfbox.cos.COSStream;
 import com.tom_roush.pdfbox.io.RandomAccessBuffer;
 import com.tom_roush.pdfbox.pdmodel.common.PDStream;
+import com.tom_roush.pdfbox.util.Charsets;
 
 /**
  * This will parse a PDF byte stream and extract operands and such.
@@ -48,6 +50,23 @@ public class PDFStreamParser extends BaseParser
     private static final int MAX_BIN_CHAR_TEST_LENGTH = 10;
     private final byte[] binCharTestArr = new byte[MAX_BIN_CHAR_TEST_LENGTH];
 
+    // numbers with more digits may overflow a long and are parsed from their string
+    private static final int MAX_NUMBER_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = new double[MAX_NUMBER_DIGITS + 1];
+
+    static
+    {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+        {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    // the bytes of the current number or operator, see parseNextOperator()
+    private byte[] tokenBytes = new byte[16];
+    private int tokenLength;
+
     /**
      * Constructor.
      *
@@ -319,6 +338,247 @@ public class PDFStreamParser extends BaseParser
         return null;
     }
 
+    /**
+     * This will parse the operands of the next operator into the given list and return the
+     * operator. The tokens are the same as returned by {@link #parseNextToken()}, but numbers are
+     * added as primitive values and operators are looked up without creating a string, so that
+     * this doesn't create any objects for most content stream operations.
+     *
+     * @param operands The list the operands are added to, it isn't cleared before.
+     *
+     * @return The next operator in the stream or null if there are no more operators in the stream.
+     * Operands at the end of the stream which aren't followed by an operator are dropped.
+     *
+     * @throws IOException If an io error occurs while parsing the stream.
+     */
+    public Operator parseNextOperator(OperandList operands) throws IOException
+    {
+        while (true)
+        {
+            skipSpaces();
+            int c = seqSource.peek();
+            switch (c)
+            {
+                case -1:
+                    return null;
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                case '8':
+                case '9':
+                case '-':
+                case '+':
+                case '.':
+                    parseNumber(operands);
+                    break;
+                case 'n':
+                case 't':
+                case 'f':
+                    readName();
+                    if (isToken("null"))
+                    {
+                        operands.add(COSNull.NULL);
+                    }
+                    else if (isToken("true"))
+                    {
+                        operands.add(COSBoolean.TRUE);
+                    }
+                    else if (isToken("false"))
+                    {
+                        operands.add(COSBoolean.FALSE);
+                    }
+                    else
+                    {
+                        return Operator.getOperator(tokenBytes, tokenLength);
+                    }
+                    break;
+                case '<':
+                case '[':
+                case '(':
+                case '/':
+                case ']':
+                case 'B':
+                case 'I':
+                    Object token = parseNextToken();
+                    if (token == null)
+                    {
+                        return null;
+                    }
+                    if (token instanceof Operator)
+                    {
+                        return (Operator) token;
+                    }
+                    operands.add((COSBase) token);
+                    break;
+                default:
+                    readOperatorBytes();
+                    if (tokenLength == 0)
+                    {
+                        return null;
+                    }
+                    return Operator.getOperator(tokenBytes, tokenLength);
+            }
+        }
+    }
+
+    // parses a number like parseNextToken() and adds its primitive value
+    private void parseNumber(OperandList operands) throws IOException
+    {
+        tokenLength = 0;
+        int c = seqSource.read();
+        appendTokenByte(c);
+
+        // Ignore double negative (this is consistent with Adobe Reader)
+        if (c == '-' && seqSource.peek() == c)
+        {
+            seqSource.read();
+        }
+
+        boolean dotNotRead = c != '.';
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        if (c >= '0' && c <= '9')
+        {
+            mantissa = c - '0';
+            digits = 1;
+        }
+        while (true)
+        {
+            c = seqSource.peek();
+            if (c >= '0' && c <= '9')
+            {
+                appendTokenByte(c);
+                if (digits < MAX_NUMBER_DIGITS)
+                {
+                    mantissa = mantissa * 10 + c - '0';
+                }
+                digits++;
+                if (!dotNotRead)
+                {
+                    fractionDigits++;
+                }
+            }
+            else if (dotNotRead && c == '.')
+            {
+                appendTokenByte(c);
+                dotNotRead = false;
+            }
+            else if (c != '-')
+            {
+                break;
+            }
+            // PDFBOX-4064: ignore "-" in the middle of a number
+            seqSource.read();
+        }
+
+        if (digits == 0 || digits > MAX_NUMBER_DIGITS)
+        {
+            // malformed or huge numbers are handled by COSNumber
+            operands.add(COSNumber.get(new String(tokenBytes, 0, tokenLength, Charsets.ISO_8859_1)));
+            return;
+        }
+        boolean negative = tokenBytes[0] == '-';
+        if (!dotNotRead || tokenBytes[0] == '.')
+        {
+            float value = mantissa == 0 ? 0 : (float) (mantissa / POWERS_OF_TEN[fractionDigits]);
+            operands.addFloat(negative ? -value : value);
+        }
+        else
+        {
+            operands.addInteger(negative ? -mantissa : mantissa);
+        }
+    }
+
+    // reads a token like readString()
+    private void readName() throws IOException
+    {
+        tokenLength = 0;
+        int c = seqSource.read();
+        while (!isEndOfName((char) c) && c != -1)
+        {
+            appendTokenByte(c);
+            c = seqSource.read();
+        }
+        if (c != -1)
+        {
+            seqSource.unread(c);
+        }
+    }
+
+    // reads an operator like readOperator().trim()
+    private void readOperatorBytes() throws IOException
+    {
+        tokenLength = 0;
+        int nextChar = seqSource.peek();
+        while (nextChar != -1 && // EOF
+            !isWhitespace(nextChar) &&
+            !isClosing(nextChar) &&
+            nextChar != '[' &&
+            nextChar != '<' &&
+            nextChar != '(' &&
+            nextChar != '/' &&
+            (nextChar < '0' || nextChar > '9'))
+        {
+            int currentChar = seqSource.read();
+            nextChar = seqSource.peek();
+            appendTokenByte(currentChar);
+            // Type3 Glyph description has operators with a number in the name
+            if (currentChar == 'd' && (nextChar == '0' || nextChar == '1'))
+            {
+                appendTokenByte(seqSource.read());
+                nextChar = seqSource.peek();
+            }
+        }
+
+        int start = 0;
+        while (start < tokenLength && (tokenBytes[start] & 0xff) <= ' ')
+        {
+            start++;
+        }
+        while (tokenLength > start && (tokenBytes[tokenLength - 1] & 0xff) <= ' ')
+        {
+            tokenLength--;
+        }
+        if (start > 0)
+        {
+            tokenLength -= start;
+            System.arraycopy(tokenBytes, start, tokenBytes, 0, tokenLength);
+        }
+    }
+
+    private void appendTokenByte(int b)
+    {
+        if (tokenLength == tokenBytes.length)
+        {
+            byte[] newBytes = new byte[tokenLength * 2];
+            System.arraycopy(tokenBytes, 0, newBytes, 0, tokenLength);
+            tokenBytes = newBytes;
+        }
+        tokenBytes[tokenLength++] = (byte) b;
+    }
+
+    private boolean isToken(String token)
+    {
+        if (tokenLength != token.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++)
+        {
+            if (tokenBytes[i] != token.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Looks up an amount of bytes if they contain only ASCII characters (no
      * control sequences etc.), and that these ASCII characters begin with a
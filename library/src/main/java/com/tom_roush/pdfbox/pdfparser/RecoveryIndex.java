@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdfparser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSDocument;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.cos.COSObjectKey;
+import com.tom_roush.pdfbox.cos.COSString;
+import com.tom_roush.pdfbox.cos.COSXrefTable;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.io.RandomAccessRead;
+
+/**
+ * The cross reference and the trailer entries of a damaged PDF as rebuilt by a brute force
+ * search, stored in a file of a cache directory. The file is named after a key of the PDF, a
+ * SHA-1 hash of its length, its start, its end and some blocks in between, so that the PDF
+ * doesn't have to be read completely. The parser has to check some of the offsets before using
+ * the index, to detect a changed PDF with the same key.
+ */
+final class RecoveryIndex
+{
+    private static final int MAGIC = 0x50445849; // "PDXI"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".xref";
+
+    private static final int HEAD_SIZE = 64 * 1024;
+    private static final int SAMPLE_SIZE = 4096;
+    private static final int SAMPLE_COUNT = 16;
+
+    private static final COSName[] TRAILER_REFERENCES =
+        { COSName.ROOT, COSName.INFO, COSName.ENCRYPT };
+
+    private final Map<COSObjectKey, Long> xrefTable;
+    // object keys of the trailer references, null if missing
+    private final COSObjectKey[] trailerKeys;
+    private final byte[][] ids;
+
+    private RecoveryIndex(Map<COSObjectKey, Long> xrefTable, COSObjectKey[] trailerKeys,
+        byte[][] ids)
+    {
+        this.xrefTable = xrefTable;
+        this.trailerKeys = trailerKeys;
+        this.ids = ids;
+    }
+
+    /**
+     * Creates an index of the given cross reference and trailer.
+     *
+     * @param xrefTable the rebuilt cross reference
+     * @param trailer the rebuilt trailer, the references have to be indirect objects
+     * @return the index or null if the trailer doesn't have a root reference
+     */
+    static RecoveryIndex create(Map<COSObjectKey, Long> xrefTable, COSDictionary trailer)
+    {
+        COSObjectKey[] trailerKeys = new COSObjectKey[TRAILER_REFERENCES.length];
+        for (int i = 0; i < TRAILER_REFERENCES.length; i++)
+        {
+            COSObject object = trailer.getCOSObject(TRAILER_REFERENCES[i]);
+            trailerKeys[i] = object != null ? new COSObjectKey(object) : null;
+        }
+        if (trailerKeys[0] == null)
+        {
+            return null;
+        }
+        byte[][] ids = null;
+        COSBase idObject = trailer.getItem(COSName.ID);
+        if (idObject instanceof COSArray)
+        {
+            COSArray idArray = (COSArray) idObject;
+            List<byte[]> idList = new ArrayList<byte[]>();
+            for (int i = 0; i < idArray.size(); i++)
+            {
+                if (idArray.get(i) instanceof COSString)
+                {
+                    idList.add(((COSString) idArray.get(i)).getBytes());
+                }
+            }
+            ids = idList.toArray(new byte[idList.size()][]);
+        }
+        return new RecoveryIndex(xrefTable, trailerKeys, ids);
+    }
+
+    /**
+     * Returns the rebuilt cross reference.
+     */
+    Map<COSObjectKey, Long> getXrefTable()
+    {
+        return xrefTable;
+    }
+
+    /**
+     * Returns the key of the document catalog.
+     */
+    COSObjectKey getRootKey()
+    {
+        return trailerKeys[0];
+    }
+
+    /**
+     * Sets the stored references and the ID in the given trailer.
+     *
+     * @param trailer the trailer to be filled
+     * @param document the document providing the objects
+     * @throws IOException if an object could not be created
+     */
+    void restoreTrailer(COSDictionary trailer, COSDocument document) throws IOException
+    {
+        for (int i = 0; i < TRAILER_REFERENCES.length; i++)
+        {
+            if (trailerKeys[i] != null)
+            {
+                trailer.setItem(TRAILER_REFERENCES[i], document.getObjectFromPool(trailerKeys[i]));
+            }
+        }
+        if (ids != null)
+        {
+            COSArray idArray = new COSArray();
+            for (byte[] id : ids)
+            {
+                idArray.add(new COSString(id));
+            }
+            trailer.setItem(COSName.ID, idArray);
+        }
+    }
+
+    /**
+     * Computes the key of the given PDF. The position of the source is kept.
+     *
+     * @param source the PDF
+     * @return the key, a hex string
+     * @throws IOException if the source could not be read
+     */
+    static String computeKey(RandomAccessRead source) throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // should never happen
+            throw new IOException(e);
+        }
+        long length = source.length();
+        long originOffset = source.getPosition();
+        try
+        {
+            for (int i = 0; i < 8; i++)
+            {
+                digest.update((byte) (length >>> (56 - 8 * i)));
+            }
+            byte[] buffer = new byte[HEAD_SIZE];
+            update(digest, source, 0, HEAD_SIZE, buffer);
+            update(digest, source, length - HEAD_SIZE, HEAD_SIZE, buffer);
+            for (int i = 1; i <= SAMPLE_COUNT; i++)
+            {
+                update(digest, source, length / (SAMPLE_COUNT + 1) * i, SAMPLE_SIZE, buffer);
+            }
+        }
+        finally
+        {
+            source.seek(originOffset);
+        }
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest())
+        {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16));
+            key.append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    private static void update(MessageDigest digest, RandomAccessRead source, long offset,
+        int count, byte[] buffer) throws IOException
+    {
+        offset = Math.max(0, offset);
+        source.seek(offset);
+        int remaining = (int) Math.min(count, source.length() - offset);
+        while (remaining > 0)
+        {
+            int read = source.read(buffer, 0, remaining);
+            if (read <= 0)
+            {
+                break;
+            }
+            digest.update(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    /**
+     * Reads the index of the PDF with the given key and length from the given directory.
+     *
+     * @param directory the cache directory
+     * @param key the key of the PDF
+     * @param length the length of the PDF
+     * @return the index or null if there isn't any
+     * @throws IOException if the index could not be read or is corrupt
+     */
+    static RecoveryIndex load(File directory, String key, long length) throws IOException
+    {
+        File file = new File(directory, key + SUFFIX);
+        if (!file.isFile())
+        {
+            return null;
+        }
+        DataInputStream input = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(file)));
+        try
+        {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION
+                || input.readLong() != length || !key.equals(input.readUTF()))
+            {
+                return null;
+            }
+            COSObjectKey[] trailerKeys = new COSObjectKey[TRAILER_REFERENCES.length];
+            for (int i = 0; i < trailerKeys.length; i++)
+            {
+                if (input.readBoolean())
+                {
+                    trailerKeys[i] = new COSObjectKey(input.readLong(), input.readInt());
+                }
+            }
+            byte[][] ids = null;
+            int idCount = input.readInt();
+            if (idCount >= 0)
+            {
+                ids = new byte[idCount][];
+                for (int i = 0; i < idCount; i++)
+                {
+                    ids[i] = new byte[input.readUnsignedShort()];
+                    input.readFully(ids[i]);
+                }
+            }
+            int count = input.readInt();
+            if (count < 0 || trailerKeys[0] == null)
+            {
+                throw new IOException("Corrupt recovery index " + file);
+            }
+            Map<COSObjectKey, Long> xrefTable = new COSXrefTable();
+            for (int i = 0; i < count; i++)
+            {
+                xrefTable.put(new COSObjectKey(input.readLong(), input.readInt()),
+                    input.readLong());
+            }
+            return new RecoveryIndex(xrefTable, trailerKeys, ids);
+        }
+        finally
+        {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Writes this index to the given directory. The file is replaced as a whole, so that
+     * concurrent readers never see a partial index.
+     *
+     * @param directory the cache directory
+     * @param key the key of the PDF
+     * @param length the length of the PDF
+     * @throws IOException if the index could not be written
+     */
+    void save(File directory, String key, long length) throws IOException
+    {
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Could not create cache directory " + directory);
+        }
+        File file = new File(directory, key + SUFFIX);
+        File tempFile = File.createTempFile(key, ".tmp", directory);
+        boolean done = false;
+        try
+        {
+            DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try
+            {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(length);
+                output.writeUTF(key);
+                for (COSObjectKey trailerKey : trailerKeys)
+                {
+                    output.writeBoolean(trailerKey != null);
+                    if (trailerKey != null)
+                    {
+                        output.writeLong(trailerKey.getNumber());
+                        output.writeInt(trailerKey.getGeneration());
+                    }
+                }
+                output.writeInt(ids != null ? ids.length : -1);
+                if (ids != null)
+                {
+                    for (byte[] id : ids)
+                    {
+                        byte[] bytes = id.length > 0xffff ? Arrays.copyOf(id, 0xffff) : id;
+                        output.writeShort(bytes.length);
+                        output.write(bytes);
+                    }
+                }
+                int count = 0;
+                for (Long offset : xrefTable.values())
+                {
+                    if (offset != null)
+                    {
+                        count++;
+                    }
+                }
+                output.writeInt(count);
+                for (Map.Entry<COSObjectKey, Long> entry : xrefTable.entrySet())
+                {
+                    if (entry.getValue() != null)
+                    {
+                        output.writeLong(entry.getKey().getNumber());
+                        output.writeInt(entry.getKey().getGeneration());
+                        output.writeLong(entry.getValue());
+                    }
+                }
+            }
+            finally
+            {
+                output.close();
+            }
+            // replace an existing index, e.g. of an older version
+            if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file)))
+            {
+                throw new IOException("Could not write recovery index " + file);
+            }
+            done = true;
+        }
+        finally
+        {
+            if (!done && !tempFile.delete())
+            {
+                tempFile.deleteOnExit();
+            }
+        }
+    }
+}
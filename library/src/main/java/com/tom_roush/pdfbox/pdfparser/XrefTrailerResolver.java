@@ -32,6 +32,7 @@ import java.util.TreeSet;
 import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.cos.COSObjectKey;
+import com.tom_roush.pdfbox.cos.COSXrefTable;
 
 /**
  * This class will collect all XRef/trailer objects and creates correct
@@ -65,7 +66,7 @@ public class XrefTrailerResolver
 
         private XRefType xrefType;
 
-        private final Map<COSObjectKey, Long> xrefTable = new HashMap<COSObjectKey, Long>();
+        private final Map<COSObjectKey, Long> xrefTable = new COSXrefTable();
 
         /**
          *  Default constructor.
@@ -209,6 +209,17 @@ public class COSWriter implements ICOSVisitor, Closeable
     private FDFDocument fdfDocument = null;
     private boolean willEncrypt = false;
 
+    // compression
+    private CompressParameters compressParameters = CompressParameters.NO_COMPRESSION;
+    private boolean willCompress = false;
+    // the key of the object stream currently being filled, null if there is none
+    private COSObjectKey objectStreamKey;
+    // "number offset" pairs of the objects within the current object stream
+    private ByteArrayOutputStream objectStreamHeader;
+    private ByteArrayOutputStream objectStreamData;
+    private COSStandardOutputStream objectStreamOutput;
+    private int objectStreamCount;
+
     // signing
     private boolean incrementalUpdate = false;
     private boolean reachedSignature = false;
@@ -234,6 +245,24 @@ public class COSWriter implements ICOSVisitor, Closeable
         setStandardOutput(new COSStandardOutputStream(output));
     }
 
+    /**
+     * COSWriter constructor for writing a compressed document. Compression is applied only if the
+     * document isn't encrypted.
+     *
+     * @param outputStream The output stream to write the PDF. It will be closed when this object is
+     * closed.
+     * @param compressParameters The parameters controlling the compression, e.g.
+     * {@link CompressParameters#DEFAULT_COMPRESSION}.
+     */
+    public COSWriter(OutputStream outputStream, CompressParameters compressParameters)
+    {
+        this(outputStream);
+        if (compressParameters != null)
+        {
+            this.compressParameters = compressParameters;
+        }
+    }
+
     /**
      * COSWriter constructor for incremental updates. There must be a path of objects that have
      * {@link COSUpdateInfo#isNeedToBeUpdated()} set, starting from the document catalog. For
@@ -483,6 +512,7 @@ public class COSWriter implements ICOSVisitor, Closeable
         }
 
         doWriteObjects();
+        doWriteObjectStream();
     }
 
     private void doWriteObjects() throws IOException
@@ -556,6 +586,11 @@ public class COSWriter implements ICOSVisitor, Closeable
         writtenObjects.add( obj );
         // find the physical reference
         currentObjectKey = getObjectKey( obj );
+        if (willCompress && isCompressible(obj, currentObjectKey))
+        {
+            doWriteCompressedObject(obj);
+            return;
+        }
         // add a x ref entry
         addXRefEntry( new COSWriterXRefEntry(getStandardOutput().getPos(), obj, currentObjectKey));
         // write the object
@@ -571,6 +606,102 @@ public class COSWriter implements ICOSVisitor, Closeable
         getStandardOutput().writeEOL();
     }
 
+    /**
+     * Streams can't be stored in an object stream, neither can objects with a generation number
+     * other than zero.
+     */
+    private boolean isCompressible(COSBase obj, COSObjectKey key)
+    {
+        COSBase actual = obj;
+        if (actual instanceof COSObject)
+        {
+            actual = ((COSObject) actual).getObject();
+        }
+        return !(actual instanceof COSStream) && key.getGeneration() == 0;
+    }
+
+    /**
+     * Writes an object into the current object stream. The object stream is written as soon as it
+     * is full.
+     *
+     * @param obj The object to write.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    private void doWriteCompressedObject(COSBase obj) throws IOException
+    {
+        if (objectStreamKey == null)
+        {
+            setNumber(getNumber() + 1);
+            objectStreamKey = new COSObjectKey(getNumber(), 0);
+            objectStreamHeader = new ByteArrayOutputStream();
+            objectStreamData = new ByteArrayOutputStream();
+            objectStreamOutput = new COSStandardOutputStream(objectStreamData);
+            objectStreamCount = 0;
+        }
+        COSWriterXRefEntry entry = new COSWriterXRefEntry(objectStreamCount, obj,
+            currentObjectKey);
+        entry.setObjectStreamNumber(objectStreamKey.getNumber());
+        addXRefEntry(entry);
+
+        String header = currentObjectKey.getNumber() + " " + objectStreamOutput.getPos() + " ";
+        objectStreamHeader.write(header.getBytes(Charsets.ISO_8859_1));
+
+        // the visitor methods write to the standard output, redirect them to the object stream
+        COSStandardOutputStream standardOutputStream = getStandardOutput();
+        setStandardOutput(objectStreamOutput);
+        try
+        {
+            obj.accept(this);
+            getStandardOutput().writeEOL();
+        }
+        finally
+        {
+            setStandardOutput(standardOutputStream);
+        }
+
+        if (++objectStreamCount >= compressParameters.getObjectStreamSize())
+        {
+            doWriteObjectStream();
+        }
+    }
+
+    /**
+     * Writes the current object stream, if any, as a Flate compressed stream object.
+     *
+     * @throws IOException if the output cannot be written
+     */
+    private void doWriteObjectStream() throws IOException
+    {
+        if (objectStreamKey == null)
+        {
+            return;
+        }
+        COSStream objectStream = pdDocument.getDocument().createCOSStream();
+        objectStream.setItem(COSName.TYPE, COSName.OBJ_STM);
+        objectStream.setInt(COSName.N, objectStreamCount);
+        objectStream.setInt(COSName.FIRST, objectStreamHeader.size());
+        OutputStream os = objectStream.createOutputStream(COSName.FLATE_DECODE);
+        try
+        {
+            objectStreamHeader.writeTo(os);
+            objectStreamData.writeTo(os);
+        }
+        finally
+        {
+            os.close();
+        }
+        objectKeys.put(objectStream, objectStreamKey);
+
+        objectStreamKey = null;
+        objectStreamHeader = null;
+        objectStreamData = null;
+        objectStreamOutput = null;
+        objectStreamCount = 0;
+
+        doWriteObject(objectStream);
+    }
+
     /**
      * This will write the header to the PDF document.
      *
@@ -587,7 +718,13 @@ public class COSWriter implements ICOSVisitor, Closeable
         }
         else
         {
-            headerString = "%PDF-"+ doc.getVersion();
+            float version = doc.getVersion();
+            if (willCompress && version < 1.5f)
+            {
+                // object streams and cross reference streams were introduced with PDF 1.5
+                version = 1.5f;
+            }
+            headerString = "%PDF-"+ version;
         }
         getStandardOutput().write( headerString.getBytes(Charsets.ISO_8859_1) );
 
@@ -643,35 +780,7 @@ public class COSWriter implements ICOSVisitor, Closeable
             // the file uses XrefStreams, so we need to update
             // it with an xref stream. We create a new one and fill it
             // with data available here
-
-            // create a new XRefStream object
-            PDFXRefStream pdfxRefStream = new PDFXRefStream(doc);
-
-            // add all entries from the incremental update.
-            List<COSWriterXRefEntry> xRefEntries2 = getXRefEntries();
-            for ( COSWriterXRefEntry cosWriterXRefEntry : xRefEntries2 )
-            {
-                pdfxRefStream.addEntry(cosWriterXRefEntry);
-            }
-
-            COSDictionary trailer = doc.getTrailer();
-            if (incrementalUpdate)
-            {
-                // use previous startXref value as new PREV value
-                trailer.setLong(COSName.PREV, doc.getStartXref());
-            }
-            else
-            {
-                trailer.removeItem(COSName.PREV);
-            }
-            pdfxRefStream.addTrailerInfo(trailer);
-            // the size is the highest object number+1. we add one more
-            // for the xref stream object we are going to write
-            pdfxRefStream.setSize(getNumber() + 2);
-
-            setStartxref(getStandardOutput().getPos());
-            COSStream stream2 = pdfxRefStream.getStream();
-            doWriteObject(stream2);
+            doWriteXRefStream(doc);
         }
 
         if (!doc.isXRefStream() || hybridPrev != -1)
@@ -689,6 +798,39 @@ public class COSWriter implements ICOSVisitor, Closeable
         }
     }
 
+    // writes the xref stream
+    private void doWriteXRefStream(COSDocument doc) throws IOException
+    {
+        // create a new XRefStream object
+        PDFXRefStream pdfxRefStream = new PDFXRefStream(doc);
+
+        // add all entries written so far.
+        List<COSWriterXRefEntry> xRefEntries2 = getXRefEntries();
+        for ( COSWriterXRefEntry cosWriterXRefEntry : xRefEntries2 )
+        {
+            pdfxRefStream.addEntry(cosWriterXRefEntry);
+        }
+
+        COSDictionary trailer = doc.getTrailer();
+        if (incrementalUpdate)
+        {
+            // use previous startXref value as new PREV value
+            trailer.setLong(COSName.PREV, doc.getStartXref());
+        }
+        else
+        {
+            trailer.removeItem(COSName.PREV);
+        }
+        pdfxRefStream.addTrailerInfo(trailer);
+        // the size is the highest object number+1. we add one more
+        // for the xref stream object we are going to write
+        pdfxRefStream.setSize(getNumber() + 2);
+
+        setStartxref(getStandardOutput().getPos());
+        COSStream stream2 = pdfxRefStream.getStream();
+        doWriteObject(stream2);
+    }
+
     // writes the "xref" table
     private void doWriteXRefTable() throws IOException
     {
@@ -1168,7 +1310,11 @@ public class COSWriter implements ICOSVisitor, Closeable
             hybridPrev = trailer.getLong(COSName.XREF_STM);
         }
 
-        if(incrementalUpdate || doc.isXRefStream())
+        if (willCompress)
+        {
+            doWriteXRefStream(doc);
+        }
+        else if(incrementalUpdate || doc.isXRefStream())
         {
             doWriteXRefInc(doc, hybridPrev);
         }
@@ -1378,6 +1524,9 @@ public class COSWriter implements ICOSVisitor, Closeable
             }
         }
 
+        // object streams are only written for complete unencrypted documents
+        willCompress = compressParameters.isCompress() && !incrementalUpdate && !willEncrypt;
+
         COSDocument cosDoc = pdDocument.getDocument();
         COSDictionary trailer = cosDoc.getTrailer();
         COSArray idArray = null;
@@ -32,6 +32,7 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
     private COSBase object;
     private COSObjectKey key;
     private boolean free = false;
+    private long objectStreamNumber = -1;
     private static final COSWriterXRefEntry NULLENTRY;
 
     static
@@ -125,6 +126,27 @@ public class COSWriterXRefEntry implements Comparable<COSWriterXRefEntry>
         free = newFree;
     }
 
+    /**
+     * Returns the number of the object stream containing the object of this entry. The offset of
+     * such an entry is the index of the object within the object stream.
+     *
+     * @return The object stream number or -1 if the object isn't stored in an object stream.
+     */
+    public long getObjectStreamNumber()
+    {
+        return objectStreamNumber;
+    }
+
+    /**
+     * This will set the number of the object stream containing the object of this entry.
+     *
+     * @param newObjectStreamNumber The object stream number or -1 for an uncompressed object.
+     */
+    public void setObjectStreamNumber(long newObjectStreamNumber)
+    {
+        objectStreamNumber = newObjectStreamNumber;
+    }
+
     /**
      * This will set the object key.
      *
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdfwriter;
+
+/**
+ * An instance of this class holds the parameters controlling the compression of a PDF when it is
+ * written by {@link COSWriter}.
+ *
+ * If compression is enabled, all objects which aren't streams are packed into Flate compressed
+ * object streams and the cross reference table is replaced by a cross reference stream. This
+ * requires PDF 1.5, the header version of the written document is raised if needed.
+ *
+ * Compression is only applied when writing a complete document, it is ignored for incremental
+ * updates and for encrypted documents.
+ */
+public final class CompressParameters
+{
+    /**
+     * The default number of objects stored in a single object stream.
+     */
+    public static final int DEFAULT_OBJECT_STREAM_SIZE = 100;
+
+    /**
+     * Compress the document using object streams of the default size.
+     */
+    public static final CompressParameters DEFAULT_COMPRESSION =
+        new CompressParameters(DEFAULT_OBJECT_STREAM_SIZE);
+
+    /**
+     * Don't compress the document, this is the classic cross reference table layout.
+     */
+    public static final CompressParameters NO_COMPRESSION = new CompressParameters(0);
+
+    private final int objectStreamSize;
+
+    /**
+     * Create compression parameters using object streams holding at most the given number of
+     * objects.
+     *
+     * @param objectStreamSize the maximum number of objects per object stream, 0 disables the
+     * compression.
+     * @throws IllegalArgumentException if the given size is negative.
+     */
+    public CompressParameters(int objectStreamSize)
+    {
+        if (objectStreamSize < 0)
+        {
+            throw new IllegalArgumentException("Object stream size can't be negative");
+        }
+        this.objectStreamSize = objectStreamSize;
+    }
+
+    /**
+     * Returns the maximum number of objects stored in a single object stream.
+     *
+     * @return the maximum number of objects per object stream.
+     */
+    public int getObjectStreamSize()
+    {
+        return objectStreamSize;
+    }
+
+    /**
+     * Indicates whether the document shall be compressed.
+     *
+     * @return true if objects shall be packed into object streams.
+     */
+    public boolean isCompress()
+    {
+        return objectStreamSize > 0;
+    }
+}
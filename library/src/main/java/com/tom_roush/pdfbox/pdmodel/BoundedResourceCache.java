@@ -0,0 +1,427 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdmodel;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.tom_roush.fontbox.cff.CFFFont;
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.pdmodel.common.COSObjectable;
+import com.tom_roush.pdfbox.pdmodel.documentinterchange.markedcontent.PDPropertyList;
+import com.tom_roush.pdfbox.pdmodel.font.PDCIDFont;
+import com.tom_roush.pdfbox.pdmodel.font.PDCIDFontType0;
+import com.tom_roush.pdfbox.pdmodel.font.PDCIDFontType2;
+import com.tom_roush.pdfbox.pdmodel.font.PDFont;
+import com.tom_roush.pdfbox.pdmodel.font.PDTrueTypeFont;
+import com.tom_roush.pdfbox.pdmodel.font.PDType0Font;
+import com.tom_roush.pdfbox.pdmodel.font.PDType1CFont;
+import com.tom_roush.pdfbox.pdmodel.graphics.PDXObject;
+import com.tom_roush.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import com.tom_roush.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import com.tom_roush.pdfbox.pdmodel.graphics.pattern.PDAbstractPattern;
+import com.tom_roush.pdfbox.pdmodel.graphics.shading.PDShading;
+import com.tom_roush.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+
+/**
+ * A resource cache which keeps its resources with strong references and evicts the least recently
+ * used ones as soon as the estimated size of all cached resources exceeds a byte budget. Unlike
+ * {@link DefaultResourceCache} the cached resources don't depend on the garbage collector clearing
+ * soft references.
+ *
+ * The size of a resource is estimated from its type: the decoded size of images, the number of
+ * glyphs of fonts and the length of the streams of other resources. Resources which are bigger than
+ * the whole budget aren't cached at all.
+ *
+ * The cache counts hits, misses and evictions to help choosing a budget. It is safe to use it from
+ * several threads.
+ */
+public class BoundedResourceCache implements ResourceCache
+{
+    // estimated bytes of a resource without any stream data
+    private static final long BASE_SIZE = 1024;
+    // estimated bytes of a font without its glyphs
+    private static final long FONT_BASE_SIZE = 4 * 1024;
+    // estimated bytes per glyph of a font, e.g. its outline and metrics
+    private static final long GLYPH_SIZE = 256;
+    // number of glyphs assumed if the font program isn't available
+    private static final int DEFAULT_GLYPH_COUNT = 256;
+
+    private final long maxSize;
+    private long currentSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    // access ordered, the eldest entry is the least recently used one
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(64, 0.75f, true);
+
+    /**
+     * Creates a new cache with the given budget.
+     *
+     * @param maxSize the maximum estimated size of all cached resources in bytes.
+     * @throws IllegalArgumentException if the given size isn't positive.
+     */
+    public BoundedResourceCache(long maxSize)
+    {
+        if (maxSize <= 0)
+        {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the maximum estimated size of all cached resources in bytes.
+     *
+     * @return the budget of this cache.
+     */
+    public long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Returns the estimated size of all currently cached resources in bytes.
+     *
+     * @return the current size.
+     */
+    public synchronized long getCurrentSize()
+    {
+        return currentSize;
+    }
+
+    /**
+     * Returns the number of cached resources.
+     *
+     * @return the number of entries.
+     */
+    public synchronized int getEntryCount()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns how often a requested resource was found in the cache.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns how often a requested resource wasn't found in the cache.
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns how many resources were removed from the cache to stay within the budget.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Removes all resources from the cache. The counters aren't reset.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        currentSize = 0;
+    }
+
+    @Override
+    public PDFont getFont(COSObject indirect) throws IOException
+    {
+        return (PDFont) get(Key.FONT, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDFont font) throws IOException
+    {
+        put(Key.FONT, indirect, font);
+    }
+
+    @Override
+    public PDColorSpace getColorSpace(COSObject indirect) throws IOException
+    {
+        return (PDColorSpace) get(Key.COLOR_SPACE, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDColorSpace colorSpace) throws IOException
+    {
+        put(Key.COLOR_SPACE, indirect, colorSpace);
+    }
+
+    @Override
+    public PDExtendedGraphicsState getExtGState(COSObject indirect)
+    {
+        return (PDExtendedGraphicsState) get(Key.EXT_G_STATE, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDExtendedGraphicsState extGState)
+    {
+        put(Key.EXT_G_STATE, indirect, extGState, BASE_SIZE);
+    }
+
+    @Override
+    public PDShading getShading(COSObject indirect) throws IOException
+    {
+        return (PDShading) get(Key.SHADING, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDShading shading) throws IOException
+    {
+        put(Key.SHADING, indirect, shading);
+    }
+
+    @Override
+    public PDAbstractPattern getPattern(COSObject indirect) throws IOException
+    {
+        return (PDAbstractPattern) get(Key.PATTERN, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDAbstractPattern pattern) throws IOException
+    {
+        put(Key.PATTERN, indirect, pattern);
+    }
+
+    @Override
+    public PDPropertyList getProperties(COSObject indirect)
+    {
+        return (PDPropertyList) get(Key.PROPERTIES, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDPropertyList propertyList)
+    {
+        put(Key.PROPERTIES, indirect, propertyList, BASE_SIZE);
+    }
+
+    @Override
+    public PDXObject getXObject(COSObject indirect) throws IOException
+    {
+        return (PDXObject) get(Key.XOBJECT, indirect);
+    }
+
+    @Override
+    public void put(COSObject indirect, PDXObject xobject) throws IOException
+    {
+        put(Key.XOBJECT, indirect, xobject);
+    }
+
+    /**
+     * Estimates the number of bytes the given resource occupies while it is cached. This may be
+     * overridden to adapt the estimation to the documents at hand.
+     *
+     * @param resource the resource to be cached, never null.
+     * @return the estimated size in bytes.
+     * @throws IOException if the resource can't be read.
+     */
+    protected long estimateSize(COSObjectable resource) throws IOException
+    {
+        if (resource instanceof PDImageXObject)
+        {
+            // the decoded image is kept as ARGB bitmap
+            PDImageXObject image = (PDImageXObject) resource;
+            return BASE_SIZE + 4L * image.getWidth() * image.getHeight();
+        }
+        if (resource instanceof PDFont)
+        {
+            return FONT_BASE_SIZE + GLYPH_SIZE * getGlyphCount((PDFont) resource);
+        }
+        return BASE_SIZE + getStreamLength(resource.getCOSObject());
+    }
+
+    private static int getGlyphCount(PDFont font) throws IOException
+    {
+        if (font instanceof PDTrueTypeFont)
+        {
+            return ((PDTrueTypeFont) font).getTrueTypeFont().getNumberOfGlyphs();
+        }
+        if (font instanceof PDType1CFont)
+        {
+            CFFFont cffFont = ((PDType1CFont) font).getCFFType1Font();
+            if (cffFont != null)
+            {
+                return cffFont.getNumCharStrings();
+            }
+        }
+        if (font instanceof PDType0Font)
+        {
+            PDCIDFont descendantFont = ((PDType0Font) font).getDescendantFont();
+            if (descendantFont instanceof PDCIDFontType2)
+            {
+                return ((PDCIDFontType2) descendantFont).getTrueTypeFont().getNumberOfGlyphs();
+            }
+            if (descendantFont instanceof PDCIDFontType0)
+            {
+                CFFFont cffFont = ((PDCIDFontType0) descendantFont).getCFFFont();
+                if (cffFont != null)
+                {
+                    return cffFont.getNumCharStrings();
+                }
+            }
+        }
+        return DEFAULT_GLYPH_COUNT;
+    }
+
+    // sums up the length of the given stream or of the streams within the given array,
+    // e.g. the ICC profile of a color space
+    private static long getStreamLength(COSBase base)
+    {
+        if (base instanceof COSStream)
+        {
+            return Math.max(((COSStream) base).getLength(), 0);
+        }
+        long length = 0;
+        if (base instanceof COSArray)
+        {
+            for (COSBase item : (COSArray) base)
+            {
+                if (item instanceof COSObject)
+                {
+                    item = ((COSObject) item).getObject();
+                }
+                if (item instanceof COSStream)
+                {
+                    length += Math.max(((COSStream) item).getLength(), 0);
+                }
+            }
+        }
+        return length;
+    }
+
+    private synchronized Object get(int type, COSObject indirect)
+    {
+        Entry entry = entries.get(new Key(type, indirect));
+        if (entry == null)
+        {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    private void put(int type, COSObject indirect, COSObjectable resource) throws IOException
+    {
+        if (resource == null)
+        {
+            return;
+        }
+        put(type, indirect, resource, estimateSize(resource));
+    }
+
+    private synchronized void put(int type, COSObject indirect, Object resource, long size)
+    {
+        if (resource == null)
+        {
+            return;
+        }
+        Key key = new Key(type, indirect);
+        Entry previous = entries.remove(key);
+        if (previous != null)
+        {
+            currentSize -= previous.size;
+        }
+        if (size > maxSize)
+        {
+            return;
+        }
+        entries.put(key, new Entry(resource, size));
+        currentSize += size;
+
+        // evict the least recently used entries, never the new one as it is the youngest
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (currentSize > maxSize && iterator.hasNext())
+        {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            currentSize -= eldest.size;
+            evictionCount++;
+        }
+    }
+
+    private static final class Key
+    {
+        static final int FONT = 0;
+        static final int COLOR_SPACE = 1;
+        static final int EXT_G_STATE = 2;
+        static final int SHADING = 3;
+        static final int PATTERN = 4;
+        static final int PROPERTIES = 5;
+        static final int XOBJECT = 6;
+
+        private final int type;
+        private final COSObject indirect;
+
+        Key(int type, COSObject indirect)
+        {
+            this.type = type;
+            this.indirect = indirect;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return type == other.type && indirect == other.indirect;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode(indirect) + type;
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Object value;
+        private final long size;
+
+        Entry(Object value, long size)
+        {
+            this.value = value;
+            this.size = size;
+        }
+    }
+}
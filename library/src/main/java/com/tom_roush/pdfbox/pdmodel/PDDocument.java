@@ -46,10 +46,12 @@ import com.tom_roush.pdfbox.io.IOUtils;
 import com.tom_roush.pdfbox.io.MemoryUsageSetting;
 import com.tom_roush.pdfbox.io.RandomAccessBuffer;
 import com.tom_roush.pdfbox.io.RandomAccessBufferedFileInputStream;
+import com.tom_roush.pdfbox.io.RandomAccessMemoryMappedFile;
 import com.tom_roush.pdfbox.io.RandomAccessRead;
 import com.tom_roush.pdfbox.io.ScratchFile;
 import com.tom_roush.pdfbox.pdfparser.PDFParser;
 import com.tom_roush.pdfbox.pdfwriter.COSWriter;
+import com.tom_roush.pdfbox.pdfwriter.CompressParameters;
 import com.tom_roush.pdfbox.pdmodel.common.COSArrayList;
 import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
 import com.tom_roush.pdfbox.pdmodel.common.PDStream;
@@ -1073,7 +1075,8 @@ public class PDDocument implements Closeable
         MemoryUsageSetting memUsageSetting) throws IOException
     {
         @SuppressWarnings({"squid:S2095"}) // raFile not closed here, may be needed for signing
-        RandomAccessBufferedFileInputStream raFile = new RandomAccessBufferedFileInputStream(file);
+        RandomAccessRead raFile = memUsageSetting != null && memUsageSetting.useMemoryMappedInput() ?
+            new RandomAccessMemoryMappedFile(file) : new RandomAccessBufferedFileInputStream(file);
         try
         {
             return load(raFile, password, keyStore, alias, memUsageSetting);
@@ -1085,7 +1088,7 @@ public class PDDocument implements Closeable
         }
     }
 
-    private static PDDocument load(RandomAccessBufferedFileInputStream raFile, String password,
+    private static PDDocument load(RandomAccessRead raFile, String password,
         InputStream keyStore, String alias,
         MemoryUsageSetting memUsageSetting) throws IOException
     {
@@ -1093,6 +1096,7 @@ public class PDDocument implements Closeable
         try
         {
             PDFParser parser = new PDFParser(raFile, password, keyStore, alias, scratchFile);
+            setLoadOptions(parser, memUsageSetting);
             parser.parse();
             return parser.getPDDocument();
         }
@@ -1216,6 +1220,7 @@ public class PDDocument implements Closeable
         {
             RandomAccessRead source = scratchFile.createBuffer(input);
             PDFParser parser = new PDFParser(source, password, keyStore, alias, scratchFile);
+            setLoadOptions(parser, memUsageSetting);
             parser.parse();
             return parser.getPDDocument();
         }
@@ -1297,10 +1302,23 @@ public class PDDocument implements Closeable
         ScratchFile scratchFile = new ScratchFile(memUsageSetting);
         RandomAccessRead source = new RandomAccessBuffer(input);
         PDFParser parser = new PDFParser(source, password, keyStore, alias, scratchFile);
+        setLoadOptions(parser, memUsageSetting);
         parser.parse();
         return parser.getPDDocument();
     }
 
+    private static void setLoadOptions(PDFParser parser, MemoryUsageSetting memUsageSetting)
+    {
+        if (memUsageSetting != null && memUsageSetting.useLazyObjectLoading())
+        {
+            parser.setLazyObjectLoading(true, memUsageSetting.getMaxResidentObjects());
+        }
+        if (memUsageSetting != null)
+        {
+            parser.setRecoveryIndexDirectory(memUsageSetting.getRecoveryIndexDir());
+        }
+    }
+
     /**
      * Save the document to a file.
      * <p>
@@ -1346,6 +1364,45 @@ public class PDDocument implements Closeable
      * @throws IOException if the output could not be written
      */
     public void save(OutputStream output) throws IOException
+    {
+        save(output, CompressParameters.NO_COMPRESSION);
+    }
+
+    /**
+     * Save the document to a file using the given compression parameters.
+     * <p>
+     * If encryption has been activated (with
+     * {@link #protect(com.tom_roush.pdfbox.pdmodel.encryption.ProtectionPolicy) protect(ProtectionPolicy)}),
+     * do not use the document after saving because the contents are now encrypted.
+     *
+     * @param file The file to save as.
+     * @param compressParameters The parameters for the document's compression, e.g.
+     * {@link CompressParameters#DEFAULT_COMPRESSION}.
+     *
+     * @throws IOException if the output could not be written
+     */
+    public void save(File file, CompressParameters compressParameters) throws IOException
+    {
+        save(new BufferedOutputStream(new FileOutputStream(file)), compressParameters);
+    }
+
+    /**
+     * This will save the document to an output stream using the given compression parameters.
+     * Compressed documents store their objects in object streams and use a cross reference stream.
+     * <p>
+     * If encryption has been activated (with
+     * {@link #protect(com.tom_roush.pdfbox.pdmodel.encryption.ProtectionPolicy) protect(ProtectionPolicy)}),
+     * do not use the document after saving because the contents are now encrypted. Encrypted
+     * documents are never compressed.
+     *
+     * @param output The stream to write to. It will be closed when done. It is recommended to wrap
+     * it in a {@link java.io.BufferedOutputStream}, unless it is already buffered.
+     * @param compressParameters The parameters for the document's compression, e.g.
+     * {@link CompressParameters#DEFAULT_COMPRESSION}.
+     *
+     * @throws IOException if the output could not be written
+     */
+    public void save(OutputStream output, CompressParameters compressParameters) throws IOException
     {
         if (document.isClosed())
         {
@@ -1360,7 +1417,7 @@ public class PDDocument implements Closeable
         fontsToSubset.clear();
 
         // save PDF
-        COSWriter writer = new COSWriter(output);
+        COSWriter writer = new COSWriter(output, compressParameters);
         try
         {
             writer.write(this);
@@ -54,7 +54,7 @@ public final class PDResources implements COSObjectable
     // PDFBOX-3442 cache fonts that are not indirect objects, as these aren't cached in ResourceCache
     // and this would result in huge memory footprint in text extraction
     private final Map <COSName,SoftReference<PDFont>> directFontCache =
-        new HashMap<COSName, SoftReference<PDFont>>();
+        Collections.synchronizedMap(new HashMap<COSName, SoftReference<PDFont>>());
 
     /**
      * Constructor for embedding.
@@ -0,0 +1,367 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdmodel.font;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.tom_roush.fontbox.FontBoxFont;
+import com.tom_roush.fontbox.cff.CFFFont;
+import com.tom_roush.fontbox.cff.CFFParser;
+import com.tom_roush.fontbox.ttf.OTFParser;
+import com.tom_roush.fontbox.ttf.OpenTypeFont;
+import com.tom_roush.fontbox.ttf.TTFParser;
+import com.tom_roush.fontbox.ttf.TrueTypeFont;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdmodel.common.PDStream;
+
+/**
+ * A process-wide cache of parsed embedded font programs, shared by all documents. The programs
+ * are identified by a SHA-1 hash of the decoded font stream, so that the same font embedded in
+ * many documents, e.g. a subset of a corporate font, is only parsed and kept in memory once.
+ * The parsed fonts are used by several documents and threads at the same time, like the
+ * substitute fonts of the {@link FontMappers}.
+ *
+ * The cache is disabled by default. Once enabled by setting a budget, it keeps the least recently
+ * used fonts until the estimated size of all cached fonts, mainly their font data, exceeds the
+ * budget. It counts hits, misses and evictions to help choosing a budget.
+ */
+public final class EmbeddedFontCache
+{
+    private static final int TRUE_TYPE = 0;
+    private static final int OPEN_TYPE = 1;
+    private static final int CFF = 2;
+
+    // estimated bytes of a parsed font without its data
+    private static final long FONT_BASE_SIZE = 16 * 1024;
+
+    private static final EmbeddedFontCache INSTANCE = new EmbeddedFontCache();
+
+    private long maxSize;
+    private long currentSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    // access ordered, the eldest entry is the least recently used one
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(64, 0.75f, true);
+
+    private EmbeddedFontCache()
+    {
+    }
+
+    /**
+     * Returns the cache shared by all documents.
+     *
+     * @return the embedded font cache.
+     */
+    public static EmbeddedFontCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Tells whether embedded fonts are looked up in this cache, i.e. whether it has a budget.
+     *
+     * @return true if the cache is enabled.
+     */
+    public synchronized boolean isEnabled()
+    {
+        return maxSize > 0;
+    }
+
+    /**
+     * Returns the maximum estimated size of all cached fonts in bytes.
+     *
+     * @return the budget of this cache, 0 if it is disabled.
+     */
+    public synchronized long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum estimated size of all cached fonts in bytes. Fonts are evicted if the
+     * current size exceeds the new budget. A budget of 0, the default, disables the cache.
+     *
+     * @param maxSize the new budget.
+     * @throws IllegalArgumentException if the given size is negative.
+     */
+    public synchronized void setMaxSize(long maxSize)
+    {
+        if (maxSize < 0)
+        {
+            throw new IllegalArgumentException("The maximum size must not be negative");
+        }
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    /**
+     * Returns the estimated size of all currently cached fonts in bytes.
+     *
+     * @return the current size.
+     */
+    public synchronized long getCurrentSize()
+    {
+        return currentSize;
+    }
+
+    /**
+     * Returns the number of cached fonts.
+     *
+     * @return the number of entries.
+     */
+    public synchronized int getEntryCount()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns how often a requested font was found in the cache.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns how often a requested font wasn't found in the cache.
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns how many fonts were removed from the cache to stay within the budget.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Removes all fonts from the cache. The counters aren't reset.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        currentSize = 0;
+    }
+
+    /**
+     * Returns the TrueType font of the given embedded font stream, it is parsed if it isn't cached.
+     *
+     * @param stream the decoded font stream, e.g. FontFile2
+     * @return the shared font
+     * @throws IOException if the font could not be read
+     */
+    TrueTypeFont getTrueTypeFont(PDStream stream) throws IOException
+    {
+        byte[] bytes = toByteArray(stream);
+        Key key = new Key(TRUE_TYPE, bytes);
+        TrueTypeFont font = (TrueTypeFont) get(key);
+        if (font == null)
+        {
+            font = new TTFParser(true).parse(new ByteArrayInputStream(bytes));
+            font = (TrueTypeFont) put(key, font, bytes.length);
+        }
+        return font;
+    }
+
+    /**
+     * Returns the OpenType font of the given embedded font stream, it is parsed if it isn't cached.
+     *
+     * @param stream the decoded font stream, e.g. FontFile2 of a CIDFontType2
+     * @return the shared font
+     * @throws IOException if the font could not be read
+     */
+    OpenTypeFont getOpenTypeFont(PDStream stream) throws IOException
+    {
+        byte[] bytes = toByteArray(stream);
+        Key key = new Key(OPEN_TYPE, bytes);
+        OpenTypeFont font = (OpenTypeFont) get(key);
+        if (font == null)
+        {
+            font = new OTFParser(true).parse(new ByteArrayInputStream(bytes));
+            font = (OpenTypeFont) put(key, font, bytes.length);
+        }
+        return font;
+    }
+
+    /**
+     * Returns the first CFF font of the given embedded font data, it is parsed if it isn't
+     * cached.
+     *
+     * @param bytes the decoded font stream, FontFile3
+     * @return the shared font
+     * @throws IOException if the font could not be read
+     */
+    CFFFont getCFFFont(final byte[] bytes) throws IOException
+    {
+        Key key = new Key(CFF, bytes);
+        CFFFont font = (CFFFont) get(key);
+        if (font == null)
+        {
+            // the font data mustn't be read from the document which happens to parse the font
+            CFFParser.ByteSource source = new CFFParser.ByteSource()
+            {
+                @Override
+                public byte[] getBytes()
+                {
+                    return bytes.clone();
+                }
+            };
+            font = new CFFParser().parse(bytes, source).get(0);
+            font = (CFFFont) put(key, font, bytes.length);
+        }
+        return font;
+    }
+
+    private static byte[] toByteArray(PDStream stream) throws IOException
+    {
+        InputStream input = stream.createInputStream();
+        try
+        {
+            return IOUtils.toByteArray(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    private synchronized FontBoxFont get(Key key)
+    {
+        Entry entry = entries.get(key);
+        if (entry == null)
+        {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.font;
+    }
+
+    /**
+     * Caches the given font, unless another thread has cached the same font in the meantime.
+     *
+     * @return the cached font, to be used instead of the given one.
+     */
+    private synchronized FontBoxFont put(Key key, FontBoxFont font, int length)
+    {
+        Entry entry = entries.get(key);
+        if (entry != null)
+        {
+            return entry.font;
+        }
+        long size = FONT_BASE_SIZE + length;
+        if (size <= maxSize)
+        {
+            entries.put(key, new Entry(font, size));
+            currentSize += size;
+            evict();
+        }
+        return font;
+    }
+
+    // evicts the least recently used entries until the budget is kept
+    private void evict()
+    {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (currentSize > maxSize && iterator.hasNext())
+        {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            currentSize -= eldest.size;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * The kind of parser and the hash of the font data.
+     */
+    private static final class Key
+    {
+        private final int type;
+        private final int length;
+        private final byte[] digest;
+
+        Key(int type, byte[] bytes) throws IOException
+        {
+            this.type = type;
+            this.length = bytes.length;
+            try
+            {
+                this.digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                // should never happen
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            return type == other.type && length == other.length
+                && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * (31 * type + length) + Arrays.hashCode(digest);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final FontBoxFont font;
+        private final long size;
+
+        Entry(FontBoxFont font, long size)
+        {
+            this.font = font;
+            this.size = size;
+        }
+    }
+}
@@ -18,20 +18,28 @@ package com.tom_roush.pdfbox.pdmodel.font;
 
 import android.util.Log;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.AccessControlException;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import com.tom_roush.fontbox.FontBoxFont;
 import com.tom_roush.fontbox.cff.CFFCIDFont;
@@ -57,6 +65,15 @@ import com.tom_roush.pdfbox.util.Charsets;
  */
 final class FileSystemFontProvider extends FontProvider
 {
+    // the font files are scanned by up to this number of threads
+    private static final int MAX_SCAN_THREADS = 4;
+    // a thread is only started for at least this number of font files
+    private static final int MIN_FILES_PER_THREAD = 8;
+
+    // "PBFC", followed by the version of the format
+    private static final int DISK_CACHE_MAGIC = 0x50424643;
+    private static final int DISK_CACHE_VERSION = 1;
+
     private final List<FSFontInfo> fontInfoList = new ArrayList<FSFontInfo>();
     private final FontCache cache;
 
@@ -320,6 +337,36 @@ final class FileSystemFontProvider extends FontProvider
         }
     }
 
+    /**
+     * The cached fonts of a font file, with the length and the modification time of the file
+     * when it was scanned.
+     */
+    private static final class CachedFontFile
+    {
+        private final long length;
+        private final long lastModified;
+        private final List<FSFontInfo> fontInfos;
+
+        private CachedFontFile(long length, long lastModified, List<FSFontInfo> fontInfos)
+        {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.fontInfos = fontInfos;
+        }
+    }
+
+    /**
+     * Constructor for the given font files, which uses the on-disk cache like the system fonts.
+     */
+    FileSystemFontProvider(FontCache cache, List<File> files)
+    {
+        this.cache = cache;
+        if (!files.isEmpty())
+        {
+            loadFonts(files);
+        }
+    }
+
     /**
      * Constructor.
      */
@@ -337,10 +384,10 @@ final class FileSystemFontProvider extends FontProvider
             // If MINIMUM, load only Droid fonts
             try
             {
-                addTrueTypeFont(new File("/system/fonts/DroidSans.ttf"));
-                addTrueTypeFont(new File("/system/fonts/DroidSans-Bold.ttf"));
-                addTrueTypeFont(new File("/system/fonts/DroidSansMono.ttf"));
-//                addTrueTypeFont(new File("/system/fonts/DroidSansFallback.ttf"));
+                addTrueTypeFont(new File("/system/fonts/DroidSans.ttf"), fontInfoList);
+                addTrueTypeFont(new File("/system/fonts/DroidSans-Bold.ttf"), fontInfoList);
+                addTrueTypeFont(new File("/system/fonts/DroidSansMono.ttf"), fontInfoList);
+//                addTrueTypeFont(new File("/system/fonts/DroidSansFallback.ttf"), fontInfoList);
                 // XXX: list may need to be expanded for other character sets
                 return;
             }
@@ -373,20 +420,7 @@ final class FileSystemFontProvider extends FontProvider
 
             if (!files.isEmpty())
             {
-                // load cached FontInfo objects
-                List<FSFontInfo> cachedInfos = loadDiskCache(files);
-                if (cachedInfos != null && !cachedInfos.isEmpty())
-                {
-                    fontInfoList.addAll(cachedInfos);
-                }
-                else
-                {
-                    Log.w("PdfBox-Android", "Building on-disk font cache, this may take a while");
-                    scanFonts(files);
-                    saveDiskCache();
-                    Log.w("PdfBox-Android", "Finished building on-disk font cache, found " + fontInfoList.size()
-                        + " fonts");
-                }
+                loadFonts(files);
             }
         }
         catch (AccessControlException e)
@@ -395,31 +429,195 @@ final class FileSystemFontProvider extends FontProvider
         }
     }
 
-    private void scanFonts(List<File> files)
+    /**
+     * Adds the fonts of the given files, using the on-disk cache for the files which haven't
+     * changed since they were cached. The other files are scanned and the cache is updated.
+     */
+    private void loadFonts(List<File> files)
     {
+        Map<String, CachedFontFile> cachedFiles = loadDiskCache();
+        List<List<FSFontInfo>> fontInfos = new ArrayList<List<FSFontInfo>>(files.size());
+        List<File> pending = new ArrayList<File>();
         for (File file : files)
         {
-            try
+            CachedFontFile cachedFile = cachedFiles.get(file.getAbsolutePath());
+            if (cachedFile != null && cachedFile.length == file.length()
+                && cachedFile.lastModified == file.lastModified())
+            {
+                fontInfos.add(cachedFile.fontInfos);
+            }
+            else
             {
-                String filePath = file.getPath().toLowerCase();
-                if (filePath.endsWith(".ttf") || filePath.endsWith(".otf"))
+                fontInfos.add(null);
+                pending.add(file);
+            }
+        }
+        if (!pending.isEmpty())
+        {
+            if (pending.size() == files.size())
+            {
+                Log.w("PdfBox-Android", "Building on-disk font cache, this may take a while");
+            }
+            else
+            {
+                Log.w("PdfBox-Android", "Updating on-disk font cache for " + pending.size()
+                    + " new or changed font files");
+            }
+            List<List<FSFontInfo>> scanned = scanFonts(pending);
+            for (int i = 0, j = 0; i < fontInfos.size(); i++)
+            {
+                if (fontInfos.get(i) == null)
                 {
-                    addTrueTypeFont(file);
+                    fontInfos.set(i, scanned.get(j++));
                 }
-                else if (filePath.endsWith(".ttc") || filePath.endsWith(".otc"))
+            }
+        }
+        boolean isComplete = true;
+        for (List<FSFontInfo> infos : fontInfos)
+        {
+            if (infos != null)
+            {
+                fontInfoList.addAll(infos);
+            }
+            else
+            {
+                isComplete = false;
+            }
+        }
+        if (!isComplete)
+        {
+            Log.w("PdfBox-Android", "Font scan didn't finish, the remaining files will be scanned again");
+        }
+        // rewrite the cache if files were scanned or removed
+        if (!pending.isEmpty() || cachedFiles.size() != files.size())
+        {
+            saveDiskCache(files, fontInfos);
+            if (!pending.isEmpty())
+            {
+                Log.w("PdfBox-Android", "Finished building on-disk font cache, found "
+                    + fontInfoList.size() + " fonts");
+            }
+        }
+    }
+
+    /**
+     * Scans the given font files, with several threads if there are enough files.
+     *
+     * @return the fonts of each file, in the order of the files, see
+     * {@link #scanFonts(List, int)}
+     */
+    private List<List<FSFontInfo>> scanFonts(List<File> files)
+    {
+        int threadCount = Math.min(Math.min(MAX_SCAN_THREADS,
+            Runtime.getRuntime().availableProcessors()), files.size() / MIN_FILES_PER_THREAD);
+        return scanFonts(files, threadCount);
+    }
+
+    /**
+     * Scans the given font files with the given number of threads.
+     *
+     * @return the fonts of each file, in the order of the files. The entry of a file is null if
+     * its scan didn't finish, because it failed or because the scan was interrupted.
+     */
+    List<List<FSFontInfo>> scanFonts(List<File> files, int threadCount)
+    {
+        List<List<FSFontInfo>> fontInfos = new ArrayList<List<FSFontInfo>>(files.size());
+        if (threadCount < 2)
+        {
+            for (File file : files)
+            {
+                // the remaining files aren't scanned once the thread is interrupted
+                fontInfos.add(Thread.currentThread().isInterrupted() ? null : scanFont(file));
+            }
+            return fontInfos;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "PdfBox-FontScanner");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try
+        {
+            List<Future<List<FSFontInfo>>> results =
+                new ArrayList<Future<List<FSFontInfo>>>(files.size());
+            for (final File file : files)
+            {
+                results.add(executor.submit(new Callable<List<FSFontInfo>>()
                 {
-                    addTrueTypeCollection(file);
+                    @Override
+                    public List<FSFontInfo> call()
+                    {
+                        return scanFont(file);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++)
+            {
+                // a finished result would be returned even if the thread is interrupted
+                if (Thread.interrupted())
+                {
+                    throw new InterruptedException();
+                }
+                try
+                {
+                    fontInfos.add(results.get(i).get());
                 }
-                else if (filePath.endsWith(".pfb"))
+                catch (ExecutionException e)
                 {
-                    addType1Font(file);
+                    Log.w("PdfBox-Android", "Error parsing font " + files.get(i).getPath(), e.getCause());
+                    fontInfos.add(null);
                 }
             }
-            catch (IOException e)
+        }
+        catch (InterruptedException e)
+        {
+            Log.w("PdfBox-Android", "Font scan was interrupted", e);
+            Thread.currentThread().interrupt();
+            // the remaining files weren't scanned
+            while (fontInfos.size() < files.size())
+            {
+                fontInfos.add(null);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return fontInfos;
+    }
+
+    /**
+     * Reads the metadata of the fonts in the given file.
+     */
+    private List<FSFontInfo> scanFont(File file)
+    {
+        List<FSFontInfo> infos = new ArrayList<FSFontInfo>(1);
+        try
+        {
+            String filePath = file.getPath().toLowerCase();
+            if (filePath.endsWith(".ttf") || filePath.endsWith(".otf"))
+            {
+                addTrueTypeFont(file, infos);
+            }
+            else if (filePath.endsWith(".ttc") || filePath.endsWith(".otc"))
+            {
+                addTrueTypeCollection(file, infos);
+            }
+            else if (filePath.endsWith(".pfb"))
             {
-                Log.w("PdfBox-Android", "Error parsing font " + file.getPath(), e);
+                addType1Font(file, infos);
             }
         }
+        catch (IOException e)
+        {
+            Log.w("PdfBox-Android", "Error parsing font " + file.getPath(), e);
+        }
+        return infos;
     }
 
     private File getDiskCacheFile()
@@ -433,7 +631,7 @@ final class FileSystemFontProvider extends FontProvider
                 path = System.getProperty("java.io.tmpdir");
             }
         }
-        return new File(path, ".pdfbox.cache");
+        return new File(path, ".pdfbox.fontcache");
     }
 
     private static boolean isBadPath(String path)
@@ -442,71 +640,68 @@ final class FileSystemFontProvider extends FontProvider
     }
 
     /**
-     * Saves the font metadata cache to disk.
+     * Saves the font metadata cache to disk. The file is written to a temporary file first, which
+     * then replaces the cache, so that other processes never read a partial cache.
+     *
+     * @param files the font files
+     * @param fontInfos the fonts of each file, null for a file whose scan didn't finish, which
+     * isn't cached so that it is scanned again
      */
-    private void saveDiskCache()
+    private void saveDiskCache(List<File> files, List<List<FSFontInfo>> fontInfos)
     {
-        BufferedWriter writer = null;
+        File file;
+        File tempFile;
         try
         {
-            try
-            {
-                File file = getDiskCacheFile();
-                writer = new BufferedWriter(new FileWriter(file));
-            }
-            catch (SecurityException e)
-            {
-                return;
-            }
-
-            for (FSFontInfo fontInfo : fontInfoList)
+            file = getDiskCacheFile();
+            tempFile = new File(file.getPath() + ".tmp" + System.nanoTime());
+        }
+        catch (SecurityException e)
+        {
+            return;
+        }
+        DataOutputStream output = null;
+        try
+        {
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            output.writeInt(DISK_CACHE_MAGIC);
+            output.writeInt(DISK_CACHE_VERSION);
+            int fileCount = 0;
+            for (List<FSFontInfo> infos : fontInfos)
             {
-                writer.write(fontInfo.postScriptName.trim());
-                writer.write("|");
-                writer.write(fontInfo.format.toString());
-                writer.write("|");
-                if (fontInfo.cidSystemInfo != null)
-                {
-                    writer.write(fontInfo.cidSystemInfo.getRegistry() + '-' +
-                        fontInfo.cidSystemInfo.getOrdering() + '-' +
-                        fontInfo.cidSystemInfo.getSupplement());
-                }
-                writer.write("|");
-                if (fontInfo.usWeightClass > -1)
-                {
-                    writer.write(Integer.toHexString(fontInfo.usWeightClass));
-                }
-                writer.write("|");
-                if (fontInfo.sFamilyClass > -1)
+                if (infos != null)
                 {
-                    writer.write(Integer.toHexString(fontInfo.sFamilyClass));
+                    fileCount++;
                 }
-                writer.write("|");
-                writer.write(Integer.toHexString(fontInfo.ulCodePageRange1));
-                writer.write("|");
-                writer.write(Integer.toHexString(fontInfo.ulCodePageRange2));
-                writer.write("|");
-                if (fontInfo.macStyle > -1)
+            }
+            output.writeInt(fileCount);
+            for (int i = 0; i < files.size(); i++)
+            {
+                if (fontInfos.get(i) == null)
                 {
-                    writer.write(Integer.toHexString(fontInfo.macStyle));
+                    continue;
                 }
-                writer.write("|");
-                if (fontInfo.panose != null)
+                File fontFile = files.get(i);
+                writeString(output, fontFile.getAbsolutePath());
+                output.writeLong(fontFile.length());
+                output.writeLong(fontFile.lastModified());
+                output.writeInt(fontInfos.get(i).size());
+                for (FSFontInfo fontInfo : fontInfos.get(i))
                 {
-                    byte[] bytes = fontInfo.panose.getBytes();
-                    for (int i = 0; i < 10; i ++)
-                    {
-                        String str = Integer.toHexString(bytes[i]);
-                        if (str.length() == 1)
-                        {
-                            writer.write('0');
-                        }
-                        writer.write(str);
-                    }
+                    writeFontInfo(output, fontInfo);
                 }
-                writer.write("|");
-                writer.write(fontInfo.file.getAbsolutePath());
-                writer.newLine();
+            }
+            output.close();
+            output = null;
+            if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file)))
+            {
+                throw new IOException("Could not replace " + file);
+            }
+            // the text cache of earlier versions is replaced by this one
+            File oldFile = new File(file.getParentFile(), ".pdfbox.cache");
+            if (oldFile.isFile() && !oldFile.delete())
+            {
+                Log.w("PdfBox-Android", "Could not delete the old font cache " + oldFile);
             }
         }
         catch (IOException e)
@@ -515,135 +710,163 @@ final class FileSystemFontProvider extends FontProvider
             Log.w("PdfBox-Android", "Installed fonts information will have to be reloaded for each start");
             Log.w("PdfBox-Android", "You can assign a directory to the 'pdfbox.fontcache' property");
         }
+        catch (SecurityException e)
+        {
+            Log.w("PdfBox-Android", "Could not write to font cache", e);
+        }
         finally
         {
-            IOUtils.closeQuietly(writer);
+            IOUtils.closeQuietly(output);
+            if (tempFile.exists() && !tempFile.delete())
+            {
+                Log.w("PdfBox-Android", "Could not delete " + tempFile);
+            }
         }
     }
 
-    /**
-     * Loads the font metadata cache from disk.
-     */
-    private List<FSFontInfo> loadDiskCache(List<File> files)
+    private static void writeFontInfo(DataOutputStream output, FSFontInfo fontInfo)
+        throws IOException
     {
-        Set<String> pending = new HashSet<String>(files.size());
-        for (File file : files)
+        writeString(output, fontInfo.postScriptName.trim());
+        writeString(output, fontInfo.format.name());
+        output.writeBoolean(fontInfo.cidSystemInfo != null);
+        if (fontInfo.cidSystemInfo != null)
+        {
+            writeString(output, fontInfo.cidSystemInfo.getRegistry());
+            writeString(output, fontInfo.cidSystemInfo.getOrdering());
+            output.writeInt(fontInfo.cidSystemInfo.getSupplement());
+        }
+        output.writeInt(fontInfo.usWeightClass);
+        output.writeInt(fontInfo.sFamilyClass);
+        output.writeInt(fontInfo.ulCodePageRange1);
+        output.writeInt(fontInfo.ulCodePageRange2);
+        output.writeInt(fontInfo.macStyle);
+        output.writeBoolean(fontInfo.panose != null);
+        if (fontInfo.panose != null)
         {
-            pending.add(file.getAbsolutePath());
+            output.write(fontInfo.panose.getBytes(), 0, PDPanoseClassification.LENGTH);
         }
+    }
 
-        List<FSFontInfo> results = new ArrayList<FSFontInfo>();
+    private static void writeString(DataOutputStream output, String string) throws IOException
+    {
+        byte[] bytes = string.getBytes(Charsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
 
-        // Get the disk cache
-        File file = null;
-        boolean fileExists = false;
+    /**
+     * Loads the font metadata cache from disk. The cache is memory mapped, and the entries are
+     * read straight from the mapping.
+     *
+     * @return the cached fonts by the absolute path of their file, empty if there is no valid
+     * cache.
+     */
+    private Map<String, CachedFontFile> loadDiskCache()
+    {
+        Map<String, CachedFontFile> results = new HashMap<String, CachedFontFile>();
+        File file;
         try
         {
             file = getDiskCacheFile();
-            fileExists = file.exists();
+            if (!file.isFile())
+            {
+                return results;
+            }
         }
         catch (SecurityException e)
         {
+            return results;
         }
 
-        if (fileExists)
+        RandomAccessFile raf = null;
+        try
         {
-            BufferedReader reader = null;
-            try
+            raf = new RandomAccessFile(file, "r");
+            ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            if (buffer.remaining() < 12 || buffer.getInt() != DISK_CACHE_MAGIC
+                || buffer.getInt() != DISK_CACHE_VERSION)
             {
-                reader = new BufferedReader(new FileReader(file));
-                String line;
-                while ((line = reader.readLine()) != null)
-                {
-                    String[] parts = line.split("\\|", 10);
-                    if (parts.length < 10)
-                    {
-                        Log.w("PdfBox-Android", "Incorrect line '" + line + "' in font disk cache is skipped");
-                        continue;
-                    }
-
-                    String postScriptName;
-                    FontFormat format;
-                    CIDSystemInfo cidSystemInfo = null;
-                    int usWeightClass = -1;
-                    int sFamilyClass = -1;
-                    int ulCodePageRange1;
-                    int ulCodePageRange2;
-                    int macStyle = -1;
-                    byte[] panose = null;
-                    File fontFile;
-
-                    postScriptName = parts[0];
-                    format = FontFormat.valueOf(parts[1]);
-                    if (parts[2].length() > 0)
-                    {
-                        String[] ros = parts[2].split("-");
-                        cidSystemInfo = new CIDSystemInfo(ros[0], ros[1], Integer.parseInt(ros[2]));
-                    }
-                    if (parts[3].length() > 0)
-                    {
-                        usWeightClass = (int)Long.parseLong(parts[3], 16);
-                    }
-                    if (parts[4].length() > 0)
-                    {
-                        sFamilyClass = (int)Long.parseLong(parts[4], 16);
-                    }
-                    ulCodePageRange1 = (int)Long.parseLong(parts[5], 16);
-                    ulCodePageRange2 = (int)Long.parseLong(parts[6], 16);
-                    if (parts[7].length() > 0)
-                    {
-                        macStyle = (int)Long.parseLong(parts[7], 16);
-                    }
-                    if (parts[8].length() > 0)
-                    {
-                        panose = new byte[10];
-                        for (int i = 0; i < 10; i ++)
-                        {
-                            String str = parts[8].substring(i * 2, i * 2 + 2);
-                            int b = Integer.parseInt(str, 16);
-                            panose[i] = (byte)(b & 0xff);
-                        }
-                    }
-                    fontFile = new File(parts[9]);
-                    if (fontFile.exists())
-                    {
-                        FSFontInfo info = new FSFontInfo(fontFile, format, postScriptName,
-                            cidSystemInfo, usWeightClass, sFamilyClass, ulCodePageRange1,
-                            ulCodePageRange2, macStyle, panose, this);
-                        results.add(info);
-                    }
-                    else
-                    {
-                        Log.d("PdfBox-Android", "Font file " + fontFile.getAbsolutePath() + " not found, skipped");
-                    }
-                    pending.remove(fontFile.getAbsolutePath());
-                }
+                Log.w("PdfBox-Android", "Font cache " + file + " has an unknown format, will be re-built");
+                return results;
             }
-            catch (IOException e)
+            int fileCount = buffer.getInt();
+            for (int i = 0; i < fileCount; i++)
             {
-                Log.w("PdfBox-Android", "Error loading font cache, will be re-built", e);
-                return null;
-            }
-            finally
-            {
-                IOUtils.closeQuietly(reader);
+                String path = readString(buffer);
+                long length = buffer.getLong();
+                long lastModified = buffer.getLong();
+                int fontCount = buffer.getInt();
+                File fontFile = new File(path);
+                List<FSFontInfo> fontInfos = new ArrayList<FSFontInfo>(Math.min(fontCount, 256));
+                for (int j = 0; j < fontCount; j++)
+                {
+                    fontInfos.add(readFontInfo(buffer, fontFile));
+                }
+                results.put(path, new CachedFontFile(length, lastModified, fontInfos));
             }
         }
+        catch (IOException e)
+        {
+            Log.w("PdfBox-Android", "Error loading font cache, will be re-built", e);
+            results.clear();
+        }
+        catch (RuntimeException e)
+        {
+            // truncated or corrupt cache
+            Log.w("PdfBox-Android", "Error loading font cache, will be re-built", e);
+            results.clear();
+        }
+        finally
+        {
+            IOUtils.closeQuietly(raf);
+        }
+        return results;
+    }
 
-        if (!pending.isEmpty())
+    private FSFontInfo readFontInfo(ByteBuffer buffer, File fontFile)
+    {
+        String postScriptName = readString(buffer);
+        FontFormat format = FontFormat.valueOf(readString(buffer));
+        CIDSystemInfo cidSystemInfo = null;
+        if (buffer.get() != 0)
         {
-            // re-build the entire cache if we encounter un-cached fonts (could be optimised)
-            Log.w("PdfBox-Android", "New fonts found, font cache will be re-built");
-            return null;
+            String registry = readString(buffer);
+            String ordering = readString(buffer);
+            cidSystemInfo = new CIDSystemInfo(registry, ordering, buffer.getInt());
+        }
+        int usWeightClass = buffer.getInt();
+        int sFamilyClass = buffer.getInt();
+        int ulCodePageRange1 = buffer.getInt();
+        int ulCodePageRange2 = buffer.getInt();
+        int macStyle = buffer.getInt();
+        byte[] panose = null;
+        if (buffer.get() != 0)
+        {
+            panose = new byte[PDPanoseClassification.LENGTH];
+            buffer.get(panose);
         }
+        return new FSFontInfo(fontFile, format, postScriptName, cidSystemInfo, usWeightClass,
+            sFamilyClass, ulCodePageRange1, ulCodePageRange2, macStyle, panose, this);
+    }
 
-        return results;
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining())
+        {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, Charsets.UTF_8);
     }
 
     /**
      * Adds a TTC or OTC to the file cache. To reduce memory, the parsed font is not cached.
      */
-    private void addTrueTypeCollection(final File ttcFile) throws IOException
+    private void addTrueTypeCollection(final File ttcFile, final List<FSFontInfo> infos)
+        throws IOException
     {
         TrueTypeCollection ttc = null;
         try
@@ -654,7 +877,7 @@ final class FileSystemFontProvider extends FontProvider
                 @Override
                 public void process(TrueTypeFont ttf) throws IOException
                 {
-                    addTrueTypeFontImpl(ttf, ttcFile);
+                    addTrueTypeFontImpl(ttf, ttcFile, infos);
                 }
             });
         }
@@ -674,7 +897,7 @@ final class FileSystemFontProvider extends FontProvider
     /**
      * Adds an OTF or TTF font to the file cache. To reduce memory, the parsed font is not cached.
      */
-    private void addTrueTypeFont(File ttfFile) throws IOException
+    private void addTrueTypeFont(File ttfFile, List<FSFontInfo> infos) throws IOException
     {
         try
         {
@@ -682,13 +905,13 @@ final class FileSystemFontProvider extends FontProvider
             {
                 OTFParser parser = new OTFParser(false, true);
                 OpenTypeFont otf = parser.parse(ttfFile);
-                addTrueTypeFontImpl(otf, ttfFile);
+                addTrueTypeFontImpl(otf, ttfFile, infos);
             }
             else
             {
                 TTFParser parser = new TTFParser(false, true);
                 TrueTypeFont ttf = parser.parse(ttfFile);
-                addTrueTypeFontImpl(ttf, ttfFile);
+                addTrueTypeFontImpl(ttf, ttfFile, infos);
             }
         }
         catch (IOException e)
@@ -700,14 +923,15 @@ final class FileSystemFontProvider extends FontProvider
     /**
      * Adds an OTF or TTF font to the file cache. To reduce memory, the parsed font is not cached.
      */
-    private void addTrueTypeFontImpl(TrueTypeFont ttf, File file) throws IOException
+    private void addTrueTypeFontImpl(TrueTypeFont ttf, File file, List<FSFontInfo> infos)
+        throws IOException
     {
         try
         {
             // read PostScript name, if any
             if (ttf.getName() != null && ttf.getName().contains("|"))
             {
-                fontInfoList.add(new FSIgnored(file, FontFormat.TTF, "*skippipeinname*"));
+                infos.add(new FSIgnored(file, FontFormat.TTF, "*skippipeinname*"));
                 Log.w("PdfBox-Android", "Skipping font with '|' in name " + ttf.getName() + " in file " + file);
             }
             else if (ttf.getName() != null)
@@ -715,7 +939,7 @@ final class FileSystemFontProvider extends FontProvider
                 // ignore bitmap fonts
                 if (ttf.getHeader() == null)
                 {
-                    fontInfoList.add(new FSIgnored(file, FontFormat.TTF, ttf.getName()));
+                    infos.add(new FSIgnored(file, FontFormat.TTF, ttf.getName()));
                     return;
                 }
                 int macStyle = ttf.getHeader().getMacStyle();
@@ -750,7 +974,7 @@ final class FileSystemFontProvider extends FontProvider
                         int supplement = cidFont.getSupplement();
                         ros = new CIDSystemInfo(registry, ordering, supplement);
                     }
-                    fontInfoList.add(new FSFontInfo(file, FontFormat.OTF, ttf.getName(), ros,
+                    infos.add(new FSFontInfo(file, FontFormat.OTF, ttf.getName(), ros,
                         usWeightClass, sFamilyClass, ulCodePageRange1, ulCodePageRange2,
                         macStyle, panose, this));
                 }
@@ -770,7 +994,7 @@ final class FileSystemFontProvider extends FontProvider
                     }
 
                     format = "TTF";
-                    fontInfoList.add(new FSFontInfo(file, FontFormat.TTF, ttf.getName(), ros,
+                    infos.add(new FSFontInfo(file, FontFormat.TTF, ttf.getName(), ros,
                         usWeightClass, sFamilyClass, ulCodePageRange1, ulCodePageRange2,
                         macStyle, panose, this));
                 }
@@ -788,13 +1012,13 @@ final class FileSystemFontProvider extends FontProvider
             }
             else
             {
-                fontInfoList.add(new FSIgnored(file, FontFormat.TTF, "*skipnoname*"));
+                infos.add(new FSIgnored(file, FontFormat.TTF, "*skipnoname*"));
                 Log.w("PdfBox-Android", "Missing 'name' entry for PostScript name in font " + file);
             }
         }
         catch (IOException e)
         {
-            fontInfoList.add(new FSIgnored(file, FontFormat.TTF, "*skipexception*"));
+            infos.add(new FSIgnored(file, FontFormat.TTF, "*skipexception*"));
             Log.w("PdfBox-Android", "Could not load font file: " + file, e);
         }
         finally
@@ -806,7 +1030,7 @@ final class FileSystemFontProvider extends FontProvider
     /**
      * Adds a Type 1 font to the file cache. To reduce memory, the parsed font is not cached.
      */
-    private void addType1Font(File pfbFile) throws IOException
+    private void addType1Font(File pfbFile, List<FSFontInfo> infos) throws IOException
     {
         InputStream input = new FileInputStream(pfbFile);
         try
@@ -814,17 +1038,17 @@ final class FileSystemFontProvider extends FontProvider
             Type1Font type1 = Type1Font.createWithPFB(input);
             if (type1.getName() == null)
             {
-                fontInfoList.add(new FSIgnored(pfbFile, FontFormat.PFB, "*skipnoname*"));
+                infos.add(new FSIgnored(pfbFile, FontFormat.PFB, "*skipnoname*"));
                 Log.w("PdfBox-Android", "Missing 'name' entry for PostScript name in font " + pfbFile);
                 return;
             }
             if (type1.getName().contains("|"))
             {
-                fontInfoList.add(new FSIgnored(pfbFile, FontFormat.PFB, "*skippipeinname*"));
+                infos.add(new FSIgnored(pfbFile, FontFormat.PFB, "*skippipeinname*"));
                 Log.w("PdfBox-Android", "Skipping font with '|' in name " + type1.getName() + " in file " + pfbFile);
                 return;
             }
-            fontInfoList.add(new FSFontInfo(pfbFile, FontFormat.PFB, type1.getName(),
+            infos.add(new FSFontInfo(pfbFile, FontFormat.PFB, type1.getName(),
                 null, -1, -1, 0, 0, -1, null, this));
 
             if (PDFBoxConfig.isDebugEnabled())
@@ -21,9 +21,9 @@ import android.graphics.PointF;
 import android.util.Log;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.tom_roush.fontbox.FontBoxFont;
 import com.tom_roush.fontbox.cff.CFFCIDFont;
@@ -51,7 +51,7 @@ public class PDCIDFontType0 extends PDCIDFont
     private final CFFCIDFont cidFont;  // Top DICT that uses CIDFont operators
     private final FontBoxFont t1Font; // Top DICT that does not use CIDFont operators
 
-    private final Map<Integer, Float> glyphHeights = new HashMap<Integer, Float>();
+    private final Map<Integer, Float> glyphHeights = new ConcurrentHashMap<Integer, Float>();
     private final boolean isEmbedded;
     private final boolean isDamaged;
 
@@ -92,10 +92,18 @@ public class PDCIDFontType0 extends PDCIDFont
         }
         else if (bytes != null)
         {
-            CFFParser cffParser = new CFFParser();
+            EmbeddedFontCache fontCache = EmbeddedFontCache.getInstance();
             try
             {
-                cffFont = cffParser.parse(bytes, new FF3ByteSource()).get(0);
+                if (fontCache.isEnabled())
+                {
+                    cffFont = fontCache.getCFFFont(bytes);
+                }
+                else
+                {
+                    CFFParser cffParser = new CFFParser();
+                    cffFont = cffParser.parse(bytes, new FF3ByteSource()).get(0);
+                }
             }
             catch (IOException e)
             {
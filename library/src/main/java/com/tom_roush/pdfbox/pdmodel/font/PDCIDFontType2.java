@@ -20,8 +20,9 @@ import android.graphics.Path;
 import android.util.Log;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.tom_roush.fontbox.cff.Type2CharString;
 import com.tom_roush.fontbox.cmap.CMap;
@@ -50,7 +51,8 @@ public class PDCIDFontType2 extends PDCIDFont
     private final CmapLookup cmap; // may be null
     private Matrix fontMatrix;
     private BoundingBox fontBBox;
-    private final Set<Integer> noMapping = new HashSet<Integer>();
+    private final Set<Integer> noMapping =
+        Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
 
     /**
      * Constructor.
@@ -107,8 +109,17 @@ public class PDCIDFontType2 extends PDCIDFont
                 try
                 {
                     // embedded OTF or TTF
-                    OTFParser otfParser = new OTFParser(true);
-                    OpenTypeFont otf = otfParser.parse(stream.createInputStream());
+                    OpenTypeFont otf;
+                    EmbeddedFontCache fontCache = EmbeddedFontCache.getInstance();
+                    if (fontCache.isEnabled())
+                    {
+                        otf = fontCache.getOpenTypeFont(stream);
+                    }
+                    else
+                    {
+                        OTFParser otfParser = new OTFParser(true);
+                        otf = otfParser.parse(stream.createInputStream());
+                    }
                     ttfFont = otf;
 
                     if (otf.isPostScript())
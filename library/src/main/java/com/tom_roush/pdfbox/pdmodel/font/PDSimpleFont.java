@@ -20,9 +20,10 @@ import android.graphics.Path;
 import android.util.Log;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.tom_roush.fontbox.FontBoxFont;
 import com.tom_roush.pdfbox.cos.COSBase;
@@ -45,7 +46,8 @@ public abstract class PDSimpleFont extends PDFont
     protected Encoding encoding;
     protected GlyphList glyphList;
     private Boolean isSymbolic;
-    private final Set<Integer> noUnicode = new HashSet<Integer>(); // for logging
+    private final Set<Integer> noUnicode =
+        Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>()); // for logging
 
     /**
      * Constructor for embedding.
@@ -195,9 +195,17 @@ public class PDTrueTypeFont extends PDSimpleFont implements PDVectorFont
                 try
                 {
                     // embedded
-                    TTFParser ttfParser = new TTFParser(true);
-                    is = ff2Stream.createInputStream();
-                    ttfFont = ttfParser.parse(is);
+                    EmbeddedFontCache fontCache = EmbeddedFontCache.getInstance();
+                    if (fontCache.isEnabled())
+                    {
+                        ttfFont = fontCache.getTrueTypeFont(ff2Stream);
+                    }
+                    else
+                    {
+                        TTFParser ttfParser = new TTFParser(true);
+                        is = ff2Stream.createInputStream();
+                        ttfFont = ttfParser.parse(is);
+                    }
                 }
                 catch (IOException e)
                 {
@@ -447,16 +455,18 @@ public class PDTrueTypeFont extends PDSimpleFont implements PDVectorFont
             return gidToCode;
         }
 
-        gidToCode = new HashMap<Integer, Integer>();
+        // fill a local map first, the font may be used by several threads
+        Map<Integer, Integer> map = new HashMap<Integer, Integer>();
         for (int code = 0; code <= 255; code++)
         {
             int gid = codeToGID(code);
-            if (!gidToCode.containsKey(gid))
+            if (!map.containsKey(gid))
             {
-                gidToCode.put(gid, code);
+                map.put(gid, code);
             }
         }
-        return gidToCode;
+        gidToCode = map;
+        return map;
     }
 
     @Override
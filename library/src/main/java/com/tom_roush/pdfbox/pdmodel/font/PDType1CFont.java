@@ -22,9 +22,9 @@ import android.util.Log;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.tom_roush.fontbox.EncodedFont;
 import com.tom_roush.fontbox.FontBoxFont;
@@ -52,7 +52,7 @@ import static com.tom_roush.pdfbox.pdmodel.font.UniUtil.getUniNameOfCodePoint;
  */
 public class PDType1CFont extends PDSimpleFont
 {
-    private final Map<String, Float> glyphHeights = new HashMap<String, Float>();
+    private final Map<String, Float> glyphHeights = new ConcurrentHashMap<String, Float>();
     private Float avgWidth = null;
     private Matrix fontMatrix;
     private final AffineTransform fontMatrixTransform;
@@ -96,8 +96,17 @@ public class PDType1CFont extends PDSimpleFont
             if (bytes != null)
             {
                 // note: this could be an OpenType file, fortunately CFFParser can handle that
-                CFFParser cffParser = new CFFParser();
-                CFFFont parsedCffFont = cffParser.parse(bytes, new FF3ByteSource()).get(0);
+                CFFFont parsedCffFont;
+                EmbeddedFontCache fontCache = EmbeddedFontCache.getInstance();
+                if (fontCache.isEnabled())
+                {
+                    parsedCffFont = fontCache.getCFFFont(bytes);
+                }
+                else
+                {
+                    CFFParser cffParser = new CFFParser();
+                    parsedCffFont = cffParser.parse(bytes, new FF3ByteSource()).get(0);
+                }
                 if (parsedCffFont instanceof CFFType1Font)
                 {
                     cffEmbedded = (CFFType1Font) parsedCffFont;
@@ -53,8 +53,8 @@ public interface PDImage extends COSObjectable
      * the subregion specified is rendered, and is subsampled by advancing the specified amount of
      * rows and columns in the source image for every resulting pixel.
      *
-     * Note that unlike {@link PDImage#getImage() the unparameterized version}, this method does not
-     * cache the resulting image.
+     * Note that unlike {@link PDImage#getImage() the unparameterized version}, this method keeps
+     * at most a few of the resulting images in a cache, if any.
      *
      * @param region The region of the source image to get, or null if the entire image is needed.
      * The actual region will be clipped to the dimensions of the source image.
@@ -32,7 +32,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.SoftReference;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.tom_roush.pdfbox.cos.COSArray;
 import com.tom_roush.pdfbox.cos.COSBase;
@@ -69,6 +71,22 @@ public final class PDImageXObject extends PDXObject implements PDImage
     // initialize to MAX_VALUE as we prefer lower subsampling when keeping/replacing cache.
     private int cachedImageSubsampling = Integer.MAX_VALUE;
 
+    /**
+     * maximum number of cached regions, enough for the visible tiles of a zoomed page
+     */
+    private static final int MAX_CACHED_TILES = 16;
+
+    // regions of the image, least recently used first
+    private final Map<TileKey, SoftReference<Bitmap>> cachedTiles =
+        new LinkedHashMap<TileKey, SoftReference<Bitmap>>(MAX_CACHED_TILES, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, SoftReference<Bitmap>> eldest)
+            {
+                return size() > MAX_CACHED_TILES;
+            }
+        };
+
     /**
      * current resource dictionary (has color spaces)
      */
@@ -478,16 +496,32 @@ public final class PDImageXObject extends PDXObject implements PDImage
 
     /**
      * {@inheritDoc}
+     * The last requested regions are cached via a SoftReference, so that panning and zooming a
+     * tiled view doesn't decode the same tiles again.
      */
     @Override
     public Bitmap getImage(Rect region, int subsampling) throws IOException
     {
-        if (region == null && subsampling == cachedImageSubsampling && cachedImage != null)
+        TileKey tileKey = region != null ? new TileKey(region, subsampling) : null;
+        // the image may be rendered by several threads, the cache fields are accessed with a lock
+        synchronized (this)
         {
-            Bitmap cached = cachedImage.get();
-            if (cached != null)
+            if (region == null && subsampling == cachedImageSubsampling && cachedImage != null)
+            {
+                Bitmap cached = cachedImage.get();
+                if (cached != null)
+                {
+                    return cached;
+                }
+            }
+            else if (tileKey != null)
             {
-                return cached;
+                SoftReference<Bitmap> cachedTile = cachedTiles.get(tileKey);
+                Bitmap cached = cachedTile != null ? cachedTile.get() : null;
+                if (cached != null)
+                {
+                    return cached;
+                }
             }
         }
 
@@ -512,12 +546,19 @@ public final class PDImageXObject extends PDXObject implements PDImage
             image = SampledImageReader.getRGBImage(this, region, subsampling, getColorKeyMask());
         }
 
-        if (region == null && subsampling <= cachedImageSubsampling)
+        synchronized (this)
         {
-            // only cache full-image renders, and prefer lower subsampling frequency, as lower
-            // subsampling means higher quality and longer render times.
-            cachedImageSubsampling = subsampling;
-            cachedImage = new SoftReference<Bitmap>(image);
+            if (region == null && subsampling <= cachedImageSubsampling)
+            {
+                // only cache full-image renders, and prefer lower subsampling frequency, as lower
+                // subsampling means higher quality and longer render times.
+                cachedImageSubsampling = subsampling;
+                cachedImage = new SoftReference<Bitmap>(image);
+            }
+            else if (tileKey != null)
+            {
+                cachedTiles.put(tileKey, new SoftReference<Bitmap>(image));
+            }
         }
 
         return image;
@@ -858,7 +899,11 @@ public final class PDImageXObject extends PDXObject implements PDImage
     {
         getCOSObject().setItem(COSName.COLORSPACE, cs != null ? cs.getCOSObject() : null);
         colorSpace = null;
-        cachedImage = null;
+        synchronized (this)
+        {
+            cachedImage = null;
+            cachedTiles.clear();
+        }
     }
 
     @Override
@@ -993,4 +1038,44 @@ public final class PDImageXObject extends PDXObject implements PDImage
     {
         getCOSObject().setItem(COSName.OC, oc);
     }
+
+    /**
+     * Key of a cached region of the image.
+     */
+    private static final class TileKey
+    {
+        private final int left;
+        private final int top;
+        private final int right;
+        private final int bottom;
+        private final int subsampling;
+
+        private TileKey(Rect region, int subsampling)
+        {
+            // copy the coordinates, the caller may reuse its Rect
+            this.left = region.left;
+            this.top = region.top;
+            this.right = region.right;
+            this.bottom = region.bottom;
+            this.subsampling = subsampling;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof TileKey))
+            {
+                return false;
+            }
+            TileKey other = (TileKey) obj;
+            return left == other.left && top == other.top && right == other.right
+                && bottom == other.bottom && subsampling == other.subsampling;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (((left * 31 + top) * 31 + right) * 31 + bottom) * 31 + subsampling;
+        }
+    }
 }
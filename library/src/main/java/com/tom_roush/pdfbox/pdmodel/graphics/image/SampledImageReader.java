@@ -43,6 +43,9 @@ import com.tom_roush.pdfbox.pdmodel.graphics.color.PDColorSpace;
  */
 final class SampledImageReader
 {
+    // number of pixels converted at once by readBands()
+    private static final int BAND_PIXELS = 64 * 1024;
+
     private SampledImageReader()
     {
     }
@@ -154,9 +157,9 @@ final class SampledImageReader
         {
             int x = Math.max(0, region.left);
             int y = Math.max(0, region.top);
-            int width = Math.min(region.width(), pdImage.getWidth() - x);
-            int height = Math.min(region.height(), pdImage.getHeight() - y);
-            return new Rect(x, y, width, height);
+            int right = Math.min(region.right, pdImage.getWidth());
+            int bottom = Math.min(region.bottom, pdImage.getHeight());
+            return new Rect(x, y, Math.max(x, right), Math.max(y, bottom));
         }
     }
 
@@ -212,14 +215,21 @@ final class SampledImageReader
             {
                 return BitmapFactory.decodeStream(pdImage.createInputStream());
             }
+            else if (bitsPerComponent == 8 && (numComponents == 1 || numComponents == 3))
+            {
+                // convert image by bands, applying the decode array and the color key mask
+                return from8bit(pdImage, clipped, subsampling, width, height,
+                    Arrays.equals(decode, defaultDecode) ? null : createDecodeTables(decode,
+                        defaultDecode, numComponents), getColorKeyRanges(colorKey, numComponents));
+            }
             else if (bitsPerComponent == 8 && colorKey == null && Arrays.equals(decode, defaultDecode))
             {
                 // convert image, faster path for non-decoded, non-colormasked 8-bit images
-                return from8bit(pdImage, clipped, subsampling, width, height);
+                return from8bit(pdImage, clipped, subsampling, width, height, null, null);
             }
             Log.e("PdfBox-Android", "Trying to create other-bit image not supported");
 //        return fromAny(pdImage, colorKey, clipped, subsampling, width, height);
-            return from8bit(pdImage, clipped, subsampling, width, height);
+            return from8bit(pdImage, clipped, subsampling, width, height, null, null);
         }
         catch (NegativeArraySizeException ex)
         {
@@ -238,8 +248,8 @@ final class SampledImageReader
         final PDColorSpace colorSpace = pdImage.getColorSpace();
         final float[] decode = getDecodeArray(pdImage);
         Bitmap raster = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        // a new bitmap is transparent, no need to copy its pixels into the buffer
         ByteBuffer buffer = ByteBuffer.allocate(raster.getRowBytes() * height);
-        raster.copyPixelsToBuffer(buffer);
 
         DecodeOptions options = new DecodeOptions(currentSubsampling);
         options.setSourceRegion(clipped);
@@ -284,27 +294,30 @@ final class SampledImageReader
             final int invert = /*colorSpace instanceof PDIndexed TODO: PdfBox-Android ||*/ decode[0] < decode[1] ? 0 : -1;
             final int endX = startx + scanWidth;
             final byte[] buff = new byte[stride];
-            for (int y = 0; y < starty + scanHeight; y++)
+            // rows above the region and rows which aren't sampled are skipped, as well as the
+            // rows below the region
+            long skippedRows = (starty + currentSubsampling - 1) / currentSubsampling
+                * currentSubsampling;
+            for (int y = (int) skippedRows; y < starty + scanHeight; y += currentSubsampling)
             {
-                int read = (int) IOUtils.populateBuffer(iis, buff);
-                if (y >= starty && y % currentSubsampling == 0)
+                int read = skipFully(iis, skippedRows * stride) == skippedRows * stride
+                    ? (int) IOUtils.populateBuffer(iis, buff) : 0;
+                skippedRows = currentSubsampling - 1;
+                int x = startx;
+                for (int r = x / 8; r < stride && r < read; r++)
                 {
-                    int x = startx;
-                    for (int r = x / 8; r < stride && r < read; r++)
+                    int value = (buff[r] ^ invert) << (24 + (x & 7));
+                    for (int count = Math.min(8 - (x & 7), endX - x); count > 0; x++, count--)
                     {
-                        int value = (buff[r] ^ invert) << (24 + (x & 7));
-                        for (int count = Math.min(8 - (x & 7), endX - x); count > 0; x++, count--)
+                        if (nosubsampling || x % currentSubsampling == 0)
                         {
-                            if (nosubsampling || x % currentSubsampling == 0)
+                            if (value < 0)
                             {
-                                if (value < 0)
-                                {
-                                    output[idx] = (byte) 255;
-                                }
-                                idx++;
+                                output[idx] = (byte) 255;
                             }
-                            value <<= 1;
+                            idx++;
                         }
+                        value <<= 1;
                     }
                 }
                 if (read != stride)
@@ -329,9 +342,11 @@ final class SampledImageReader
         }
     }
 
-    // faster, 8-bit non-decoded, non-colormasked image conversion
+    // 8-bit image conversion, gray and RGB images are converted by bands, with the optional
+    // decode tables and color key ranges
     private static Bitmap from8bit(PDImage pdImage, Rect clipped, final int subsampling,
-        final int width, final int height) throws IOException
+        final int width, final int height, byte[][] decodeTables, int[] colorKeyRanges)
+        throws IOException
     {
         int currentSubsampling = subsampling;
         DecodeOptions options = new DecodeOptions(currentSubsampling);
@@ -364,6 +379,11 @@ final class SampledImageReader
                 scanHeight = clipped.height();
             }
             final int numComponents = pdImage.getColorSpace().getNumberOfComponents();
+            if (numComponents == 1 || numComponents == 3)
+            {
+                return readBands(input, inputWidth, numComponents, startx, starty,
+                    currentSubsampling, width, height, decodeTables, colorKeyRanges);
+            }
             if (startx == 0 && starty == 0 && scanWidth == width && scanHeight == height)
             {
                 // we just need to copy all sample data, then convert to RGB image.
@@ -387,38 +407,164 @@ final class SampledImageReader
         }
     }
 
-    private static Bitmap createBitmapFromRawStream(InputStream input, int originalWidth, int numComponents,
-        int sampleSize) throws IOException
+    /**
+     * Reads the rows of an 8-bit gray or RGB image and converts them by bands of output rows, so
+     * that only one input row and one band are held besides the resulting bitmap.
+     */
+    private static Bitmap readBands(InputStream input, int inputWidth, int numComponents,
+        int startx, int starty, int subsampling, int width, int height, byte[][] decodeTables,
+        int[] colorKeyRanges) throws IOException
     {
-        byte[] bytes = IOUtils.toByteArray(input);
-        int originalHeight = bytes.length / numComponents / originalWidth;
-        if (numComponents == 1)
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        final int bandHeight = Math.max(1, Math.min(height, BAND_PIXELS / width));
+        final int[] band = new int[width * bandHeight];
+        final byte[] row = new byte[inputWidth * numComponents];
+        final int maxX = Math.min(width, (inputWidth - startx + subsampling - 1) / subsampling);
+        int bandRows = 0;
+        int bandY = 0;
+        // the rows above the region and between the sampled rows are skipped without being
+        // copied, and the stream isn't decoded beyond the last row of the region
+        long skippedRows = starty;
+        for (int y = 0; y < height; y++)
         {
-            byte[] result = new byte[originalWidth * originalHeight * 4];
-            for (int i = originalWidth * originalHeight - 1; i >= 0; i--)
+            if (skipFully(input, skippedRows * row.length) != skippedRows * row.length
+                || IOUtils.populateBuffer(input, row) != row.length)
             {
-                int to = i * 4;
-                result[to + 3] = bytes[i];
-                result[to] = bytes[i];
-                result[to + 1] = bytes[i];
-                result[to + 2] = bytes[i];
+                Log.w("PdfBox-Android", "premature EOF, image will be incomplete");
+                break;
             }
-            bytes = result;
+            skippedRows = subsampling - 1;
+            int idx = bandRows * width;
+            for (int ox = 0; ox < maxX; ox++)
+            {
+                int i = (startx + ox * subsampling) * numComponents;
+                if (colorKeyRanges != null && isMasked(row, i, numComponents, colorKeyRanges))
+                {
+                    band[idx++] = Color.TRANSPARENT;
+                    continue;
+                }
+                if (numComponents == 1)
+                {
+                    int gray = decodeTables != null ? decodeTables[0][row[i] & 0xff] & 0xff
+                        : row[i] & 0xff;
+                    // the gray value has always been used as alpha too, this gives the same
+                    // premultiplied pixels
+                    band[idx++] = Color.argb(gray, 255, 255, 255);
+                }
+                else if (decodeTables != null)
+                {
+                    band[idx++] = Color.rgb(decodeTables[0][row[i] & 0xff] & 0xff,
+                        decodeTables[1][row[i + 1] & 0xff] & 0xff,
+                        decodeTables[2][row[i + 2] & 0xff] & 0xff);
+                }
+                else
+                {
+                    band[idx++] = Color.rgb(row[i] & 0xff, row[i + 1] & 0xff, row[i + 2] & 0xff);
+                }
+            }
+            Arrays.fill(band, idx, (bandRows + 1) * width, Color.TRANSPARENT);
+            bandRows++;
+            if (bandRows == bandHeight)
+            {
+                bitmap.setPixels(band, 0, width, 0, bandY, width, bandRows);
+                bandY += bandRows;
+                bandRows = 0;
+            }
+        }
+        if (bandRows > 0)
+        {
+            bitmap.setPixels(band, 0, width, 0, bandY, width, bandRows);
         }
-        else if (numComponents == 3)
+        return bitmap;
+    }
+
+    /**
+     * Skips the given number of bytes, unless the end of the stream is reached.
+     *
+     * @return the number of bytes skipped.
+     */
+    private static long skipFully(InputStream input, long count) throws IOException
+    {
+        long skipped = 0;
+        while (skipped < count)
         {
-            byte[] result = new byte[originalWidth * originalHeight * 4];
-            for (int i = originalWidth * originalHeight - 1; i >= 0; i--)
+            long n = input.skip(count - skipped);
+            if (n <= 0)
             {
-                int to = i * 4;
-                int from = i * 3;
-                result[to + 3] = (byte)255;
-                result[to] = bytes[from];
-                result[to + 1] = bytes[from + 1];
-                result[to + 2] = bytes[from + 2];
+                // skip() may skip nothing before the end of the stream
+                if (input.read() == -1)
+                {
+                    break;
+                }
+                n = 1;
+            }
+            skipped += n;
+        }
+        return skipped;
+    }
+
+    // true if all components of the sample are within the color key ranges
+    private static boolean isMasked(byte[] row, int offset, int numComponents, int[] ranges)
+    {
+        for (int c = 0; c < numComponents; c++)
+        {
+            int value = row[offset + c] & 0xff;
+            if (value < ranges[c * 2] || value > ranges[c * 2 + 1])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // maps the 8-bit samples of each component through the decode array, into the range of the
+    // default decode array, returns null if the decode array doesn't fit
+    private static byte[][] createDecodeTables(float[] decode, float[] defaultDecode,
+        int numComponents)
+    {
+        if (decode.length < numComponents * 2)
+        {
+            return null;
+        }
+        byte[][] tables = new byte[numComponents][256];
+        for (int c = 0; c < numComponents; c++)
+        {
+            float dMin = decode[c * 2];
+            float dMax = decode[c * 2 + 1];
+            float defaultMin = defaultDecode[c * 2];
+            float defaultRange = defaultDecode[c * 2 + 1] - defaultMin;
+            for (int v = 0; v < 256; v++)
+            {
+                float value = dMin + v * (dMax - dMin) / 255;
+                int output = Math.round((value - defaultMin) / defaultRange * 255);
+                tables[c][v] = (byte) Math.max(0, Math.min(255, output));
             }
-            bytes = result;
         }
+        return tables;
+    }
+
+    // gets the color key mask ranges of the components, or null if there is no valid mask
+    private static int[] getColorKeyRanges(COSArray colorKey, int numComponents)
+    {
+        if (colorKey == null || colorKey.size() < numComponents * 2)
+        {
+            return null;
+        }
+        float[] values = colorKey.toFloatArray();
+        int[] ranges = new int[numComponents * 2];
+        for (int i = 0; i < ranges.length; i++)
+        {
+            ranges[i] = (int) values[i];
+        }
+        return ranges;
+    }
+
+    private static Bitmap createBitmapFromRawStream(InputStream input, int originalWidth, int numComponents,
+        int sampleSize) throws IOException
+    {
+        // gray and RGB images are read by readBands()
+        byte[] bytes = IOUtils.toByteArray(input);
+        int originalHeight = bytes.length / numComponents / originalWidth;
         Bitmap bitmap = Bitmap.createBitmap(originalWidth, originalHeight, Bitmap.Config.ARGB_8888);
         bitmap.copyPixelsFromBuffer(ByteBuffer.wrap(bytes));
         if (sampleSize > 1)
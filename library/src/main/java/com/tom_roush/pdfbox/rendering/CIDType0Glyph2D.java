@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.tom_roush.fontbox.cff.CFFFont;
+import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.pdmodel.font.PDCIDFontType0;
 
 /**
@@ -35,6 +37,8 @@ final class CIDType0Glyph2D implements Glyph2D
     private final Map<Integer, Path> cache = new HashMap<Integer, Path>();
     private final PDCIDFontType0 font;
     private final String fontName;
+    // the font program if its glyphs can be shared with other fonts, null otherwise
+    private final Object sharedFont;
 
     /**
      * Constructor.
@@ -45,26 +49,50 @@ final class CIDType0Glyph2D implements Glyph2D
     {
         this.font = font;
         fontName = font.getBaseFont();
+        // the glyphs of an embedded CFF font only depend on the font program and the CID, unless
+        // a CIDToGIDMap maps the CIDs to other glyphs
+        if (font.isEmbedded() && font.getFontBoxFont() instanceof CFFFont
+            && !font.getCOSObject().containsKey(COSName.CID_TO_GID_MAP))
+        {
+            sharedFont = font.getFontBoxFont();
+        }
+        else
+        {
+            sharedFont = null;
+        }
     }
 
     @Override
     public Path getPathForCharacterCode(int code)
     {
-        Path path = cache.get(code);
-        if (path == null)
+        int cid = font.codeToCID(code);
+        Path path = sharedFont != null ? GlyphCache.getInstance().get(sharedFont, cid)
+            : cache.get(code);
+        if (path != null)
+        {
+            return sharedFont != null ? path : new Path(path);
+        }
+        else
         {
             try
             {
                 if (!font.hasGlyph(code))
                 {
-                    int cid = font.getParent().codeToCID(code);
                     String cidHex = String.format("%04x", cid);
                     Log.w("PdfBox-Android", "No glyph for " + code + " (CID " + cidHex + ") in font " + fontName);
                 }
 
                 path = font.getPath(code);
-                cache.put(code, path);
-                return path;
+                if (sharedFont != null)
+                {
+                    GlyphCache.getInstance().put(sharedFont, cid, path);
+                }
+                else
+                {
+                    cache.put(code, new Path(path));
+                }
+                // the path is transformed by the caller
+                return new Path(path);
             }
             catch (IOException e)
             {
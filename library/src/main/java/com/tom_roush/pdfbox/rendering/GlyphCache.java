@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.rendering;
+
+import android.graphics.Path;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A process-wide cache of glyph outlines, shared by all renderers. A glyph is identified by its
+ * font program, e.g. a TrueTypeFont or CFFFont, and its GID, or its name for fonts which address
+ * glyphs by name. The same font program used by many pages or documents thus only has its glyphs
+ * converted to paths once.
+ *
+ * The least recently used glyphs are evicted as soon as the estimated size of all cached paths
+ * exceeds a byte budget. The font programs are only weakly referenced, glyphs of font programs
+ * which are no longer used are never found again and are evicted eventually. The cache counts
+ * hits, misses and evictions to help choosing a budget. It is safe to use it from several threads.
+ */
+public final class GlyphCache
+{
+    private static final long DEFAULT_MAX_SIZE = 8L * 1024 * 1024;
+    // estimated bytes of a glyph path and its entry
+    private static final long GLYPH_SIZE = 512;
+
+    private static final GlyphCache INSTANCE = new GlyphCache();
+
+    private long maxSize = DEFAULT_MAX_SIZE;
+    private long currentSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    // access ordered, the eldest entry is the least recently used one
+    private final Map<Key, Path> entries = new LinkedHashMap<Key, Path>(256, 0.75f, true);
+
+    private GlyphCache()
+    {
+    }
+
+    /**
+     * Returns the cache shared by all renderers.
+     *
+     * @return the glyph cache.
+     */
+    public static GlyphCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the maximum estimated size of all cached glyphs in bytes.
+     *
+     * @return the budget of this cache.
+     */
+    public synchronized long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum estimated size of all cached glyphs in bytes, the default is 8 MB. Glyphs
+     * are evicted if the current size exceeds the new budget. A budget of 0 disables the cache.
+     *
+     * @param maxSize the new budget.
+     * @throws IllegalArgumentException if the given size is negative.
+     */
+    public synchronized void setMaxSize(long maxSize)
+    {
+        if (maxSize < 0)
+        {
+            throw new IllegalArgumentException("The maximum size must not be negative");
+        }
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    /**
+     * Returns the estimated size of all currently cached glyphs in bytes.
+     *
+     * @return the current size.
+     */
+    public synchronized long getCurrentSize()
+    {
+        return currentSize;
+    }
+
+    /**
+     * Returns the number of cached glyphs.
+     *
+     * @return the number of entries.
+     */
+    public synchronized int getEntryCount()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns how often a requested glyph was found in the cache.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }
+
+    /**
+     * Returns how often a requested glyph wasn't found in the cache.
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMissCount()
+    {
+        return missCount;
+    }
+
+    /**
+     * Returns how many glyphs were removed from the cache to stay within the budget.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    /**
+     * Removes all glyphs from the cache. The counters aren't reset.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        currentSize = 0;
+    }
+
+    /**
+     * Returns a copy of the cached path of the given glyph, which may be transformed by the
+     * caller.
+     *
+     * @param font the font program
+     * @param glyph the GID as Integer, or the glyph name
+     * @return the path or null if it isn't cached
+     */
+    Path get(Object font, Object glyph)
+    {
+        Path path;
+        synchronized (this)
+        {
+            path = entries.get(new Key(font, glyph));
+            if (path == null)
+            {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+        }
+        return new Path(path);
+    }
+
+    /**
+     * Caches a copy of the path of the given glyph.
+     *
+     * @param font the font program
+     * @param glyph the GID as Integer, or the glyph name
+     * @param path the untransformed path of the glyph
+     */
+    void put(Object font, Object glyph, Path path)
+    {
+        if (GLYPH_SIZE > getMaxSize())
+        {
+            return;
+        }
+        Path copy = new Path(path);
+        synchronized (this)
+        {
+            if (entries.put(new Key(font, glyph), copy) == null)
+            {
+                currentSize += GLYPH_SIZE;
+            }
+            evict();
+        }
+    }
+
+    // evicts the least recently used entries until the budget is kept
+    private void evict()
+    {
+        Iterator<Path> iterator = entries.values().iterator();
+        while (currentSize > maxSize && iterator.hasNext())
+        {
+            iterator.next();
+            iterator.remove();
+            currentSize -= GLYPH_SIZE;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * A font program compared by identity, and a glyph compared by equality.
+     */
+    private static final class Key
+    {
+        private final WeakReference<Object> font;
+        private final int fontHash;
+        private final Object glyph;
+
+        Key(Object font, Object glyph)
+        {
+            this.font = new WeakReference<Object>(font);
+            this.fontHash = System.identityHashCode(font);
+            this.glyph = glyph;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            Key other = (Key) obj;
+            Object referent = font.get();
+            return referent != null && referent == other.font.get() && glyph.equals(other.glyph);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * fontHash + glyph.hashCode();
+        }
+    }
+}
@@ -22,6 +22,13 @@ import android.graphics.Color;
 import android.graphics.Paint;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import com.tom_roush.pdfbox.cos.COSName;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
@@ -39,6 +46,9 @@ import com.tom_roush.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
 /**
  * Renders a PDF document to a Bitmap.
  * This class may be overridden in order to perform custom rendering.
+ * <p>
+ * Several pages of the same document may be rendered at the same time by different threads, see
+ * {@link #renderPages(int[], float, Executor)}. Each page is drawn by its own {@link PageDrawer}.
  *
  * @author John Hewson
  */
@@ -63,7 +73,8 @@ public class PDFRenderer
 
     private RenderDestination defaultDestination;
 
-    private Bitmap pageImage;
+    // the image of the page being rendered by the current thread
+    private final ThreadLocal<Bitmap> pageImage = new ThreadLocal<Bitmap>();
 
     private float imageDownscalingOptimizationThreshold = 0.5f;
 
@@ -245,8 +256,111 @@ public class PDFRenderer
     public Bitmap renderImage(int pageIndex, float scale, ImageType imageType, RenderDestination destination)
         throws IOException
     {
-        PDPage page = pageTree.get(pageIndex);
+        return renderImage(pageTree.get(pageIndex), scale, imageType, destination);
+    }
+
+    /**
+     * Renders the given pages in parallel as RGB images at the given DPI. The pages are rendered
+     * by the tasks submitted to the given executor, the document is shared by all of them.
+     *
+     * @param pageIndices the zero-based indices of the pages to be converted
+     * @param dpi the DPI (dots per inch) to render at
+     * @param executor the executor running the rendering tasks, e.g. a fixed thread pool
+     * @return the rendered page images, in the order of the given indices
+     * @throws IOException if the PDF cannot be read or the rendering was interrupted
+     */
+    public Bitmap[] renderPages(int[] pageIndices, float dpi, Executor executor) throws IOException
+    {
+        return renderPages(pageIndices, dpi, ImageType.RGB, executor);
+    }
+
+    /**
+     * Renders the given pages in parallel at the given DPI. The pages are rendered by the tasks
+     * submitted to the given executor, the document is shared by all of them. If a page can't be
+     * rendered, the remaining tasks are cancelled.
+     *
+     * @param pageIndices the zero-based indices of the pages to be converted
+     * @param dpi the DPI (dots per inch) to render at
+     * @param imageType the type of images to return
+     * @param executor the executor running the rendering tasks, e.g. a fixed thread pool
+     * @return the rendered page images, in the order of the given indices
+     * @throws IOException if the PDF cannot be read or the rendering was interrupted
+     */
+    public Bitmap[] renderPages(int[] pageIndices, float dpi, final ImageType imageType,
+        Executor executor) throws IOException
+    {
+        final float scale = dpi / 72f;
+        final RenderDestination destination =
+            defaultDestination == null ? RenderDestination.EXPORT : defaultDestination;
 
+        // the page tree is modified while looking up a page, so this is done in advance
+        PDPage[] pages = new PDPage[pageIndices.length];
+        for (int i = 0; i < pageIndices.length; i++)
+        {
+            pages[i] = pageTree.get(pageIndices[i]);
+        }
+
+        List<FutureTask<Bitmap>> tasks = new ArrayList<FutureTask<Bitmap>>(pages.length);
+        for (final PDPage page : pages)
+        {
+            FutureTask<Bitmap> task = new FutureTask<Bitmap>(new Callable<Bitmap>()
+            {
+                @Override
+                public Bitmap call() throws IOException
+                {
+                    return renderImage(page, scale, imageType, destination);
+                }
+            });
+            tasks.add(task);
+            executor.execute(task);
+        }
+
+        Bitmap[] images = new Bitmap[pages.length];
+        try
+        {
+            for (int i = 0; i < images.length; i++)
+            {
+                images[i] = tasks.get(i).get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            cancel(tasks);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Rendering of pages interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            cancel(tasks);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        return images;
+    }
+
+    private static void cancel(List<FutureTask<Bitmap>> tasks)
+    {
+        for (FutureTask<Bitmap> task : tasks)
+        {
+            task.cancel(false);
+        }
+    }
+
+    private Bitmap renderImage(PDPage page, float scale, ImageType imageType,
+        RenderDestination destination) throws IOException
+    {
         PDRectangle cropBox = page.getCropBox();
         float widthPt = cropBox.getWidth();
         float heightPt = cropBox.getHeight();
@@ -289,7 +403,7 @@ public class PDFRenderer
             image = Bitmap.createBitmap(widthPx, heightPx, bimType);
         }
 
-        pageImage = image;
+        pageImage.set(image);
 
         // use a transparent background if the image type supports alpha
         Paint paint = new Paint();
@@ -313,7 +427,15 @@ public class PDFRenderer
             new PageDrawerParameters(this, page, subsamplingAllowed, destination,
                 imageDownscalingOptimizationThreshold);
         PageDrawer drawer = createPageDrawer(parameters);
-        drawer.drawPage(paint, canvas, cropBox);
+        try
+        {
+            drawer.drawPage(paint, canvas, cropBox);
+        }
+        finally
+        {
+            // don't keep the image alive in pooled threads
+            pageImage.remove();
+        }
 
         if (image.getConfig() != imageType.toBitmapConfig())
         {
@@ -491,12 +613,12 @@ public class PDFRenderer
     }
 
     /**
-     * Returns the image to which the current page is being rendered.
+     * Returns the image to which the current page is being rendered by the current thread.
      * May be null if the page is rendered to a Graphics2D object
      * instead of a Bitmap.
      */
     Bitmap getPageImage()
     {
-        return pageImage;
+        return pageImage.get();
     }
 }
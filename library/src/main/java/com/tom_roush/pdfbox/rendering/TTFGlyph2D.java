@@ -22,8 +22,6 @@ import android.graphics.Path;
 import android.util.Log;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import com.tom_roush.fontbox.ttf.HeaderTable;
 import com.tom_roush.fontbox.ttf.TrueTypeFont;
@@ -44,7 +42,6 @@ final class TTFGlyph2D implements Glyph2D
     private PDVectorFont vectorFont;
     private float scale = 1.0f;
     private boolean hasScaling;
-    private final Map<Integer, Path> glyphs = new HashMap<Integer, Path>();
     private final boolean isCIDFont;
 
     /**
@@ -122,56 +119,64 @@ final class TTFGlyph2D implements Glyph2D
             Log.w("PdfBox-Android", "No glyph for code " + code + " in font " + font.getName());
             return new Path();
         }
-        Path glyphPath = glyphs.get(gid);
-        if (glyphPath == null)
+        // all glyphs but .notdef only depend on the font program and can be shared
+        boolean isShared = gid != 0;
+        Path glyphPath = isShared ? GlyphCache.getInstance().get(ttf, gid) : null;
+        if (glyphPath != null)
         {
-            if (gid == 0 || gid >= ttf.getMaximumProfile().getNumGlyphs())
-            {
-                if (isCIDFont)
-                {
-                    int cid = ((PDType0Font) font).codeToCID(code);
-                    String cidHex = String.format("%04x", cid);
-                    Log.w("PdfBox-Android", "No glyph for code " + code + " (CID " + cidHex + ") in font " +
-                        font.getName());
-                }
-                else
-                {
-                    Log.w("PdfBox-Android", "No glyph for " + code + " in font " + font.getName());
-                }
-            }
-
-            Path glyph = vectorFont.getPath(code);
-
-            // Acrobat only draws GID 0 for embedded or "Standard 14" fonts, see PDFBOX-2372
-            if (gid == 0 && !font.isEmbedded() && !font.isStandard14())
-            {
-                glyph = null;
-            }
+            return glyphPath;
+        }
 
-            if (glyph == null)
+        if (gid == 0 || gid >= ttf.getMaximumProfile().getNumGlyphs())
+        {
+            if (isCIDFont)
             {
-                // empty glyph (e.g. space, newline)
-                glyphPath = new Path();
-//                glyphs.put(gid, glyphPath); TODO: PdfBox-Android
+                int cid = ((PDType0Font) font).codeToCID(code);
+                String cidHex = String.format("%04x", cid);
+                Log.w("PdfBox-Android", "No glyph for code " + code + " (CID " + cidHex + ") in font " +
+                    font.getName());
             }
             else
             {
-                glyphPath = glyph;
-                if (hasScaling)
-                {
-                    AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
-                    glyphPath.transform(atScale.toMatrix());
-                }
-//                glyphs.put(gid, glyphPath); TODO: PdfBox-Android
+                Log.w("PdfBox-Android", "No glyph for " + code + " in font " + font.getName());
             }
         }
-        // todo: expensive
+
+        Path glyph = vectorFont.getPath(code);
+
+        // Acrobat only draws GID 0 for embedded or "Standard 14" fonts, see PDFBOX-2372
+        if (gid == 0 && !font.isEmbedded() && !font.isStandard14())
+        {
+            glyph = null;
+        }
+
+        if (glyph == null)
+        {
+            // empty glyph (e.g. space, newline)
+            glyphPath = new Path();
+        }
+        else if (hasScaling)
+        {
+            // don't scale the path of a charstring in place, it is kept by the font
+            glyphPath = new Path(glyph);
+            AffineTransform atScale = AffineTransform.getScaleInstance(scale, scale);
+            glyphPath.transform(atScale.toMatrix());
+        }
+        else
+        {
+            glyphPath = glyph;
+        }
+        if (isShared)
+        {
+            GlyphCache.getInstance().put(ttf, gid, glyphPath);
+        }
+        // the path is transformed by the caller
         return new Path(glyphPath);
     }
 
     @Override
     public void dispose()
     {
-        glyphs.clear();
+        // the glyphs are kept by the GlyphCache
     }
 }
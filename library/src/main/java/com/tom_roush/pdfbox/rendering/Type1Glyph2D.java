@@ -33,6 +33,8 @@ final class Type1Glyph2D implements Glyph2D
 {
     private final Map<Integer, Path> cache = new HashMap<Integer, Path>();
     private final PDSimpleFont font;
+    // the font program if its glyphs can be shared with other fonts, null otherwise
+    private final Object sharedFont;
 
     /**
      * Constructor.
@@ -42,6 +44,9 @@ final class Type1Glyph2D implements Glyph2D
     Type1Glyph2D(PDSimpleFont font)
     {
         this.font = font;
+        // the glyphs of an embedded font only depend on the font program and the glyph name,
+        // substituted fonts may draw glyphs differently, e.g. .notdef
+        sharedFont = font.isEmbedded() ? font.getFontBoxFont() : null;
     }
 
     @Override
@@ -78,15 +83,32 @@ final class Type1Glyph2D implements Glyph2D
                     }
                 }
 
+                if (sharedFont != null)
+                {
+                    path = GlyphCache.getInstance().get(sharedFont, name);
+                    if (path != null)
+                    {
+                        return path;
+                    }
+                }
+
                 // todo: can this happen? should it be encapsulated?
                 path = font.getPath(name);
                 if (path == null)
                 {
                     path = font.getPath(".notdef");
                 }
+                if (path == null)
+                {
+                    return null;
+                }
 
-//                cache.put(code, path); TODO: PdfBox-Android
-                return path;
+                if (sharedFont != null)
+                {
+                    GlyphCache.getInstance().put(sharedFont, name, path);
+                }
+                // the path is transformed by the caller
+                return new Path(path);
             }
             catch (IOException e)
             {
@@ -22,6 +22,7 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.StringWriter;
 import java.io.Writer;
@@ -39,12 +40,26 @@ import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 
 import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.cos.StreamPrefetcher;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import com.tom_roush.pdfbox.pdmodel.PDPage;
 import com.tom_roush.pdfbox.pdmodel.PDPageTree;
+import com.tom_roush.pdfbox.pdmodel.PDResources;
 import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
 import com.tom_roush.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import com.tom_roush.pdfbox.pdmodel.interactive.pagenavigation.PDThreadBead;
@@ -168,6 +183,13 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
     protected PDDocument document;
     protected Writer output;
 
+    // receives the text page by page, see extractText()
+    private PageTextHandler pageTextHandler;
+    private StringWriter pageTextOutput;
+
+    // decodes the content streams of the next pages in the background, if set
+    private StreamPrefetcher streamPrefetcher;
+
     /**
      * True if we started a paragraph but haven't ended it yet.
      */
@@ -202,6 +224,246 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
         return outputStream.toString();
     }
 
+    /**
+     * This will extract the text of a document page by page. The text of each page is passed to the
+     * given handler as soon as the page is finished, so that the text of large documents can be
+     * processed without keeping all of it in memory. Objects of the page which were loaded on demand
+     * are released after the handler returns, see
+     * {@link com.tom_roush.pdfbox.io.MemoryUsageSetting#setLazyObjectLoading(boolean, int)}.
+     * <p>
+     * The text of a page is the same as written by {@link #writeText(PDDocument, Writer)}. Text written
+     * before a page, e.g. by {@link #startDocument(PDDocument)}, is passed with the page. Text
+     * written after the last page, e.g. by {@link #endDocument(PDDocument)}, is passed to
+     * {@link PageTextHandler#handleDocumentEnd(String)}.
+     *
+     * @param doc The document to get the text from.
+     * @param handler The handler receiving the text of each page.
+     *
+     * @throws IOException If the doc is in an invalid state or the handler failed.
+     */
+    public void extractText(PDDocument doc, PageTextHandler handler) throws IOException
+    {
+        pageTextHandler = handler;
+        pageTextOutput = new StringWriter();
+        try
+        {
+            writeText(doc, pageTextOutput);
+            handler.handleDocumentEnd(pageTextOutput.toString());
+        }
+        finally
+        {
+            pageTextHandler = null;
+            pageTextOutput = null;
+        }
+    }
+
+    /**
+     * This will return the text of a document, the pages are processed in parallel. See
+     * {@link #writeText(PDDocument, Writer, Executor, int)}.
+     *
+     * @param doc The document to get the text from.
+     * @param executor The executor running the extraction tasks, e.g. a fixed thread pool.
+     * @param threadCount The maximum number of pages processed at the same time.
+     * @return The text of the PDF document.
+     * @throws IOException if the doc state is invalid or the extraction was interrupted.
+     */
+    public String getText(PDDocument doc, Executor executor, int threadCount) throws IOException
+    {
+        StringWriter outputStream = new StringWriter();
+        writeText(doc, outputStream, executor, threadCount);
+        return outputStream.toString();
+    }
+
+    /**
+     * This will take a PDDocument and write the text of that document to the print writer, the
+     * pages are processed in parallel. Each page is processed by a task submitted to the given
+     * executor, the tasks share a pool of at most threadCount strippers created by
+     * {@link #createPageStripper()}. The text of the pages is written in page order, it is the same
+     * as written by {@link #writeText(PDDocument, Writer)}. The document is shared by all tasks, it
+     * must not be modified until the extraction is finished. If a page can't be processed, the
+     * remaining tasks are cancelled. Subclasses which don't override {@link #createPageStripper()}
+     * process the pages on the calling thread, as {@link #writeText(PDDocument, Writer)} does.
+     *
+     * @param doc The document to get the data from.
+     * @param outputStream The location to put the text.
+     * @param executor The executor running the extraction tasks, e.g. a fixed thread pool.
+     * @param threadCount The maximum number of pages processed at the same time.
+     *
+     * @throws IOException If the doc is in an invalid state or the extraction was interrupted.
+     * @throws IllegalArgumentException If the thread count isn't positive.
+     */
+    public void writeText(final PDDocument doc, Writer outputStream, Executor executor,
+        int threadCount) throws IOException
+    {
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("The thread count must be positive");
+        }
+        // the strippers are created before this one is changed, so that a subclass which doesn't
+        // support parallel extraction can still use the serial one
+        final BlockingQueue<PDFTextStripper> strippers =
+            new ArrayBlockingQueue<PDFTextStripper>(threadCount);
+        for (int i = 0; i < threadCount; i++)
+        {
+            PDFTextStripper stripper = createPageStripper();
+            if (stripper == null)
+            {
+                writeText(doc, outputStream);
+                return;
+            }
+            strippers.add(stripper);
+        }
+        resetEngine();
+        document = doc;
+        output = outputStream;
+        setUpFormatting();
+        startDocument(document);
+
+        PDPageTree pages = document.getPages();
+        findBookmarkPageNumbers(pages);
+        for (PDFTextStripper stripper : strippers)
+        {
+            copySettings(stripper);
+        }
+
+        // the page tree is read on this thread only, the tasks process single pages
+        List<FutureTask<String>> tasks = new ArrayList<FutureTask<String>>();
+        for (final PDPage page : pages)
+        {
+            currentPageNo++;
+            if (page.hasContents() && isPageInRange())
+            {
+                final int pageNo = currentPageNo;
+                FutureTask<String> task = new FutureTask<String>(new Callable<String>()
+                {
+                    @Override
+                    public String call() throws Exception
+                    {
+                        PDFTextStripper stripper = strippers.take();
+                        try
+                        {
+                            return stripper.getPageText(doc, page, pageNo);
+                        }
+                        finally
+                        {
+                            strippers.add(stripper);
+                        }
+                    }
+                });
+                tasks.add(task);
+                executor.execute(task);
+            }
+        }
+
+        try
+        {
+            for (FutureTask<String> task : tasks)
+            {
+                output.write(task.get());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            cancel(tasks);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Text extraction interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            cancel(tasks);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        catch (IOException e)
+        {
+            cancel(tasks);
+            throw e;
+        }
+        endDocument(document);
+    }
+
+    /**
+     * Creates a stripper used by {@link #writeText(PDDocument, Writer, Executor, int)} to process
+     * single pages. The settings of this stripper are copied to the returned one afterwards.
+     * Subclasses have to override this to return an instance of their own class, copying their own
+     * settings if there are any, the default implementation returns null for subclasses.
+     *
+     * @return a new stripper, or null if the pages can't be processed in parallel.
+     * @throws IOException If the stripper can't be created.
+     */
+    protected PDFTextStripper createPageStripper() throws IOException
+    {
+        if (getClass() != PDFTextStripper.class)
+        {
+            return null;
+        }
+        return new PDFTextStripper();
+    }
+
+    private void copySettings(PDFTextStripper stripper)
+    {
+        stripper.lineSeparator = lineSeparator;
+        stripper.wordSeparator = wordSeparator;
+        stripper.paragraphStart = paragraphStart;
+        stripper.paragraphEnd = paragraphEnd;
+        stripper.pageStart = pageStart;
+        stripper.pageEnd = pageEnd;
+        stripper.articleStart = articleStart;
+        stripper.articleEnd = articleEnd;
+        stripper.startPage = startPage;
+        stripper.endPage = endPage;
+        stripper.startBookmarkPageNumber = startBookmarkPageNumber;
+        stripper.endBookmarkPageNumber = endBookmarkPageNumber;
+        stripper.suppressDuplicateOverlappingText = suppressDuplicateOverlappingText;
+        stripper.shouldSeparateByBeads = shouldSeparateByBeads;
+        stripper.sortByPosition = sortByPosition;
+        stripper.addMoreFormatting = addMoreFormatting;
+        stripper.indentThreshold = indentThreshold;
+        stripper.dropThreshold = dropThreshold;
+        stripper.spacingTolerance = spacingTolerance;
+        stripper.averageCharTolerance = averageCharTolerance;
+    }
+
+    // processes a single page of a parallel extraction
+    private String getPageText(PDDocument doc, PDPage page, int pageNo) throws IOException
+    {
+        resetEngine();
+        StringWriter pageOutput = new StringWriter();
+        document = doc;
+        output = pageOutput;
+        currentPageNo = pageNo;
+        try
+        {
+            processPage(page);
+        }
+        finally
+        {
+            resetEngine();
+            output = null;
+        }
+        return pageOutput.toString();
+    }
+
+    private static void cancel(List<FutureTask<String>> tasks)
+    {
+        for (FutureTask<String> task : tasks)
+        {
+            task.cancel(false);
+        }
+    }
+
     private void resetEngine()
     {
         currentPageNo = 0;
@@ -226,6 +488,14 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
         resetEngine();
         document = doc;
         output = outputStream;
+        setUpFormatting();
+        startDocument(document);
+        processPages(document.getPages());
+        endDocument(document);
+    }
+
+    private void setUpFormatting()
+    {
         if (getAddMoreFormatting())
         {
             paragraphEnd = lineSeparator;
@@ -233,9 +503,6 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             articleStart = lineSeparator;
             articleEnd = lineSeparator;
         }
-        startDocument(document);
-        processPages(document.getPages());
-        endDocument(document);
     }
 
     /**
@@ -246,6 +513,80 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
      * @throws IOException If there is an error parsing the text.
      */
     protected void processPages(PDPageTree pages) throws IOException
+    {
+        findBookmarkPageNumbers(pages);
+        Iterator<PDPage> prefetchIterator = streamPrefetcher != null ? pages.iterator() : null;
+        int prefetchPageNo = 0;
+        for (PDPage page : pages)
+        {
+            currentPageNo++;
+            if (prefetchIterator != null)
+            {
+                prefetchPageNo = prefetchPages(prefetchIterator, prefetchPageNo);
+            }
+            if (page.hasContents())
+            {
+                processPage(page);
+            }
+        }
+    }
+
+    // schedules the streams of the current and following pages, as long as the prefetcher has
+    // room for them, returns the number of the last page scheduled
+    private int prefetchPages(Iterator<PDPage> iterator, int pageNo)
+    {
+        while (iterator.hasNext() && pageNo < endPage
+            && (pageNo < currentPageNo || streamPrefetcher.hasCapacity()))
+        {
+            PDPage page = iterator.next();
+            pageNo++;
+            if (pageNo >= currentPageNo && pageNo >= startPage)
+            {
+                prefetchPage(page);
+            }
+        }
+        return pageNo;
+    }
+
+    private void prefetchPage(PDPage page)
+    {
+        COSDictionary pageDictionary = page.getCOSObject();
+        COSBase contents = pageDictionary.getDictionaryObject(COSName.CONTENTS);
+        if (contents instanceof COSStream)
+        {
+            streamPrefetcher.prefetch((COSStream) contents);
+        }
+        else if (contents instanceof COSArray)
+        {
+            COSArray array = (COSArray) contents;
+            for (int i = 0; i < array.size(); i++)
+            {
+                COSBase base = array.getObject(i);
+                if (base instanceof COSStream)
+                {
+                    streamPrefetcher.prefetch((COSStream) base);
+                }
+            }
+        }
+        // form XObjects, images are decoded by the image code
+        PDResources resources = page.getResources();
+        COSDictionary xobjects = resources != null
+            ? resources.getCOSObject().getCOSDictionary(COSName.XOBJECT) : null;
+        if (xobjects != null)
+        {
+            for (COSName name : xobjects.keySet())
+            {
+                COSBase base = xobjects.getDictionaryObject(name);
+                if (base instanceof COSStream
+                    && COSName.FORM.equals(((COSStream) base).getCOSName(COSName.SUBTYPE)))
+                {
+                    streamPrefetcher.prefetch((COSStream) base);
+                }
+            }
+        }
+    }
+
+    private void findBookmarkPageNumbers(PDPageTree pages) throws IOException
     {
         PDPage startBookmarkPage = startBookmark == null ? null
             : startBookmark.findDestinationPage(document);
@@ -281,15 +622,6 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             startBookmarkPageNumber = 0;
             endBookmarkPageNumber = 0;
         }
-
-        for (PDPage page : pages)
-        {
-            currentPageNo++;
-            if (page.hasContents())
-            {
-                processPage(page);
-            }
-        }
     }
 
     /**
@@ -325,9 +657,7 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
     @Override
     public void processPage(PDPage page) throws IOException
     {
-        if (currentPageNo >= startPage && currentPageNo <= endPage
-            && (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber)
-            && (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber))
+        if (isPageInRange())
         {
             startPage(page);
 
@@ -362,6 +692,63 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
             super.processPage(page);
             writePage();
             endPage(page);
+            if (pageTextHandler != null)
+            {
+                handlePageText(page);
+            }
+        }
+    }
+
+    private boolean isPageInRange()
+    {
+        return currentPageNo >= startPage && currentPageNo <= endPage
+            && (startBookmarkPageNumber == -1 || currentPageNo >= startBookmarkPageNumber)
+            && (endBookmarkPageNumber == -1 || currentPageNo <= endBookmarkPageNumber);
+    }
+
+    private void handlePageText(PDPage page) throws IOException
+    {
+        StringBuffer buffer = pageTextOutput.getBuffer();
+        String text = buffer.toString();
+        buffer.setLength(0);
+        pageTextHandler.handlePage(currentPageNo, text, getCharactersByArticle());
+
+        // release the page data before the next page is processed
+        for (List<TextPosition> textPositions : charactersByArticle)
+        {
+            textPositions.clear();
+        }
+        characterListMapping.clear();
+        releaseContents(page.getCOSObject().getItem(COSName.CONTENTS));
+    }
+
+    // drop the content streams of a page if they were loaded on demand, the parser
+    // will load them again if they are needed later
+    private void releaseContents(COSBase contents)
+    {
+        if (contents instanceof COSObject)
+        {
+            COSObject object = (COSObject) contents;
+            if (object.isObjectNull())
+            {
+                return;
+            }
+            COSBase base = object.getObject();
+            if (base instanceof COSArray)
+            {
+                releaseContents(base);
+            }
+            object.unloadObject();
+        }
+        else if (contents instanceof COSArray)
+        {
+            for (COSBase item : (COSArray) contents)
+            {
+                if (item instanceof COSObject)
+                {
+                    releaseContents(item);
+                }
+            }
         }
     }
 
@@ -1170,6 +1557,29 @@ public class PDFTextStripper extends LegacyPDFStreamEngine
         return sortByPosition;
     }
 
+    /**
+     * Sets a prefetcher which decodes the content streams and form XObjects of the next pages in
+     * the background while the current page is processed. It is used by
+     * {@link #writeText(PDDocument, Writer)}, but not by the parallel text extraction. Default is
+     * null.
+     *
+     * @param prefetcher the prefetcher to be used, or null.
+     */
+    public void setStreamPrefetcher(StreamPrefetcher prefetcher)
+    {
+        streamPrefetcher = prefetcher;
+    }
+
+    /**
+     * Returns the prefetcher of the content streams.
+     *
+     * @return the prefetcher, or null if the streams are decoded when needed.
+     */
+    public StreamPrefetcher getStreamPrefetcher()
+    {
+        return streamPrefetcher;
+    }
+
     /**
      * The order of the text tokens in a PDF file may not be in the same as they appear visually on the screen. For
      * example, a PDF writer may write out all text by font, so all bold or larger text, then make a second pass and
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.text;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the text of a document page by page, see
+ * {@link PDFTextStripper#extractText(com.tom_roush.pdfbox.pdmodel.PDDocument, PageTextHandler)}.
+ */
+public interface PageTextHandler
+{
+    /**
+     * Called as soon as the text of a page has been extracted.
+     *
+     * @param pageNumber the 1-based number of the page.
+     * @param text the text of the page, formatted the same way as by
+     * {@link PDFTextStripper#writeText(com.tom_roush.pdfbox.pdmodel.PDDocument, java.io.Writer)}.
+     * @param charactersByArticle the characters of the page grouped by article. The lists are
+     * reused for the next page, so they have to be copied to keep them beyond this call.
+     * @throws IOException if the text can't be processed, this stops the extraction.
+     */
+    void handlePage(int pageNumber, String text, List<List<TextPosition>> charactersByArticle)
+        throws IOException;
+
+    /**
+     * Called once after the last page with the text written after it, e.g. by
+     * {@link PDFTextStripper#endDocument(com.tom_roush.pdfbox.pdmodel.PDDocument)}.
+     *
+     * @param text the text written after the last page, which may be empty.
+     * @throws IOException if the text can't be processed.
+     */
+    void handleDocumentEnd(String text) throws IOException;
+}
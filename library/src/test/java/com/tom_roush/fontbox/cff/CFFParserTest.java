@@ -16,6 +16,7 @@
 package com.tom_roush.fontbox.cff;
 
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -24,7 +25,9 @@ import java.util.List;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 /**
@@ -80,6 +83,44 @@ public class CFFParserTest
             new int[]{146, 150}, stemSnapV);
     }
 
+    /**
+     * Test the lazily sliced CharStrings INDEX, with a first offset other than 1.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCharStringIndex() throws IOException
+    {
+        byte[] bytes = {
+            // prefix, count = 3, offSize = 2, offsets 2, 4, 4, 7
+            9, 0, 3, 2, 0, 2, 0, 4, 0, 4, 0, 7,
+            // data
+            11, 12, 13, 14, 15,
+            // suffix
+            99 };
+        CFFDataInput input = new CFFDataInput(bytes);
+        input.setPosition(1);
+        CharStringIndex index = CharStringIndex.read(input);
+        assertEquals(17, input.getPosition());
+        assertEquals(3, index.size());
+        assertArrayEquals(new byte[] { 11, 12 }, index.get(0));
+        assertArrayEquals(new byte[0], index.get(1));
+        assertArrayEquals(new byte[] { 13, 14, 15 }, index.get(2));
+
+        // an INDEX ending beyond the data
+        input.setPosition(1);
+        bytes[11] = 20;
+        try
+        {
+            CharStringIndex.read(input);
+            fail("EOFException expected");
+        }
+        catch (EOFException e)
+        {
+            // expected
+        }
+    }
+
     private List<CFFFont> readFont(InputStream in) throws IOException
     {
         ByteArrayOutputStream content = new ByteArrayOutputStream();
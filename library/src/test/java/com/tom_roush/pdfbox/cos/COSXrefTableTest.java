@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.cos;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class COSXrefTableTest
+{
+    @Test
+    public void testGenerationsAndSparseNumbers()
+    {
+        COSXrefTable xrefTable = new COSXrefTable();
+        Assert.assertNull(xrefTable.put(new COSObjectKey(1, 0), 15L));
+        // a second generation and numbers out of range go to the hash map
+        Assert.assertNull(xrefTable.put(new COSObjectKey(1, 2), 200L));
+        Assert.assertNull(xrefTable.put(new COSObjectKey(5000000000L, 0), 300L));
+        Assert.assertNull(xrefTable.put(new COSObjectKey(-1, 0), 400L));
+        // objects in object streams have negative offsets
+        Assert.assertNull(xrefTable.put(new COSObjectKey(7, 0), -3L));
+        Assert.assertNull(xrefTable.put(new COSObjectKey(8, 0), null));
+
+        Assert.assertEquals(6, xrefTable.size());
+        Assert.assertEquals(Long.valueOf(15), xrefTable.get(new COSObjectKey(1, 0)));
+        Assert.assertEquals(Long.valueOf(200), xrefTable.get(new COSObjectKey(1, 2)));
+        Assert.assertEquals(Long.valueOf(300), xrefTable.get(new COSObjectKey(5000000000L, 0)));
+        Assert.assertEquals(Long.valueOf(400), xrefTable.get(new COSObjectKey(-1, 0)));
+        Assert.assertEquals(Long.valueOf(-3), xrefTable.get(new COSObjectKey(7, 0)));
+        Assert.assertTrue(xrefTable.containsKey(new COSObjectKey(8, 0)));
+        Assert.assertNull(xrefTable.get(new COSObjectKey(8, 0)));
+        Assert.assertNull(xrefTable.get(new COSObjectKey(7, 1)));
+        Assert.assertFalse(xrefTable.containsKey(new COSObjectKey(2, 0)));
+
+        Assert.assertEquals(Long.valueOf(15), xrefTable.remove(new COSObjectKey(1, 0)));
+        Assert.assertEquals(Long.valueOf(200), xrefTable.get(new COSObjectKey(1, 2)));
+        Assert.assertEquals(5, xrefTable.size());
+    }
+
+    @Test
+    public void testSameAsHashMap()
+    {
+        Map<COSObjectKey, Long> expected = new HashMap<COSObjectKey, Long>();
+        COSXrefTable xrefTable = new COSXrefTable();
+        Random random = new Random(4711);
+        for (int i = 0; i < 100000; i++)
+        {
+            COSObjectKey key = new COSObjectKey(random.nextInt(i % 10 == 0 ? 1000000 : 20000),
+                random.nextInt(20) == 0 ? 1 : 0);
+            if (random.nextInt(5) == 0)
+            {
+                Assert.assertEquals(expected.remove(key), xrefTable.remove(key));
+            }
+            else
+            {
+                Long offset = (long) random.nextInt();
+                Assert.assertEquals(expected.put(key, offset), xrefTable.put(key, offset));
+            }
+        }
+        Assert.assertEquals(expected, xrefTable);
+        Assert.assertEquals(expected.hashCode(), xrefTable.hashCode());
+
+        // remove every other entry while iterating
+        Iterator<Map.Entry<COSObjectKey, Long>> iterator = xrefTable.entrySet().iterator();
+        boolean remove = false;
+        while (iterator.hasNext())
+        {
+            Map.Entry<COSObjectKey, Long> entry = iterator.next();
+            if (remove)
+            {
+                iterator.remove();
+                expected.remove(entry.getKey());
+            }
+            remove = !remove;
+        }
+        Assert.assertEquals(expected, xrefTable);
+    }
+
+    @Test
+    public void testIterationOrder()
+    {
+        COSXrefTable xrefTable = new COSXrefTable();
+        for (int i = 100; i > 0; i--)
+        {
+            xrefTable.put(new COSObjectKey(i, 0), (long) i * 10);
+        }
+        long previous = 0;
+        for (Map.Entry<COSObjectKey, Long> entry : xrefTable.entrySet())
+        {
+            Assert.assertTrue(entry.getKey().getNumber() > previous);
+            Assert.assertEquals(entry.getKey().getNumber() * 10, entry.getValue().longValue());
+            previous = entry.getKey().getNumber();
+        }
+        Assert.assertEquals(100, previous);
+    }
+}
@@ -18,6 +18,7 @@ package com.tom_roush.pdfbox.cos;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import com.tom_roush.pdfbox.pdmodel.PDPage;
@@ -49,4 +50,37 @@ public class TestCOSName
         document.close();
     }
 
+    @Test
+    public void testGetPDFNameFromBytes() throws IOException
+    {
+        byte[] bytes = "xxTypeFontDescriptorxx".getBytes("US-ASCII");
+        // common names are the static instances
+        Assert.assertSame(COSName.TYPE, COSName.getPDFName(bytes, 2, 4));
+        Assert.assertSame(COSName.FONT_DESC, COSName.getPDFName(bytes, 6, 14));
+        Assert.assertSame(COSName.getPDFName("Typ"), COSName.getPDFName(bytes, 2, 3));
+        Assert.assertEquals("", COSName.getPDFName(bytes, 0, 0).getName());
+
+        byte[] utf8 = "中国".getBytes("UTF-8");
+        Assert.assertEquals("中国", COSName.getPDFName(utf8, 0, utf8.length).getName());
+        // not UTF-8, PDFBOX-3347
+        byte[] windows1252 = { 'A', (byte) 0xe4, 'B' };
+        Assert.assertEquals("A\u00e4B", COSName.getPDFName(windows1252, 0, 3).getName());
+    }
+
+    @Test
+    public void testUncommonNamesAreReleased() throws InterruptedException
+    {
+        String string = "UncommonName" + System.nanoTime();
+        COSName name = COSName.getPDFName(string);
+        Assert.assertSame(name, COSName.getPDFName(new String(string)));
+        WeakReference<COSName> reference = new WeakReference<COSName>(name);
+        name = null;
+        for (int i = 0; i < 50 && reference.get() != null; i++)
+        {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(reference.get());
+        Assert.assertEquals(string, COSName.getPDFName(string).getName());
+    }
 }
@@ -20,7 +20,12 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.tom_roush.pdfbox.filter.Filter;
 import com.tom_roush.pdfbox.filter.FilterFactory;
@@ -148,6 +153,133 @@ public class TestCOSStream extends TestCase
         validateEncoded(stream, testStringEncoded);
     }
 
+    /**
+     * Tests that streams decoded by a StreamPrefetcher are read correctly.
+     *
+     * @throws IOException
+     */
+    public void testPrefetchedStreamDecode() throws IOException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        StreamPrefetcher prefetcher = new StreamPrefetcher(executor, 2, 1 << 20);
+        try
+        {
+            List<COSStream> streams = new ArrayList<COSStream>();
+            for (int i = 0; i < 20; i++)
+            {
+                COSStream stream = createStream(createTestData(i), COSName.FLATE_DECODE);
+                assertTrue(prefetcher.prefetch(stream));
+                streams.add(stream);
+            }
+            for (int i = 0; i < streams.size(); i++)
+            {
+                validateDecoded(streams.get(i), createTestData(i));
+            }
+            assertEquals(0, prefetcher.getBytesInFlight());
+        }
+        finally
+        {
+            prefetcher.close();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Tests the byte limit of a StreamPrefetcher and the streams it doesn't decode itself.
+     *
+     * @throws IOException
+     */
+    public void testPrefetchLimit() throws IOException
+    {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor executor = createCapturingExecutor(tasks);
+        COSStream stream1 = createStream(createTestData(1), COSName.FLATE_DECODE);
+        COSStream stream2 = createStream(createTestData(2), COSName.FLATE_DECODE);
+        COSStream stream3 = createStream(createTestData(3), null);
+        StreamPrefetcher prefetcher = new StreamPrefetcher(executor, 1, stream2.getLength());
+
+        assertTrue(prefetcher.prefetch(stream2));
+        assertFalse(prefetcher.hasCapacity());
+        assertFalse(prefetcher.prefetch(stream1));
+        assertFalse(prefetcher.prefetch(stream3));
+        assertEquals(1, tasks.size());
+
+        // not started yet, decoded by the caller
+        validateDecoded(stream2, createTestData(2));
+        assertEquals(0, prefetcher.getBytesInFlight());
+        assertTrue(prefetcher.hasCapacity());
+
+        // the decoded data exceeds the limit until it is read
+        assertTrue(prefetcher.prefetch(stream1));
+        tasks.remove(0).run();
+        assertEquals(createTestData(1).length, prefetcher.getBytesInFlight());
+        assertFalse(prefetcher.hasCapacity());
+        validateDecoded(stream1, createTestData(1));
+        assertEquals(0, prefetcher.getBytesInFlight());
+        prefetcher.close();
+        assertFalse(prefetcher.prefetch(stream1));
+    }
+
+    /**
+     * Tests that prefetched data is dropped when the stream is written.
+     *
+     * @throws IOException
+     */
+    public void testPrefetchedStreamRewritten() throws IOException
+    {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor executor = createCapturingExecutor(tasks);
+        StreamPrefetcher prefetcher = new StreamPrefetcher(executor, 1, 1 << 20);
+        COSStream stream = createStream(createTestData(1), COSName.FLATE_DECODE);
+        assertTrue(prefetcher.prefetch(stream));
+        tasks.remove(0).run();
+        assertTrue(prefetcher.getBytesInFlight() > 0);
+
+        OutputStream output = stream.createOutputStream(COSName.FLATE_DECODE);
+        output.write(createTestData(2));
+        output.close();
+        assertEquals(0, prefetcher.getBytesInFlight());
+        validateDecoded(stream, createTestData(2));
+        prefetcher.close();
+    }
+
+    /**
+     * Tests that a stream decoded while it is read reports the stream parameters.
+     *
+     * @throws IOException
+     */
+    public void testDecodeResultParameters() throws IOException
+    {
+        COSStream stream = createStream(createTestData(1), COSName.FLATE_DECODE);
+        COSInputStream input = stream.createInputStream();
+        assertSame(stream, input.getDecodeResult().getParameters());
+        input.close();
+        stream.close();
+    }
+
+    // an executor which only collects the tasks, so that the test decides when they run
+    private Executor createCapturingExecutor(final List<Runnable> tasks)
+    {
+        return new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                tasks.add(command);
+            }
+        };
+    }
+
+    private byte[] createTestData(int n) throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100 * (n + 1); i++)
+        {
+            sb.append(n).append(" 0 0 ").append(i).append(" re f\n");
+        }
+        return sb.toString().getBytes("ASCII");
+    }
+
     private byte[] encodeData(byte[] original, COSName filter) throws IOException
     {
         Filter encodingFilter = FilterFactory.INSTANCE.getFilter(filter);
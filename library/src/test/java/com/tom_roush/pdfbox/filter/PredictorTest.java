@@ -15,10 +15,13 @@
  */
 package com.tom_roush.pdfbox.filter;
 
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import static com.tom_roush.pdfbox.filter.Predictor.calcSetBitSeq;
+import static com.tom_roush.pdfbox.filter.Predictor.decodePredictorRow;
 import static com.tom_roush.pdfbox.filter.Predictor.getBitSeq;
 
 /**
@@ -86,4 +89,79 @@ public class PredictorTest
         // check truncation
         Assert.assertEquals(Integer.parseInt("00000010", 2), calcSetBitSeq(Integer.parseInt("00000000", 2), 1, 1, 3));
     }
+
+    /**
+     * Compare the PNG predictors and the 8 bit TIFF predictor of decodePredictorRow with a plain
+     * implementation of the PNG specification, for different pixel sizes and row lengths.
+     */
+    @Test
+    public void testDecodePredictorRow()
+    {
+        Random random = new Random(4711);
+        int[][] formats = { { 1, 8 }, { 3, 8 }, { 4, 8 }, { 2, 8 }, { 1, 16 }, { 3, 16 }, { 4, 16 } };
+        for (int[] format : formats)
+        {
+            int colors = format[0];
+            int bitsPerComponent = format[1];
+            int bytesPerPixel = colors * bitsPerComponent / 8;
+            for (int columns = 0; columns < 20; columns++)
+            {
+                int rowLength = Predictor.calculateRowLength(colors, bitsPerComponent, columns);
+                byte[] lastline = new byte[rowLength];
+                random.nextBytes(lastline);
+                for (int predictor = 10; predictor <= 14; predictor++)
+                {
+                    byte[] actline = new byte[rowLength];
+                    random.nextBytes(actline);
+                    byte[] expected = decodePNG(predictor, bytesPerPixel, actline, lastline);
+                    decodePredictorRow(predictor, colors, bitsPerComponent, columns, actline, lastline);
+                    Assert.assertArrayEquals(expected, actline);
+                }
+                if (bitsPerComponent == 8)
+                {
+                    byte[] actline = new byte[rowLength];
+                    random.nextBytes(actline);
+                    byte[] expected = decodePNG(11, bytesPerPixel, actline, lastline);
+                    decodePredictorRow(2, colors, bitsPerComponent, columns, actline, lastline);
+                    Assert.assertArrayEquals(expected, actline);
+                }
+            }
+        }
+    }
+
+    private static byte[] decodePNG(int predictor, int bytesPerPixel, byte[] row, byte[] lastline)
+    {
+        byte[] result = row.clone();
+        for (int i = 0; i < result.length; i++)
+        {
+            int a = i >= bytesPerPixel ? result[i - bytesPerPixel] & 0xff : 0;
+            int b = lastline[i] & 0xff;
+            int c = i >= bytesPerPixel ? lastline[i - bytesPerPixel] & 0xff : 0;
+            int predicted;
+            switch (predictor)
+            {
+                case 11:
+                    predicted = a;
+                    break;
+                case 12:
+                    predicted = b;
+                    break;
+                case 13:
+                    predicted = (a + b) / 2;
+                    break;
+                case 14:
+                    int estimate = a + b - c;
+                    int pa = Math.abs(estimate - a);
+                    int pb = Math.abs(estimate - b);
+                    int pc = Math.abs(estimate - c);
+                    predicted = pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+                    break;
+                default:
+                    predicted = 0;
+                    break;
+            }
+            result[i] = (byte) (result[i] + predicted);
+        }
+        return result;
+    }
 }
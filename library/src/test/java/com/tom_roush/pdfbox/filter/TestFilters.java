@@ -20,6 +20,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -30,6 +31,8 @@ import com.tom_roush.pdfbox.pdmodel.PDDocument;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 
@@ -151,6 +154,167 @@ public class TestFilters
         checkEncodeDecode(lzwFilter, byteArray);
     }
 
+    /**
+     * This will test the LZW filter with the example of the PDF specification.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLZWSpecificationExample() throws IOException
+    {
+        Filter lzwFilter = FilterFactory.INSTANCE.getFilter(COSName.LZW_DECODE);
+        byte[] original = { 45, 45, 45, 45, 45, 65, 45, 45, 45, 66 };
+        // followed by the padding of the encoder
+        byte[] expected = { (byte) 0x80, 0x0B, 0x60, 0x50, 0x22, 0x0C, 0x0C, (byte) 0x85, 0x01, 0 };
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        lzwFilter.encode(new ByteArrayInputStream(original), encoded, new COSDictionary());
+        assertArrayEquals(expected, encoded.toByteArray());
+        checkEncodeDecode(lzwFilter, original);
+    }
+
+    /**
+     * This will test the LZW filter with data filling the code table several times.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLZWCodeTableReset() throws IOException
+    {
+        Filter lzwFilter = FilterFactory.INSTANCE.getFilter(COSName.LZW_DECODE);
+        Random rd = new Random(4711);
+        for (int alphabet : new int[] { 2, 16, 256 })
+        {
+            byte[] original = new byte[100000];
+            for (int i = 0; i < original.length; i++)
+            {
+                original[i] = (byte) rd.nextInt(alphabet);
+            }
+            checkEncodeDecode(lzwFilter, original);
+        }
+    }
+
+    /**
+     * This will test that the Flate filter decodes the same data while reading as when decoding
+     * into an OutputStream, also for truncated streams and with predictors.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testFlateDecodingStream() throws IOException
+    {
+        checkDecodingStream(FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE));
+    }
+
+    /**
+     * Test that the LZW decoding stream returns the same data as decode(), with and without
+     * predictor.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLZWDecodingStream() throws IOException
+    {
+        checkDecodingStream(FilterFactory.INSTANCE.getFilter(COSName.LZW_DECODE));
+    }
+
+    private void checkDecodingStream(Filter filter) throws IOException
+    {
+        Random rd = new Random(815);
+        byte[] original = new byte[300001];
+        for (int i = 0; i < original.length; i++)
+        {
+            original[i] = (byte) rd.nextInt(i % 1000 < 500 ? 4 : 256);
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        filter.encode(new ByteArrayInputStream(original), encoded, new COSDictionary());
+        byte[] encodedBytes = encoded.toByteArray();
+
+        for (int predictor : new int[] { 1, 2, 10, 11, 12, 13, 14, 15 })
+        {
+            COSDictionary decodeParams = new COSDictionary();
+            decodeParams.setInt(COSName.PREDICTOR, predictor);
+            decodeParams.setInt(COSName.COLORS, 3);
+            decodeParams.setInt(COSName.COLUMNS, 100);
+            COSDictionary parameters = new COSDictionary();
+            parameters.setItem(COSName.DECODE_PARMS, decodeParams);
+
+            for (int length : new int[] { encodedBytes.length, encodedBytes.length / 2, 100 })
+            {
+                byte[] data = Arrays.copyOf(encodedBytes, length);
+                ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+                filter.decode(new ByteArrayInputStream(data), decoded, parameters, 0);
+                byte[] expected = decoded.toByteArray();
+
+                InputStream decoding = filter.createDecodingStream(
+                    new ByteArrayInputStream(data), parameters, 0);
+                // read in small pieces to refill the decoder input several times
+                ByteArrayOutputStream read = new ByteArrayOutputStream();
+                byte[] buffer = new byte[777];
+                int n;
+                while ((n = decoding.read(buffer)) != -1)
+                {
+                    read.write(buffer, 0, n);
+                }
+                decoding.close();
+                assertArrayEquals(expected, read.toByteArray());
+
+                // skipped data must not change the remaining data
+                decoding = filter.createDecodingStream(new ByteArrayInputStream(data),
+                    parameters, 0);
+                long skipped = decoding.skip(12345);
+                assertEquals(Math.min(12345, expected.length), skipped);
+                byte[] rest = IOUtils.toByteArray(decoding);
+                decoding.close();
+                assertArrayEquals(Arrays.copyOfRange(expected, (int) skipped, expected.length),
+                    rest);
+
+                // single bytes, mixed with block reads, must be the same as read(byte[])
+                decoding = filter.createDecodingStream(new ByteArrayInputStream(data),
+                    parameters, 0);
+                read.reset();
+                int b;
+                while ((b = decoding.read()) != -1)
+                {
+                    read.write(b);
+                    if (read.size() % 1000 == 0 && (n = decoding.read(buffer)) > 0)
+                    {
+                        read.write(buffer, 0, n);
+                    }
+                }
+                assertEquals(0, decoding.available());
+                decoding.close();
+                assertArrayEquals(expected, read.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Test that the Flate decoding stream reports the bytes which can be read without blocking.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testFlateDecodingStreamAvailable() throws IOException
+    {
+        Filter filter = FilterFactory.INSTANCE.getFilter(COSName.FLATE_DECODE);
+        byte[] original = new byte[10000];
+        Arrays.fill(original, (byte) 'x');
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        filter.encode(new ByteArrayInputStream(original), encoded, new COSDictionary());
+
+        InputStream decoding = filter.createDecodingStream(
+            new ByteArrayInputStream(encoded.toByteArray()), new COSDictionary(), 0);
+        assertEquals('x', decoding.read());
+        int available = decoding.available();
+        assertTrue(available > 1);
+        byte[] buffer = new byte[available];
+        assertEquals(available, decoding.read(buffer));
+        assertEquals(original.length - 1 - available, IOUtils.toByteArray(decoding).length);
+        assertEquals(0, decoding.available());
+        decoding.close();
+    }
+
     private void checkEncodeDecode(Filter filter, byte[] original) throws IOException
     {
         ByteArrayOutputStream encoded = new ByteArrayOutputStream();
@@ -17,6 +17,14 @@
 package com.tom_roush.pdfbox.io;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Assert;
 
 import org.junit.Test;
@@ -58,4 +66,126 @@ public class ScratchFileBufferTest
       }
       scratchFile.close();
    }
+
+   /**
+    * Test that buffers of a memory mapped scratch file keep their data, also beyond the first
+    * mapped region, and that released pages are used again.
+    *
+    * @throws IOException
+    */
+   @Test
+   public void testMappedScratchFile() throws IOException
+   {
+      ScratchFile scratchFile = new ScratchFile(
+          MemoryUsageSetting.setupTempFileOnly().setUseMemoryMappedScratchFile(true));
+      // more than the 4096 pages of a mapped region
+      byte[] data = createData(5000 * PAGE_SIZE + 123, 1);
+      RandomAccess buffer = scratchFile.createBuffer();
+      buffer.write(data);
+      checkData(buffer, data);
+
+      int pageIdx = scratchFile.getNewPage();
+      scratchFile.markPagesAsFree(new int[] { pageIdx }, 0, 1);
+      buffer.close();
+      // the pages of the closed buffer are free again
+      for (int i = 0; i < 5001; i++)
+      {
+         Assert.assertTrue(scratchFile.getNewPage() <= 5001);
+      }
+      scratchFile.close();
+   }
+
+   /**
+    * Test that pages of a memory mapped scratch file are held in memory as far as allowed and
+    * that the storage restriction is honored.
+    *
+    * @throws IOException
+    */
+   @Test
+   public void testMappedScratchFileMixed() throws IOException
+   {
+      ScratchFile scratchFile = new ScratchFile(MemoryUsageSetting.setupMixed(
+          2 * PAGE_SIZE, 10 * PAGE_SIZE).setUseMemoryMappedScratchFile(true));
+      byte[] data = createData(10 * PAGE_SIZE, 2);
+      RandomAccess buffer = scratchFile.createBuffer();
+      buffer.write(data);
+      checkData(buffer, data);
+      try
+      {
+         buffer.write(1);
+         Assert.fail("IOException expected");
+      }
+      catch (IOException e)
+      {
+         // expected, all pages are used
+      }
+      scratchFile.close();
+   }
+
+   /**
+    * Test buffers of a memory mapped scratch file used by several threads at the same time.
+    *
+    * @throws Exception
+    */
+   @Test
+   public void testMappedScratchFileConcurrentBuffers() throws Exception
+   {
+      final ScratchFile scratchFile = new ScratchFile(
+          MemoryUsageSetting.setupTempFileOnly().setUseMemoryMappedScratchFile(true));
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         List<Future<Void>> results = new ArrayList<Future<Void>>();
+         for (int i = 0; i < 8; i++)
+         {
+            final int seed = i;
+            results.add(executor.submit(new Callable<Void>()
+            {
+               @Override
+               public Void call() throws IOException
+               {
+                  for (int j = 0; j < 10; j++)
+                  {
+                     byte[] data = createData(100 * PAGE_SIZE + seed, seed * 10 + j);
+                     RandomAccess buffer = scratchFile.createBuffer();
+                     buffer.write(data);
+                     checkData(buffer, data);
+                     buffer.close();
+                  }
+                  return null;
+               }
+            }));
+         }
+         for (Future<Void> result : results)
+         {
+            result.get();
+         }
+      }
+      finally
+      {
+         executor.shutdown();
+         scratchFile.close();
+      }
+   }
+
+   private static byte[] createData(int length, long seed)
+   {
+      byte[] data = new byte[length];
+      new Random(seed).nextBytes(data);
+      return data;
+   }
+
+   private static void checkData(RandomAccess buffer, byte[] expected) throws IOException
+   {
+      buffer.seek(0);
+      byte[] actual = new byte[expected.length];
+      int offset = 0;
+      while (offset < actual.length)
+      {
+         int read = buffer.read(actual, offset, actual.length - offset);
+         Assert.assertTrue(read > 0);
+         offset += read;
+      }
+      Assert.assertArrayEquals(expected, actual);
+   }
 }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.tom_roush.pdfbox.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This is a unit test for {@link RandomAccessMemoryMappedFile}.
+ */
+public class TestRandomAccessMemoryMappedFile
+{
+    // use tiny chunks of 16 bytes to test reads across chunk borders
+    private static final int CHUNK_SHIFT = 4;
+
+    private File file;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        content = new byte[100];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) i;
+        }
+        file = File.createTempFile("pdfbox", ".bin");
+        FileOutputStream fos = new FileOutputStream(file);
+        fos.write(content);
+        fos.close();
+    }
+
+    @After
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void testReadAcrossChunks() throws IOException
+    {
+        RandomAccessMemoryMappedFile raf = new RandomAccessMemoryMappedFile(file, CHUNK_SHIFT);
+        assertEquals(100, raf.length());
+        for (int i = 0; i < 20; i++)
+        {
+            assertEquals(i, raf.read());
+        }
+        byte[] buffer = new byte[50];
+        raf.seek(10);
+        assertEquals(50, raf.read(buffer));
+        for (int i = 0; i < 50; i++)
+        {
+            assertEquals(10 + i, buffer[i]);
+        }
+        assertEquals(60, raf.getPosition());
+        assertEquals(60, raf.peek());
+        raf.rewind(5);
+        assertEquals(55, raf.read());
+
+        raf.seek(90);
+        assertEquals(10, raf.read(buffer));
+        assertTrue(raf.isEOF());
+        assertEquals(-1, raf.read());
+        assertEquals(-1, raf.read(buffer));
+        raf.close();
+        assertTrue(raf.isClosed());
+    }
+
+    @Test
+    public void testReadFully() throws IOException
+    {
+        RandomAccessMemoryMappedFile raf = new RandomAccessMemoryMappedFile(file, CHUNK_SHIFT);
+        raf.seek(30);
+        byte[] expected = new byte[40];
+        System.arraycopy(content, 30, expected, 0, 40);
+        assertArrayEquals(expected, raf.readFully(40));
+        try
+        {
+            raf.readFully(40);
+            fail("EOFException expected");
+        }
+        catch (EOFException e)
+        {
+            // expected
+        }
+        raf.close();
+    }
+
+    @Test
+    public void testView() throws IOException
+    {
+        RandomAccessMemoryMappedFile raf = new RandomAccessMemoryMappedFile(file, CHUNK_SHIFT);
+        RandomAccessMemoryMappedFile view = raf.createView(20, 30);
+        assertEquals(30, view.length());
+        assertEquals(0, view.getPosition());
+        assertEquals(20, view.read());
+        // the view has its own position
+        assertEquals(0, raf.getPosition());
+        byte[] expected = new byte[29];
+        System.arraycopy(content, 21, expected, 0, 29);
+        assertArrayEquals(expected, view.readFully(29));
+        assertTrue(view.isEOF());
+
+        RandomAccessMemoryMappedFile subView = view.createView(5, 5);
+        assertEquals(25, subView.read());
+        try
+        {
+            view.createView(20, 20);
+            fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+
+        raf.close();
+        assertTrue(view.isClosed());
+        assertTrue(subView.isClosed());
+    }
+
+    @Test
+    public void testCloseView() throws IOException
+    {
+        RandomAccessMemoryMappedFile raf = new RandomAccessMemoryMappedFile(file);
+        RandomAccessMemoryMappedFile view = raf.createView(0, 10);
+        view.close();
+        assertTrue(view.isClosed());
+        assertFalse(raf.isClosed());
+        assertEquals(0, raf.read());
+        raf.close();
+    }
+}
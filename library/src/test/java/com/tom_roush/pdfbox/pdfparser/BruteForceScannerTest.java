@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdfparser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.tom_roush.pdfbox.io.RandomAccessBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BruteForceScannerTest
+{
+    @Test
+    public void testMarkers() throws IOException
+    {
+        String pdf = "%PDF-1.4\n"
+            + "1 0 obj\n<< /Type /Catalog >>\nendobj\n"
+            + "12 3 obj\n<< /Type /ObjStm /N 1 /First 4 >>\nstream\nendstream\nendobj\n"
+            + "7 0 obj\n<< /Type /XRef >>\nendobj\n"
+            + "xref\n0 1\n0000000000 65535 f\r\n"
+            + "trailer\n<< /Root 1 0 R >>\nstartxref\n0\n%%EOF\n"
+            + "8 0 obj\n<< >>\nendo";
+        byte[] bytes = pdf.getBytes("ISO-8859-1");
+        RandomAccessBuffer source = new RandomAccessBuffer(bytes);
+        source.seek(3);
+        BruteForceScanner scanner = new BruteForceScanner(source, 6);
+        assertEquals(3, source.getPosition());
+
+        assertEquals(4, scanner.getObjectCount());
+        assertObject(scanner, 0, pdf.indexOf("1 0 obj"), 1, 0);
+        assertObject(scanner, 1, pdf.indexOf("12 3 obj"), 12, 3);
+        assertObject(scanner, 2, pdf.indexOf("7 0 obj"), 7, 0);
+        assertObject(scanner, 3, pdf.indexOf("8 0 obj"), 8, 0);
+        assertEquals(pdf.indexOf("endobj"), scanner.getObjectEnd(0));
+        // the truncated "endo" at the end of the file
+        assertEquals(pdf.lastIndexOf("endo"), scanner.getObjectEnd(3));
+
+        // "startxref" isn't an xref table
+        assertArrayEquals(new long[] { pdf.indexOf("xref\n0 1") }, scanner.getXRefTables());
+        assertArrayEquals(new long[] { pdf.indexOf("7 0 obj") }, scanner.getXRefStreams());
+        assertArrayEquals(new long[] { pdf.indexOf("trailer") }, scanner.getTrailers());
+        assertArrayEquals(new long[] { pdf.indexOf("%%EOF") }, scanner.getEOFMarkers());
+
+        assertEquals(1, scanner.getObjectStreamCount());
+        assertEquals(pdf.indexOf("12 3 obj"), scanner.getObjectStreamOffset(0));
+        assertEquals(12, scanner.getObjectStreamNumber(0));
+        assertEquals(3, scanner.getObjectStreamGeneration(0));
+    }
+
+    @Test
+    public void testMarkersAcrossBlocks() throws IOException
+    {
+        // place the markers around the block boundaries of the scanner
+        StringBuilder builder = new StringBuilder("%PDF-1.4\n");
+        int count = 0;
+        while (builder.length() < 300000)
+        {
+            builder.append(++count).append(" 0 obj\n<< /Length 3 >>\nendobj\n");
+            char[] padding = new char[count * 7 % 211];
+            Arrays.fill(padding, ' ');
+            builder.append(padding);
+        }
+        builder.append("trailer\n<< >>\n%%EOF\n");
+        String pdf = builder.toString();
+        BruteForceScanner scanner = new BruteForceScanner(
+            new RandomAccessBuffer(pdf.getBytes("ISO-8859-1")), 6);
+
+        assertEquals(count, scanner.getObjectCount());
+        int offset = 0;
+        for (int i = 0; i < count; i++)
+        {
+            offset = pdf.indexOf(" 0 obj", offset + 1);
+            String number = String.valueOf(i + 1);
+            assertObject(scanner, i, offset - number.length(), i + 1, 0);
+            assertEquals(pdf.indexOf("endobj", offset), scanner.getObjectEnd(i));
+        }
+        assertArrayEquals(new long[] { pdf.indexOf("trailer") }, scanner.getTrailers());
+        assertArrayEquals(new long[] { pdf.indexOf("%%EOF") }, scanner.getEOFMarkers());
+    }
+
+    private static void assertObject(BruteForceScanner scanner, int index, long offset,
+        long number, int generation)
+    {
+        assertEquals(offset, scanner.getObjectOffset(index));
+        assertEquals(number, scanner.getObjectNumber(index));
+        assertEquals(generation, scanner.getObjectGeneration(index));
+    }
+}
@@ -131,4 +131,37 @@ public class InputStreamSourceTest
 
       inputStreamSource.close();
    }
+
+   @Test
+   public void testUnreadAcrossBlocks() throws IOException
+   {
+      byte[] inputValues = new byte[10000];
+      for (int i = 0; i < inputValues.length; i++)
+      {
+         inputValues[i] = (byte) i;
+      }
+      ByteArrayInputStream bais = new ByteArrayInputStream(inputValues);
+
+      InputStreamSource inputStreamSource = new InputStreamSource(bais);
+
+      // read beyond the first block, then put back more than the current block holds
+      byte[] readBytes = new byte[5000];
+      for (int i = 0; i < readBytes.length; i++)
+      {
+         readBytes[i] = (byte) inputStreamSource.read();
+      }
+      Assert.assertEquals(5000, inputStreamSource.getPosition());
+      inputStreamSource.unread(readBytes, 100, 4900);
+      Assert.assertEquals(100, inputStreamSource.getPosition());
+      Assert.assertEquals(100, inputStreamSource.peek());
+      byte[] allBytes = inputStreamSource.readFully(9900);
+      for (int i = 0; i < allBytes.length; i++)
+      {
+         Assert.assertEquals(inputValues[i + 100], allBytes[i]);
+      }
+      Assert.assertTrue(inputStreamSource.isEOF());
+      Assert.assertEquals(-1, inputStreamSource.read());
+
+      inputStreamSource.close();
+   }
 }
@@ -16,10 +16,16 @@
 package com.tom_roush.pdfbox.pdfparser;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
+import com.tom_roush.pdfbox.contentstream.operator.OperandList;
 import com.tom_roush.pdfbox.contentstream.operator.Operator;
 import com.tom_roush.pdfbox.contentstream.operator.OperatorName;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSFloat;
+import com.tom_roush.pdfbox.cos.COSInteger;
+import com.tom_roush.pdfbox.cos.COSNumber;
 
 import junit.framework.TestCase;
 
@@ -123,4 +129,107 @@ public class PDFStreamParserTest extends TestCase
         return pdfStreamParser.getTokens();
     }
 
+
+    /**
+     * Checks that parseNextOperator() returns the same operands and operators as parse().
+     *
+     * @throws IOException
+     */
+    public void testParseNextOperator() throws IOException
+    {
+        testSameTokens("1 0 0 1 72 720 cm 0.5 w -2.5 +.5 .25 5. 0.-262 --3 -0 m");
+        testSameTokens("12345678901234567890 1.5e3 999999999999 l");
+        testSameTokens("BT /F1 12 Tf 14.4 TL (Hello \\(World\\)) Tj [(A) -120 (B)] TJ ET");
+        testSameTokens("/OC /MC0 BDC 0 0 1 rg f* B* b* true false null d0 EMC");
+        testSameTokens("q BI /W 5 /H 1 /BPC 8 /CS /G ID\n12345EI Q");
+        testSameTokens("<48656c6c6f> Tj <</Type /Foo>> gs 1 2 3 4 re W n");
+    }
+
+    /**
+     * Checks the number slots of OperandList.
+     */
+    public void testOperandList()
+    {
+        OperandList operands = new OperandList();
+        operands.addInteger(3);
+        operands.addFloat(-1.5f);
+        operands.add(COSInteger.get(7));
+        assertEquals(3, operands.size());
+        assertTrue(operands.isNumber(0));
+        assertTrue(operands.isNumber(1));
+        assertTrue(operands.isNumber(2));
+        assertEquals(3f, operands.getFloat(0));
+        assertEquals(-1.5f, operands.getFloat(1));
+        assertEquals(7, operands.getInt(2));
+        assertEquals(COSInteger.get(3), operands.get(0));
+        assertEquals(-1.5f, ((COSFloat) operands.get(1)).floatValue());
+        assertSame(operands.get(1), operands.get(1));
+
+        operands.set(0, new COSFloat(2.5f));
+        assertEquals(2.5f, operands.getFloat(0));
+        operands.remove(1);
+        assertEquals(2, operands.size());
+        assertEquals(7f, operands.getFloat(1));
+        operands.add(0, COSInteger.ONE);
+        assertEquals(1, operands.getInt(0));
+        assertEquals(2.5f, operands.getFloat(1));
+
+        operands.clear();
+        assertTrue(operands.isEmpty());
+        try
+        {
+            operands.getFloat(0);
+            fail("IndexOutOfBoundsException expected");
+        }
+        catch (IndexOutOfBoundsException expected)
+        {
+        }
+    }
+
+    private void testSameTokens(String s) throws IOException
+    {
+        List<Object> expected = parseTokenString(s);
+
+        List<Object> actual = new ArrayList<Object>();
+        PDFStreamParser parser = new PDFStreamParser(s.getBytes());
+        OperandList operands = new OperandList();
+        Operator operator;
+        while ((operator = parser.parseNextOperator(operands)) != null)
+        {
+            actual.addAll(operands);
+            actual.add(operator);
+            operands.clear();
+        }
+        actual.addAll(operands);
+
+        assertEquals(s, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            Object e = expected.get(i);
+            Object a = actual.get(i);
+            if (e instanceof Operator)
+            {
+                assertTrue(s, a instanceof Operator);
+                assertEquals(s, ((Operator) e).getName(), ((Operator) a).getName());
+                assertEquals(s, String.valueOf(((Operator) e).getImageParameters()),
+                    String.valueOf(((Operator) a).getImageParameters()));
+                byte[] imageData = ((Operator) e).getImageData();
+                if (imageData != null)
+                {
+                    assertArrayEquals(imageData, ((Operator) a).getImageData());
+                }
+            }
+            else if (e instanceof COSNumber)
+            {
+                assertEquals(s, e.getClass(), a.getClass());
+                assertEquals(s, ((COSNumber) e).floatValue(), ((COSNumber) a).floatValue(), 0f);
+                assertEquals(s, ((COSNumber) e).longValue(), ((COSNumber) a).longValue());
+            }
+            else
+            {
+                assertEquals(s, String.valueOf(e), String.valueOf(a));
+            }
+        }
+    }
+
 }
@@ -25,15 +25,32 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.tom_roush.pdfbox.cos.COSArray;
+import com.tom_roush.pdfbox.cos.COSDictionary;
 import com.tom_roush.pdfbox.cos.COSDocument;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.io.IOUtils;
 import com.tom_roush.pdfbox.io.MemoryUsageSetting;
 import com.tom_roush.pdfbox.io.RandomAccessBufferedFileInputStream;
+import com.tom_roush.pdfbox.io.RandomAccessMemoryMappedFile;
 import com.tom_roush.pdfbox.io.RandomAccessRead;
 import com.tom_roush.pdfbox.io.ScratchFile;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import com.tom_roush.pdfbox.pdmodel.PDDocumentInformation;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
 import com.tom_roush.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
 import com.tom_roush.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
 import com.tom_roush.pdfbox.util.DateConverter;
@@ -41,8 +58,12 @@ import com.tom_roush.pdfbox.util.DateConverter;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 public class TestPDFParser
@@ -114,6 +135,303 @@ public class TestPDFParser
         executeParserTest(new RandomAccessBufferedFileInputStream(new FileInputStream(PATH_OF_PDF)), MemoryUsageSetting.setupTempFileOnly());
     }
 
+    @Test
+    public void testPDFParserMemoryMappedFile() throws IOException
+    {
+        executeParserTest(new RandomAccessMemoryMappedFile(new File(PATH_OF_PDF)), MemoryUsageSetting.setupMainMemoryOnly());
+    }
+
+    /**
+     * Test that streams read straight from a memory mapped file have the same content as streams
+     * copied from the file.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testMemoryMappedStreams() throws IOException
+    {
+        PDDocument doc = PDDocument.load(new File(PATH_OF_PDF));
+        PDDocument mappedDoc = PDDocument.load(new File(PATH_OF_PDF),
+            MemoryUsageSetting.setupMainMemoryOnly().setUseMemoryMappedInput(true));
+        assertEquals(doc.getNumberOfPages(), mappedDoc.getNumberOfPages());
+        for (int i = 0; i < doc.getNumberOfPages(); i++)
+        {
+            InputStream is = doc.getPage(i).getContents();
+            InputStream mappedIs = mappedDoc.getPage(i).getContents();
+            assertArrayEquals(IOUtils.toByteArray(is), IOUtils.toByteArray(mappedIs));
+            is.close();
+            mappedIs.close();
+        }
+        mappedDoc.close();
+        doc.close();
+    }
+
+    /**
+     * Test that objects loaded on demand, with and without a restriction of the objects kept in
+     * memory, are the same as the ones parsed up front.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testLazyObjectLoading() throws IOException
+    {
+        checkLazyObjectLoading(new File("src/test/resources/pdfbox/input/cweb.pdf"));
+        // contains object streams
+        checkLazyObjectLoading(new File("src/test/resources/pdfbox/input/sampleForSpec.pdf"));
+    }
+
+    private void checkLazyObjectLoading(File file) throws IOException
+    {
+        PDDocument doc = PDDocument.load(file);
+        PDDocument lazyDoc = PDDocument.load(file,
+            MemoryUsageSetting.setupMainMemoryOnly().setLazyObjectLoading(true, -1));
+        PDDocument restrictedDoc = PDDocument.load(file,
+            MemoryUsageSetting.setupMainMemoryOnly().setLazyObjectLoading(true, 3));
+
+        // only the catalog and the page tree root are parsed so far
+        COSDictionary pages = lazyDoc.getDocumentCatalog().getCOSObject().getCOSDictionary(COSName.PAGES);
+        COSArray kids = (COSArray) pages.getItem(COSName.KIDS);
+        assertTrue(((COSObject) kids.get(0)).isObjectNull());
+
+        assertEquals(doc.getNumberOfPages(), lazyDoc.getNumberOfPages());
+        assertEquals(doc.getNumberOfPages(), restrictedDoc.getNumberOfPages());
+        for (int i = 0; i < doc.getNumberOfPages(); i++)
+        {
+            byte[] expected = IOUtils.toByteArray(doc.getPage(i).getContents());
+            assertArrayEquals(expected, IOUtils.toByteArray(lazyDoc.getPage(i).getContents()));
+            assertArrayEquals(expected, IOUtils.toByteArray(restrictedDoc.getPage(i).getContents()));
+        }
+        restrictedDoc.close();
+        lazyDoc.close();
+        doc.close();
+    }
+
+    /**
+     * Test that streams loaded on demand are dropped, unless they hold buffers of the scratch
+     * file, and that only dropped objects stop being tracked.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testUnloadStreams() throws IOException
+    {
+        File file = new File("src/test/resources/pdfbox/input/cweb.pdf");
+        PDDocument doc = PDDocument.load(file);
+        PDDocument lazyDoc = PDDocument.load(file,
+            MemoryUsageSetting.setupMainMemoryOnly().setLazyObjectLoading(true, -1));
+        PDDocument restrictedDoc = PDDocument.load(file,
+            MemoryUsageSetting.setupMainMemoryOnly().setLazyObjectLoading(true, 3));
+        try
+        {
+            // the stream data is read from the source, not copied into the scratch file
+            byte[] expected = IOUtils.toByteArray(doc.getPage(0).getContents());
+            COSObject contents = (COSObject) lazyDoc.getPage(0).getCOSObject()
+                .getItem(COSName.CONTENTS);
+            assertArrayEquals(expected, IOUtils.toByteArray(lazyDoc.getPage(0).getContents()));
+            assertTrue(contents.unloadObject());
+            assertTrue(contents.isObjectNull());
+            assertArrayEquals(expected, IOUtils.toByteArray(lazyDoc.getPage(0).getContents()));
+
+            // new data is kept in the scratch file
+            COSStream stream = (COSStream) contents.getObject();
+            OutputStream out = stream.createRawOutputStream();
+            out.write(expected);
+            out.close();
+            assertFalse(contents.unloadObject());
+            assertFalse(contents.isObjectNull());
+
+            // only a few content streams stay loaded, except for a changed one
+            COSObject changedContents = (COSObject) restrictedDoc.getPage(1).getCOSObject()
+                .getItem(COSName.CONTENTS);
+            changedContents.getObject();
+            changedContents.setNeedToBeUpdated(true);
+            List<COSObject> contentObjects = new ArrayList<COSObject>();
+            for (int i = 0; i < doc.getNumberOfPages(); i++)
+            {
+                expected = IOUtils.toByteArray(doc.getPage(i).getContents());
+                assertArrayEquals(expected,
+                    IOUtils.toByteArray(restrictedDoc.getPage(i).getContents()));
+                contentObjects.add((COSObject) restrictedDoc.getPage(i).getCOSObject()
+                    .getItem(COSName.CONTENTS));
+            }
+            int loaded = 0;
+            for (COSObject object : contentObjects)
+            {
+                if (!object.isObjectNull())
+                {
+                    loaded++;
+                }
+            }
+            assertTrue(contentObjects.size() > 4);
+            assertTrue(loaded <= 4);
+            assertFalse(changedContents.isObjectNull());
+        }
+        finally
+        {
+            restrictedDoc.close();
+            lazyDoc.close();
+            doc.close();
+        }
+    }
+
+    /**
+     * Read the pages of a document loaded on demand from several threads at the same time.
+     */
+    @Test
+    public void testConcurrentLazyObjectLoading() throws IOException, InterruptedException,
+        ExecutionException
+    {
+        File file = new File("src/test/resources/pdfbox/input/cweb.pdf");
+        PDDocument doc = PDDocument.load(file);
+        PDDocument lazyDoc = PDDocument.load(file, MemoryUsageSetting.setupMainMemoryOnly()
+            .setUseMemoryMappedInput(true).setLazyObjectLoading(true, 3));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final PDPage[] pages = new PDPage[lazyDoc.getNumberOfPages()];
+            for (int i = 0; i < pages.length; i++)
+            {
+                pages[i] = lazyDoc.getPage(i);
+            }
+            List<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+            for (int round = 0; round < 4; round++)
+            {
+                for (final PDPage page : pages)
+                {
+                    results.add(executor.submit(new Callable<byte[]>()
+                    {
+                        @Override
+                        public byte[] call() throws IOException
+                        {
+                            return IOUtils.toByteArray(page.getContents());
+                        }
+                    }));
+                }
+            }
+            for (int i = 0; i < results.size(); i++)
+            {
+                byte[] expected = IOUtils.toByteArray(doc.getPage(i % pages.length).getContents());
+                assertArrayEquals(expected, results.get(i).get());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            lazyDoc.close();
+            doc.close();
+        }
+    }
+
+    /**
+     * Load a document with a broken startxref keyword twice, the second time the stored recovery
+     * index is used instead of rebuilding the cross reference.
+     */
+    @Test
+    public void testRecoveryIndex() throws IOException
+    {
+        File file = new File("src/test/resources/pdfbox/input/cweb.pdf");
+        byte[] bytes = IOUtils.toByteArray(new FileInputStream(file));
+        int startxref = new String(bytes, "ISO-8859-1").lastIndexOf("startxref");
+        bytes[startxref + 8] = 'X';
+        File cacheDir = new File(tmpDirectory, "pdfbox-recovery-" + System.nanoTime());
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMainMemoryOnly()
+            .setRecoveryIndexDir(cacheDir);
+        PDDocument doc = PDDocument.load(file);
+        try
+        {
+            PDDocument rebuiltDoc = PDDocument.load(bytes, "", null, null, setting);
+            File[] indexFiles = cacheDir.listFiles();
+            assertNotNull(indexFiles);
+            assertEquals(1, indexFiles.length);
+            assertTrue(indexFiles[0].setLastModified(1000000));
+
+            PDDocument indexedDoc = PDDocument.load(bytes, "", null, null, setting);
+            // the index was used, not written again
+            assertEquals(1000000, indexFiles[0].lastModified());
+            assertEquals(doc.getNumberOfPages(), rebuiltDoc.getNumberOfPages());
+            assertEquals(doc.getNumberOfPages(), indexedDoc.getNumberOfPages());
+            for (int i = 0; i < doc.getNumberOfPages(); i++)
+            {
+                byte[] expected = IOUtils.toByteArray(doc.getPage(i).getContents());
+                assertArrayEquals(expected, IOUtils.toByteArray(rebuiltDoc.getPage(i).getContents()));
+                assertArrayEquals(expected, IOUtils.toByteArray(indexedDoc.getPage(i).getContents()));
+            }
+            assertEquals(doc.getDocumentInformation().getTitle(),
+                indexedDoc.getDocumentInformation().getTitle());
+            indexedDoc.close();
+            rebuiltDoc.close();
+        }
+        finally
+        {
+            doc.close();
+            File[] files = cacheDir.listFiles();
+            if (files != null)
+            {
+                for (File indexFile : files)
+                {
+                    indexFile.delete();
+                }
+            }
+            cacheDir.delete();
+        }
+    }
+
+    /**
+     * Test that the recovery index directory is checked, and that it can't be changed after
+     * parsing, like the other parser settings.
+     */
+    @Test
+    public void testRecoveryIndexDirectory() throws IOException
+    {
+        File file = new File("src/test/resources/pdfbox/input/cweb.pdf");
+        PDFParser parser = new PDFParser(new RandomAccessBufferedFileInputStream(file));
+        try
+        {
+            parser.setRecoveryIndexDirectory(file);
+            fail("a file isn't a directory");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+        parser.setRecoveryIndexDirectory(tmpDirectory);
+        parser.parse();
+        try
+        {
+            try
+            {
+                parser.setRecoveryIndexDirectory(null);
+                fail("the file has already been parsed");
+            }
+            catch (IllegalStateException e)
+            {
+                // expected
+            }
+            try
+            {
+                parser.setLenient(false);
+                fail("the file has already been parsed");
+            }
+            catch (IllegalStateException e)
+            {
+                // expected
+            }
+            try
+            {
+                parser.setLazyObjectLoading(true, -1);
+                fail("the file has already been parsed");
+            }
+            catch (IllegalStateException e)
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            parser.getPDDocument().close();
+        }
+    }
+
     @Test
     public void testPDFParserMissingCatalog() throws IOException, URISyntaxException
     {
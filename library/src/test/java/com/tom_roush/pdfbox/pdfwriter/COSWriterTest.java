@@ -18,11 +18,20 @@ package com.tom_roush.pdfbox.pdfwriter;
 
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.io.IOUtils;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import com.tom_roush.pdfbox.pdmodel.PDPage;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class COSWriterTest
 {
     /**
@@ -62,4 +71,76 @@ public class COSWriterTest
         }));
         doc.close();
     }
+
+    /**
+     * Check that a document saved with object streams and a cross reference stream can be read
+     * again and that its content doesn't change.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testCompressedSave() throws IOException
+    {
+        checkCompressedSave(new File("src/test/resources/pdfbox/input/cweb.pdf"));
+        checkCompressedSave(new File("src/test/resources/pdfbox/input/sampleForSpec.pdf"));
+    }
+
+    private void checkCompressedSave(File file) throws IOException
+    {
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        PDDocument doc = PDDocument.load(file);
+        try
+        {
+            doc.save(uncompressed);
+        }
+        finally
+        {
+            doc.close();
+        }
+        doc = PDDocument.load(file);
+        try
+        {
+            // use a small object stream size to get several object streams
+            doc.save(compressed, new CompressParameters(10));
+        }
+        finally
+        {
+            doc.close();
+        }
+        assertTrue(compressed.size() < uncompressed.size());
+
+        PDDocument expected = PDDocument.load(uncompressed.toByteArray());
+        PDDocument actual = PDDocument.load(compressed.toByteArray());
+        try
+        {
+            assertTrue(actual.getDocument().isXRefStream());
+            assertTrue(actual.getVersion() >= 1.5f);
+            assertTrue(actual.getDocument().getObjectsByType(COSName.OBJ_STM).size() > 1);
+            assertEquals(expected.getNumberOfPages(), actual.getNumberOfPages());
+            for (int i = 0; i < expected.getNumberOfPages(); i++)
+            {
+                assertTrue(Arrays.equals(getContents(expected.getPage(i)),
+                    getContents(actual.getPage(i))));
+            }
+        }
+        finally
+        {
+            expected.close();
+            actual.close();
+        }
+    }
+
+    private byte[] getContents(PDPage page) throws IOException
+    {
+        InputStream is = page.getContents();
+        try
+        {
+            return IOUtils.toByteArray(is);
+        }
+        finally
+        {
+            is.close();
+        }
+    }
 }
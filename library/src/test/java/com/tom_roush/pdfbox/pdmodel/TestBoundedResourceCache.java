@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdmodel;
+
+import java.io.IOException;
+
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.cos.COSObject;
+import com.tom_roush.pdfbox.pdmodel.font.PDFont;
+import com.tom_roush.pdfbox.pdmodel.font.PDType1Font;
+import com.tom_roush.pdfbox.pdmodel.graphics.state.PDExtendedGraphicsState;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestBoundedResourceCache
+{
+    @Test
+    public void testEviction() throws IOException
+    {
+        // room for two graphics states
+        BoundedResourceCache cache = new BoundedResourceCache(2500);
+        COSObject key1 = new COSObject(new COSDictionary());
+        COSObject key2 = new COSObject(new COSDictionary());
+        COSObject key3 = new COSObject(new COSDictionary());
+        PDExtendedGraphicsState state1 = new PDExtendedGraphicsState();
+        PDExtendedGraphicsState state2 = new PDExtendedGraphicsState();
+        PDExtendedGraphicsState state3 = new PDExtendedGraphicsState();
+
+        assertNull(cache.getExtGState(key1));
+        cache.put(key1, state1);
+        cache.put(key2, state2);
+        assertEquals(2, cache.getEntryCount());
+
+        // make key2 the least recently used entry
+        assertSame(state1, cache.getExtGState(key1));
+        cache.put(key3, state3);
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(state1, cache.getExtGState(key1));
+        assertNull(cache.getExtGState(key2));
+        assertSame(state3, cache.getExtGState(key3));
+
+        // the resource types are cached separately
+        assertNull(cache.getProperties(key1));
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(2048, cache.getCurrentSize());
+
+        cache.clear();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    @Test
+    public void testSizeEstimation() throws IOException
+    {
+        BoundedResourceCache cache = new BoundedResourceCache(64 * 1024);
+        COSObject key = new COSObject(new COSDictionary());
+        PDFont font = PDType1Font.HELVETICA;
+
+        // a simple font with 256 glyphs doesn't fit
+        cache.put(key, font);
+        assertNull(cache.getFont(key));
+        assertEquals(0, cache.getCurrentSize());
+
+        cache = new BoundedResourceCache(1024 * 1024);
+        cache.put(key, font);
+        assertSame(font, cache.getFont(key));
+        assertEquals(4 * 1024 + 256 * 256, cache.getCurrentSize());
+
+        // replacing an entry doesn't count twice
+        cache.put(key, font);
+        assertEquals(4 * 1024 + 256 * 256, cache.getCurrentSize());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize()
+    {
+        new BoundedResourceCache(0);
+    }
+}
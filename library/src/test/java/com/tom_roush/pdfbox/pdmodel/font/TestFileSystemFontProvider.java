@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.pdmodel.font;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.tom_roush.pdfbox.io.IOUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the scan of font files.
+ */
+public class TestFileSystemFontProvider
+{
+    private static final String LIBERATION_SANS = "/fontbox/ttf/LiberationSans-Regular.ttf";
+    private static final String LOHIT_BENGALI = "/fontbox/ttf/Lohit-Bengali.ttf";
+
+    private File fontDir;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        fontDir = new File("target/test-output/fontscan");
+        deleteFontDir();
+        fontDir.mkdirs();
+    }
+
+    @After
+    public void tearDown()
+    {
+        deleteFontDir();
+    }
+
+    /**
+     * The multi-threaded scan must find the same fonts in the same order as the serial one.
+     */
+    @Test
+    public void testParallelScan() throws IOException
+    {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 40; i++)
+        {
+            files.add(copyFont(i % 3 == 0 ? LOHIT_BENGALI : LIBERATION_SANS, "font" + i + ".ttf"));
+        }
+        // not a font, it has no fonts
+        files.add(20, copyFont(LIBERATION_SANS, "font.txt"));
+        FileSystemFontProvider provider =
+            new FileSystemFontProvider(new FontCache(), Collections.<File>emptyList());
+
+        List<? extends List<? extends FontInfo>> serial = provider.scanFonts(files, 1);
+        List<? extends List<? extends FontInfo>> parallel = provider.scanFonts(files, 4);
+        assertEquals(files.size(), serial.size());
+        assertEquals(toString(serial), toString(parallel));
+        assertEquals(1, serial.get(0).size());
+        assertTrue(serial.get(0).get(0).toString().contains("font0.ttf"));
+        assertTrue(serial.get(20).isEmpty());
+    }
+
+    /**
+     * An interrupted scan must mark the files it didn't scan.
+     */
+    @Test
+    public void testInterruptedScan() throws IOException
+    {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < 16; i++)
+        {
+            files.add(copyFont(LIBERATION_SANS, "font" + i + ".ttf"));
+        }
+        FileSystemFontProvider provider =
+            new FileSystemFontProvider(new FontCache(), Collections.<File>emptyList());
+
+        for (int threadCount : new int[] { 1, 4 })
+        {
+            Thread.currentThread().interrupt();
+            List<? extends List<? extends FontInfo>> fontInfos =
+                provider.scanFonts(files, threadCount);
+            // the interrupt is kept for the caller
+            assertTrue(Thread.interrupted());
+            assertEquals(files.size(), fontInfos.size());
+            for (List<? extends FontInfo> infos : fontInfos)
+            {
+                assertNull(infos);
+            }
+        }
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    /**
+     * The on-disk cache must keep the fonts of unchanged files and only rescan the files whose
+     * length or modification time changed, or whose scan didn't finish.
+     */
+    @Test
+    public void testDiskCache() throws IOException
+    {
+        File cacheDir = new File(fontDir, "cache");
+        cacheDir.mkdirs();
+        String cacheProperty = System.getProperty("pdfbox.fontcache");
+        System.setProperty("pdfbox.fontcache", cacheDir.getPath());
+        try
+        {
+            List<File> files = new ArrayList<File>();
+            files.add(copyFont(LIBERATION_SANS, "a.ttf"));
+            files.add(copyFont(LIBERATION_SANS, "b.ttf"));
+            files.add(copyFont(LOHIT_BENGALI, "c.ttf"));
+            File cacheFile = new File(cacheDir, ".pdfbox.fontcache");
+            File oldCacheFile = new File(cacheDir, ".pdfbox.cache");
+            overwrite(oldCacheFile, new byte[] { 'x' });
+
+            // an interrupted scan doesn't cache the files as files without fonts
+            Thread.currentThread().interrupt();
+            FileSystemFontProvider provider = new FileSystemFontProvider(new FontCache(), files);
+            assertTrue(Thread.interrupted());
+            assertTrue(provider.getFontInfo().isEmpty());
+
+            provider = new FileSystemFontProvider(new FontCache(), files);
+            assertEquals("[LiberationSans, LiberationSans, Lohit-Bengali]",
+                getPostScriptNames(provider));
+            assertTrue(cacheFile.isFile());
+            // the text cache of earlier versions is deleted
+            assertFalse(oldCacheFile.exists());
+
+            // the same length and modification time, the damaged file isn't read again
+            long lastModified = files.get(1).lastModified();
+            overwrite(files.get(1), new byte[(int) files.get(1).length()]);
+            assertTrue(files.get(1).setLastModified(lastModified));
+            // another length
+            copyFont(LOHIT_BENGALI, "a.ttf");
+            // another modification time, the damaged file is read again and ignored
+            lastModified = files.get(2).lastModified();
+            overwrite(files.get(2), new byte[(int) files.get(2).length()]);
+            assertTrue(files.get(2).setLastModified(lastModified - 10000));
+
+            provider = new FileSystemFontProvider(new FontCache(), files);
+            assertEquals("[Lohit-Bengali, LiberationSans, *skipnoname*]", getPostScriptNames(provider));
+
+            // the updated cache is used as it is
+            provider = new FileSystemFontProvider(new FontCache(), files);
+            assertEquals("[Lohit-Bengali, LiberationSans, *skipnoname*]", getPostScriptNames(provider));
+        }
+        finally
+        {
+            if (cacheProperty != null)
+            {
+                System.setProperty("pdfbox.fontcache", cacheProperty);
+            }
+            else
+            {
+                System.clearProperty("pdfbox.fontcache");
+            }
+            File[] cacheFiles = cacheDir.listFiles();
+            if (cacheFiles != null)
+            {
+                for (File file : cacheFiles)
+                {
+                    file.delete();
+                }
+            }
+            cacheDir.delete();
+        }
+    }
+
+    private static String getPostScriptNames(FileSystemFontProvider provider)
+    {
+        List<String> names = new ArrayList<String>();
+        for (FontInfo info : provider.getFontInfo())
+        {
+            names.add(info.getPostScriptName());
+        }
+        return names.toString();
+    }
+
+    private static void overwrite(File file, byte[] bytes) throws IOException
+    {
+        OutputStream output = new FileOutputStream(file);
+        try
+        {
+            output.write(bytes);
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
+    private File copyFont(String resource, String name) throws IOException
+    {
+        File file = new File(fontDir, name);
+        InputStream input = TestFileSystemFontProvider.class.getResourceAsStream(resource);
+        OutputStream output = new FileOutputStream(file);
+        try
+        {
+            IOUtils.copy(input, output);
+        }
+        finally
+        {
+            input.close();
+            output.close();
+        }
+        return file;
+    }
+
+    private static String toString(List<? extends List<? extends FontInfo>> fontInfos)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (List<? extends FontInfo> infos : fontInfos)
+        {
+            builder.append(infos).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private void deleteFontDir()
+    {
+        File[] files = fontDir.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        fontDir.delete();
+    }
+}
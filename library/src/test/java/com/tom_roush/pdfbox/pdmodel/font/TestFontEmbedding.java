@@ -45,6 +45,7 @@ import org.mockito.Mockito;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 import static org.mockito.BDDMockito.given;
@@ -327,6 +328,61 @@ public class TestFontEmbedding
         document.close();
     }
 
+    /**
+     * Test that the same embedded font in several documents is only parsed once.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testEmbeddedFontCache() throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PDDocument document = new PDDocument();
+        PDPage page = new PDPage();
+        document.addPage(page);
+        InputStream input = PDFont.class.getResourceAsStream(
+            "/com/tom_roush/pdfbox/resources/ttf/LiberationSans-Regular.ttf");
+        PDType0Font font = PDType0Font.load(document, input);
+        PDPageContentStream stream = new PDPageContentStream(document, page);
+        stream.beginText();
+        stream.setFont(font, 20);
+        stream.newLineAtOffset(50, 600);
+        stream.showText("The quick brown fox");
+        stream.endText();
+        stream.close();
+        document.save(baos);
+        document.close();
+
+        EmbeddedFontCache fontCache = EmbeddedFontCache.getInstance();
+        fontCache.setMaxSize(10 * 1024 * 1024);
+        try
+        {
+            long hitCount = fontCache.getHitCount();
+            PDDocument document1 = PDDocument.load(baos.toByteArray());
+            PDDocument document2 = PDDocument.load(baos.toByteArray());
+            PDType0Font font1 = (PDType0Font) document1.getPage(0).getResources()
+                .getFont(COSName.getPDFName("F1"));
+            PDType0Font font2 = (PDType0Font) document2.getPage(0).getResources()
+                .getFont(COSName.getPDFName("F1"));
+            assertTrue(font1.getDescendantFont().isEmbedded());
+            assertSame(((PDCIDFontType2) font1.getDescendantFont()).getTrueTypeFont(),
+                ((PDCIDFontType2) font2.getDescendantFont()).getTrueTypeFont());
+            assertEquals(hitCount + 1, fontCache.getHitCount());
+
+            // the shared font is still usable after the first document is closed
+            float width = font1.getStringWidth("The");
+            document1.close();
+            assertTrue(width > 0);
+            assertEquals(width, font2.getStringWidth("The"), 0);
+            document2.close();
+        }
+        finally
+        {
+            fontCache.setMaxSize(0);
+        }
+        assertEquals(0, fontCache.getEntryCount());
+    }
+
     private class TrueTypeEmbedderTester extends TrueTypeEmbedder
     {
 
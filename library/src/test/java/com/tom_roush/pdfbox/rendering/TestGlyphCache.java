@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.tom_roush.pdfbox.rendering;
+
+import android.graphics.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class TestGlyphCache
+{
+    // estimated size of a glyph
+    private static final long GLYPH_SIZE = 512;
+
+    private final GlyphCache cache = GlyphCache.getInstance();
+    private long maxSize;
+
+    @Before
+    public void setUp()
+    {
+        maxSize = cache.getMaxSize();
+        cache.clear();
+    }
+
+    @After
+    public void tearDown()
+    {
+        cache.setMaxSize(maxSize);
+        cache.clear();
+    }
+
+    @Test
+    public void testEviction()
+    {
+        // room for two glyphs
+        cache.setMaxSize(2 * GLYPH_SIZE);
+        Object font = new Object();
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        long evictions = cache.getEvictionCount();
+
+        assertNull(cache.get(font, 1));
+        cache.put(font, 1, new Path());
+        cache.put(font, 2, new Path());
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(2 * GLYPH_SIZE, cache.getCurrentSize());
+
+        // make glyph 2 the least recently used entry
+        assertNotNull(cache.get(font, 1));
+        cache.put(font, 3, new Path());
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(evictions + 1, cache.getEvictionCount());
+        assertNotNull(cache.get(font, 1));
+        assertNull(cache.get(font, 2));
+        assertNotNull(cache.get(font, 3));
+
+        // glyphs are also addressed by name
+        assertNull(cache.get(font, "A"));
+
+        assertEquals(hits + 3, cache.getHitCount());
+        assertEquals(misses + 3, cache.getMissCount());
+        assertEquals(2 * GLYPH_SIZE, cache.getCurrentSize());
+
+        // replacing a glyph doesn't change the size
+        cache.put(font, 3, new Path());
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(evictions + 1, cache.getEvictionCount());
+
+        cache.clear();
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getCurrentSize());
+    }
+
+    @Test
+    public void testMaxSize()
+    {
+        Object font = new Object();
+        for (int gid = 0; gid < 4; gid++)
+        {
+            cache.put(font, gid, new Path());
+        }
+        assertEquals(4 * GLYPH_SIZE, cache.getCurrentSize());
+        long evictions = cache.getEvictionCount();
+
+        // shrinking the budget evicts the least recently used glyphs
+        cache.setMaxSize(2 * GLYPH_SIZE + 1);
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(2 * GLYPH_SIZE, cache.getCurrentSize());
+        assertEquals(evictions + 2, cache.getEvictionCount());
+        assertNull(cache.get(font, 1));
+        assertNotNull(cache.get(font, 2));
+        assertNotNull(cache.get(font, 3));
+
+        // a budget of 0 empties and disables the cache
+        cache.setMaxSize(0);
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getCurrentSize());
+        cache.put(font, 1, new Path());
+        assertEquals(0, cache.getEntryCount());
+        assertNull(cache.get(font, 1));
+        assertEquals(evictions + 4, cache.getEvictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaxSize()
+    {
+        cache.setMaxSize(-1);
+    }
+
+    @Test
+    public void testFontIdentity()
+    {
+        // equal fonts, but not the same font program
+        Object font1 = new String("font");
+        Object font2 = new String("font");
+
+        cache.put(font1, 1, new Path());
+        assertNotNull(cache.get(font1, 1));
+        assertNull(cache.get(font2, 1));
+
+        cache.put(font2, 1, new Path());
+        assertEquals(2, cache.getEntryCount());
+    }
+
+    @Test
+    public void testCopies()
+    {
+        Object font = new Object();
+        Path path = new Path();
+        cache.put(font, 1, path);
+
+        // the callers transform the returned paths, each one gets its own copy
+        Path cached1 = cache.get(font, 1);
+        Path cached2 = cache.get(font, 1);
+        assertNotNull(cached1);
+        assertNotSame(path, cached1);
+        assertNotSame(cached1, cached2);
+    }
+}
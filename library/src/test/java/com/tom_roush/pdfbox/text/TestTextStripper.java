@@ -30,9 +30,12 @@ import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.tom_roush.fontbox.util.BoundingBox;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
@@ -643,6 +646,156 @@ public class TestTextStripper
         assertFalse(bFail);
     }
 
+    /**
+     * Test that the text extracted page by page is the same as the text of the whole document.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExtractTextByPage() throws IOException
+    {
+        PDDocument doc = PDDocument.load(new File("src/test/resources/pdfbox/input", "cweb.pdf"));
+        try
+        {
+            final List<Integer> pageNumbers = new ArrayList<Integer>();
+            final StringBuilder text = new StringBuilder();
+            stripper.extractText(doc, new PageTextHandler()
+            {
+                @Override
+                public void handlePage(int pageNumber, String pageText,
+                    List<List<TextPosition>> charactersByArticle)
+                {
+                    pageNumbers.add(pageNumber);
+                    text.append(pageText);
+                }
+
+                @Override
+                public void handleDocumentEnd(String endText)
+                {
+                    text.append(endText);
+                }
+            });
+            assertEquals(doc.getNumberOfPages(), pageNumbers.size());
+            for (int i = 0; i < pageNumbers.size(); ++i)
+            {
+                assertEquals(i + 1, pageNumbers.get(i).intValue());
+            }
+            assertEquals(stripper.getText(doc), text.toString());
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+
+    /**
+     * Test that the text written before the first and after the last page isn't lost when the
+     * text is extracted page by page.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testExtractTextByPageDocumentText() throws IOException
+    {
+        PDDocument doc = PDDocument.load(new File("src/test/resources/pdfbox/input", "cweb.pdf"));
+        try
+        {
+            PDFTextStripper documentStripper = new PDFTextStripper()
+            {
+                @Override
+                protected void startDocument(PDDocument document) throws IOException
+                {
+                    output.write("<document>");
+                }
+
+                @Override
+                protected void endDocument(PDDocument document) throws IOException
+                {
+                    output.write("</document>");
+                }
+            };
+            final List<String> pageTexts = new ArrayList<String>();
+            final StringBuilder endText = new StringBuilder();
+            documentStripper.extractText(doc, new PageTextHandler()
+            {
+                @Override
+                public void handlePage(int pageNumber, String pageText,
+                    List<List<TextPosition>> charactersByArticle)
+                {
+                    pageTexts.add(pageText);
+                }
+
+                @Override
+                public void handleDocumentEnd(String text)
+                {
+                    endText.append(text);
+                }
+            });
+            assertTrue(pageTexts.get(0).startsWith("<document>"));
+            assertEquals("</document>", endText.toString());
+            StringBuilder text = new StringBuilder();
+            for (String pageText : pageTexts)
+            {
+                text.append(pageText);
+            }
+            text.append(endText);
+            assertEquals(documentStripper.getText(doc), text.toString());
+        }
+        finally
+        {
+            doc.close();
+        }
+    }
+
+    /**
+     * Test that the text extracted in parallel is the same as the text extracted by a single thread.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallelExtraction() throws IOException
+    {
+        PDDocument doc = PDDocument.load(new File("src/test/resources/pdfbox/input", "cweb.pdf"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            stripper.setSortByPosition(true);
+            stripper.setStartPage(2);
+            String expected = stripper.getText(doc);
+            assertEquals(expected, stripper.getText(doc, executor, 4));
+            assertEquals(expected, stripper.getText(doc, executor, 1));
+        }
+        finally
+        {
+            executor.shutdown();
+            doc.close();
+        }
+    }
+
+    /**
+     * Test that a subclass which can't be copied extracts the text serially.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testParallelExtractionUnsupported() throws IOException
+    {
+        PDDocument doc = PDDocument.load(new File("src/test/resources/pdfbox/input", "cweb.pdf"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            PDFTextStripper tabulaStripper = new PDFTabulaTextStripper();
+            String expected = tabulaStripper.getText(doc);
+            assertEquals(expected, tabulaStripper.getText(doc, executor, 2));
+            assertEquals(expected, tabulaStripper.getText(doc));
+        }
+        finally
+        {
+            executor.shutdown();
+            doc.close();
+        }
+    }
+
     private class PDFTabulaTextStripper extends PDFTextStripper
     {
         PDFTabulaTextStripper() throws IOException